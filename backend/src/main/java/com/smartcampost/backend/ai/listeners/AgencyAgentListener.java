@@ -2,17 +2,17 @@ package com.smartcampost.backend.ai.listeners;
 
 import com.smartcampost.backend.ai.agents.AgencyAgentService;
 import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.ai.stream.AiEventConsumer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class AgencyAgentListener {
+public class AgencyAgentListener implements AiEventConsumer {
 
     private final AgencyAgentService agencyAgentService;
 
-    @EventListener
+    @Override
     public void onScanEventRecorded(ScanEventRecordedEvent event) {
         agencyAgentService.onScanEventRecorded(event);
     }
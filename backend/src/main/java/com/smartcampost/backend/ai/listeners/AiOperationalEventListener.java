@@ -7,24 +7,28 @@ import com.smartcampost.backend.ai.runtime.AiActorContext;
 import com.smartcampost.backend.ai.runtime.AiRuntimeService;
 import com.smartcampost.backend.ai.runtime.OperationalEventRequest;
 import com.smartcampost.backend.ai.runtime.OperationalEventType;
+import com.smartcampost.backend.ai.stream.AiEventConsumer;
 import com.smartcampost.backend.model.enums.DeliveryAttemptResult;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.model.enums.ScanEventType;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
 import java.util.Map;
 import java.util.Set;
 
+/**
+ * Feeds domain events to the AI runtime. Events arrive through AiEventStream, after the
+ * originating transaction has committed, so agent processing never adds to request latency.
+ */
 @Component
 @RequiredArgsConstructor
-public class AiOperationalEventListener {
+public class AiOperationalEventListener implements AiEventConsumer {
 
     private final AiRuntimeService aiRuntimeService;
 
-    @EventListener
+    @Override
     public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
         OperationalEventType type = mapParcelStatus(event.newStatus());
         aiRuntimeService.processEvent(new OperationalEventRequest(
@@ -43,7 +47,7 @@ public class AiOperationalEventListener {
         ));
     }
 
-    @EventListener
+    @Override
     public void onDeliveryAttemptRecorded(DeliveryAttemptRecordedEvent event) {
         OperationalEventType type = event.result() == DeliveryAttemptResult.SUCCESS
                 ? OperationalEventType.DELIVERY_COMPLETED
@@ -65,7 +69,7 @@ public class AiOperationalEventListener {
         ));
     }
 
-    @EventListener
+    @Override
     public void onScanEventRecorded(ScanEventRecordedEvent event) {
         OperationalEventType type = mapScanEvent(event.eventType());
         aiRuntimeService.processEvent(new OperationalEventRequest(
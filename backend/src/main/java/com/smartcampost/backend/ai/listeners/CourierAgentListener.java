@@ -2,17 +2,17 @@ package com.smartcampost.backend.ai.listeners;
 
 import com.smartcampost.backend.ai.agents.CourierAgentService;
 import com.smartcampost.backend.ai.events.DeliveryAttemptRecordedEvent;
+import com.smartcampost.backend.ai.stream.AiEventConsumer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class CourierAgentListener {
+public class CourierAgentListener implements AiEventConsumer {
 
     private final CourierAgentService courierAgentService;
 
-    @EventListener
+    @Override
     public void onDeliveryAttemptRecorded(DeliveryAttemptRecordedEvent event) {
         courierAgentService.onDeliveryAttemptRecorded(event);
     }
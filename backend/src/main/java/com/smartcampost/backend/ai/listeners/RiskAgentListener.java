@@ -3,22 +3,22 @@ package com.smartcampost.backend.ai.listeners;
 import com.smartcampost.backend.ai.agents.RiskAgentService;
 import com.smartcampost.backend.ai.events.DeliveryAttemptRecordedEvent;
 import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.ai.stream.AiEventConsumer;
 import lombok.RequiredArgsConstructor;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 @Component
 @RequiredArgsConstructor
-public class RiskAgentListener {
+public class RiskAgentListener implements AiEventConsumer {
 
     private final RiskAgentService riskAgentService;
 
-    @EventListener
+    @Override
     public void onScanEventRecorded(ScanEventRecordedEvent event) {
         riskAgentService.onScanEventRecorded(event);
     }
 
-    @EventListener
+    @Override
     public void onDeliveryAttemptRecorded(DeliveryAttemptRecordedEvent event) {
         riskAgentService.onDeliveryAttemptRecorded(event);
     }
@@ -0,0 +1,355 @@
+package com.smartcampost.backend.ai.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcampost.backend.model.AiAgentState;
+import com.smartcampost.backend.model.AiDecisionLog;
+import com.smartcampost.backend.model.AiExecutionLog;
+import com.smartcampost.backend.model.enums.AiModuleType;
+import com.smartcampost.backend.model.enums.AiSubjectType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for the AI audit trail ({@link AiDecisionLog}, {@link AiExecutionLog},
+ * {@link AiAgentState}). Tool calls only enqueue; the "ai-audit-writer" thread flushes every
+ * flush-interval-ms, or as soon as batch-size records are waiting, with one JDBC batch per table
+ * in a single transaction.
+ *
+ * - Ids are assigned on enqueue so callers can reference a decision before it is written;
+ *   decisions and executions share one FIFO queue, so a decision is never flushed after the
+ *   executions that point to it.
+ * - JSON payloads are serialized on the writer thread.
+ * - Agent-state updates for the same (module, subject type, subject id) are merged until the next
+ *   flush and written as one upsert.
+ * - A full queue makes the caller flush synchronously instead of dropping audit records.
+ *
+ * Records are written independently of the caller's transaction: an action that later rolls back
+ * is still audited as attempted.
+ */
+@Component
+@Slf4j
+public class AiAuditWriter {
+
+    private static final String INSERT_DECISION =
+            "INSERT INTO ai_decision_log (decision_id, module_type, decision_type, subject_type, subject_id, " +
+            "input_data, decision_outcome, confidence_score, reasoning, was_overridden, created_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_EXECUTION =
+            "INSERT INTO ai_execution_log (execution_id, decision_id, action_type, target_type, target_id, " +
+            "execution_status, started_at, completed_at, result_summary, rollback_data) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    // Same confidence rule as before batching: a success resets to 0.9, every failure since costs 0.1.
+    private static final String UPSERT_AGENT_STATE =
+            "INSERT INTO ai_agent_state (agent_state_id, module_type, subject_type, subject_id, confidence_score, " +
+            "state_data, last_evaluation_at, evaluation_count, created_at, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE evaluation_count = evaluation_count + ?, last_evaluation_at = ?, " +
+            "state_data = ?, updated_at = ?, " +
+            "confidence_score = CASE WHEN ? THEN ? ELSE GREATEST(0.1, confidence_score - ?) END";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate txTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.ai.audit.batch-size:200}")
+    private int batchSize = 200;
+
+    @Value("${smartcampost.ai.audit.flush-interval-ms:200}")
+    private long flushIntervalMs = 200;
+
+    @Value("${smartcampost.ai.audit.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    private BlockingQueue<Object> records;
+    private final ConcurrentHashMap<StateKey, StateDelta> stateDeltas = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object signal = new Object();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong mergedStateUpdates = new AtomicLong();
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+    private Counter callerFlushCounter;
+
+    public AiAuditWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        running = true;
+        writer = new Thread(this::writeLoop, "ai-audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("[AI-AUDIT] Buffered writer started (batch={}, interval={}ms)", batchSize, flushIntervalMs);
+    }
+
+    void init() {
+        records = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        flushTimer = Timer.builder("smartcampost.ai.audit.flush")
+                .description("Latency of one buffered AI audit flush")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("smartcampost.ai.audit.written").register(meterRegistry);
+        failedCounter = Counter.builder("smartcampost.ai.audit.flush.failed").register(meterRegistry);
+        callerFlushCounter = Counter.builder("smartcampost.ai.audit.caller.flush")
+                .description("Flushes run on the caller thread because the queue was full")
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.ai.audit.queue.depth", this, w -> w.records.size() + w.stateDeltas.size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) writer.interrupt();
+        flush();
+    }
+
+    // ==================== Producers ====================
+
+    /** Buffers a decision; its id is assigned here. {@code input} is serialized into input_data at flush. */
+    public AiDecisionLog recordDecision(AiDecisionLog decision, Object input) {
+        if (decision.getId() == null) decision.setId(UUID.randomUUID());
+        if (decision.getCreatedAt() == null) decision.setCreatedAt(Instant.now());
+        if (decision.getWasOverridden() == null) decision.setWasOverridden(false);
+        enqueue(new PendingDecision(decision, input));
+        return decision;
+    }
+
+    /** Buffers an execution; {@code rollbackData} is serialized into rollback_data at flush. */
+    public void recordExecution(AiExecutionLog execution, Object rollbackData) {
+        if (execution.getId() == null) execution.setId(UUID.randomUUID());
+        if (execution.getStartedAt() == null) execution.setStartedAt(Instant.now());
+        enqueue(new PendingExecution(execution, rollbackData));
+    }
+
+    /** Counts one evaluation of the agent for this subject; merged with others until the next flush. */
+    public void recordAgentEvaluation(AiModuleType moduleType, AiSubjectType subjectType, UUID subjectId, boolean success) {
+        Instant now = Instant.now();
+        StateKey key = new StateKey(moduleType, subjectType, subjectId);
+        StateDelta merged = stateDeltas.merge(key, new StateDelta(1, success, success ? 0 : 1, success, now),
+                StateDelta::then);
+        if (merged.evaluations() > 1) mergedStateUpdates.incrementAndGet();
+        if (stateDeltas.size() >= batchSize) wakeWriter();
+    }
+
+    private void enqueue(Object record) {
+        if (!records.offer(record)) {
+            callerFlushCounter.increment();
+            flush();
+            if (!records.offer(record)) {
+                failedCounter.increment();
+                log.error("[AI-AUDIT] Queue still full after flush, audit record lost");
+                return;
+            }
+        }
+        if (records.size() >= batchSize) wakeWriter();
+    }
+
+    private void wakeWriter() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    // ==================== Flushing ====================
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                synchronized (signal) {
+                    if (records.size() < batchSize && stateDeltas.size() < batchSize) {
+                        signal.wait(flushIntervalMs);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("[AI-AUDIT] Flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Writes everything buffered so far. Returns the number of rows written. */
+    int flush() {
+        flushLock.lock();
+        try {
+            List<Object> batch = new ArrayList<>();
+            records.drainTo(batch);
+            Map<StateKey, StateDelta> deltas = new LinkedHashMap<>();
+            for (StateKey key : new ArrayList<>(stateDeltas.keySet())) {
+                StateDelta delta = stateDeltas.remove(key);
+                if (delta != null) deltas.put(key, delta);
+            }
+            if (batch.isEmpty() && deltas.isEmpty()) return 0;
+
+            long started = System.nanoTime();
+            try {
+                txTemplate.executeWithoutResult(status -> write(batch, deltas));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.error("[AI-AUDIT] Lost {} audit records and {} agent-state updates: {}",
+                        batch.size(), deltas.size(), e.getMessage());
+                return 0;
+            } finally {
+                flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            int written = batch.size() + deltas.size();
+            writtenCounter.increment(written);
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(List<Object> batch, Map<StateKey, StateDelta> deltas) {
+        List<PendingDecision> decisions = new ArrayList<>();
+        List<PendingExecution> executions = new ArrayList<>();
+        for (Object record : batch) {
+            if (record instanceof PendingDecision d) decisions.add(d);
+            else if (record instanceof PendingExecution e) executions.add(e);
+        }
+        if (!decisions.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_DECISION, decisions, decisions.size(), (ps, p) -> {
+                AiDecisionLog d = p.decision();
+                ps.setBytes(1, bytes(d.getId()));
+                ps.setString(2, d.getModuleType().name());
+                ps.setString(3, d.getDecisionType());
+                ps.setString(4, d.getSubjectType().name());
+                ps.setBytes(5, bytes(d.getSubjectId()));
+                ps.setString(6, p.input() != null ? toJson(p.input()) : d.getInputData());
+                ps.setString(7, d.getDecisionOutcome());
+                ps.setFloat(8, d.getConfidenceScore());
+                ps.setString(9, d.getReasoning());
+                ps.setBoolean(10, d.getWasOverridden());
+                ps.setTimestamp(11, Timestamp.from(d.getCreatedAt()));
+            });
+        }
+        if (!executions.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_EXECUTION, executions, executions.size(), (ps, p) -> {
+                AiExecutionLog e = p.execution();
+                ps.setBytes(1, bytes(e.getId()));
+                ps.setBytes(2, e.getDecision() != null ? bytes(e.getDecision().getId()) : null);
+                ps.setString(3, e.getActionType());
+                ps.setString(4, e.getTargetType().name());
+                ps.setBytes(5, bytes(e.getTargetId()));
+                ps.setString(6, e.getExecutionStatus().name());
+                ps.setTimestamp(7, Timestamp.from(e.getStartedAt()));
+                ps.setTimestamp(8, e.getCompletedAt() != null ? Timestamp.from(e.getCompletedAt()) : null);
+                ps.setString(9, e.getResultSummary());
+                ps.setString(10, p.rollbackData() != null ? toJson(p.rollbackData()) : e.getRollbackData());
+            });
+        }
+        if (!deltas.isEmpty()) {
+            List<Map.Entry<StateKey, StateDelta>> rows = new ArrayList<>(deltas.entrySet());
+            jdbcTemplate.batchUpdate(UPSERT_AGENT_STATE, rows, rows.size(), (ps, row) -> {
+                StateKey key = row.getKey();
+                StateDelta delta = row.getValue();
+                Timestamp at = Timestamp.from(delta.lastAt());
+                String stateData = toJson(Map.of("lastToolSuccess", delta.lastSuccess(), "updatedAt", delta.lastAt().toString()));
+                float penalty = 0.1f * delta.trailingFailures();
+                float insertConfidence = Math.max(0.1f, (delta.sawSuccess() ? 0.9f : 0.5f) - penalty);
+                ps.setBytes(1, bytes(UUID.randomUUID()));
+                ps.setString(2, key.moduleType().name());
+                ps.setString(3, key.subjectType().name());
+                ps.setBytes(4, bytes(key.subjectId()));
+                ps.setFloat(5, insertConfidence);
+                ps.setString(6, stateData);
+                ps.setTimestamp(7, at);
+                ps.setInt(8, delta.evaluations());
+                ps.setTimestamp(9, at);
+                ps.setTimestamp(10, at);
+                ps.setInt(11, delta.evaluations());
+                ps.setTimestamp(12, at);
+                ps.setString(13, stateData);
+                ps.setTimestamp(14, at);
+                ps.setBoolean(15, delta.sawSuccess());
+                ps.setFloat(16, insertConfidence);
+                ps.setFloat(17, penalty);
+            });
+        }
+    }
+
+    /** Runs on the writer thread, after the caller's transaction: must never fail the whole batch. */
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception ex) {
+            log.debug("[AI-AUDIT] Could not serialize {}: {}", value.getClass().getSimpleName(), ex.getMessage());
+            return "{}";
+        }
+    }
+
+    /** BINARY(16) layout used by Hibernate for the UUID ids of these entities. */
+    private static byte[] bytes(UUID id) {
+        if (id == null) return null;
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", records.size());
+        stats.put("pendingAgentStates", stateDeltas.size());
+        stats.put("written", (long) writtenCounter.count());
+        stats.put("mergedAgentStateUpdates", mergedStateUpdates.get());
+        stats.put("failedFlushes", (long) failedCounter.count());
+        stats.put("callerFlushes", (long) callerFlushCounter.count());
+        stats.put("flushCount", flushTimer.count());
+        stats.put("flushMeanMs", flushTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("flushMaxMs", flushTimer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    private record PendingDecision(AiDecisionLog decision, Object input) {}
+
+    private record PendingExecution(AiExecutionLog execution, Object rollbackData) {}
+
+    private record StateKey(AiModuleType moduleType, AiSubjectType subjectType, UUID subjectId) {}
+
+    /** Evaluations folded since the last flush; trailingFailures counts failures after the last success. */
+    private record StateDelta(int evaluations, boolean sawSuccess, int trailingFailures, boolean lastSuccess, Instant lastAt) {
+        StateDelta then(StateDelta next) {
+            return new StateDelta(
+                    evaluations + next.evaluations,
+                    sawSuccess || next.sawSuccess,
+                    next.sawSuccess ? next.trailingFailures : trailingFailures + next.trailingFailures,
+                    next.lastSuccess,
+                    next.lastAt);
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package com.smartcampost.backend.ai.runtime;
 
+import com.smartcampost.backend.ai.stream.AiEventStream;
 import com.smartcampost.backend.dto.ai.ChatRequest;
 import com.smartcampost.backend.dto.ai.ChatResponse;
 import com.smartcampost.backend.service.DynamicPermissionService;
+import com.smartcampost.backend.service.ai.ChatResponseCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.Instant;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -26,6 +29,9 @@ public class AiRuntimeController {
     private final AiRuntimeService aiRuntimeService;
     private final DynamicPermissionService dynamicPermissionService;
     private final ProjectAutomationDiscoveryService projectAutomationDiscoveryService;
+    private final AiEventStream aiEventStream;
+    private final AiAuditWriter aiAuditWriter;
+    private final ChatResponseCache chatResponseCache;
 
     @PostMapping("/reactive/chat")
     @PreAuthorize("isAuthenticated()")
@@ -68,6 +74,24 @@ public class AiRuntimeController {
         return ResponseEntity.ok(projectAutomationDiscoveryService.discover());
     }
 
+    @GetMapping("/stream/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> streamStats() {
+        return ResponseEntity.ok(aiEventStream.stats());
+    }
+
+    @GetMapping("/audit/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> auditStats() {
+        return ResponseEntity.ok(aiAuditWriter.stats());
+    }
+
+    @GetMapping("/chat-cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> chatCacheStats() {
+        return ResponseEntity.ok(chatResponseCache.stats());
+    }
+
     private AiToolRequest enrichRequest(AiToolRequest request) {
         return new AiToolRequest(
                 request.mode(),
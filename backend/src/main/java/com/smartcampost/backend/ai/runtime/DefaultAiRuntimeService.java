@@ -5,7 +5,6 @@ import com.smartcampost.backend.dto.ai.ChatRequest;
 import com.smartcampost.backend.dto.ai.ChatResponse;
 import com.smartcampost.backend.model.AiDecisionLog;
 import com.smartcampost.backend.model.AiExecutionLog;
-import com.smartcampost.backend.model.AiAgentState;
 import com.smartcampost.backend.model.enums.AiExecutionStatus;
 import com.smartcampost.backend.model.enums.AiModuleType;
 import com.smartcampost.backend.model.enums.AiSubjectType;
@@ -13,9 +12,6 @@ import com.smartcampost.backend.model.enums.NotificationChannel;
 import com.smartcampost.backend.model.enums.NotificationType;
 import com.smartcampost.backend.model.enums.RiskAlertType;
 import com.smartcampost.backend.model.enums.RiskSeverity;
-import com.smartcampost.backend.repository.AiAgentStateRepository;
-import com.smartcampost.backend.repository.AiDecisionLogRepository;
-import com.smartcampost.backend.repository.AiExecutionLogRepository;
 import com.smartcampost.backend.repository.ApprovalRequestRepository;
 import com.smartcampost.backend.service.AIService;
 import com.smartcampost.backend.service.AnalyticsService;
@@ -36,6 +32,7 @@ import com.smartcampost.backend.dto.notification.TriggerNotificationRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
@@ -68,15 +65,14 @@ public class DefaultAiRuntimeService implements AiRuntimeService {
     private final RiskService riskService;
     private final AnalyticsService analyticsService;
     private final AiPolicyService aiPolicyService;
-    private final AiDecisionLogRepository aiDecisionLogRepository;
-    private final AiExecutionLogRepository aiExecutionLogRepository;
-    private final AiAgentStateRepository aiAgentStateRepository;
+    private final AiAuditWriter aiAuditWriter;
     private final SseEmitters sseEmitters;
     private final ObjectMapper objectMapper;
     private final ApprovalRequestRepository approvalRequestRepository;
     private final AssignmentService assignmentService;
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public ChatResponse answer(ChatRequest request) {
         return aiService.processChat(request);
     }
@@ -463,19 +459,18 @@ public class DefaultAiRuntimeService implements AiRuntimeService {
                 .decisionType(toolName.value())
                 .subjectType(subjectType)
                 .subjectId(targetId)
-                .inputData(writeJson(mapOf(
-                        "tool", toolName.value(),
-                        "mode", request.mode().name(),
-                        "parameters", safeParameters(request),
-                        "approvalGranted", request.approvalGranted(),
-                        "ownershipVerified", request.ownershipVerified(),
-                        "sourceEventType", request.sourceEventType()
-                )))
                 .decisionOutcome(decision.allowed() ? (request.approvalGranted() ? "APPROVED" : "ALLOWED") : (decision.requiresApproval() ? "PENDING_APPROVAL" : "DENIED"))
                 .confidenceScore(decision.allowed() ? 0.95f : 0.25f)
                 .reasoning(decision.reason())
                 .build();
-        return aiDecisionLogRepository.save(decisionLog);
+        return aiAuditWriter.recordDecision(decisionLog, mapOf(
+                "tool", toolName.value(),
+                "mode", request.mode().name(),
+                "parameters", safeParameters(request),
+                "approvalGranted", request.approvalGranted(),
+                "ownershipVerified", request.ownershipVerified(),
+                "sourceEventType", request.sourceEventType()
+        ));
     }
 
     private void persistExecution(AiToolName toolName, AiToolRequest request, UUID targetId, AiSubjectType subjectType, AiModuleType moduleType, AiExecutionStatus status, String message, Map<String, Object> data, AiDecisionLog decisionLog) {
@@ -487,29 +482,12 @@ public class DefaultAiRuntimeService implements AiRuntimeService {
                 .executionStatus(status)
                 .completedAt(Instant.now())
                 .resultSummary(message)
-                .rollbackData(writeJson(data != null ? data : Map.of()))
                 .build();
-        aiExecutionLogRepository.save(executionLog);
+        aiAuditWriter.recordExecution(executionLog, data != null ? data : Map.of());
     }
 
     private void updateAgentState(AiModuleType moduleType, AiSubjectType subjectType, UUID targetId, boolean success) {
-        AiAgentState state = aiAgentStateRepository
-                .findByModuleTypeAndSubjectTypeAndSubjectId(moduleType, subjectType, targetId)
-                .orElseGet(() -> AiAgentState.builder()
-                        .moduleType(moduleType)
-                        .subjectType(subjectType)
-                        .subjectId(targetId)
-                        .confidenceScore(0.5f)
-                        .evaluationCount(0)
-                        .build());
-        state.setEvaluationCount((state.getEvaluationCount() != null ? state.getEvaluationCount() : 0) + 1);
-        state.setLastEvaluationAt(Instant.now());
-        state.setConfidenceScore(success ? 0.9f : Math.max(0.1f, state.getConfidenceScore() - 0.1f));
-        state.setStateData(writeJson(mapOf(
-                "lastToolSuccess", success,
-                "updatedAt", Instant.now().toString()
-        )));
-        aiAgentStateRepository.save(state);
+        aiAuditWriter.recordAgentEvaluation(moduleType, subjectType, targetId, success);
     }
 
     private AiActorContext systemActor() {
@@ -602,14 +580,6 @@ public class DefaultAiRuntimeService implements AiRuntimeService {
         return LocalDate.parse(value);
     }
 
-    private String writeJson(Object value) {
-        try {
-            return objectMapper.writeValueAsString(value);
-        } catch (Exception ex) {
-            return String.valueOf(value);
-        }
-    }
-
     private Map<String, Object> mapOf(Object... entries) {
         Map<String, Object> map = new LinkedHashMap<>();
         for (int i = 0; i + 1 < entries.length; i += 2) {
@@ -0,0 +1,19 @@
+package com.smartcampost.backend.ai.stream;
+
+import com.smartcampost.backend.ai.events.DeliveryAttemptRecordedEvent;
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+
+/**
+ * An AI agent fed by {@link AiEventStream}. Callbacks arrive after the originating transaction
+ * committed, on the parcel's partition thread (events of one parcel in order), each in its own
+ * transaction. Delivery is at-least-once: after a crash, unacknowledged events are replayed.
+ */
+public interface AiEventConsumer {
+
+    default void onScanEventRecorded(ScanEventRecordedEvent event) {}
+
+    default void onParcelStatusChanged(ParcelStatusChangedEvent event) {}
+
+    default void onDeliveryAttemptRecorded(DeliveryAttemptRecordedEvent event) {}
+}
@@ -0,0 +1,144 @@
+package com.smartcampost.backend.ai.stream;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcampost.backend.ai.events.DeliveryAttemptRecordedEvent;
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Append-only {@code ai_event_log} table (database/migrations/0010_ai_event_log.sql) behind
+ * {@link AiEventStream}. Rows are appended in the publisher's transaction, so an event exists
+ * exactly when the scan / status change that raised it committed; processed_at is set in batches
+ * once every consumer has seen the event.
+ */
+@Component
+@Slf4j
+public class AiEventLog {
+
+    static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS ai_event_log (" +
+            "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+            "event_type VARCHAR(64) NOT NULL, " +
+            "partition_key VARCHAR(36) NULL, " +
+            "payload TEXT NOT NULL, " +
+            "created_at DATETIME(3) NOT NULL, " +
+            "processed_at DATETIME(3) NULL)";
+
+    private static final Map<String, Class<?>> EVENT_TYPES = Map.of(
+            ScanEventRecordedEvent.class.getSimpleName(), ScanEventRecordedEvent.class,
+            ParcelStatusChangedEvent.class.getSimpleName(), ParcelStatusChangedEvent.class,
+            DeliveryAttemptRecordedEvent.class.getSimpleName(), DeliveryAttemptRecordedEvent.class);
+
+    /** A logged event; {@code id == 0} when it only exists in memory (append failed). */
+    public record Entry(long id, String partitionKey, Object event, Instant createdAt) {}
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public AiEventLog(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    void createTable() {
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+    }
+
+    /** Inserts in the caller's transaction (if any) and returns the generated id. */
+    Entry append(String partitionKey, Object event) throws JsonProcessingException {
+        String payload = objectMapper.writeValueAsString(event);
+        Instant now = Instant.now();
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(con -> {
+            PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO ai_event_log (event_type, partition_key, payload, created_at) VALUES (?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            ps.setString(1, event.getClass().getSimpleName());
+            ps.setString(2, partitionKey);
+            ps.setString(3, payload);
+            ps.setTimestamp(4, Timestamp.from(now));
+            return ps;
+        }, keys);
+        Number id = keys.getKey();
+        return new Entry(id == null ? 0 : id.longValue(), partitionKey, event, now);
+    }
+
+    void markProcessed(Collection<Long> ids, Instant at) {
+        if (ids.isEmpty()) return;
+        List<Long> batch = new ArrayList<>(ids);
+        for (int from = 0; from < batch.size(); from += 500) {
+            String in = batch.subList(from, Math.min(batch.size(), from + 500)).stream()
+                    .map(String::valueOf).collect(Collectors.joining(","));
+            jdbcTemplate.update("UPDATE ai_event_log SET processed_at = ? WHERE id IN (" + in + ")", Timestamp.from(at));
+        }
+    }
+
+    /** Unprocessed events created between {@code notBefore} and {@code olderThan}, oldest first. */
+    List<Entry> findUnprocessed(Instant notBefore, Instant olderThan, int limit) {
+        return jdbcTemplate.query(
+                "SELECT id, event_type, partition_key, payload, created_at FROM ai_event_log " +
+                "WHERE processed_at IS NULL AND created_at >= ? AND created_at < ? ORDER BY id LIMIT ?",
+                this::mapEntry, Timestamp.from(notBefore), Timestamp.from(olderThan), limit)
+                .stream().filter(e -> e != null).toList();
+    }
+
+    /** The unprocessed events among {@code ids}, oldest first. */
+    List<Entry> findUnprocessed(Collection<Long> ids) {
+        if (ids.isEmpty()) return List.of();
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+        return jdbcTemplate.query(
+                "SELECT id, event_type, partition_key, payload, created_at FROM ai_event_log " +
+                "WHERE processed_at IS NULL AND id IN (" + in + ") ORDER BY id",
+                this::mapEntry)
+                .stream().filter(e -> e != null).toList();
+    }
+
+    private Entry mapEntry(ResultSet rs, int rowNum) throws SQLException {
+        Object event = decode(rs.getLong("id"), rs.getString("event_type"), rs.getString("payload"));
+        return event == null ? null : new Entry(rs.getLong("id"), rs.getString("partition_key"),
+                event, rs.getTimestamp("created_at").toInstant());
+    }
+
+    Instant oldestUnprocessed(Instant notBefore) {
+        Timestamp ts = jdbcTemplate.queryForObject(
+                "SELECT MIN(created_at) FROM ai_event_log WHERE processed_at IS NULL AND created_at >= ?",
+                Timestamp.class, Timestamp.from(notBefore));
+        return ts == null ? null : ts.toInstant();
+    }
+
+    int prune(Instant before) {
+        return jdbcTemplate.update("DELETE FROM ai_event_log WHERE created_at < ?", Timestamp.from(before));
+    }
+
+    private Object decode(long id, String type, String payload) {
+        Class<?> cls = EVENT_TYPES.get(type);
+        if (cls == null) {
+            log.warn("[AI-STREAM] Skipping event {} of unknown type {}", id, type);
+            return null;
+        }
+        try {
+            return objectMapper.readValue(payload, cls);
+        } catch (JsonProcessingException e) {
+            log.warn("[AI-STREAM] Skipping undecodable event {}: {}", id, e.getMessage());
+            return null;
+        }
+    }
+}
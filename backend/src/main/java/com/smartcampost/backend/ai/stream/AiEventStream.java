@@ -0,0 +1,415 @@
+package com.smartcampost.backend.ai.stream;
+
+import com.smartcampost.backend.ai.events.DeliveryAttemptRecordedEvent;
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+/**
+ * Takes AI agent processing off the scan path. The three AI domain events are appended to
+ * {@link AiEventLog} in the publisher's transaction (one small INSERT is all the scan pays), then
+ * handed after commit to a fixed set of partition threads keyed by parcel id, so the events of a
+ * parcel are seen in order while different parcels proceed in parallel.
+ *
+ * - Every {@link AiEventConsumer} runs in its own transaction; a failing agent is counted and
+ *   logged without affecting the others or the scan.
+ * - Handled events are marked processed in batches by the "ai-stream-ack" thread.
+ * - A full partition queue pauses that partition: the event and every later one for it are
+ *   kept as log ids only (the rows stay unprocessed), and once the queue has drained the partition
+ *   thread replays them from the log in id order before taking live events again, so a parcel's
+ *   events are never handled out of order.
+ * - The recovery sweep re-enqueues events left behind by a crash or restart. Delivery is
+ *   therefore at-least-once.
+ * - If the append itself fails the event is still dispatched, in memory only.
+ */
+@Component
+@Slf4j
+public class AiEventStream {
+
+    // How long an idle partition thread waits before checking for a backlog to replay
+    private static final long BACKLOG_CHECK_MS = 200;
+
+    private final AiEventLog eventLog;
+    private final List<AiEventConsumer> consumers;
+    private final TransactionTemplate txTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.ai.stream.partitions:4}")
+    private int partitions = 4;
+
+    @Value("${smartcampost.ai.stream.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    @Value("${smartcampost.ai.stream.recovery-min-age-ms:60000}")
+    private long recoveryMinAgeMs = 60000;
+
+    @Value("${smartcampost.ai.stream.recovery-batch-size:500}")
+    private int recoveryBatchSize = 500;
+
+    @Value("${smartcampost.ai.stream.retention-hours:24}")
+    private long retentionHours = 24;
+
+    @Value("${smartcampost.ai.stream.ack-flush-interval-ms:1000}")
+    private long ackFlushIntervalMs = 1000;
+
+    private final List<Partition> partitionStates = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+    private final Set<Long> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentLinkedQueue<Long> acked = new ConcurrentLinkedQueue<>();
+    private volatile boolean running;
+
+    private Timer lagTimer;
+    private Counter processedCounter;
+    private Counter failedCounter;
+    private Counter overflowCounter;
+    private Counter recoveredCounter;
+    private Counter appendFailedCounter;
+
+    public AiEventStream(AiEventLog eventLog, List<AiEventConsumer> consumers,
+                         PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.eventLog = eventLog;
+        this.consumers = List.copyOf(consumers);
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        running = true;
+        for (Partition partition : partitionStates) {
+            startThread("ai-stream-" + partition.index, () -> workLoop(partition));
+        }
+        startThread("ai-stream-ack", this::ackLoop);
+        log.info("[AI-STREAM] Started {} partitions for {} consumers (queue={})",
+                partitionStates.size(), consumers.size(), queueCapacity);
+    }
+
+    void init() {
+        eventLog.createTable();
+        for (int p = 0; p < Math.max(1, partitions); p++) {
+            Partition partition = new Partition(p, new ArrayBlockingQueue<>(Math.max(1, queueCapacity)));
+            partitionStates.add(partition);
+            Gauge.builder("smartcampost.ai.stream.queue.depth", partition.queue, Collection::size)
+                    .tag("partition", String.valueOf(p))
+                    .register(meterRegistry);
+            Gauge.builder("smartcampost.ai.stream.backlog", partition, Partition::backlogSize)
+                    .description("Events of a paused partition waiting to be replayed from the log")
+                    .tag("partition", String.valueOf(p))
+                    .register(meterRegistry);
+        }
+        lagTimer = Timer.builder("smartcampost.ai.stream.lag")
+                .description("Time from an event being recorded to all AI consumers having handled it")
+                .register(meterRegistry);
+        processedCounter = Counter.builder("smartcampost.ai.stream.processed").register(meterRegistry);
+        failedCounter = Counter.builder("smartcampost.ai.stream.consumer.failed").register(meterRegistry);
+        overflowCounter = Counter.builder("smartcampost.ai.stream.overflow")
+                .description("Events deferred to their partition's backlog because its queue was full")
+                .register(meterRegistry);
+        recoveredCounter = Counter.builder("smartcampost.ai.stream.recovered").register(meterRegistry);
+        appendFailedCounter = Counter.builder("smartcampost.ai.stream.append.failed").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Thread t : threads) {
+            t.interrupt();
+        }
+        flushAcks();
+    }
+
+    private void startThread(String name, Runnable loop) {
+        Thread t = new Thread(loop, name);
+        t.setDaemon(true);
+        t.start();
+        threads.add(t);
+    }
+
+    // ==================== Producers ====================
+
+    @EventListener
+    public void onScanEventRecorded(ScanEventRecordedEvent event) {
+        record(event.parcelId(), event);
+    }
+
+    @EventListener
+    public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
+        record(event.parcelId(), event);
+    }
+
+    @EventListener
+    public void onDeliveryAttemptRecorded(DeliveryAttemptRecordedEvent event) {
+        record(event.parcelId(), event);
+    }
+
+    private void record(UUID parcelId, Object event) {
+        String key = parcelId != null ? parcelId.toString() : null;
+        AiEventLog.Entry entry;
+        try {
+            entry = eventLog.append(key, event);
+        } catch (Exception e) {
+            appendFailedCounter.increment();
+            log.warn("[AI-STREAM] Could not log {}, dispatching in memory only: {}",
+                    event.getClass().getSimpleName(), e.getMessage());
+            entry = new AiEventLog.Entry(0, key, event, Instant.now());
+        }
+        AiEventLog.Entry committed = entry;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(committed);
+                }
+            });
+        } else {
+            dispatch(committed);
+        }
+    }
+
+    void dispatch(AiEventLog.Entry entry) {
+        if (entry.id() > 0 && !inFlight.add(entry.id())) return;
+        Partition partition = partitionStates.get(partitionOf(entry.partitionKey()));
+        synchronized (partition) {
+            if (!partition.paused && partition.queue.offer(entry)) return;
+            overflowCounter.increment();
+            if (entry.id() == 0) {
+                log.warn("[AI-STREAM] Partition {} full, dropping unlogged {}", partition.index,
+                        entry.event().getClass().getSimpleName());
+                return;
+            }
+            // Stays in flight (recovery skips it) until the partition thread replays it
+            partition.backlog.add(entry.id());
+            if (!partition.paused) {
+                partition.paused = true;
+                log.warn("[AI-STREAM] Partition {} queue full at event {}, pausing until its backlog is replayed",
+                        partition.index, entry.id());
+            }
+        }
+    }
+
+    int partitionOf(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitionStates.size());
+    }
+
+    // ==================== Partition workers ====================
+
+    private void workLoop(Partition partition) {
+        while (running) {
+            try {
+                AiEventLog.Entry entry = partition.queue.poll(BACKLOG_CHECK_MS, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    process(entry);
+                } else if (partition.isPaused()) {
+                    replayBacklog(partition);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("[AI-STREAM] Partition {} backlog replay failed, retrying: {}", partition.index, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Runs on the partition's own thread once its queue is empty: handles the deferred events in
+     * id order, then resumes live dispatch. Live events keep joining the backlog until then.
+     */
+    int replayBacklog(Partition partition) {
+        int n = 0;
+        while (true) {
+            List<Long> ids = new ArrayList<>();
+            synchronized (partition) {
+                Iterator<Long> it = partition.backlog.iterator();
+                while (it.hasNext() && ids.size() < recoveryBatchSize) ids.add(it.next());
+                if (ids.isEmpty()) {
+                    partition.paused = false;
+                    log.info("[AI-STREAM] Partition {} backlog replayed ({} events), resuming", partition.index, n);
+                    return n;
+                }
+            }
+            // Rows already handled elsewhere (another node's recovery) are no longer unprocessed
+            Set<Long> handled = new HashSet<>(ids);
+            for (AiEventLog.Entry entry : eventLog.findUnprocessed(ids)) {
+                process(entry);
+                handled.remove(entry.id());
+                n++;
+            }
+            handled.forEach(inFlight::remove);
+            synchronized (partition) {
+                partition.backlog.removeAll(ids);
+            }
+        }
+    }
+
+    void process(AiEventLog.Entry entry) {
+        Object event = entry.event();
+        for (AiEventConsumer consumer : consumers) {
+            if (event instanceof ScanEventRecordedEvent e) {
+                invoke(consumer, e, AiEventConsumer::onScanEventRecorded, entry);
+            } else if (event instanceof ParcelStatusChangedEvent e) {
+                invoke(consumer, e, AiEventConsumer::onParcelStatusChanged, entry);
+            } else if (event instanceof DeliveryAttemptRecordedEvent e) {
+                invoke(consumer, e, AiEventConsumer::onDeliveryAttemptRecorded, entry);
+            }
+        }
+        processedCounter.increment();
+        lagTimer.record(Duration.between(entry.createdAt(), Instant.now()));
+        if (entry.id() > 0) acked.add(entry.id());
+    }
+
+    private <E> void invoke(AiEventConsumer consumer, E event, BiConsumer<AiEventConsumer, E> callback,
+                            AiEventLog.Entry entry) {
+        try {
+            txTemplate.executeWithoutResult(status -> callback.accept(consumer, event));
+        } catch (Exception e) {
+            failedCounter.increment();
+            log.warn("[AI-STREAM] {} failed on event {} ({}): {}", ClassUtils.getShortName(ClassUtils.getUserClass(consumer)),
+                    entry.id(), event.getClass().getSimpleName(), e.getMessage());
+        }
+    }
+
+    /** Processes whatever is queued or deferred right now on the calling thread; for tests. */
+    int drainQueued() {
+        int n = 0;
+        for (Partition partition : partitionStates) {
+            for (AiEventLog.Entry entry; (entry = partition.queue.poll()) != null; n++) {
+                process(entry);
+            }
+            if (partition.isPaused()) n += replayBacklog(partition);
+        }
+        return n;
+    }
+
+    // ==================== Acknowledgement and recovery ====================
+
+    private void ackLoop() {
+        while (running) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(ackFlushIntervalMs);
+                flushAcks();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("[AI-STREAM] Failed to mark events processed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Marks handled events processed; they stay in flight until then so recovery skips them. */
+    void flushAcks() {
+        List<Long> ids = new ArrayList<>();
+        for (Long id; (id = acked.poll()) != null; ) {
+            ids.add(id);
+        }
+        if (ids.isEmpty()) return;
+        try {
+            eventLog.markProcessed(ids, Instant.now());
+            ids.forEach(inFlight::remove);
+        } catch (RuntimeException e) {
+            acked.addAll(ids);
+            throw e;
+        }
+    }
+
+    /**
+     * Re-enqueues events that were committed but never handled: dropped on overflow, or pending
+     * when a node stopped. Events younger than recovery-min-age-ms are left to their own node.
+     */
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.ai.stream.recovery-interval-ms:30000}",
+               initialDelayString = "${smartcampost.ai.stream.recovery-initial-delay-ms:10000}")
+    public void recover() {
+        Instant now = Instant.now();
+        int recovered = 0;
+        for (AiEventLog.Entry entry : eventLog.findUnprocessed(now.minus(Duration.ofHours(retentionHours)),
+                now.minusMillis(recoveryMinAgeMs), recoveryBatchSize)) {
+            if (inFlight.contains(entry.id())) continue;
+            dispatch(entry);
+            recovered++;
+        }
+        if (recovered > 0) {
+            recoveredCounter.increment(recovered);
+            log.info("[AI-STREAM] Re-enqueued {} unprocessed events", recovered);
+        }
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.ai.stream.prune-interval-ms:3600000}")
+    public void prune() {
+        int deleted = eventLog.prune(Instant.now().minus(Duration.ofHours(retentionHours)));
+        if (deleted > 0) log.info("[AI-STREAM] Pruned {} events older than {}h", deleted, retentionHours);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        List<Integer> depths = partitionStates.stream().map(p -> p.queue.size()).toList();
+        stats.put("partitions", partitionStates.size());
+        stats.put("queueDepths", depths);
+        stats.put("pausedPartitions", partitionStates.stream().filter(Partition::isPaused).map(p -> p.index).toList());
+        stats.put("backlog", partitionStates.stream().mapToInt(Partition::backlogSize).sum());
+        stats.put("inFlight", inFlight.size());
+        stats.put("processed", (long) processedCounter.count());
+        stats.put("consumerFailures", (long) failedCounter.count());
+        stats.put("overflow", (long) overflowCounter.count());
+        stats.put("recovered", (long) recoveredCounter.count());
+        stats.put("appendFailures", (long) appendFailedCounter.count());
+        stats.put("lagMeanMs", lagTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("lagMaxMs", lagTimer.max(TimeUnit.MILLISECONDS));
+        Instant oldest = eventLog.oldestUnprocessed(Instant.now().minus(Duration.ofHours(retentionHours)));
+        stats.put("oldestUnprocessedAt", oldest);
+        return stats;
+    }
+
+    /** One partition: its hand-off queue and, while paused, the ids deferred to the log. */
+    static final class Partition {
+        final int index;
+        final BlockingQueue<AiEventLog.Entry> queue;
+        // Guarded by this
+        final NavigableSet<Long> backlog = new TreeSet<>();
+        boolean paused;
+
+        Partition(int index, BlockingQueue<AiEventLog.Entry> queue) {
+            this.index = index;
+            this.queue = queue;
+        }
+
+        synchronized boolean isPaused() {
+            return paused;
+        }
+
+        synchronized int backlogSize() {
+            return backlog.size();
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.smartcampost.backend.ai.runtime.AiToolRequest;
 import com.smartcampost.backend.ai.runtime.AiToolResult;
 import com.smartcampost.backend.ai.runtime.AiRuntimeService;
 import com.smartcampost.backend.repository.ApprovalRequestRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -25,6 +26,7 @@ public class ApprovalProcessor {
     private final AiRuntimeService aiRuntimeService;
     private final ObjectMapper objectMapper;
 
+    @ClusterSingleton
     @Scheduled(fixedDelayString = "5000")
     @Transactional
     public void poll() {
@@ -1,6 +1,7 @@
 package com.smartcampost.backend.automation;
 
 import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.config.AsyncConfig;
 import com.smartcampost.backend.model.Agency;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
@@ -8,10 +9,12 @@ import com.smartcampost.backend.repository.AgencyRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.List;
 import java.util.UUID;
@@ -22,7 +25,7 @@ import java.util.UUID;
  * recipient address's region/city and assigns it automatically.
  *
  * DUAL MODE:
- * - AUTONOMOUS: @EventListener on ParcelStatusChangedEvent → CREATED
+ * - AUTONOMOUS: after-commit listener on ParcelStatusChangedEvent → CREATED (automation executor)
  * - MANUAL: admin/agent can override via existing assignment UI or manualRoute()
  */
 @Component
@@ -33,8 +36,9 @@ public class AgencyZoneAutoRouter {
     private final AgencyRepository agencyRepository;
     private final ParcelRepository parcelRepository;
 
-    @Async
-    @EventListener
+    @Async(AsyncConfig.AUTOMATION_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onParcelCreated(ParcelStatusChangedEvent event) {
         if (event.newStatus() != ParcelStatus.CREATED) return;
         try {
@@ -1,11 +1,13 @@
 package com.smartcampost.backend.automation;
 
 import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.scheduling.ScheduledJobMonitor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 
@@ -27,6 +29,7 @@ public class AutomationManualController {
     private final SmartParcelAutoAssignment smartParcelAutoAssignment;
     private final AgencyZoneAutoRouter agencyZoneAutoRouter;
     private final GeofenceAutoProgressionService geofenceService;
+    private final ScheduledJobMonitor scheduledJobMonitor;
 
     // ==================== Automation C: Delayed Parcel Detection ====================
 
@@ -136,6 +139,14 @@ public class AutomationManualController {
         return ResponseEntity.ok(Map.of("parcelId", parcelId.toString(), "agencyId", agencyId.toString(), "mode", "MANUAL"));
     }
 
+    // ==================== Scheduler ====================
+
+    @GetMapping("/scheduler/jobs")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<ScheduledJobMonitor.JobStats>> getScheduledJobStats() {
+        return ResponseEntity.ok(scheduledJobMonitor.stats());
+    }
+
     // ==================== Status Overview ====================
 
     @GetMapping("/status")
@@ -143,7 +154,7 @@ public class AutomationManualController {
         return ResponseEntity.ok(Map.of(
                 "automations", Map.ofEntries(
                         Map.entry("A_smartAutoAssignment", "ACTIVE — event-driven on ACCEPTED status"),
-                        Map.entry("B_geofenceAutoProgression", "ACTIVE — scheduled every 2 minutes"),
+                        Map.entry("B_geofenceAutoProgression", "ACTIVE — live on GPS updates, reconciled every 15 minutes"),
                         Map.entry("C_delayedParcelDetection", "ACTIVE — scheduled every 15 minutes"),
                         Map.entry("D_courierAvailability", "ACTIVE — scheduled every 5 minutes"),
                         Map.entry("E_agencyZoneRouting", "ACTIVE — event-driven on CREATED status"),
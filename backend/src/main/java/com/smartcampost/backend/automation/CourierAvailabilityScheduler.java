@@ -1,7 +1,8 @@
 package com.smartcampost.backend.automation;
 
-import com.smartcampost.backend.model.Location;
-import com.smartcampost.backend.repository.LocationRepository;
+import com.smartcampost.backend.logistics.LivePosition;
+import com.smartcampost.backend.logistics.LivePositionIndex;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -23,12 +24,13 @@ import java.util.*;
 @Slf4j
 public class CourierAvailabilityScheduler {
 
-    private final LocationRepository locationRepository;
+    private final LivePositionIndex livePositionIndex;
 
     private static final int HEARTBEAT_TIMEOUT_MINUTES = 10;
 
     private final Set<String> unavailableCouriers = Collections.synchronizedSet(new HashSet<>());
 
+    @ClusterSingleton
     @Scheduled(fixedDelayString = "${smartcampost.automation.courier-availability.interval-ms:300000}")
     public void runAutonomous() {
         log.debug("[AUTOMATION-D] Running courier availability check (autonomous)");
@@ -37,13 +39,10 @@ public class CourierAvailabilityScheduler {
 
     public Map<String, Object> detectUnavailableCouriers() {
         OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(HEARTBEAT_TIMEOUT_MINUTES);
-        List<Location> recentLocations = locationRepository.findTop500ByOrderByTimestampDesc();
-
         Map<String, OffsetDateTime> latestPingPerCourier = new HashMap<>();
-        for (Location loc : recentLocations) {
-            if (loc.getUserId() == null) continue;
-            latestPingPerCourier.merge(loc.getUserId(), loc.getTimestamp(),
-                    (a, b) -> a.isAfter(b) ? a : b);
+        for (LivePosition position : livePositionIndex.snapshot()) {
+            if (position.timestamp() == null) continue;
+            latestPingPerCourier.put(position.userId(), position.timestamp());
         }
 
         List<String> newlyUnavailable = new ArrayList<>();
@@ -3,6 +3,7 @@ package com.smartcampost.backend.automation;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
 import com.smartcampost.backend.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -31,6 +32,7 @@ public class DelayedParcelDetectionScheduler {
     private final ParcelRepository parcelRepository;
     private final NotificationService notificationService;
 
+    @ClusterSingleton
     @Scheduled(fixedDelayString = "${smartcampost.automation.delayed-parcel.interval-ms:900000}")
     public void runAutonomous() {
         log.info("[AUTOMATION-C] Running delayed parcel detection (autonomous)");
@@ -3,6 +3,7 @@ package com.smartcampost.backend.automation;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
 import com.smartcampost.backend.service.ai.agents.TrackingPredictionAgent;
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionRequest;
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionResponse;
@@ -33,6 +34,7 @@ public class EtaRecalculationScheduler {
     private final ParcelRepository parcelRepository;
     private final TrackingPredictionAgent trackingPredictionAgent;
 
+    @ClusterSingleton
     @Scheduled(fixedDelayString = "${smartcampost.automation.eta-recalc.interval-ms:300000}")
     public void runAutonomous() {
         log.debug("[AUTOMATION-G] Running ETA recalculation (autonomous)");
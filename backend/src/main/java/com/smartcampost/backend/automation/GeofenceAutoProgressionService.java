@@ -1,120 +1,212 @@
 package com.smartcampost.backend.automation;
 
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.automation.GeofenceTracker.Kind;
+import com.smartcampost.backend.automation.GeofenceTracker.Target;
+import com.smartcampost.backend.config.AsyncConfig;
+import com.smartcampost.backend.geo.SpatialGridIndex.Hit;
+import com.smartcampost.backend.logistics.CourierPositionsUpdatedEvent;
+import com.smartcampost.backend.logistics.GpsFix;
+import com.smartcampost.backend.logistics.LivePosition;
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.model.Address;
-import com.smartcampost.backend.model.Location;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
-import com.smartcampost.backend.repository.LocationRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
 import com.smartcampost.backend.service.NotificationService;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 /**
  * Automation B — Parcel status auto-progression via geofencing.
- * Compares courier GPS positions with parcel pickup/delivery address coordinates.
+ * Compares courier GPS positions with parcel pickup/delivery address coordinates, using the
+ * spatial grid in {@link LivePositionIndex} so each parcel costs one cell lookup instead of a
+ * haversine against every courier.
  *
  * Geofence radius: 500 meters (~0.5 km)
  * - Courier near pickup address + parcel is ACCEPTED → mark TAKEN_IN_CHARGE
  * - Courier near delivery address + parcel is IN_TRANSIT/OUT_FOR_DELIVERY → mark OUT_FOR_DELIVERY
  *
  * DUAL MODE:
- * - AUTONOMOUS: @Scheduled every 2 minutes
+ * - AUTONOMOUS: evaluated per GPS batch ({@link CourierPositionsUpdatedEvent}) against the
+ *   targets near each courier, with enter/exit hysteresis and per-parcel debounce (see
+ *   {@link GeofenceTracker}); a low-frequency @Scheduled sweep (default 15 minutes) reconciles
+ *   the target set and catches anything the incremental path missed
  * - MANUAL: any authorized role can manually update parcel status at any step
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class GeofenceAutoProgressionService {
 
-    private final LocationRepository locationRepository;
+    private static final List<ParcelStatus> DELIVERY_TARGET_STATUSES =
+            List.of(ParcelStatus.IN_TRANSIT, ParcelStatus.ARRIVED_DEST_AGENCY);
+
+    private final LivePositionIndex livePositionIndex;
     private final ParcelRepository parcelRepository;
     private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${smartcampost.automation.geofence.radius-km:0.5}")
+    private double geofenceRadiusKm = 0.5;
+
+    @Value("${smartcampost.automation.geofence.exit-radius-km:0.7}")
+    private double exitRadiusKm = 0.7;
+
+    @Value("${smartcampost.automation.geofence.confirm-fixes:2}")
+    private int confirmFixes = 2;
 
-    private static final double GEOFENCE_RADIUS_KM = 0.5;
-    private static final int GPS_FRESHNESS_MINUTES = 5;
+    @Value("${smartcampost.automation.geofence.debounce-ms:30000}")
+    private long debounceMs = 30000;
 
-    @Scheduled(fixedDelayString = "${smartcampost.automation.geofence.interval-ms:120000}")
+    @Value("${smartcampost.automation.geofence.gps-freshness-minutes:5}")
+    private int gpsFreshnessMinutes = 5;
+
+    private GeofenceTracker tracker;
+
+    public GeofenceAutoProgressionService(LivePositionIndex livePositionIndex,
+                                          ParcelRepository parcelRepository,
+                                          NotificationService notificationService,
+                                          PlatformTransactionManager transactionManager) {
+        this.livePositionIndex = livePositionIndex;
+        this.parcelRepository = parcelRepository;
+        this.notificationService = notificationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    void initTracker() {
+        tracker = new GeofenceTracker(geofenceRadiusKm, exitRadiusKm, confirmFixes, debounceMs);
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.automation.geofence.interval-ms:900000}")
     public void runAutonomous() {
-        log.debug("[AUTOMATION-B] Running geofence auto-progression (autonomous)");
+        log.debug("[AUTOMATION-B] Running geofence reconciliation sweep (autonomous)");
         checkAllActiveParcels();
     }
 
+    /**
+     * Incremental path: only the targets around each courier that just moved are tested. Fixes
+     * older than gps-freshness-minutes (offline uploads, a backed-up queue) are skipped, as the
+     * sweep skips positions past the same cutoff: they say where the courier was, not where it is.
+     */
+    @Async(AsyncConfig.AUTOMATION_EXECUTOR)
+    @EventListener
+    public void onCourierPositions(CourierPositionsUpdatedEvent event) {
+        long now = System.currentTimeMillis();
+        Instant cutoff = Instant.ofEpochMilli(now).minus(gpsFreshnessMinutes, ChronoUnit.MINUTES);
+        int stale = 0;
+        for (GpsFix fix : event.fixes()) {
+            if (fix.timestamp().isBefore(cutoff)) {
+                stale++;
+                continue;
+            }
+            for (GeofenceTracker.Trigger trigger : tracker.onFix(fix.actorKey(), fix.latitude(), fix.longitude(), now)) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> progress(trigger));
+                } catch (Exception e) {
+                    log.warn("[AUTOMATION-B] Geofence progression failed for parcel {}: {}",
+                            trigger.target().parcelId(), e.getMessage());
+                }
+            }
+        }
+        if (stale > 0) log.debug("[AUTOMATION-B] Skipped {} GPS fix(es) older than {} min", stale, gpsFreshnessMinutes);
+    }
+
+    /**
+     * Keeps the target set in step with status changes between reconciliation sweeps.
+     */
+    @Async(AsyncConfig.AUTOMATION_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
+        if (event.newStatus() != ParcelStatus.ACCEPTED && !DELIVERY_TARGET_STATUSES.contains(event.newStatus())) {
+            tracker.remove(event.parcelId());
+            return;
+        }
+        parcelRepository.findById(event.parcelId()).ifPresent(this::refreshTarget);
+    }
+
     @Transactional
     public Map<String, Integer> checkAllActiveParcels() {
         int pickupProgressions = 0;
         int deliveryProgressions = 0;
 
-        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(GPS_FRESHNESS_MINUTES);
-        List<Location> recentLocations = locationRepository.findTop500ByOrderByTimestampDesc();
-
-        Map<String, Location> latestPerCourier = new HashMap<>();
-        for (Location loc : recentLocations) {
-            if (loc.getUserId() == null || loc.getLatitude() == null || loc.getLongitude() == null) continue;
-            if (loc.getTimestamp() != null && loc.getTimestamp().isAfter(cutoff)) {
-                latestPerCourier.putIfAbsent(loc.getUserId(), loc);
-            }
-        }
-
-        if (latestPerCourier.isEmpty()) {
-            return Map.of("pickupProgressions", 0, "deliveryProgressions", 0);
-        }
+        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(gpsFreshnessMinutes);
+        boolean anyFresh = !livePositionIndex.freshSince(cutoff).isEmpty();
+        Set<String> eligibleTargets = new HashSet<>();
 
         List<Parcel> acceptedParcels = parcelRepository.findByStatusIn(List.of(ParcelStatus.ACCEPTED));
         for (Parcel parcel : acceptedParcels) {
-            Double[] pickupCoords = extractCoords(parcel.getSenderAddress());
+            Coords pickupCoords = extractCoords(parcel.getSenderAddress());
             if (pickupCoords == null) continue;
 
-            for (Location loc : latestPerCourier.values()) {
-                double dist = haversineKm(pickupCoords[0], pickupCoords[1], loc.getLatitude(), loc.getLongitude());
-                if (dist <= GEOFENCE_RADIUS_KM) {
-                    parcel.setStatus(ParcelStatus.TAKEN_IN_CHARGE);
-                    parcelRepository.save(parcel);
-                    pickupProgressions++;
-                    log.info("[AUTOMATION-B] Parcel {} → TAKEN_IN_CHARGE (courier {} within {}m of pickup)",
-                            parcel.getTrackingRef(), loc.getUserId(), Math.round(dist * 1000));
-                    try {
-                        notificationService.notifyParcelInTransit(parcel);
-                    } catch (Exception e) {
-                        log.warn("[AUTOMATION-B] Notification failed: {}", e.getMessage());
-                    }
-                    break;
-                }
+            List<Hit<String, LivePosition>> nearby = anyFresh
+                    ? livePositionIndex.withinRadius(pickupCoords.latitude(), pickupCoords.longitude(), geofenceRadiusKm, cutoff)
+                    : List.of();
+            if (nearby.isEmpty()) {
+                eligibleTargets.add(track(parcel.getId(), Kind.PICKUP, pickupCoords));
+                continue;
+            }
+            var closest = nearby.get(0);
+            parcel.setStatus(ParcelStatus.TAKEN_IN_CHARGE);
+            parcelRepository.save(parcel);
+            pickupProgressions++;
+            log.info("[AUTOMATION-B] Parcel {} → TAKEN_IN_CHARGE (courier {} within {}m of pickup)",
+                    parcel.getTrackingRef(), closest.id(), Math.round(closest.distanceKm() * 1000));
+            try {
+                notificationService.notifyParcelInTransit(parcel);
+            } catch (Exception e) {
+                log.warn("[AUTOMATION-B] Notification failed: {}", e.getMessage());
             }
         }
 
-        List<Parcel> transitParcels = parcelRepository.findByStatusIn(
-                List.of(ParcelStatus.IN_TRANSIT, ParcelStatus.ARRIVED_DEST_AGENCY));
+        List<Parcel> transitParcels = parcelRepository.findByStatusIn(DELIVERY_TARGET_STATUSES);
         for (Parcel parcel : transitParcels) {
-            Double[] deliveryCoords = extractCoords(parcel.getRecipientAddress());
+            Coords deliveryCoords = extractCoords(parcel.getRecipientAddress());
             if (deliveryCoords == null) continue;
 
-            for (Location loc : latestPerCourier.values()) {
-                double dist = haversineKm(deliveryCoords[0], deliveryCoords[1], loc.getLatitude(), loc.getLongitude());
-                if (dist <= GEOFENCE_RADIUS_KM) {
-                    parcel.setStatus(ParcelStatus.OUT_FOR_DELIVERY);
-                    parcelRepository.save(parcel);
-                    deliveryProgressions++;
-                    log.info("[AUTOMATION-B] Parcel {} → OUT_FOR_DELIVERY (courier {} within {}m of delivery)",
-                            parcel.getTrackingRef(), loc.getUserId(), Math.round(dist * 1000));
-                    try {
-                        notificationService.notifyParcelOutForDelivery(parcel);
-                    } catch (Exception e) {
-                        log.warn("[AUTOMATION-B] Notification failed: {}", e.getMessage());
-                    }
-                    break;
-                }
+            List<Hit<String, LivePosition>> nearby = anyFresh
+                    ? livePositionIndex.withinRadius(deliveryCoords.latitude(), deliveryCoords.longitude(), geofenceRadiusKm, cutoff)
+                    : List.of();
+            if (nearby.isEmpty()) {
+                eligibleTargets.add(track(parcel.getId(), Kind.DELIVERY, deliveryCoords));
+                continue;
+            }
+            var closest = nearby.get(0);
+            parcel.setStatus(ParcelStatus.OUT_FOR_DELIVERY);
+            parcelRepository.save(parcel);
+            deliveryProgressions++;
+            log.info("[AUTOMATION-B] Parcel {} → OUT_FOR_DELIVERY (courier {} within {}m of delivery)",
+                    parcel.getTrackingRef(), closest.id(), Math.round(closest.distanceKm() * 1000));
+            try {
+                notificationService.notifyParcelOutForDelivery(parcel);
+            } catch (Exception e) {
+                log.warn("[AUTOMATION-B] Notification failed: {}", e.getMessage());
             }
         }
 
-        log.info("[AUTOMATION-B] Progressions: {} pickup, {} delivery", pickupProgressions, deliveryProgressions);
+        tracker.retainOnly(eligibleTargets);
+        log.info("[AUTOMATION-B] Progressions: {} pickup, {} delivery ({} targets tracked)",
+                pickupProgressions, deliveryProgressions, tracker.size());
         return Map.of("pickupProgressions", pickupProgressions, "deliveryProgressions", deliveryProgressions);
     }
 
@@ -126,10 +218,8 @@ public class GeofenceAutoProgressionService {
         Parcel parcel = parcelRepository.findById(parcelId)
                 .orElseThrow(() -> new IllegalArgumentException("Parcel not found: " + parcelId));
 
-        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(GPS_FRESHNESS_MINUTES);
-        List<Location> recentLocations = locationRepository.findTop500ByOrderByTimestampDesc();
-
-        Double[] targetCoords;
+        OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(gpsFreshnessMinutes);
+        Coords targetCoords;
         String targetType;
         ParcelStatus nextStatus;
 
@@ -137,7 +227,7 @@ public class GeofenceAutoProgressionService {
             targetCoords = extractCoords(parcel.getSenderAddress());
             targetType = "pickup";
             nextStatus = ParcelStatus.TAKEN_IN_CHARGE;
-        } else if (parcel.getStatus() == ParcelStatus.IN_TRANSIT || parcel.getStatus() == ParcelStatus.ARRIVED_DEST_AGENCY) {
+        } else if (DELIVERY_TARGET_STATUSES.contains(parcel.getStatus())) {
             targetCoords = extractCoords(parcel.getRecipientAddress());
             targetType = "delivery";
             nextStatus = ParcelStatus.OUT_FOR_DELIVERY;
@@ -149,36 +239,79 @@ public class GeofenceAutoProgressionService {
             return "No coordinates available for " + targetType + " address";
         }
 
-        for (Location loc : recentLocations) {
-            if (loc.getTimestamp() == null || loc.getTimestamp().isBefore(cutoff)) continue;
-            if (loc.getLatitude() == null || loc.getLongitude() == null) continue;
+        var nearby = livePositionIndex.withinRadius(targetCoords.latitude(), targetCoords.longitude(), geofenceRadiusKm, cutoff);
+        if (!nearby.isEmpty()) {
+            var closest = nearby.get(0);
+            parcel.setStatus(nextStatus);
+            parcelRepository.save(parcel);
+            tracker.remove(parcelId);
+            return "Progressed to " + nextStatus + " — courier " + closest.id() + " is " + Math.round(closest.distanceKm() * 1000) + "m from " + targetType;
+        }
+
+        return "No courier found within geofence of " + targetType + " address";
+    }
 
-            double dist = haversineKm(targetCoords[0], targetCoords[1], loc.getLatitude(), loc.getLongitude());
-            if (dist <= GEOFENCE_RADIUS_KM) {
-                parcel.setStatus(nextStatus);
-                parcelRepository.save(parcel);
-                return "Progressed to " + nextStatus + " — courier " + loc.getUserId() + " is " + Math.round(dist * 1000) + "m from " + targetType;
+    /** Applies a tracker trigger, re-checking the parcel's status since targets can be stale. */
+    private void progress(GeofenceTracker.Trigger trigger) {
+        Target target = trigger.target();
+        Parcel parcel = parcelRepository.findById(target.parcelId()).orElse(null);
+        if (parcel == null) {
+            tracker.remove(target.parcelId());
+            return;
+        }
+
+        boolean eligible = target.kind() == Kind.PICKUP
+                ? parcel.getStatus() == ParcelStatus.ACCEPTED
+                : DELIVERY_TARGET_STATUSES.contains(parcel.getStatus());
+        if (!eligible) {
+            refreshTarget(parcel);
+            return;
+        }
+
+        ParcelStatus nextStatus = target.kind() == Kind.PICKUP
+                ? ParcelStatus.TAKEN_IN_CHARGE
+                : ParcelStatus.OUT_FOR_DELIVERY;
+        parcel.setStatus(nextStatus);
+        parcelRepository.save(parcel);
+        tracker.remove(parcel.getId());
+        log.info("[AUTOMATION-B] Parcel {} → {} (courier {} within {}m of {}, live)",
+                parcel.getTrackingRef(), nextStatus, trigger.actorId(),
+                Math.round(trigger.distanceKm() * 1000), target.kind() == Kind.PICKUP ? "pickup" : "delivery");
+        try {
+            if (nextStatus == ParcelStatus.TAKEN_IN_CHARGE) {
+                notificationService.notifyParcelInTransit(parcel);
+            } else {
+                notificationService.notifyParcelOutForDelivery(parcel);
             }
+        } catch (Exception e) {
+            log.warn("[AUTOMATION-B] Notification failed: {}", e.getMessage());
         }
+    }
 
-        return "No courier found within geofence of " + targetType + " address";
+    private void refreshTarget(Parcel parcel) {
+        tracker.remove(parcel.getId());
+        if (parcel.getStatus() == ParcelStatus.ACCEPTED) {
+            Coords coords = extractCoords(parcel.getSenderAddress());
+            if (coords != null) track(parcel.getId(), Kind.PICKUP, coords);
+        } else if (DELIVERY_TARGET_STATUSES.contains(parcel.getStatus())) {
+            Coords coords = extractCoords(parcel.getRecipientAddress());
+            if (coords != null) track(parcel.getId(), Kind.DELIVERY, coords);
+        }
+    }
+
+    private String track(UUID parcelId, Kind kind, Coords coords) {
+        Target target = new Target(parcelId, kind, coords.latitude(), coords.longitude());
+        tracker.upsert(target);
+        return target.key();
     }
 
-    private Double[] extractCoords(Address address) {
+    private record Coords(double latitude, double longitude) {}
+
+    private Coords extractCoords(Address address) {
         if (address == null) return null;
         BigDecimal lat = address.getLatitude();
         BigDecimal lng = address.getLongitude();
         if (lat == null || lng == null) return null;
-        return new Double[]{lat.doubleValue(), lng.doubleValue()};
-    }
-
-    private double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371.0;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        return R * 2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        return new Coords(lat.doubleValue(), lng.doubleValue());
     }
 }
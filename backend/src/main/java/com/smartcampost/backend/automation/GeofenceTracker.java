@@ -0,0 +1,117 @@
+package com.smartcampost.backend.automation;
+
+import com.smartcampost.backend.geo.SpatialGridIndex;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory geofence state for {@link GeofenceAutoProgressionService}.
+ *
+ * Holds one target per eligible parcel (pickup address while ACCEPTED, delivery address while
+ * IN_TRANSIT / ARRIVED_DEST_AGENCY) in a spatial grid, and tracks which actors are inside which
+ * target. A GPS fix only tests the targets around it.
+ *
+ * - Hysteresis: an actor enters at enterRadiusKm but only leaves beyond exitRadiusKm, so jitter
+ *   around the boundary does not flap.
+ * - Confirmation: a target fires after confirmFixes consecutive fixes inside it.
+ * - Debounce: a parcel fires at most once per debounceMs, whichever actor triggered it.
+ */
+class GeofenceTracker {
+
+    enum Kind { PICKUP, DELIVERY }
+
+    record Target(UUID parcelId, Kind kind, double latitude, double longitude) {
+        String key() {
+            return parcelId + ":" + kind;
+        }
+    }
+
+    record Trigger(Target target, String actorId, double distanceKm) {}
+
+    private final double enterRadiusKm;
+    private final double exitRadiusKm;
+    private final int confirmFixes;
+    private final long debounceMs;
+
+    private final SpatialGridIndex<String, Target> targets = new SpatialGridIndex<>();
+    // "targetKey|actorId" -> consecutive fixes inside
+    private final ConcurrentHashMap<String, Integer> presence = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> insideByActor = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Long> lastTriggeredAt = new ConcurrentHashMap<>();
+
+    GeofenceTracker(double enterRadiusKm, double exitRadiusKm, int confirmFixes, long debounceMs) {
+        this.enterRadiusKm = enterRadiusKm;
+        this.exitRadiusKm = Math.max(exitRadiusKm, enterRadiusKm);
+        this.confirmFixes = Math.max(1, confirmFixes);
+        this.debounceMs = Math.max(0, debounceMs);
+    }
+
+    void upsert(Target target) {
+        targets.put(target.key(), target.latitude(), target.longitude(), target);
+    }
+
+    /**
+     * Drops every target of the parcel, e.g. once it progressed or left an eligible status, and
+     * forgets which actors were inside them, so a target added again later starts from outside.
+     */
+    synchronized void remove(UUID parcelId) {
+        Set<String> keys = new HashSet<>();
+        for (Kind kind : Kind.values()) {
+            String key = parcelId + ":" + kind;
+            keys.add(key);
+            targets.remove(key);
+            presence.keySet().removeIf(k -> k.startsWith(key + "|"));
+        }
+        insideByActor.values().forEach(inside -> inside.removeAll(keys));
+        insideByActor.values().removeIf(Set::isEmpty);
+        lastTriggeredAt.remove(parcelId);
+    }
+
+    /** Reconciliation: forget targets that are no longer eligible. */
+    void retainOnly(Set<String> keys) {
+        for (var entry : List.copyOf(targets.entries())) {
+            if (!keys.contains(entry.id())) remove(entry.value().parcelId());
+        }
+    }
+
+    int size() {
+        return targets.size();
+    }
+
+    /**
+     * Applies one actor fix and returns the targets that fire because of it. Callers
+     * must still check the parcel's current status before progressing it.
+     */
+    synchronized List<Trigger> onFix(String actorId, double latitude, double longitude, long nowMs) {
+        Set<String> inside = insideByActor.computeIfAbsent(actorId, a -> new HashSet<>());
+        Set<String> stillInside = new HashSet<>();
+        List<Trigger> triggers = new ArrayList<>();
+
+        for (var hit : targets.withinRadius(latitude, longitude, exitRadiusKm)) {
+            Target target = hit.value();
+            String key = target.key();
+            boolean wasInside = inside.contains(key);
+            if (!wasInside && hit.distanceKm() > enterRadiusKm) continue;
+
+            stillInside.add(key);
+            int count = presence.merge(key + "|" + actorId, 1, Integer::sum);
+            if (count < confirmFixes) continue;
+
+            Long last = lastTriggeredAt.get(target.parcelId());
+            if (last != null && nowMs - last < debounceMs) continue;
+            lastTriggeredAt.put(target.parcelId(), nowMs);
+            triggers.add(new Trigger(target, actorId, hit.distanceKm()));
+        }
+
+        for (String key : inside) {
+            if (!stillInside.contains(key)) presence.remove(key + "|" + actorId);
+        }
+        if (stillInside.isEmpty()) {
+            insideByActor.remove(actorId);
+        } else {
+            insideByActor.put(actorId, stillInside);
+        }
+        return triggers;
+    }
+}
@@ -1,15 +1,19 @@
 package com.smartcampost.backend.automation;
 
 import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.config.AsyncConfig;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.util.UUID;
 
@@ -19,7 +23,7 @@ import java.util.UUID;
  * appropriate notification to the relevant parties.
  *
  * DUAL MODE:
- * - AUTONOMOUS: @EventListener on ParcelStatusChangedEvent
+ * - AUTONOMOUS: after-commit listener on ParcelStatusChangedEvent (notification executor)
  * - MANUAL: call sendNotificationForStatus() via AutomationManualController
  */
 @Component
@@ -30,8 +34,9 @@ public class SmartNotificationEngine {
     private final NotificationService notificationService;
     private final ParcelRepository parcelRepository;
 
-    @Async
-    @EventListener
+    @Async(AsyncConfig.NOTIFICATION_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
     public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
         try {
             Parcel parcel = parcelRepository.findById(event.parcelId())
@@ -1,16 +1,22 @@
 package com.smartcampost.backend.automation;
 
 import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
-import com.smartcampost.backend.model.Location;
+import com.smartcampost.backend.config.AsyncConfig;
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.GeoPoints;
+import com.smartcampost.backend.logistics.LivePosition;
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
-import com.smartcampost.backend.repository.LocationRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.event.EventListener;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import java.time.OffsetDateTime;
 import java.util.*;
@@ -23,7 +29,7 @@ import java.util.stream.Collectors;
  * Scoring: proximity (50%) + workload (30%) + zone match (20%)
  *
  * DUAL MODE:
- * - AUTONOMOUS: @EventListener on ParcelStatusChangedEvent → ACCEPTED
+ * - AUTONOMOUS: after-commit listener on ParcelStatusChangedEvent → ACCEPTED (automation executor)
  * - MANUAL: admin/agent reassigns via existing assignment UI (unchanged)
  */
 @Component
@@ -31,14 +37,17 @@ import java.util.stream.Collectors;
 @Slf4j
 public class SmartParcelAutoAssignment {
 
-    private final LocationRepository locationRepository;
+    private final LivePositionIndex livePositionIndex;
     private final ParcelRepository parcelRepository;
     private final CourierAvailabilityScheduler courierAvailabilityScheduler;
 
     private static final int GPS_FRESHNESS_MINUTES = 5;
+    private static final int CANDIDATE_POOL = 50;
+    private static final double CANDIDATE_RADIUS_KM = 150.0;
 
-    @Async
-    @EventListener
+    @Async(AsyncConfig.AUTOMATION_EXECUTOR)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
     public void onParcelAccepted(ParcelStatusChangedEvent event) {
         if (event.newStatus() != ParcelStatus.ACCEPTED) return;
 
@@ -67,7 +76,6 @@ public class SmartParcelAutoAssignment {
      */
     public List<CourierScore> scoreCouriersForParcel(Parcel parcel) {
         OffsetDateTime cutoff = OffsetDateTime.now().minusMinutes(GPS_FRESHNESS_MINUTES);
-        List<Location> recentLocations = locationRepository.findTop500ByOrderByTimestampDesc();
 
         Double parcelLat = null, parcelLng = null;
         if (parcel.getSenderAddress() != null) {
@@ -79,12 +87,21 @@ public class SmartParcelAutoAssignment {
 
         Set<String> unavailable = courierAvailabilityScheduler.getUnavailableCouriers();
 
-        Map<String, Location> freshCourierLocations = new HashMap<>();
-        for (Location loc : recentLocations) {
-            if (loc.getUserId() == null) continue;
-            if (unavailable.contains(loc.getUserId())) continue;
-            if (loc.getTimestamp() != null && loc.getTimestamp().isAfter(cutoff)) {
-                freshCourierLocations.putIfAbsent(loc.getUserId(), loc);
+        Map<String, LivePosition> freshCourierLocations = new LinkedHashMap<>();
+        Map<String, Double> distances = new HashMap<>();
+        if (parcelLat != null && parcelLng != null) {
+            // Only the closest couriers can win on proximity; no need to score the whole fleet.
+            for (var hit : livePositionIndex.nearest(parcelLat, parcelLng, CANDIDATE_POOL, CANDIDATE_RADIUS_KM, cutoff)) {
+                if (unavailable.contains(hit.id())) continue;
+                freshCourierLocations.put(hit.id(), hit.value());
+                distances.put(hit.id(), hit.distanceKm());
+            }
+        }
+        if (freshCourierLocations.isEmpty()) {
+            distances.clear();
+            for (LivePosition loc : livePositionIndex.freshSince(cutoff)) {
+                if (unavailable.contains(loc.userId())) continue;
+                freshCourierLocations.put(loc.userId(), loc);
             }
         }
 
@@ -110,33 +127,34 @@ public class SmartParcelAutoAssignment {
             if (wl > maxWorkload) maxWorkload = wl;
         }
 
-        List<Map.Entry<String, Location>> entries = new ArrayList<>(freshCourierLocations.entrySet());
+        List<Map.Entry<String, LivePosition>> entries = new ArrayList<>(freshCourierLocations.entrySet());
 
-        if (parcelLat != null && parcelLng != null) {
-            for (var entry : entries) {
-                double dist = haversineKm(parcelLat, parcelLng,
-                        entry.getValue().getLatitude(), entry.getValue().getLongitude());
+        double[] courierDistances = parcelLat != null && parcelLng != null
+                ? distancesKm(distances, parcelLat, parcelLng, entries)
+                : null;
+        if (courierDistances != null) {
+            for (double dist : courierDistances) {
                 if (dist > maxDistance) maxDistance = dist;
             }
         }
         if (maxDistance == 0) maxDistance = 1;
 
-        for (var entry : entries) {
+        for (int i = 0; i < entries.size(); i++) {
+            var entry = entries.get(i);
             String courierId = entry.getKey();
-            Location loc = entry.getValue();
+            LivePosition loc = entry.getValue();
 
             double proximityScore = 0;
-            if (parcelLat != null && parcelLng != null) {
-                double dist = haversineKm(parcelLat, parcelLng, loc.getLatitude(), loc.getLongitude());
-                proximityScore = 1.0 - (dist / maxDistance);
+            if (courierDistances != null) {
+                proximityScore = 1.0 - (courierDistances[i] / maxDistance);
             }
 
             long courierWorkload = workload.getOrDefault(courierId, 0L);
             double workloadScore = 1.0 - ((double) courierWorkload / maxWorkload);
 
             double zoneScore = 0;
-            if (loc.getAddress() != null && !parcelZone.isEmpty()
-                    && loc.getAddress().toUpperCase().contains(parcelZone)) {
+            if (loc.address() != null && !parcelZone.isEmpty()
+                    && loc.address().toUpperCase().contains(parcelZone)) {
                 zoneScore = 1.0;
             }
 
@@ -157,14 +175,30 @@ public class SmartParcelAutoAssignment {
         return scoreCouriersForParcel(parcel);
     }
 
-    private double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        double R = 6371.0;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        return R * 2.0 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    /**
+     * Distance of each courier to the parcel, in entry order: the grid's distance when the
+     * courier came from the nearest query, otherwise one batch haversine over the rest.
+     */
+    private double[] distancesKm(Map<String, Double> known, double lat, double lng,
+                                 List<Map.Entry<String, LivePosition>> entries) {
+        double[] out = new double[entries.size()];
+        GeoPoints missing = new GeoPoints(entries.size());
+        int[] missingSlots = new int[entries.size()];
+        for (int i = 0; i < entries.size(); i++) {
+            Double dist = known.get(entries.get(i).getKey());
+            if (dist != null) {
+                out[i] = dist;
+            } else {
+                LivePosition loc = entries.get(i).getValue();
+                missingSlots[missing.add(loc.latitude(), loc.longitude())] = i;
+            }
+        }
+        if (!missing.isEmpty()) {
+            double[] computed = new double[missing.size()];
+            GeoDistance.haversineKm(lat, lng, missing, computed);
+            for (int j = 0; j < computed.length; j++) out[missingSlots[j]] = computed[j];
+        }
+        return out;
     }
 
     public record CourierScore(
@@ -0,0 +1,296 @@
+package com.smartcampost.backend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.AsyncConfigurer;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Named, bounded executors for @Async work, one per workload so a burst in one cannot starve
+ * the others:
+ * - {@value #AUTOMATION_EXECUTOR}: automation listeners (auto-assignment, zone routing, geofence)
+ * - {@value #NOTIFICATION_EXECUTOR}: status-change notifications (SMS / email gateways)
+ * - {@value #AI_EXECUTOR}: AI work taken off the request path (domain events go through AiEventStream)
+ * - {@value #CONVERSATION_EXECUTOR}: writes of finished chat answers; CALLER_RUNS by default,
+ *   since a dropped answer would leave a hole in the conversation history
+ * - {@value #DEFAULT_EXECUTOR}: plain @Async without a qualifier, which Spring resolves by this
+ *   bean name
+ *
+ * Each pool is configured under {@code smartcampost.async.<workload>} (core-size, max-size,
+ * queue-capacity, rejection = DEFER | CALLER_RUNS | ABORT | DISCARD | DISCARD_OLDEST). DEFER
+ * hands a rejected task to the pool's one-thread overflow lane (same queue capacity, dropped
+ * and counted beyond that); unlike CALLER_RUNS it never runs an after-commit listener on the
+ * request thread that committed. Every pool defaults to DEFER: DISCARD / DISCARD_OLDEST silently
+ * shed whatever is queued, so only configure them for a pool whose tasks are all optional.
+ *
+ * With {@code smartcampost.async.virtual-threads=true} on JDK 21+ each task gets a virtual
+ * thread that waits for one of max-size permits, so submitters never block; past queue-capacity
+ * waiting tasks, ABORT throws, DISCARD / DISCARD_OLDEST drop the new task and DEFER / CALLER_RUNS
+ * still admit it. On older JDKs the flag is ignored.
+ *
+ * Metrics (tag {@code executor}): smartcampost.async.queue.depth, .active, .pool.size (platform
+ * pools), .overflow.depth (DEFER), .rejected, .dropped, and timers .task.wait (queued → started)
+ * and .task.run.
+ */
+@Configuration
+@EnableAsync
+@Slf4j
+public class AsyncConfig implements AsyncConfigurer {
+
+    public static final String AUTOMATION_EXECUTOR = "automationExecutor";
+    public static final String NOTIFICATION_EXECUTOR = "notificationExecutor";
+    public static final String AI_EXECUTOR = "aiExecutor";
+    public static final String CONVERSATION_EXECUTOR = "conversationExecutor";
+    public static final String DEFAULT_EXECUTOR = "taskExecutor";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.async.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    private final List<ThreadPoolExecutor> overflowLanes = new CopyOnWriteArrayList<>();
+
+    public AsyncConfig(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean(name = AUTOMATION_EXECUTOR)
+    public AsyncTaskExecutor automationExecutor(
+            @Value("${smartcampost.async.automation.core-size:4}") int coreSize,
+            @Value("${smartcampost.async.automation.max-size:8}") int maxSize,
+            @Value("${smartcampost.async.automation.queue-capacity:500}") int queueCapacity,
+            @Value("${smartcampost.async.automation.rejection:DEFER}") String rejection) {
+        return buildExecutor("automation", coreSize, maxSize, queueCapacity, rejection);
+    }
+
+    @Bean(name = NOTIFICATION_EXECUTOR)
+    public AsyncTaskExecutor notificationExecutor(
+            @Value("${smartcampost.async.notifications.core-size:4}") int coreSize,
+            @Value("${smartcampost.async.notifications.max-size:16}") int maxSize,
+            @Value("${smartcampost.async.notifications.queue-capacity:2000}") int queueCapacity,
+            @Value("${smartcampost.async.notifications.rejection:DEFER}") String rejection) {
+        return buildExecutor("notifications", coreSize, maxSize, queueCapacity, rejection);
+    }
+
+    @Bean(name = AI_EXECUTOR)
+    public AsyncTaskExecutor aiExecutor(
+            @Value("${smartcampost.async.ai.core-size:2}") int coreSize,
+            @Value("${smartcampost.async.ai.max-size:4}") int maxSize,
+            @Value("${smartcampost.async.ai.queue-capacity:200}") int queueCapacity,
+            @Value("${smartcampost.async.ai.rejection:DEFER}") String rejection) {
+        return buildExecutor("ai", coreSize, maxSize, queueCapacity, rejection);
+    }
+
+    @Bean(name = CONVERSATION_EXECUTOR)
+    public AsyncTaskExecutor conversationExecutor(
+            @Value("${smartcampost.async.conversation.core-size:1}") int coreSize,
+            @Value("${smartcampost.async.conversation.max-size:2}") int maxSize,
+            @Value("${smartcampost.async.conversation.queue-capacity:1000}") int queueCapacity,
+            @Value("${smartcampost.async.conversation.rejection:CALLER_RUNS}") String rejection) {
+        return buildExecutor("conversation", coreSize, maxSize, queueCapacity, rejection);
+    }
+
+    /** Plain @Async (no qualifier); getAsyncExecutor() is left null so Spring injects this bean by name. */
+    @Bean(name = DEFAULT_EXECUTOR)
+    public AsyncTaskExecutor taskExecutor(
+            @Value("${smartcampost.async.default.core-size:2}") int coreSize,
+            @Value("${smartcampost.async.default.max-size:4}") int maxSize,
+            @Value("${smartcampost.async.default.queue-capacity:200}") int queueCapacity,
+            @Value("${smartcampost.async.default.rejection:DEFER}") String rejection) {
+        return buildExecutor("default", coreSize, maxSize, queueCapacity, rejection);
+    }
+
+    @PreDestroy
+    void stopOverflowLanes() {
+        overflowLanes.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    @Override
+    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
+        return (ex, method, params) -> log.error("[ASYNC] {}.{} failed: {}",
+                method.getDeclaringClass().getSimpleName(), method.getName(), ex.getMessage(), ex);
+    }
+
+    AsyncTaskExecutor buildExecutor(String name, int coreSize, int maxSize, int queueCapacity, String rejection) {
+        int max = Math.max(1, maxSize);
+        TaskDecorator decorator = timingDecorator(name);
+
+        if (virtualThreads && Runtime.version().feature() >= 21) {
+            return permitExecutor(name, max, queueCapacity, rejection, decorator, true);
+        }
+        if (virtualThreads) {
+            log.warn("[ASYNC] Virtual threads need JDK 21+, running '{}' on a platform thread pool", name);
+        }
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(name + "-");
+        executor.setCorePoolSize(Math.min(Math.max(1, coreSize), max));
+        executor.setMaxPoolSize(max);
+        executor.setQueueCapacity(Math.max(0, queueCapacity));
+        executor.setRejectedExecutionHandler(countingRejection(name, rejection, queueCapacity));
+        executor.setTaskDecorator(decorator);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(20);
+
+        Gauge.builder("smartcampost.async.queue.depth", executor, ThreadPoolTaskExecutor::getQueueSize)
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("smartcampost.async.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("smartcampost.async.pool.size", executor, ThreadPoolTaskExecutor::getPoolSize)
+                .tag("executor", name).register(meterRegistry);
+        log.info("[ASYNC] Executor '{}' core={} max={} queue={} rejection={}",
+                name, executor.getCorePoolSize(), max, queueCapacity, rejection);
+        return executor;
+    }
+
+    /**
+     * One thread per task (virtual on JDK 21+), at most {@code max} running. The throttle is a
+     * permit taken inside the task, so a submitter never waits (setConcurrencyLimit blocks it).
+     */
+    AsyncTaskExecutor permitExecutor(String name, int max, int queueCapacity, String rejection,
+                                     TaskDecorator timing, boolean virtual) {
+        Semaphore permits = new Semaphore(max);
+        AtomicInteger waiting = new AtomicInteger();
+        Counter rejected = rejectedCounter(name);
+        String policy = policy(rejection);
+
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(name + (virtual ? "-vt-" : "-"));
+        executor.setVirtualThreads(virtual);
+        executor.setTaskDecorator(task -> {
+            if (waiting.get() >= Math.max(0, queueCapacity) && permits.availablePermits() == 0) {
+                rejected.increment();
+                log.warn("[ASYNC] Executor '{}' saturated, applying {}", name, policy);
+                if (policy.equals("ABORT")) {
+                    throw new TaskRejectedException("Executor '" + name + "' has " + waiting.get() + " tasks waiting");
+                }
+                if (policy.startsWith("DISCARD")) {
+                    droppedCounter(name).increment();
+                    return () -> {};
+                }
+            }
+            Runnable timed = timing.decorate(task);
+            waiting.incrementAndGet();
+            return () -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    waiting.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                waiting.decrementAndGet();
+                try {
+                    timed.run();
+                } finally {
+                    permits.release();
+                }
+            };
+        });
+
+        Gauge.builder("smartcampost.async.queue.depth", waiting, AtomicInteger::get)
+                .tag("executor", name).register(meterRegistry);
+        Gauge.builder("smartcampost.async.active", permits, p -> max - p.availablePermits())
+                .tag("executor", name).register(meterRegistry);
+        log.info("[ASYNC] Executor '{}' on {} threads, max={} waiting={} rejection={}",
+                name, virtual ? "virtual" : "per-task", max, queueCapacity, policy);
+        return executor;
+    }
+
+    private TaskDecorator timingDecorator(String name) {
+        Timer wait = Timer.builder("smartcampost.async.task.wait")
+                .description("Time a task spent queued before it started")
+                .tag("executor", name).register(meterRegistry);
+        Timer run = Timer.builder("smartcampost.async.task.run")
+                .tag("executor", name).register(meterRegistry);
+        return task -> {
+            long submitted = System.nanoTime();
+            return () -> {
+                long started = System.nanoTime();
+                wait.record(started - submitted, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } finally {
+                    run.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                }
+            };
+        };
+    }
+
+    private RejectedExecutionHandler countingRejection(String name, String rejection, int queueCapacity) {
+        Counter rejected = rejectedCounter(name);
+        String policy = policy(rejection);
+        RejectedExecutionHandler delegate = switch (policy) {
+            case "CALLER_RUNS" -> new ThreadPoolExecutor.CallerRunsPolicy();
+            case "ABORT" -> new ThreadPoolExecutor.AbortPolicy();
+            case "DISCARD" -> new ThreadPoolExecutor.DiscardPolicy();
+            case "DISCARD_OLDEST" -> new ThreadPoolExecutor.DiscardOldestPolicy();
+            default -> deferPolicy(name, queueCapacity);
+        };
+        return (task, executor) -> {
+            rejected.increment();
+            log.warn("[ASYNC] Executor '{}' saturated, applying {}", name, policy);
+            delegate.rejectedExecution(task, executor);
+        };
+    }
+
+    /** Rejected tasks run in order on one extra thread; beyond its queue they are dropped. */
+    private RejectedExecutionHandler deferPolicy(String name, int queueCapacity) {
+        Counter dropped = droppedCounter(name);
+        ThreadPoolExecutor lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                r -> {
+                    Thread t = new Thread(r, name + "-overflow");
+                    t.setDaemon(true);
+                    return t;
+                },
+                (task, executor) -> {
+                    dropped.increment();
+                    log.error("[ASYNC] Executor '{}' and its overflow lane are full, dropping a task", name);
+                });
+        overflowLanes.add(lane);
+        Gauge.builder("smartcampost.async.overflow.depth", lane, l -> l.getQueue().size())
+                .tag("executor", name).register(meterRegistry);
+        return (task, executor) -> {
+            if (!executor.isShutdown()) lane.execute(task);
+        };
+    }
+
+    private Counter rejectedCounter(String name) {
+        return Counter.builder("smartcampost.async.rejected")
+                .description("Tasks refused because the executor queue was full")
+                .tag("executor", name).register(meterRegistry);
+    }
+
+    private Counter droppedCounter(String name) {
+        return Counter.builder("smartcampost.async.dropped")
+                .description("Tasks never run because the executor and its overflow were full")
+                .tag("executor", name).register(meterRegistry);
+    }
+
+    private static String policy(String rejection) {
+        return rejection == null || rejection.isBlank() ? "DEFER" : rejection.trim().toUpperCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.smartcampost.backend.config;
+
+import com.smartcampost.backend.scheduling.ScheduledJobMonitor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.Trigger;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * Multi-threaded scheduler for every @Scheduled job, so a slow sweep (ETA recalculation,
+ * geofence reconciliation) no longer delays ApprovalProcessor.poll or the others on Spring's
+ * default single thread. Recurring tasks are wrapped by {@link ScheduledJobMonitor}.
+ */
+@Configuration
+@Slf4j
+public class SchedulingConfig implements SchedulingConfigurer {
+
+    private final ScheduledJobMonitor jobMonitor;
+
+    @Value("${smartcampost.scheduling.pool-size:4}")
+    private int poolSize;
+
+    public SchedulingConfig(ScheduledJobMonitor jobMonitor) {
+        this.jobMonitor = jobMonitor;
+    }
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new MonitoredTaskScheduler(jobMonitor);
+        scheduler.setPoolSize(Math.max(1, poolSize));
+        scheduler.setThreadNamePrefix("scheduler-");
+        scheduler.setErrorHandler(t -> log.error("[SCHEDULER] Job failed: {}", t.getMessage(), t));
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(20);
+        log.info("[SCHEDULER] Pool size {}", scheduler.getPoolSize());
+        return scheduler;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar registrar) {
+        registrar.setTaskScheduler(taskScheduler());
+    }
+
+    /** Routes recurring registrations through the job monitor; one-shot schedules pass through. */
+    static final class MonitoredTaskScheduler extends ThreadPoolTaskScheduler {
+
+        private final ScheduledJobMonitor jobMonitor;
+
+        MonitoredTaskScheduler(ScheduledJobMonitor jobMonitor) {
+            this.jobMonitor = jobMonitor;
+        }
+
+        @Override
+        public ScheduledFuture<?> schedule(Runnable task, Trigger trigger) {
+            return super.schedule(jobMonitor.wrap(task, null), trigger);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Instant startTime, Duration period) {
+            return super.scheduleAtFixedRate(jobMonitor.wrap(task, period), startTime, period);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable task, Duration period) {
+            return super.scheduleAtFixedRate(jobMonitor.wrap(task, period), period);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Instant startTime, Duration delay) {
+            return super.scheduleWithFixedDelay(jobMonitor.wrap(task, delay), startTime, delay);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleWithFixedDelay(Runnable task, Duration delay) {
+            return super.scheduleWithFixedDelay(jobMonitor.wrap(task, delay), delay);
+        }
+    }
+}
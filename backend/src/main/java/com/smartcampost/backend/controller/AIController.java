@@ -8,9 +8,12 @@ import com.smartcampost.backend.service.AiAgentRecommendationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
 import java.time.Instant;
 import java.util.Map;
@@ -51,37 +54,37 @@ public class AIController {
     }
 
     /**
-     * Streaming chat endpoint: returns progressive word-by-word chunks.
-     * The AI response is generated first, then streamed word-by-word for
-     * a natural typing effect. Each word group is flushed immediately.
+     * Streaming chat endpoint: plain-text chunks of the answer, written as the model produces
+     * them. The session id of the turn is returned in the X-Session-Id header. The body is the
+     * Flux itself, so a client that disconnects cancels the model stream.
      */
-    @PostMapping(value = "/chat/stream")
-    public ResponseEntity<org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody> chatStream(
+    @PostMapping(value = "/chat/stream", produces = "text/plain;charset=UTF-8")
+    public ResponseEntity<Flux<String>> chatStream(
             @Valid @RequestBody ChatRequest request
     ) {
-        org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody stream = out -> {
-            ChatResponse resp = aiService.processChat(request);
-            String text = resp.getMessage() != null ? resp.getMessage() : "";
-            String[] words = text.split("(?<=\\s)");
-            int wordsPerChunk = 3;
-            for (int i = 0; i < words.length; i += wordsPerChunk) {
-                StringBuilder chunk = new StringBuilder();
-                for (int j = i; j < Math.min(i + wordsPerChunk, words.length); j++) {
-                    chunk.append(words[j]);
-                }
-                out.write(chunk.toString().getBytes(java.nio.charset.StandardCharsets.UTF_8));
-                out.flush();
-                try { Thread.sleep(40); } catch (InterruptedException ignored) {
-                    Thread.currentThread().interrupt();
-                    break;
-                }
-            }
-            out.flush();
-        };
+        Flux<ChatStreamEvent> events = aiService.streamChat(request);
+        // The turn is prepared before streamChat returns, so the leading "session" event is
+        // available at once; taking it alone completes without subscribing to the model call
+        ChatStreamEvent session = events.blockFirst();
+        Flux<String> deltas = events
+                .skip(1)
+                .filter(event -> ChatStreamEvent.DELTA.equals(event.getType()) && event.getDelta() != null)
+                .map(ChatStreamEvent::getDelta);
         return ResponseEntity.ok()
-                .header("Content-Type", "text/plain; charset=utf-8")
-                .header("Transfer-Encoding", "chunked")
-                .body(stream);
+                .header("X-Session-Id", session != null ? session.getSessionId() : null)
+                .body(deltas);
+    }
+
+    /**
+     * Streaming chat as server-sent events: "session", then one "delta" per model chunk, then
+     * "done" with the complete ChatResponse.
+     */
+    @PostMapping(value = "/chat/sse", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<ChatStreamEvent>> chatSse(
+            @Valid @RequestBody ChatRequest request
+    ) {
+        return aiService.streamChat(request)
+                .map(event -> ServerSentEvent.builder(event).event(event.getType()).build());
     }
 
     /**
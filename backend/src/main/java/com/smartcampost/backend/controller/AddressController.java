@@ -6,6 +6,7 @@ import com.smartcampost.backend.exception.AuthException;
 import com.smartcampost.backend.exception.ConflictException;
 import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
+import com.smartcampost.backend.geo.AddressPositioner;
 import com.smartcampost.backend.model.Address;
 import com.smartcampost.backend.model.Client;
 import com.smartcampost.backend.model.UserAccount;
@@ -36,6 +37,7 @@ public class AddressController {
     private final ClientRepository clientRepository;
     private final UserAccountRepository userAccountRepository;
     private final ParcelRepository parcelRepository;
+    private final AddressPositioner addressPositioner;
 
     @GetMapping("/me")
     public List<AddressResponse> listMyAddresses() {
@@ -62,6 +64,7 @@ public class AddressController {
                 .build();
 
         Address saved = addressRepository.save(toCreate);
+        addressPositioner.enqueue(saved);
         return toResponse(saved);
     }
 
@@ -119,6 +122,7 @@ public class AddressController {
                 .build();
 
         Address saved = addressRepository.save(toCreate);
+        addressPositioner.enqueue(saved);
         return toResponse(saved);
     }
 
@@ -144,6 +148,7 @@ public class AddressController {
         address.setLongitude(toBigDecimal(request.getLongitude()));
 
         Address saved = addressRepository.save(address);
+        addressPositioner.enqueue(saved);
         return toResponse(saved);
     }
 
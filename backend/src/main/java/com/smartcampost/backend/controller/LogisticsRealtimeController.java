@@ -4,22 +4,28 @@ import com.smartcampost.backend.dto.ai.RouteOptimizationRequest;
 import com.smartcampost.backend.dto.ai.RouteOptimizationResponse;
 import com.smartcampost.backend.dto.logistics.GpsTrackerRequest;
 import com.smartcampost.backend.dto.logistics.GpsUpdateRequest;
+import com.smartcampost.backend.geo.GeoDistance;
 import com.smartcampost.backend.model.GpsTracker;
-import com.smartcampost.backend.model.Location;
 import com.smartcampost.backend.model.Parcel;
-import com.smartcampost.backend.model.ScanEvent;
 import com.smartcampost.backend.model.UserAccount;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.repository.GpsTrackerRepository;
 import com.smartcampost.backend.repository.LocationRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
-import com.smartcampost.backend.repository.ScanEventRepository;
 import com.smartcampost.backend.repository.UserAccountRepository;
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.GpsFix;
+import com.smartcampost.backend.logistics.GpsIngestionPipeline;
+import com.smartcampost.backend.logistics.LastKnownLocation;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
+import com.smartcampost.backend.logistics.LivePosition;
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.service.ai.agents.RouteOptimizationAgent;
-import com.smartcampost.backend.sse.SseEmitters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -28,13 +34,9 @@ import org.springframework.web.bind.annotation.*;
 
 import com.smartcampost.backend.repository.AgentRepository;
 import com.smartcampost.backend.repository.CourierRepository;
-import com.smartcampost.backend.repository.PickupRequestRepository;
-import com.smartcampost.backend.model.enums.PickupRequestState;
 
 import java.security.Principal;
 import java.time.Instant;
-import java.time.OffsetDateTime;
-import java.time.ZoneOffset;
 import java.util.*;
 
 @RestController
@@ -48,22 +50,18 @@ public class LogisticsRealtimeController {
             ParcelStatus.IN_TRANSIT, ParcelStatus.ARRIVED_HUB, ParcelStatus.ARRIVED_DEST_AGENCY,
             ParcelStatus.OUT_FOR_DELIVERY
     );
-
-    // Same role set trusted with GET /api/logistics/live — nationwide GPS data must never
-    // reach a CLIENT, even one connected to the shared /api/stream/ai channel for AI chat.
-    private static final Set<String> GPS_VISIBLE_AUTHORITIES = Set.of(
-            "ROLE_ADMIN", "ROLE_STAFF", "ROLE_RISK", "ROLE_COURIER", "ROLE_AGENT"
-    );
+    private static final double PICKUP_SEARCH_RADIUS_KM = 200.0;
 
     private final GpsTrackerRepository gpsTrackerRepository;
     private final LocationRepository locationRepository;
     private final ParcelRepository parcelRepository;
     private final UserAccountRepository userAccountRepository;
-    private final ScanEventRepository scanEventRepository;
     private final AgentRepository agentRepository;
     private final CourierRepository courierRepository;
-    private final PickupRequestRepository pickupRequestRepository;
-    private final SseEmitters sseEmitters;
+    private final GpsIngestionPipeline gpsIngestionPipeline;
+    private final LivePositionIndex livePositionIndex;
+    private final LastKnownLocationCache lastKnownLocations;
+    private final ActorParcelIndex actorParcelIndex;
     private final RouteOptimizationAgent routeOptimizationAgent;
 
     @GetMapping("/trackers")
@@ -108,17 +106,21 @@ public class LogisticsRealtimeController {
             @RequestBody GpsUpdateRequest request,
             Principal principal
     ) {
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "latitude and longitude are required"));
+        }
         String actorKey = resolveActorKey(principal);
-        Location saved = saveLocation(actorKey, "MOBILE_GPS", request);
+        GpsFix fix = GpsFix.mobile(actorKey, request.getLatitude(), request.getLongitude(),
+                request.getSpeed(), request.getHeading(), request.getTimestamp());
 
-        // Also update any parcels associated with this courier/actor, and notify their
-        // individual public tracking pages.
-        List<Parcel> updatedParcels = updateAssociatedParcels(actorKey, request.getLatitude(), request.getLongitude());
-        notifyTrackingSubscribers(updatedParcels);
-
-        Map<String, Object> payload = livePayload("mobile", actorKey, saved, request.getSpeed(), request.getHeading());
-        sseEmitters.emitAiEventToRoles("gps-update", payload, GPS_VISIBLE_AUTHORITIES);
-        return ResponseEntity.ok(payload);
+        // Persistence, parcel propagation and SSE fan-out happen on the ingestion writer;
+        // the courier's app only waits for the fix to be queued.
+        if (!gpsIngestionPipeline.submit(fix)) {
+            return ingestionBusy();
+        }
+        Map<String, Object> payload = GpsIngestionPipeline.livePayload(fix);
+        payload.put("queued", true);
+        return ResponseEntity.accepted().body(payload);
     }
 
     /**
@@ -132,21 +134,22 @@ public class LogisticsRealtimeController {
             Principal principal
     ) {
         String actorKey = resolveActorKey(principal);
-        int saved = 0;
+        List<GpsFix> fixes = new ArrayList<>(requests.size());
         for (GpsUpdateRequest req : requests) {
-            try {
-                saveLocation(actorKey, "MOBILE_GPS", req);
-                saved++;
-            } catch (Exception e) {
-                log.warn("Batch GPS point failed: {}", e.getMessage());
+            if (req.getLatitude() == null || req.getLongitude() == null) {
+                log.warn("Batch GPS point skipped: missing coordinates");
+                continue;
             }
+            fixes.add(GpsFix.mobile(actorKey, req.getLatitude(), req.getLongitude(),
+                    req.getSpeed(), req.getHeading(), req.getTimestamp()));
         }
-        if (!requests.isEmpty()) {
-            GpsUpdateRequest last = requests.get(requests.size() - 1);
-            List<Parcel> updated = updateAssociatedParcels(actorKey, last.getLatitude(), last.getLongitude());
-            notifyTrackingSubscribers(updated);
+        // All or nothing: the app clears its offline cache on any 2xx and resends it all on 503
+        if (!gpsIngestionPipeline.submitAll(fixes)) {
+            return ingestionBusy();
         }
-        return ResponseEntity.ok(Map.of("synced", saved, "total", requests.size()));
+        // The writer coalesces per actor, so parcels follow the newest point of the batch.
+        return ResponseEntity.accepted().body(Map.of(
+                "synced", fixes.size(), "skipped", requests.size() - fixes.size(), "total", requests.size()));
     }
 
     @PostMapping("/gps/iot")
@@ -157,43 +160,50 @@ public class LogisticsRealtimeController {
         if (!tracker.isActive()) {
             return ResponseEntity.badRequest().body(Map.of("error", "Tracker is inactive"));
         }
+        if (request.getLatitude() == null || request.getLongitude() == null) {
+            return ResponseEntity.badRequest().body(Map.of("error", "latitude and longitude are required"));
+        }
 
-        tracker.setLastLatitude(request.getLatitude());
-        tracker.setLastLongitude(request.getLongitude());
-        tracker.setLastSpeed(request.getSpeed());
-        tracker.setLastHeading(request.getHeading());
-        tracker.setLastSeenAt(request.getTimestamp() == null ? Instant.now() : request.getTimestamp());
-        gpsTrackerRepository.save(tracker);
-
-        // Update coordinates on the assigned entity
+        // Update coordinates on the assigned entity: a PARCEL tracker moves that parcel, a
+        // COURIER tracker moves every parcel the courier is handling.
+        UUID trackedParcelId = null;
+        boolean propagate = false;
         if (tracker.getAssignedType() != null && tracker.getAssignedId() != null) {
             String assignedType = tracker.getAssignedType().toUpperCase();
             if (assignedType.equals("PARCEL")) {
                 try {
-                    UUID parcelId = UUID.fromString(tracker.getAssignedId());
-                    parcelRepository.findById(parcelId).ifPresent(parcel -> {
-                        parcel.setCurrentLatitude(request.getLatitude());
-                        parcel.setCurrentLongitude(request.getLongitude());
-                        parcel.setLocationUpdatedAt(Instant.now());
-                        parcelRepository.save(parcel);
-                        notifyTrackingSubscribers(List.of(parcel));
-                    });
+                    trackedParcelId = UUID.fromString(tracker.getAssignedId());
                 } catch (IllegalArgumentException e) {
                     log.debug("Tracker assignedId is not a valid UUID: {}", tracker.getAssignedId());
                 }
             } else if (assignedType.equals("COURIER")) {
-                // Courier-assigned tracker: propagate GPS to all parcels the courier is handling
-                List<Parcel> updated = updateAssociatedParcels(tracker.getAssignedId(), request.getLatitude(), request.getLongitude());
-                notifyTrackingSubscribers(updated);
+                propagate = true;
             }
         }
 
         String actorKey = tracker.getAssignedId() == null ? tracker.getDeviceId() : tracker.getAssignedId();
-        Location saved = saveLocation(actorKey, "IOT_GPS", request);
-        Map<String, Object> payload = livePayload("iot", actorKey, saved, request.getSpeed(), request.getHeading());
-        payload.put("tracker", tracker);
-        sseEmitters.emitAiEventToRoles("gps-update", payload, GPS_VISIBLE_AUTHORITIES);
-        return ResponseEntity.ok(payload);
+        GpsFix fix = new GpsFix(actorKey, "IOT_GPS", request.getLatitude(), request.getLongitude(),
+                request.getSpeed(), request.getHeading(), request.getTimestamp(),
+                tracker.getId(), trackedParcelId, propagate);
+        if (!gpsIngestionPipeline.submit(fix)) {
+            return ingestionBusy();
+        }
+        Map<String, Object> payload = GpsIngestionPipeline.livePayload(fix);
+        payload.put("trackerId", tracker.getId());
+        payload.put("queued", true);
+        return ResponseEntity.accepted().body(payload);
+    }
+
+    @GetMapping("/gps/ingestion/stats")
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    public ResponseEntity<Map<String, Object>> ingestionStats() {
+        return ResponseEntity.ok(gpsIngestionPipeline.stats());
+    }
+
+    @GetMapping("/gps/last-known/stats")
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    public ResponseEntity<Map<String, Object>> lastKnownLocationStats() {
+        return ResponseEntity.ok(lastKnownLocations.stats());
     }
 
     @GetMapping("/live")
@@ -201,8 +211,9 @@ public class LogisticsRealtimeController {
     public ResponseEntity<Map<String, Object>> liveOverview() {
         boolean global = hasAnyRole("ROLE_ADMIN", "ROLE_STAFF", "ROLE_RISK");
         String actorKey = resolveActorKey(null);
-        List<Location> locations = global
-                ? locationRepository.findTop500ByOrderByTimestampDesc()
+        // Global view: latest fix per actor from the live index; an actor sees its own recent trail.
+        List<?> locations = global
+                ? livePositionIndex.snapshot().stream().limit(500).toList()
                 : locationRepository.findTop100ByUserIdOrderByTimestampDesc(actorKey);
         return ResponseEntity.ok(Map.of(
                 "locations", locations,
@@ -228,7 +239,7 @@ public class LogisticsRealtimeController {
             Double lat = number(stop.get("latitude"));
             Double lng = number(stop.get("longitude"));
             if (prevLat != null && prevLng != null && lat != null && lng != null) {
-                totalKm += haversineKm(prevLat, prevLng, lat, lng);
+                totalKm += GeoDistance.haversineKm(prevLat, prevLng, lat, lng);
             }
             prevLat = lat;
             prevLng = lng;
@@ -245,7 +256,8 @@ public class LogisticsRealtimeController {
 
     /**
      * Full route optimization: accepts explicit pickup + delivery stops with GPS coordinates
-     * from the frontend (already geocoded). Uses nearest-neighbor with strategy selection.
+     * from the frontend (already geocoded). Solved with 2-opt / Or-opt local search under time
+     * windows, vehicle capacity and pickup-before-delivery, with strategy selection.
      */
     @PostMapping("/route-optimization")
     @PreAuthorize("hasAnyRole('COURIER','AGENT','STAFF','ADMIN')")
@@ -289,17 +301,15 @@ public class LogisticsRealtimeController {
             @RequestParam Double latitude,
             @RequestParam Double longitude
     ) {
-        List<Map<String, Object>> candidates = locationRepository.findTop500ByOrderByTimestampDesc()
+        List<Map<String, Object>> candidates = livePositionIndex
+                .nearest(latitude, longitude, 10, PICKUP_SEARCH_RADIUS_KM, null)
                 .stream()
-                .filter(location -> location.getLatitude() != null && location.getLongitude() != null)
-                .map(location -> Map.<String, Object>of(
-                        "actorId", location.getUserId(),
-                        "distanceKm", round(haversineKm(latitude, longitude, location.getLatitude(), location.getLongitude())),
-                        "lastSeenAt", location.getTimestamp(),
-                        "score", Math.max(1, 100 - Math.round(haversineKm(latitude, longitude, location.getLatitude(), location.getLongitude()) * 8))
+                .map(hit -> Map.<String, Object>of(
+                        "actorId", hit.id(),
+                        "distanceKm", round(hit.distanceKm()),
+                        "lastSeenAt", hit.value().timestamp(),
+                        "score", Math.max(1, 100 - Math.round(hit.distanceKm() * 8))
                 ))
-                .sorted(Comparator.comparingDouble(item -> ((Number) item.get("distanceKm")).doubleValue()))
-                .limit(10)
                 .toList();
         Map<String, Object> response = new LinkedHashMap<>();
         response.put("recommendedAgent", candidates.isEmpty() ? null : candidates.get(0));
@@ -308,40 +318,10 @@ public class LogisticsRealtimeController {
         return ResponseEntity.ok(response);
     }
 
-    private Location saveLocation(String actorKey, String source, GpsUpdateRequest request) {
-        Location loc = new Location();
-        loc.setUserId(actorKey);
-        loc.setLatitude(request.getLatitude());
-        loc.setLongitude(request.getLongitude());
-        loc.setSource(source);
-        Instant timestamp = request.getTimestamp() == null ? Instant.now() : request.getTimestamp();
-        loc.setTimestamp(OffsetDateTime.ofInstant(timestamp, ZoneOffset.UTC));
-        return locationRepository.save(loc);
-    }
-
-    private Map<String, Object> livePayload(String source, String actorKey, Location location, Double speed, Double heading) {
-        Map<String, Object> payload = new LinkedHashMap<>();
-        payload.put("source", source);
-        payload.put("actorId", actorKey);
-        payload.put("latitude", location.getLatitude());
-        payload.put("longitude", location.getLongitude());
-        payload.put("speed", speed);
-        payload.put("heading", heading);
-        payload.put("timestamp", location.getTimestamp());
-        payload.put("inheritedParcels", inheritedParcelLocations(actorKey));
-        return payload;
-    }
-
     private List<Map<String, Object>> inheritedParcelLocations(String actorKey) {
-        List<Location> locations = actorKey == null
-                ? locationRepository.findTop500ByOrderByTimestampDesc()
-                : locationRepository.findTop100ByUserIdOrderByTimestampDesc(actorKey);
-        Map<String, Location> latestByActor = new LinkedHashMap<>();
-        for (Location location : locations) {
-            if (location.getUserId() != null && !latestByActor.containsKey(location.getUserId())) {
-                latestByActor.put(location.getUserId(), location);
-            }
-        }
+        LivePosition fallback = actorKey == null
+                ? livePositionIndex.snapshot().stream().findFirst().orElse(null)
+                : livePositionIndex.get(actorKey).orElse(null);
 
         List<Parcel> activeParcels = parcelRepository.findByStatusIn(ACTIVE_STATUSES, PageRequest.of(0, 250)).getContent();
 
@@ -356,7 +336,7 @@ public class LogisticsRealtimeController {
         }
 
         return activeParcels.stream()
-                .map(parcel -> inheritedParcel(parcel, latestByActor))
+                .map(parcel -> inheritedParcel(parcel, fallback))
                 .filter(Objects::nonNull)
                 .toList();
     }
@@ -364,23 +344,19 @@ public class LogisticsRealtimeController {
     /**
      * Determines whether a parcel should be visible to the given actor.
      * A parcel is visible if:
-     *   1. The parcel's most recent ScanEvent.actorId matches the actor's key, OR
+     *   1. The parcel's most recent ScanEvent.actorId matches the actor's key ({@link ActorParcelIndex}), OR
      *   2. The parcel's originAgency matches the actor's agency.
+     * The agency check runs first since the scanner check may read parcel_latest_scan.
      */
     private boolean isParcelVisibleToActor(Parcel parcel, String actorKey, UUID actorAgencyId) {
-        // Check if the last scan event for this parcel was performed by this actor
-        Optional<ScanEvent> lastEvent = scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(parcel.getId());
-        if (lastEvent.isPresent() && actorKey.equals(lastEvent.get().getActorId())) {
-            return true;
-        }
-
         // Check if the parcel's origin agency matches the actor's agency
         if (actorAgencyId != null && parcel.getOriginAgency() != null
                 && actorAgencyId.equals(parcel.getOriginAgency().getId())) {
             return true;
         }
 
-        return false;
+        // Check if the last scan event for this parcel was performed by this actor
+        return actorParcelIndex.isLatestScanner(parcel.getId(), actorKey);
     }
 
     /**
@@ -405,83 +381,32 @@ public class LogisticsRealtimeController {
         }
     }
 
-    private Map<String, Object> inheritedParcel(Parcel parcel, Map<String, Location> latestByActor) {
+    private Map<String, Object> inheritedParcel(Parcel parcel, LivePosition location) {
         // Prioritize the parcel's own active GPS coordinates updated in real-time
-        if (parcel.getCurrentLatitude() != null && parcel.getCurrentLongitude() != null) {
+        LastKnownLocation live = lastKnownLocations.parcel(parcel).orElse(null);
+        if (live != null) {
             Map<String, Object> out = parcelBase(parcel);
-            out.put("latitude", parcel.getCurrentLatitude());
-            out.put("longitude", parcel.getCurrentLongitude());
+            out.put("latitude", live.latitude());
+            out.put("longitude", live.longitude());
             out.put("source", "PARCEL_ACTIVE_GPS");
-            out.put("timestamp", parcel.getLocationUpdatedAt());
+            out.put("timestamp", live.at());
             return out;
         }
 
-        Location location = latestByActor.values().stream().findFirst().orElse(null);
         if (location == null) return null;
         Map<String, Object> out = parcelBase(parcel);
-        out.put("latitude", location.getLatitude());
-        out.put("longitude", location.getLongitude());
+        out.put("latitude", location.latitude());
+        out.put("longitude", location.longitude());
         out.put("source", "INHERITED_ACTOR_LOCATION");
-        out.put("actorId", location.getUserId());
-        out.put("timestamp", location.getTimestamp());
+        out.put("actorId", location.userId());
+        out.put("timestamp", location.timestamp());
         return out;
     }
 
-    private List<Parcel> updateAssociatedParcels(String actorKey, Double latitude, Double longitude) {
-        if (actorKey == null || actorKey.equals("anonymous")) return List.of();
-
-        Set<UUID> parcelIds = new LinkedHashSet<>();
-
-        // Path 1: parcels whose last overall scan event was performed by this actor
-        List<ScanEvent> actorEvents = scanEventRepository.findByActorIdOrderByTimestampDesc(actorKey);
-        for (ScanEvent evt : actorEvents) {
-            if (evt.getParcel() == null) continue;
-            UUID pid = evt.getParcel().getId();
-            if (parcelIds.contains(pid)) continue;
-            // Accept only if this actor's event is still the LATEST for the parcel
-            scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(pid)
-                    .filter(latest -> actorKey.equals(latest.getActorId()))
-                    .ifPresent(ignored -> parcelIds.add(pid));
-        }
-
-        // Path 2: parcels assigned to this actor via PickupRequest (pre-scan / just assigned)
-        try {
-            UUID courierId = UUID.fromString(actorKey);
-            pickupRequestRepository.findByCourier_Id(courierId, PageRequest.of(0, 50))
-                    .getContent().stream()
-                    .filter(pr -> pr.getState() == PickupRequestState.ASSIGNED
-                               && pr.getParcel() != null)
-                    .forEach(pr -> parcelIds.add(pr.getParcel().getId()));
-        } catch (IllegalArgumentException ignored) { /* actorKey is not a UUID */ }
-
-        if (parcelIds.isEmpty()) return List.of();
-
-        Instant now = Instant.now();
-        List<Parcel> updated = new ArrayList<>();
-        for (UUID pid : parcelIds) {
-            parcelRepository.findById(pid).ifPresent(parcel -> {
-                if (ACTIVE_STATUSES.contains(parcel.getStatus())) {
-                    parcel.setCurrentLatitude(latitude);
-                    parcel.setCurrentLongitude(longitude);
-                    parcel.setLocationUpdatedAt(now);
-                    updated.add(parcelRepository.save(parcel));
-                }
-            });
-        }
-        return updated;
-    }
-
-    /** Pushes a live position update only to public tracking pages watching these specific parcels. */
-    private void notifyTrackingSubscribers(List<Parcel> updatedParcels) {
-        for (Parcel parcel : updatedParcels) {
-            if (parcel.getTrackingRef() == null) continue;
-            Map<String, Object> ip = inheritedParcel(parcel, Map.of());
-            if (ip == null) continue; // no coordinates yet — skip rather than send null
-            Map<String, Object> scoped = new LinkedHashMap<>();
-            scoped.put("inheritedParcels", List.of(ip));
-            scoped.put("updatedAt", Instant.now());
-            sseEmitters.emitTrackingUpdate("gps-update", parcel.getTrackingRef(), scoped);
-        }
+    private ResponseEntity<Map<String, Object>> ingestionBusy() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(Map.of("error", "GPS ingestion queue is full, retry later"));
     }
 
     private Map<String, Object> parcelBase(Parcel parcel) {
@@ -533,16 +458,6 @@ public class LogisticsRealtimeController {
         return text.isBlank() ? null : Double.valueOf(text);
     }
 
-    private double haversineKm(double lat1, double lon1, double lat2, double lon2) {
-        double radius = 6371.0;
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
-        return radius * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-    }
-
     private double round(double value) {
         return Math.round(value * 100.0) / 100.0;
     }
@@ -1,5 +1,9 @@
 package com.smartcampost.backend.controller;
 
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.LastKnownLocation;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.model.Address;
 import com.smartcampost.backend.model.Agency;
 import com.smartcampost.backend.model.Location;
@@ -49,6 +53,9 @@ public class MapController {
     private final AgentRepository agentRepository;
     private final CourierRepository courierRepository;
     private final PickupRequestRepository pickupRequestRepository;
+    private final LivePositionIndex livePositionIndex;
+    private final LastKnownLocationCache lastKnownLocations;
+    private final ActorParcelIndex actorParcelIndex;
 
     public MapController(
             ParcelRepository parcelRepository,
@@ -58,7 +65,10 @@ public class MapController {
             UserAccountRepository userAccountRepository,
             AgentRepository agentRepository,
             CourierRepository courierRepository,
-            PickupRequestRepository pickupRequestRepository
+            PickupRequestRepository pickupRequestRepository,
+            LivePositionIndex livePositionIndex,
+            LastKnownLocationCache lastKnownLocations,
+            ActorParcelIndex actorParcelIndex
     ) {
         this.parcelRepository = parcelRepository;
         this.scanEventService = scanEventService;
@@ -68,6 +78,9 @@ public class MapController {
         this.agentRepository = agentRepository;
         this.courierRepository = courierRepository;
         this.pickupRequestRepository = pickupRequestRepository;
+        this.livePositionIndex = livePositionIndex;
+        this.lastKnownLocations = lastKnownLocations;
+        this.actorParcelIndex = actorParcelIndex;
     }
 
     @GetMapping("/parcels/{parcelId}")
@@ -129,11 +142,15 @@ public class MapController {
         List<Map<String, Object>> activeParcels = new ArrayList<>();
         List<Map<String, Object>> deliveryStops = new ArrayList<>();
 
-        parcelRepository.findByStatusIn(ACTIVE_STATUSES, PageRequest.of(0, 150))
+        List<Parcel> visibleParcels = parcelRepository.findByStatusIn(ACTIVE_STATUSES, PageRequest.of(0, 150))
                 .stream()
                 .filter(p -> isParcelVisibleToActor(p, actorId, actorAgencyId, finalAssignedParcelIds))
-                .forEach(p -> {
-                    ScanEventResponse last = scanEventService.getLastScanEvent(p.getId());
+                .toList();
+        Map<UUID, ScanEventResponse> lastScans = scanEventService.getLastScanEvents(
+                visibleParcels.stream().map(Parcel::getId).toList());
+        visibleParcels.forEach(p -> {
+                    ScanEventResponse last = lastScans.get(p.getId());
+                    LastKnownLocation live = lastKnownLocations.parcel(p).orElse(null);
 
                     Map<String, Object> parcel = new LinkedHashMap<>();
                     parcel.put("id", p.getId());
@@ -146,10 +163,10 @@ public class MapController {
                         parcel.put("currentTimestamp", last.getTimestamp());
                         parcel.put("currentEventType", last.getEventType());
                         parcel.put("locationNote", last.getLocationNote());
-                    } else if (p.getCurrentLatitude() != null) {
-                        parcel.put("currentLatitude", p.getCurrentLatitude());
-                        parcel.put("currentLongitude", p.getCurrentLongitude());
-                        parcel.put("currentTimestamp", p.getLocationUpdatedAt());
+                    } else if (live != null) {
+                        parcel.put("currentLatitude", live.latitude());
+                        parcel.put("currentLongitude", live.longitude());
+                        parcel.put("currentTimestamp", live.at());
                     }
                     activeParcels.add(parcel);
 
@@ -180,11 +197,15 @@ public class MapController {
     @Transactional(readOnly = true)
     public ResponseEntity<?> adminOverview() {
         Map<String, Object> out = new HashMap<>();
-        out.put("recentLocations", locationService.getRecentAll());
-
-        List<Map<String, Object>> activeParcels = parcelRepository
-                .findByStatusIn(ACTIVE_STATUSES, PageRequest.of(0, 300))
-                .stream()
+        out.put("recentLocations", livePositionIndex.snapshot().stream().limit(500).toList());
+
+        List<Parcel> parcels = parcelRepository.findByStatusIn(ACTIVE_STATUSES, PageRequest.of(0, 300)).getContent();
+        // Last scans only for parcels without a known position, fetched in one query
+        Map<UUID, ScanEventResponse> lastScans = scanEventService.getLastScanEvents(parcels.stream()
+                .filter(p -> lastKnownLocations.parcel(p).isEmpty())
+                .map(Parcel::getId)
+                .toList());
+        List<Map<String, Object>> activeParcels = parcels.stream()
                 .map(p -> {
                     Map<String, Object> parcel = new HashMap<>();
                     parcel.put("id", p.getId());
@@ -193,12 +214,13 @@ public class MapController {
                     parcel.put("creationLatitude", p.getCreationLatitude());
                     parcel.put("creationLongitude", p.getCreationLongitude());
 
-                    if (p.getCurrentLatitude() != null && p.getCurrentLongitude() != null) {
-                        parcel.put("currentLatitude", p.getCurrentLatitude());
-                        parcel.put("currentLongitude", p.getCurrentLongitude());
-                        parcel.put("currentTimestamp", p.getLocationUpdatedAt());
+                    LastKnownLocation live = lastKnownLocations.parcel(p).orElse(null);
+                    if (live != null) {
+                        parcel.put("currentLatitude", live.latitude());
+                        parcel.put("currentLongitude", live.longitude());
+                        parcel.put("currentTimestamp", live.at());
                     } else {
-                        ScanEventResponse last = scanEventService.getLastScanEvent(p.getId());
+                        ScanEventResponse last = lastScans.get(p.getId());
                         if (last != null) {
                             parcel.put("currentLatitude", last.getLatitude());
                             parcel.put("currentLongitude", last.getLongitude());
@@ -301,17 +323,15 @@ public class MapController {
      *   1. The parcel's most recent ScanEvent was performed by this actor, OR
      *   2. The parcel's originAgency matches the actor's agency, OR
      *   3. There is an ASSIGNED PickupRequest for this parcel with this courier.
+     * The in-memory checks run first; the scanner check may read parcel_latest_scan.
      */
     private boolean isParcelVisibleToActor(Parcel p, String actorId, UUID actorAgencyId, Set<UUID> assignedParcelIds) {
         if (assignedParcelIds.contains(p.getId())) return true;
 
-        ScanEventResponse last = scanEventService.getLastScanEvent(p.getId());
-        if (last != null && actorId.equals(last.getActorId())) return true;
-
         if (actorAgencyId != null && p.getOriginAgency() != null
                 && actorAgencyId.equals(p.getOriginAgency().getId())) return true;
 
-        return false;
+        return actorParcelIndex.isLatestScanner(p.getId(), actorId);
     }
 
     private UUID resolveActorAgencyId(String actorKey) {
@@ -2,6 +2,8 @@ package com.smartcampost.backend.controller;
 
 import com.smartcampost.backend.dto.notification.NotificationResponse;
 import com.smartcampost.backend.dto.notification.TriggerNotificationRequest;
+import com.smartcampost.backend.notification.NotificationCoalescer;
+import com.smartcampost.backend.notification.NotificationOutboxWorker;
 import com.smartcampost.backend.service.NotificationService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -22,6 +24,8 @@ import java.util.UUID;
 public class NotificationController {
 
     private final NotificationService notificationService;
+    private final NotificationOutboxWorker outboxWorker;
+    private final NotificationCoalescer coalescer;
 
     // Admin déclenche une notif manuelle
     @PostMapping("/trigger")
@@ -90,6 +94,20 @@ public class NotificationController {
         return ResponseEntity.ok(notificationService.retryNotification(id));
     }
 
+    // Outbox delivery counters (sent / retried / dead-lettered)
+    @GetMapping("/outbox/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> outboxStats() {
+        return ResponseEntity.ok(outboxWorker.stats());
+    }
+
+    // Suppressed duplicates and digest counters
+    @GetMapping("/coalescer/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> coalescerStats() {
+        return ResponseEntity.ok(coalescer.stats());
+    }
+
     @GetMapping("/parcel/{parcelId}")
     public ResponseEntity<List<NotificationResponse>> listForParcel(@PathVariable UUID parcelId) {
         return ResponseEntity.ok(notificationService.listForParcel(parcelId));
@@ -1,5 +1,6 @@
 package com.smartcampost.backend.controller;
 
+import com.smartcampost.backend.dto.scan.OfflineSyncCursorResponse;
 import com.smartcampost.backend.dto.scan.OfflineSyncRequest;
 import com.smartcampost.backend.dto.scan.OfflineSyncResponse;
 import com.smartcampost.backend.service.ScanEventService;
@@ -23,7 +24,8 @@ public class OfflineSyncController {
 
     /**
      * Sync offline scan events.
-     * Events are processed in order, preserving original timestamps.
+     * Events are processed in device-time order, in chunks that each commit on their own;
+     * re-sent events (same deviceId + localId) are reported as already synced.
      */
     @PostMapping("/sync")
     public ResponseEntity<OfflineSyncResponse> syncOfflineEvents(
@@ -31,4 +33,16 @@ public class OfflineSyncController {
     ) {
         return ResponseEntity.ok(scanEventService.syncOfflineEvents(request));
     }
+
+    /**
+     * Progress of a chunked sync batch: the offset the device should resume uploading from.
+     * Couriers and agents only see their own batches.
+     */
+    @GetMapping("/sync/cursor")
+    public ResponseEntity<OfflineSyncCursorResponse> getSyncCursor(
+            @RequestParam String deviceId,
+            @RequestParam String batchId
+    ) {
+        return ResponseEntity.ok(scanEventService.getSyncCursor(deviceId, batchId));
+    }
 }
@@ -0,0 +1,82 @@
+package com.smartcampost.backend.controller;
+
+import com.smartcampost.backend.exception.AuthException;
+import com.smartcampost.backend.exception.ErrorCode;
+import com.smartcampost.backend.model.PlannedRouteStop;
+import com.smartcampost.backend.model.UserAccount;
+import com.smartcampost.backend.repository.UserAccountRepository;
+import com.smartcampost.backend.routing.FleetRoutePlanningService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Planned courier routes from the fleet planning batch ({@link FleetRoutePlanningService}).
+ * Couriers fetch their own route; staff can read any courier's route and trigger a re-plan.
+ */
+@RestController
+@RequestMapping("/api/route-plans")
+@RequiredArgsConstructor
+public class RoutePlanController {
+
+    private final FleetRoutePlanningService fleetRoutePlanningService;
+    private final UserAccountRepository userAccountRepository;
+
+    @GetMapping("/me")
+    @PreAuthorize("hasRole('COURIER')")
+    public ResponseEntity<List<PlannedRouteStop>> myRoute(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        UUID courierId = currentUser().getEntityId();
+        if (courierId == null) {
+            throw new AuthException(ErrorCode.AUTH_USER_NOT_FOUND, "No courier profile for this account");
+        }
+        return ResponseEntity.ok(fleetRoutePlanningService.routeFor(courierId, dateOrToday(date)));
+    }
+
+    @GetMapping("/couriers/{courierId}")
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF','AGENT')")
+    public ResponseEntity<List<PlannedRouteStop>> courierRoute(
+            @PathVariable UUID courierId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return ResponseEntity.ok(fleetRoutePlanningService.routeFor(courierId, dateOrToday(date)));
+    }
+
+    @PostMapping("/run")
+    @PreAuthorize("hasAnyRole('ADMIN','STAFF')")
+    public ResponseEntity<FleetRoutePlanningService.PlanningRun> run(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date
+    ) {
+        return ResponseEntity.ok(fleetRoutePlanningService.plan(dateOrToday(date)));
+    }
+
+    private LocalDate dateOrToday(LocalDate date) {
+        return date != null ? date : fleetRoutePlanningService.today();
+    }
+
+    private UserAccount currentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null || !auth.isAuthenticated()) {
+            throw new AuthException(ErrorCode.AUTH_INVALID_CREDENTIALS, "Not authenticated");
+        }
+        String principal = auth.getName();
+        return userAccountRepository.findByPhone(principal)
+                .or(() -> {
+                    try {
+                        return userAccountRepository.findById(UUID.fromString(principal));
+                    } catch (IllegalArgumentException ex) {
+                        return java.util.Optional.empty();
+                    }
+                })
+                .orElseThrow(() -> new AuthException(ErrorCode.AUTH_USER_NOT_FOUND, "User not found"));
+    }
+}
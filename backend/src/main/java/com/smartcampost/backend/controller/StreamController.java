@@ -9,10 +9,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -21,6 +23,9 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/stream")
 public class StreamController {
 
+    // Sent by EventSource on reconnect; missed events are replayed from the hub's buffer
+    private static final String LAST_EVENT_ID = "Last-Event-ID";
+
     private final SseEmitters sseEmitters;
     private final ParcelAuthorizationService parcelAuthorizationService;
 
@@ -31,14 +36,14 @@ public class StreamController {
 
     @GetMapping(value = "/scans", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasAnyRole('CLIENT','AGENT','COURIER','STAFF','ADMIN')")
-    public SseEmitter streamScans() {
-        return sseEmitters.createScanEmitter();
+    public SseEmitter streamScans(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return sseEmitters.createScanEmitter(lastEventId);
     }
 
     @GetMapping(value = "/ai", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("hasAnyRole('CLIENT','AGENT','COURIER','STAFF','ADMIN')")
-    public SseEmitter streamAi() {
-        return sseEmitters.createAiEmitter(connectionAuthorities());
+    public SseEmitter streamAi(@RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return sseEmitters.createAiEmitter(connectionAuthorities(), lastEventId);
     }
 
     private Set<String> connectionAuthorities() {
@@ -49,15 +54,24 @@ public class StreamController {
                 .collect(Collectors.toSet());
     }
 
+    // Connection counts and delivery counters per stream
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Map<String, Object> stats() {
+        return sseEmitters.stats();
+    }
+
     @GetMapping(value = "/tracking/{trackingRef}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-    public SseEmitter streamTracking(@PathVariable String trackingRef) {
-        return sseEmitters.createTrackingEmitter(trackingRef);
+    public SseEmitter streamTracking(@PathVariable String trackingRef,
+                                     @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
+        return sseEmitters.createTrackingEmitter(trackingRef, lastEventId);
     }
 
     @GetMapping(value = "/parcels/{parcelId}/messages", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @PreAuthorize("isAuthenticated()")
-    public SseEmitter streamParcelMessages(@PathVariable UUID parcelId, Authentication authentication) {
+    public SseEmitter streamParcelMessages(@PathVariable UUID parcelId, Authentication authentication,
+                                           @RequestHeader(value = LAST_EVENT_ID, required = false) String lastEventId) {
         parcelAuthorizationService.requireReadableParcel(parcelId, authentication);
-        return sseEmitters.createParcelMessageEmitter(parcelId);
+        return sseEmitters.createParcelMessageEmitter(parcelId, lastEventId);
     }
 }
@@ -8,6 +8,8 @@ import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.repository.ScanEventRepository;
 import com.smartcampost.backend.dto.scan.ScanEventResponse;
 import com.smartcampost.backend.dto.qr.QrVerificationResponse;
+import com.smartcampost.backend.logistics.LastKnownLocation;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
 import com.smartcampost.backend.model.Agency;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.ScanEvent;
@@ -40,19 +42,22 @@ public class TrackingController {
     private final ScanEventRepository scanEventRepository;
     private final QrSecurityService qrSecurityService;
     private final ObjectMapper objectMapper;
+    private final LastKnownLocationCache lastKnownLocations;
 
     public TrackingController(
             ParcelRepository parcelRepository,
             ScanEventService scanEventService,
             ScanEventRepository scanEventRepository,
             QrSecurityService qrSecurityService,
-            ObjectMapper objectMapper
+            ObjectMapper objectMapper,
+            LastKnownLocationCache lastKnownLocations
     ) {
         this.parcelRepository = parcelRepository;
         this.scanEventService = scanEventService;
         this.scanEventRepository = scanEventRepository;
         this.qrSecurityService = qrSecurityService;
         this.objectMapper = objectMapper;
+        this.lastKnownLocations = lastKnownLocations;
     }
 
     @GetMapping("/parcel/{trackingNumber}")
@@ -73,19 +78,20 @@ public class TrackingController {
                     // Live courier/IoT GPS (parcel.currentLatitude/Longitude) is more recent than the
                     // last checkpoint scan whenever it was updated after that scan; prefer it so the
                     // page doesn't show a stale position before the next SSE push arrives.
-                    boolean liveGpsIsNewer = p.getCurrentLatitude() != null && p.getCurrentLongitude() != null
+                    // The write-behind cache holds positions not flushed to the parcel row yet.
+                    LastKnownLocation live = lastKnownLocations.parcel(p).orElse(null);
+                    boolean liveGpsIsNewer = live != null
                             && (last == null || last.getTimestamp() == null
-                                || (p.getLocationUpdatedAt() != null
-                                    && p.getLocationUpdatedAt().isAfter(last.getTimestamp())));
+                                || (live.at() != null && live.at().isAfter(last.getTimestamp())));
 
                     if (liveGpsIsNewer) {
                         TrackingResponse.CurrentLocation loc = new TrackingResponse.CurrentLocation();
-                        loc.latitude = p.getCurrentLatitude();
-                        loc.longitude = p.getCurrentLongitude();
+                        loc.latitude = live.latitude();
+                        loc.longitude = live.longitude();
                         loc.locationSource = "LIVE_GPS";
                         loc.eventType = last != null ? last.getEventType() : null;
-                        loc.updatedAt = p.getLocationUpdatedAt() != null
-                                ? OffsetDateTime.ofInstant(p.getLocationUpdatedAt(), ZoneOffset.UTC)
+                        loc.updatedAt = live.at() != null
+                                ? OffsetDateTime.ofInstant(live.at(), ZoneOffset.UTC)
                                 : null;
                         r.currentLocation = loc;
                     } else if (last != null && last.getLatitude() != null && last.getLongitude() != null) {
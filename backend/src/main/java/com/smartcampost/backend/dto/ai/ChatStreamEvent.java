@@ -0,0 +1,36 @@
+package com.smartcampost.backend.dto.ai;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * One event of a streamed chat answer:
+ * - "session": first event, carries the sessionId to reuse on the next turn
+ * - "delta": the next piece of the answer text
+ * - "done": last event, carries the complete ChatResponse (suggestions, intent, ...)
+ */
+@Data
+@AllArgsConstructor
+public class ChatStreamEvent {
+
+    public static final String SESSION = "session";
+    public static final String DELTA = "delta";
+    public static final String DONE = "done";
+
+    private String type;
+    private String sessionId;
+    private String delta;
+    private ChatResponse response;
+
+    public static ChatStreamEvent session(String sessionId) {
+        return new ChatStreamEvent(SESSION, sessionId, null, null);
+    }
+
+    public static ChatStreamEvent delta(String text) {
+        return new ChatStreamEvent(DELTA, null, text, null);
+    }
+
+    public static ChatStreamEvent done(ChatResponse response) {
+        return new ChatStreamEvent(DONE, response.getSessionId(), null, response);
+    }
+}
@@ -15,6 +15,8 @@ public class RouteOptimizationRequest {
 
     private String optimizationStrategy; // "SHORTEST", "FASTEST", "BALANCED"
 
+    private Double vehicleCapacityKg; // optional; defaults to smartcampost.routing.vrp.default-capacity-kg
+
     @Data
     public static class Stop {
         private String id;
@@ -24,5 +26,7 @@ public class RouteOptimizationRequest {
         private String address;
         private Integer priority; // 1-5, higher is more urgent
         private String timeWindow; // e.g., "09:00-12:00"
+        private String parcelId; // optional; pairs a PICKUP with its DELIVERY and fills weight / pickup window
+        private Double weightKg; // optional; defaults to the parcel's weight
     }
 }
@@ -13,6 +13,7 @@ public class RouteOptimizationResponse {
     private Long estimatedDurationMinutes;
     private Double fuelSavingsPercent;
     private String optimizationStrategy;
+    private Boolean feasible; // false when some time window, capacity or pickup order could not be met
 
     @Data
     @Builder
@@ -26,5 +27,6 @@ public class RouteOptimizationResponse {
         private Double distanceFromPrevious;
         private Long etaMinutes;
         private String arrivalTime;
+        private Long lateMinutes; // past the stop's time window, when it cannot be met
     }
 }
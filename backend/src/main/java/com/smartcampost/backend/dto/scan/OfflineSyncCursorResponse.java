@@ -0,0 +1,22 @@
+package com.smartcampost.backend.dto.scan;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+/**
+ * Server-side progress of a chunked offline sync batch, so a device that lost its connection
+ * mid-upload knows where to resume.
+ */
+@Data
+@Builder
+public class OfflineSyncCursorResponse {
+
+    private String deviceId;
+    private String batchId;
+    private int cursor;
+    private Integer totalEvents;
+    private boolean complete;
+    private Instant updatedAt;
+}
@@ -2,6 +2,8 @@ package com.smartcampost.backend.dto.scan;
 
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.PositiveOrZero;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.util.List;
@@ -20,10 +22,25 @@ public class OfflineSyncRequest {
     /**
      * Device identifier for audit
      */
+    @Size(max = 64)
     private String deviceId;
 
     /**
      * Sync batch identifier
      */
+    @Size(max = 64)
     private String batchId;
+
+    /**
+     * Position of the first event of this request within the batch, when a large batch is
+     * uploaded in chunks. Resume from the cursor returned by the last response.
+     */
+    @PositiveOrZero
+    private Integer offset;
+
+    /**
+     * Number of events in the whole batch, across chunks
+     */
+    @PositiveOrZero
+    private Integer totalEvents;
 }
@@ -28,6 +28,11 @@ public class OfflineSyncResponse {
     private List<FailedEvent> failedEvents;
     private Instant serverTimestamp;
 
+    // Idempotent, resumable sync
+    private int duplicateCount;    // already synced earlier (same deviceId + localId)
+    private int cursor;            // events of the batch committed so far; next offset to upload
+    private boolean complete;      // cursor reached totalEvents
+
     @Data
     @Builder
     public static class SyncFailure {
@@ -2,6 +2,7 @@ package com.smartcampost.backend.dto.scan;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.Data;
 
 import java.time.Instant;
@@ -18,6 +19,7 @@ public class ScanEventCreateRequest {
      * Local ID for offline sync correlation.
      * Assigned by client, used to match sync responses.
      */
+    @Size(max = 64, message = "localId must be at most 64 characters")
     private String localId;
 
     @NotNull(message = "parcelId is required")
@@ -0,0 +1,137 @@
+package com.smartcampost.backend.geo;
+
+import com.smartcampost.backend.exception.ConflictException;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.repository.AddressRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+
+/**
+ * Places addresses as soon as they are saved without a position, instead of waiting for
+ * {@link GeocodeBackfillJob} to reach them: the address create/update path calls
+ * {@link #enqueue} and a background worker geocodes it (at {@link Geocoder}'s rate limit) and
+ * stores the position. One lookup per address is in flight at a time.
+ *
+ * Pricing calls {@link #position} for an address it has no position for: it joins the pending
+ * lookup, or starts one, and waits at most the given time; on a timeout the lookup carries on
+ * and the backfill job remains the safety net.
+ */
+@Component
+@Slf4j
+public class AddressPositioner {
+
+    private final Geocoder geocoder;
+    private final AddressRepository addressRepository;
+    private final ConcurrentHashMap<UUID, CompletableFuture<Optional<Geocoder.Place>>> pending = new ConcurrentHashMap<>();
+
+    @Value("${smartcampost.geocoding.on-save.queue-capacity:1000}")
+    private int queueCapacity = 1000;
+
+    private ThreadPoolExecutor worker;
+
+    public AddressPositioner(Geocoder geocoder, AddressRepository addressRepository) {
+        this.geocoder = geocoder;
+        this.addressRepository = addressRepository;
+    }
+
+    @PostConstruct
+    void init() {
+        // One thread: lookups are rate limited to one request per min-interval-ms anyway
+        worker = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+                    Thread t = new Thread(r, "address-positioner");
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @PreDestroy
+    void stop() {
+        worker.shutdownNow();
+    }
+
+    /** The address was saved: geocode it once the caller's transaction commits, if it has no position. */
+    public void enqueue(Address address) {
+        if (!needsPosition(address)) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    lookup(address);
+                }
+            });
+        } else {
+            lookup(address);
+        }
+    }
+
+    /**
+     * Position of an address without one: from the geocoding caches, else from the pending (or a
+     * newly started) lookup, waiting at most {@code wait}. Empty when it cannot be placed in time.
+     */
+    public Optional<Geocoder.Place> position(Address address, Duration wait) {
+        if (address == null) return Optional.empty();
+        Optional<Geocoder.Place> cached = geocoder.cached(Geocoder.queryFor(address));
+        if (cached.isPresent() || address.getId() == null) return cached;
+        CompletableFuture<Optional<Geocoder.Place>> lookup = lookup(address);
+        try {
+            return lookup.get(Math.max(0, wait.toMillis()), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("[GEOCODE] No position for address {} within {}ms", address.getId(), wait.toMillis());
+        }
+        return Optional.empty();
+    }
+
+    private CompletableFuture<Optional<Geocoder.Place>> lookup(Address address) {
+        UUID id = address.getId();
+        String query = Geocoder.queryFor(address);
+        CompletableFuture<Optional<Geocoder.Place>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Geocoder.Place>> running = pending.putIfAbsent(id, mine);
+        if (running != null) return running;
+        try {
+            worker.execute(() -> {
+                try {
+                    Optional<Geocoder.Place> place = geocoder.geocode(query);
+                    place.ifPresent(p -> addressRepository.setPosition(id, coordinate(p.latitude()),
+                            coordinate(p.longitude())));
+                    mine.complete(place);
+                } catch (ConflictException e) {
+                    // Provider down or rate limit saturated: the backfill job retries later
+                    mine.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    log.warn("[GEOCODE] Positioning address {} failed: {}", id, e.getMessage());
+                    mine.completeExceptionally(e);
+                } finally {
+                    pending.remove(id, mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(id, mine);
+            mine.completeExceptionally(e);
+        }
+        return mine;
+    }
+
+    private static boolean needsPosition(Address address) {
+        return address != null && address.getId() != null
+                && (address.getLatitude() == null || address.getLongitude() == null);
+    }
+
+    private static BigDecimal coordinate(double value) {
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,129 @@
+package com.smartcampost.backend.geo;
+
+/**
+ * Great-circle and short-range distances on a spherical Earth (R = 6371 km), shared by every
+ * caller that needs a distance between two lat/lng points. All coordinates are degrees.
+ *
+ * - {@link #haversineKm} is exact on the sphere; the overload taking cos(lat) of both points
+ *   skips two of its four trig calls when a caller reuses positions (see {@link GeoPoints}).
+ * - {@link #equirectangularKm} is a trig-free approximation for short ranges, to pre-filter or
+ *   rank candidates; {@link #equirectangularErrorBoundKm} bounds how far it can be off.
+ * - The batch forms take a {@link GeoPoints} struct-of-arrays and write into a caller-owned
+ *   {@code double[]}: no boxing and no allocation per point. Their loops are straight-line
+ *   arithmetic over primitive arrays, which HotSpot's C2 compiler unrolls and, for the
+ *   equirectangular form, auto-vectorizes.
+ */
+public final class GeoDistance {
+
+    public static final double EARTH_RADIUS_KM = 6371.0;
+    public static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    private static final double RADIANS_PER_DEGREE = Math.PI / 180.0;
+    private static final double MAX_BOUND_LATITUDE_RADIANS = Math.toRadians(89.0);
+
+    private GeoDistance() {}
+
+    public static double cosLat(double latitude) {
+        return Math.cos(latitude * RADIANS_PER_DEGREE);
+    }
+
+    public static double haversineKm(double lat1, double lng1, double lat2, double lng2) {
+        return haversineKm(lat1, lng1, cosLat(lat1), lat2, lng2, cosLat(lat2));
+    }
+
+    /** Haversine with cos(lat) of both points supplied by the caller. */
+    public static double haversineKm(double lat1, double lng1, double cosLat1,
+                                     double lat2, double lng2, double cosLat2) {
+        double sinDLat = Math.sin((lat2 - lat1) * (RADIANS_PER_DEGREE / 2));
+        double sinDLng = Math.sin((lng2 - lng1) * (RADIANS_PER_DEGREE / 2));
+        double a = sinDLat * sinDLat + cosLat1 * cosLat2 * sinDLng * sinDLng;
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+    }
+
+    /**
+     * Flat-Earth distance scaled by cos(lat) of the first point. Off from haversine by at most
+     * {@link #equirectangularErrorBoundKm} (about 0.5% up to 200 km at Cameroon latitudes), so
+     * use it for ranking and pre-filtering, not for reported distances over long legs.
+     */
+    public static double equirectangularKm(double lat1, double lng1, double cosLat1, double lat2, double lng2) {
+        double x = (lng2 - lng1) * cosLat1;
+        double y = lat2 - lat1;
+        return KM_PER_DEGREE * Math.sqrt(x * x + y * y);
+    }
+
+    /**
+     * Upper bound on |equirectangular - haversine| for two points at most distanceKm apart, the
+     * first at the given latitude: the cos(lat) drift across the north-south span plus the
+     * curvature the flat projection ignores.
+     */
+    public static double equirectangularErrorBoundKm(double latitude, double distanceKm) {
+        double span = distanceKm / EARTH_RADIUS_KM;
+        double worstLat = Math.min(Math.abs(latitude) * RADIANS_PER_DEGREE + span, MAX_BOUND_LATITUDE_RADIANS);
+        return distanceKm * (Math.tan(worstLat) * span / 2 + span * span);
+    }
+
+    // ==================== Batch (struct of arrays) ====================
+
+    /** Haversine from one point to the first {@code points.size()} points, into {@code out}. */
+    public static void haversineKm(double lat, double lng, GeoPoints points, double[] out) {
+        int n = checkedSize(points, out);
+        double cosLat = cosLat(lat);
+        double[] lats = points.latitudes();
+        double[] lngs = points.longitudes();
+        double[] cosLats = points.cosLatitudes();
+        for (int i = 0; i < n; i++) {
+            double sinDLat = Math.sin((lats[i] - lat) * (RADIANS_PER_DEGREE / 2));
+            double sinDLng = Math.sin((lngs[i] - lng) * (RADIANS_PER_DEGREE / 2));
+            double a = sinDLat * sinDLat + cosLat * cosLats[i] * sinDLng * sinDLng;
+            out[i] = 2 * EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1.0, a)));
+        }
+    }
+
+    /** Equirectangular distance from one point to the first {@code points.size()} points, into {@code out}. */
+    public static void equirectangularKm(double lat, double lng, GeoPoints points, double[] out) {
+        int n = checkedSize(points, out);
+        double cosLat = cosLat(lat);
+        double[] lats = points.latitudes();
+        double[] lngs = points.longitudes();
+        for (int i = 0; i < n; i++) {
+            double x = (lngs[i] - lng) * cosLat;
+            double y = lats[i] - lat;
+            out[i] = KM_PER_DEGREE * Math.sqrt(x * x + y * y);
+        }
+    }
+
+    /**
+     * Index of the point closest to (lat, lng), or -1 when there are none. Ranks with the
+     * equirectangular distance and only settles near-ties (within the error bound) by haversine.
+     */
+    public static int nearestIndex(double lat, double lng, GeoPoints points, double[] scratch) {
+        int n = checkedSize(points, scratch);
+        if (n == 0) return -1;
+        equirectangularKm(lat, lng, points, scratch);
+        int best = 0;
+        for (int i = 1; i < n; i++) {
+            if (scratch[i] < scratch[best]) best = i;
+        }
+        double bound = scratch[best] + 2 * equirectangularErrorBoundKm(lat, scratch[best] * 1.01);
+        double cosLat = cosLat(lat);
+        double bestKm = Double.MAX_VALUE;
+        int nearest = best;
+        for (int i = 0; i < n; i++) {
+            if (scratch[i] > bound) continue;
+            double d = haversineKm(lat, lng, cosLat, points.latitude(i), points.longitude(i), points.cosLatitude(i));
+            if (d < bestKm) {
+                bestKm = d;
+                nearest = i;
+            }
+        }
+        return nearest;
+    }
+
+    private static int checkedSize(GeoPoints points, double[] out) {
+        int n = points.size();
+        if (out.length < n) {
+            throw new IllegalArgumentException("output holds " + out.length + " distances, need " + n);
+        }
+        return n;
+    }
+}
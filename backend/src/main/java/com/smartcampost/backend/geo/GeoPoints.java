@@ -0,0 +1,79 @@
+package com.smartcampost.backend.geo;
+
+import java.util.Arrays;
+
+/**
+ * Growable struct-of-arrays of lat/lng points with cos(lat) computed once on insert, for the
+ * batch distance functions of {@link GeoDistance}. Not thread-safe; build, then read.
+ */
+public final class GeoPoints {
+
+    private double[] latitudes;
+    private double[] longitudes;
+    private double[] cosLatitudes;
+    private int size;
+
+    public GeoPoints() {
+        this(16);
+    }
+
+    public GeoPoints(int capacity) {
+        int initial = Math.max(capacity, 1);
+        latitudes = new double[initial];
+        longitudes = new double[initial];
+        cosLatitudes = new double[initial];
+    }
+
+    /** Appends a point and returns its index. */
+    public int add(double latitude, double longitude) {
+        if (size == latitudes.length) {
+            int grown = size * 2;
+            latitudes = Arrays.copyOf(latitudes, grown);
+            longitudes = Arrays.copyOf(longitudes, grown);
+            cosLatitudes = Arrays.copyOf(cosLatitudes, grown);
+        }
+        latitudes[size] = latitude;
+        longitudes[size] = longitude;
+        cosLatitudes[size] = GeoDistance.cosLat(latitude);
+        return size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public double latitude(int index) {
+        return latitudes[index];
+    }
+
+    public double longitude(int index) {
+        return longitudes[index];
+    }
+
+    public double cosLatitude(int index) {
+        return cosLatitudes[index];
+    }
+
+    /** Distance between two stored points. */
+    public double haversineKm(int from, int to) {
+        return GeoDistance.haversineKm(latitudes[from], longitudes[from], cosLatitudes[from],
+                latitudes[to], longitudes[to], cosLatitudes[to]);
+    }
+
+    // Backing arrays for the batch kernels; valid up to size()
+    double[] latitudes() {
+        return latitudes;
+    }
+
+    double[] longitudes() {
+        return longitudes;
+    }
+
+    double[] cosLatitudes() {
+        return cosLatitudes;
+    }
+}
@@ -0,0 +1,84 @@
+package com.smartcampost.backend.geo;
+
+import com.smartcampost.backend.exception.ConflictException;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.model.Agency;
+import com.smartcampost.backend.repository.AddressRepository;
+import com.smartcampost.backend.repository.AgencyRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Fills in the latitude/longitude of agencies and addresses that have none, through
+ * {@link Geocoder} at its rate limit, so pricing and planning read stored positions instead
+ * of geocoding per request. Addresses are walked in id order across runs; ones Nominatim
+ * cannot place stay empty and are skipped from the negative cache until it expires.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GeocodeBackfillJob {
+
+    private final Geocoder geocoder;
+    private final AgencyRepository agencyRepository;
+    private final AddressRepository addressRepository;
+
+    @Value("${smartcampost.geocoding.backfill.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${smartcampost.geocoding.backfill.batch-size:50}")
+    private int batchSize = 50;
+
+    // Last address id looked at; null = start over
+    private UUID addressCursor;
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.geocoding.backfill.interval-ms:60000}",
+            initialDelayString = "${smartcampost.geocoding.backfill.initial-delay-ms:60000}")
+    public void backfill() {
+        if (!enabled) return;
+        int placed = 0;
+        try {
+            for (Agency agency : agencyRepository.findByLatitudeIsNull()) {
+                Optional<Geocoder.Place> place = geocoder.geocode(Geocoder.queryFor(agency));
+                if (place.isPresent()) {
+                    placed += agencyRepository.setPosition(agency.getId(), coordinate(place.get().latitude()),
+                            coordinate(place.get().longitude()));
+                }
+            }
+
+            PageRequest page = PageRequest.of(0, Math.max(1, batchSize));
+            List<Address> addresses = addressCursor == null
+                    ? addressRepository.findByLatitudeIsNullOrderByIdAsc(page)
+                    : addressRepository.findByLatitudeIsNullAndIdGreaterThanOrderByIdAsc(addressCursor, page);
+            for (Address address : addresses) {
+                Optional<Geocoder.Place> place = geocoder.geocode(Geocoder.queryFor(address));
+                if (place.isPresent()) {
+                    placed += addressRepository.setPosition(address.getId(), coordinate(place.get().latitude()),
+                            coordinate(place.get().longitude()));
+                }
+                addressCursor = address.getId();
+            }
+            if (addresses.size() < page.getPageSize()) addressCursor = null;
+        } catch (ConflictException e) {
+            // Provider down or rate limit saturated: resume from the cursor next run
+            log.warn("[GEOCODE] Backfill paused: {}", e.getMessage());
+        }
+        if (placed > 0) log.info("[GEOCODE] Backfilled {} positions", placed);
+    }
+
+    private static BigDecimal coordinate(double value) {
+        return BigDecimal.valueOf(value).setScale(6, RoundingMode.HALF_UP);
+    }
+}
@@ -0,0 +1,318 @@
+package com.smartcampost.backend.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartcampost.backend.exception.ConflictException;
+import com.smartcampost.backend.exception.ErrorCode;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.model.Agency;
+import com.smartcampost.backend.model.GeocodeCacheEntry;
+import com.smartcampost.backend.repository.GeocodeCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Address geocoding through Nominatim, with a memory cache and a database cache in front of it
+ * so an address goes to the network once:
+ *
+ * - memory: Caffeine, size-bounded, keyed by the normalized address (case, accents,
+ *   punctuation and spacing folded);
+ * - database: geocode_cache, shared by replicas and restarts. Addresses Nominatim cannot place
+ *   are kept too (found = false) and retried after negative-ttl-hours;
+ * - network: one shared HttpClient. Concurrent lookups of the same address wait for a single
+ *   request, and requests go out at most once per min-interval-ms (Nominatim's usage policy
+ *   is 1 request/s). A caller that would wait longer than max-wait-ms for its slot fails fast.
+ *
+ * Hot paths (pricing) use {@link #cached}, which never touches the network; positions of
+ * addresses are looked up when they are saved ({@link AddressPositioner}), and those of
+ * agencies and older addresses filled in by {@link GeocodeBackfillJob}.
+ *
+ * Metrics: smartcampost.geocoding.lookups{source=memory|database|network},
+ * smartcampost.geocoding.request.
+ */
+@Component
+@Slf4j
+public class Geocoder {
+
+    private static final String USER_AGENT = "SmartCAMPOST/1.0 (support@smartcampost.cm)";
+
+    public record Place(double latitude, double longitude, String displayName) {}
+
+    private final GeocodeCacheRepository cacheRepository;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, CompletableFuture<Optional<Place>>> inFlight = new ConcurrentHashMap<>();
+
+    @Value("${smartcampost.geocoding.nominatim-url:${geolocation.nominatim-url:https://nominatim.openstreetmap.org/search}}")
+    private String nominatimUrl = "https://nominatim.openstreetmap.org/search";
+
+    @Value("${smartcampost.geocoding.min-interval-ms:1000}")
+    private long minIntervalMs = 1000;
+
+    @Value("${smartcampost.geocoding.max-wait-ms:5000}")
+    private long maxWaitMs = 5000;
+
+    @Value("${smartcampost.geocoding.request-timeout-ms:10000}")
+    private long requestTimeoutMs = 10000;
+
+    @Value("${smartcampost.geocoding.negative-ttl-hours:168}")
+    private long negativeTtlHours = 168;
+
+    @Value("${smartcampost.geocoding.cache.max-entries:20000}")
+    private long cacheMaxEntries = 20000;
+
+    private HttpClient httpClient;
+    private Cache<String, Optional<Place>> memory;
+    private long nextSlotNanos;
+    private Counter memoryHits;
+    private Counter databaseHits;
+    private Counter networkLookups;
+    private Timer requestTimer;
+
+    public Geocoder(GeocodeCacheRepository cacheRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.cacheRepository = cacheRepository;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(requestTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        memory = Caffeine.newBuilder()
+                .maximumSize(cacheMaxEntries)
+                .expireAfterWrite(Duration.ofHours(Math.max(1, negativeTtlHours)))
+                .build();
+        memoryHits = lookups("memory");
+        databaseHits = lookups("database");
+        networkLookups = lookups("network");
+        requestTimer = Timer.builder("smartcampost.geocoding.request")
+                .description("Nominatim round trips, including the wait for a rate-limit slot")
+                .register(meterRegistry);
+    }
+
+    private Counter lookups(String source) {
+        return Counter.builder("smartcampost.geocoding.lookups").tag("source", source).register(meterRegistry);
+    }
+
+    /** Position of an address from the caches, then Nominatim; empty when it cannot be placed. */
+    public Optional<Place> geocode(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) return Optional.empty();
+        Optional<Place> known = cachedByKey(key);
+        if (known != null) return known;
+
+        CompletableFuture<Optional<Place>> mine = new CompletableFuture<>();
+        CompletableFuture<Optional<Place>> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) return await(running);
+        try {
+            Optional<Place> place = memory.getIfPresent(key); // stored by a lookup that just finished
+            if (place == null) {
+                place = fetch(address.trim());
+                store(key, place);
+            }
+            mine.complete(place);
+            return place;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    /** Position of an address from the caches only; empty when unknown or not placeable. */
+    public Optional<Place> cached(String address) {
+        String key = normalize(address);
+        if (key.isEmpty()) return Optional.empty();
+        Optional<Place> known = cachedByKey(key);
+        return known != null ? known : Optional.empty();
+    }
+
+    /** Raw Nominatim search (place autocomplete), through the shared client and rate limit. */
+    public JsonNode search(String queryString) {
+        return get(nominatimUrl + "?" + queryString);
+    }
+
+    /** The address line geocoded for an address; the same text keys the caches. */
+    public static String queryFor(Address address) {
+        return join(address.getStreet(), address.getCity(), address.getRegion(), address.getCountry());
+    }
+
+    public static String queryFor(Agency agency) {
+        return join(agency.getAgencyName(), agency.getCity(), agency.getRegion(), agency.getCountry());
+    }
+
+    /** Lower case, accents stripped, punctuation and runs of spaces collapsed to one space. */
+    static String normalize(String address) {
+        if (address == null) return "";
+        String folded = Normalizer.normalize(address, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}+", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+        return folded.length() > 500 ? folded.substring(0, 500) : folded;
+    }
+
+    // null = not cached; an empty Optional = cached as not placeable
+    private Optional<Place> cachedByKey(String key) {
+        Optional<Place> remembered = memory.getIfPresent(key);
+        if (remembered != null) {
+            memoryHits.increment();
+            return remembered;
+        }
+        Optional<GeocodeCacheEntry> row = cacheRepository.findById(hash(key));
+        if (row.isEmpty()) return null;
+        GeocodeCacheEntry entry = row.get();
+        if (!entry.isFound()
+                && entry.getGeocodedAt().isBefore(Instant.now().minus(Duration.ofHours(negativeTtlHours)))) {
+            return null; // time to retry
+        }
+        Optional<Place> place = entry.isFound()
+                ? Optional.of(new Place(entry.getLatitude(), entry.getLongitude(), entry.getDisplayName()))
+                : Optional.empty();
+        memory.put(key, place);
+        databaseHits.increment();
+        return place;
+    }
+
+    private void store(String key, Optional<Place> place) {
+        memory.put(key, place);
+        try {
+            cacheRepository.save(GeocodeCacheEntry.builder()
+                    .addressHash(hash(key))
+                    .address(key)
+                    .found(place.isPresent())
+                    .latitude(place.map(Place::latitude).orElse(null))
+                    .longitude(place.map(Place::longitude).orElse(null))
+                    .displayName(place.map(p -> truncate(p.displayName())).orElse(null))
+                    .geocodedAt(Instant.now())
+                    .build());
+        } catch (Exception e) {
+            // Another replica stored it first, or the database is unavailable: memory still has it
+            log.debug("[GEOCODE] Could not persist result for '{}': {}", key, e.getMessage());
+        }
+    }
+
+    private Optional<Place> fetch(String address) {
+        networkLookups.increment();
+        JsonNode root = get(nominatimUrl + "?q=" + URLEncoder.encode(address, StandardCharsets.UTF_8)
+                + "&format=json&limit=1");
+        if (!root.isArray() || root.isEmpty()) return Optional.empty();
+        JsonNode first = root.get(0);
+        double lat = first.path("lat").asDouble(Double.NaN);
+        double lng = first.path("lon").asDouble(Double.NaN);
+        if (Double.isNaN(lat) || Double.isNaN(lng)) {
+            throw new ConflictException("Geocoding response missing coordinates", ErrorCode.GEOLOCATION_ERROR);
+        }
+        return Optional.of(new Place(lat, lng, first.path("display_name").asText(address)));
+    }
+
+    private JsonNode get(String url) {
+        long started = System.nanoTime();
+        try {
+            waitForSlot();
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(url))
+                    .header("Accept", "application/json")
+                    .header("User-Agent", USER_AGENT)
+                    .timeout(Duration.ofMillis(requestTimeoutMs))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() < 200 || response.statusCode() >= 300) {
+                throw new ConflictException("Geocoding provider unavailable", ErrorCode.GEOLOCATION_ERROR);
+            }
+            return objectMapper.readTree(response.body());
+        } catch (ConflictException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Geocoding interrupted", ErrorCode.GEOLOCATION_ERROR);
+        } catch (Exception e) {
+            throw new ConflictException("Geocoding provider unavailable", ErrorCode.GEOLOCATION_ERROR);
+        } finally {
+            requestTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /** Reserves the next free request slot and sleeps until it; fails fast when it is too far off. */
+    private void waitForSlot() throws InterruptedException {
+        long now = System.nanoTime();
+        long slot;
+        synchronized (this) {
+            slot = Math.max(now, nextSlotNanos);
+            if (slot - now > TimeUnit.MILLISECONDS.toNanos(maxWaitMs)) {
+                throw new ConflictException("Geocoding is busy, try again shortly", ErrorCode.GEOLOCATION_ERROR);
+            }
+            nextSlotNanos = slot + TimeUnit.MILLISECONDS.toNanos(minIntervalMs);
+        }
+        if (slot > now) TimeUnit.NANOSECONDS.sleep(slot - now);
+    }
+
+    private Optional<Place> await(CompletableFuture<Optional<Place>> running) {
+        try {
+            return running.get(maxWaitMs + 2 * requestTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof ConflictException conflict) throw conflict;
+            throw new ConflictException("Failed to geocode address", ErrorCode.GEOLOCATION_ERROR);
+        } catch (TimeoutException e) {
+            throw new ConflictException("Geocoding provider unavailable", ErrorCode.GEOLOCATION_ERROR);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Geocoding interrupted", ErrorCode.GEOLOCATION_ERROR);
+        }
+    }
+
+    private static String join(String... parts) {
+        StringBuilder line = new StringBuilder();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) continue;
+            if (!line.isEmpty()) line.append(", ");
+            line.append(part.trim());
+        }
+        return line.toString();
+    }
+
+    private static String truncate(String text) {
+        return text != null && text.length() > 500 ? text.substring(0, 500) : text;
+    }
+
+    private static String hash(String key) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.smartcampost.backend.geo;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Uniform lat/lng grid over moving or static points (courier fixes, parcel pickup/delivery
+ * addresses) answering radius and k-nearest queries without scanning every point.
+ *
+ * Cells default to 0.01° (~1.1 km north-south, ~1.09-1.1 km east-west across Cameroon's
+ * 1.6°N-13.1°N band), so a 500 m geofence touches at most 4 cells. Candidates are pre-filtered
+ * with the equirectangular approximation (one cos per query) and only survivors pay for an
+ * exact haversine, using the cos(lat) each entry caches when it is put ({@link GeoDistance}).
+ *
+ * Thread-safe: concurrent writers (GPS ingestion) and readers (schedulers, endpoints). A point
+ * being moved may briefly be missing from a concurrent query, never duplicated in its results.
+ */
+public class SpatialGridIndex<K, V> {
+
+    /** Cameroon bounding box the default cell size was tuned for (points outside it still index fine). */
+    public static final double CAMEROON_MIN_LAT = 1.65;
+    public static final double CAMEROON_MAX_LAT = 13.08;
+    public static final double CAMEROON_MIN_LNG = 8.49;
+    public static final double CAMEROON_MAX_LNG = 16.19;
+
+    public static final double DEFAULT_CELL_DEGREES = 0.01;
+
+    private static final double KM_PER_DEGREE = GeoDistance.KM_PER_DEGREE;
+    // Equirectangular (cos of the query latitude) drifts from haversine by <0.4% up to ~200 km
+    // at Cameroon latitudes; 1% slack keeps the pre-filter conservative.
+    private static final double PREFILTER_SLACK = 1.01;
+    // Beyond this many rings a plain scan of all entries is cheaper than probing empty cells.
+    private static final int MAX_RING_PROBES = 2000;
+
+    private final double cellDegrees;
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<K, Entry<K, V>>> cells = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    public SpatialGridIndex() {
+        this(DEFAULT_CELL_DEGREES);
+    }
+
+    public SpatialGridIndex(double cellDegrees) {
+        if (cellDegrees <= 0) throw new IllegalArgumentException("cellDegrees must be positive");
+        this.cellDegrees = cellDegrees;
+    }
+
+    public record Entry<K, V>(K id, V value, double latitude, double longitude, double cosLatitude, long cell) {}
+
+    public record Hit<K, V>(K id, V value, double latitude, double longitude, double distanceKm) {}
+
+    /** Inserts or moves a point. */
+    public void put(K id, double latitude, double longitude, V value) {
+        Objects.requireNonNull(id, "id is required");
+        long cell = cellOf(latitude, longitude);
+        Entry<K, V> entry = new Entry<>(id, value, latitude, longitude, GeoDistance.cosLat(latitude), cell);
+        Entry<K, V> previous = entries.put(id, entry);
+        if (previous != null && previous.cell() != cell) {
+            removeFromCell(previous);
+        }
+        // Atomic with removeFromCell dropping an emptied cell; skipped if a concurrent put or
+        // remove of the same id has already replaced this entry.
+        cells.compute(cell, (c, members) -> {
+            if (entries.get(id) != entry) return members;
+            if (members == null) members = new ConcurrentHashMap<>();
+            members.put(id, entry);
+            return members;
+        });
+    }
+
+    public void remove(K id) {
+        Entry<K, V> previous = entries.remove(id);
+        if (previous != null) removeFromCell(previous);
+    }
+
+    public void clear() {
+        entries.clear();
+        cells.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Optional<Entry<K, V>> get(K id) {
+        return Optional.ofNullable(entries.get(id));
+    }
+
+    /** All points within radiusKm of the query point, closest first. */
+    public List<Hit<K, V>> withinRadius(double latitude, double longitude, double radiusKm) {
+        return withinRadius(latitude, longitude, radiusKm, v -> true);
+    }
+
+    /** Like {@link #withinRadius(double, double, double)}, keeping only values accepted by the filter. */
+    public List<Hit<K, V>> withinRadius(double latitude, double longitude, double radiusKm, Predicate<? super V> filter) {
+        List<Hit<K, V>> hits = new ArrayList<>();
+        if (radiusKm < 0) return hits;
+
+        double latSpan = radiusKm / KM_PER_DEGREE;
+        double cosLat = GeoDistance.cosLat(latitude);
+        double lngSpan = radiusKm / (KM_PER_DEGREE * Math.max(cosLat, 1e-6));
+        int minRow = row(latitude - latSpan), maxRow = row(latitude + latSpan);
+        int minCol = col(longitude - lngSpan), maxCol = col(longitude + lngSpan);
+
+        double limit = radiusKm * PREFILTER_SLACK;
+        for (int r = minRow; r <= maxRow; r++) {
+            for (int c = minCol; c <= maxCol; c++) {
+                Map<K, Entry<K, V>> cell = cells.get(key(r, c));
+                if (cell == null) continue;
+                for (Entry<K, V> e : cell.values()) {
+                    if (!filter.test(e.value())) continue;
+                    if (GeoDistance.equirectangularKm(latitude, longitude, cosLat, e.latitude(), e.longitude()) > limit) continue;
+                    double d = GeoDistance.haversineKm(latitude, longitude, cosLat, e.latitude(), e.longitude(), e.cosLatitude());
+                    if (d <= radiusKm) hits.add(new Hit<>(e.id(), e.value(), e.latitude(), e.longitude(), d));
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits;
+    }
+
+    /**
+     * The k closest points within maxRadiusKm, closest first. Searches outward ring by ring and
+     * stops as soon as the next ring cannot contain anything closer than the current k-th hit.
+     */
+    public List<Hit<K, V>> nearest(double latitude, double longitude, int k, double maxRadiusKm) {
+        return nearest(latitude, longitude, k, maxRadiusKm, v -> true);
+    }
+
+    /** Like {@link #nearest(double, double, int, double)}, keeping only values accepted by the filter. */
+    public List<Hit<K, V>> nearest(double latitude, double longitude, int k, double maxRadiusKm, Predicate<? super V> filter) {
+        if (k <= 0 || entries.isEmpty()) return List.of();
+
+        double cosLat = GeoDistance.cosLat(latitude);
+        // Smallest distance covered by one ring step, in km (east-west cells shrink with cos(lat)).
+        double ringKm = cellDegrees * KM_PER_DEGREE * Math.max(cosLat, 1e-6);
+        double rings = Math.ceil(maxRadiusKm / ringKm) + 1;
+        if (rings > MAX_RING_PROBES) return scanNearest(latitude, longitude, k, maxRadiusKm, filter);
+        int maxRing = (int) rings;
+        int centerRow = row(latitude), centerCol = col(longitude);
+
+        PriorityQueue<Hit<K, V>> best = new PriorityQueue<>(
+                Comparator.comparingDouble((Hit<K, V> h) -> h.distanceKm()).reversed());
+        for (int ring = 0; ring <= maxRing; ring++) {
+            for (int r = centerRow - ring; r <= centerRow + ring; r++) {
+                boolean edgeRow = r == centerRow - ring || r == centerRow + ring;
+                int step = edgeRow ? 1 : 2 * ring;
+                for (int c = centerCol - ring; c <= centerCol + ring; c += Math.max(step, 1)) {
+                    Map<K, Entry<K, V>> cell = cells.get(key(r, c));
+                    if (cell == null) continue;
+                    for (Entry<K, V> e : cell.values()) {
+                        if (!filter.test(e.value())) continue;
+                        double approx = GeoDistance.equirectangularKm(latitude, longitude, cosLat, e.latitude(), e.longitude());
+                        if (approx > maxRadiusKm * PREFILTER_SLACK) continue;
+                        if (best.size() == k && approx > best.peek().distanceKm() * PREFILTER_SLACK) continue;
+                        double d = GeoDistance.haversineKm(latitude, longitude, cosLat, e.latitude(), e.longitude(), e.cosLatitude());
+                        if (d > maxRadiusKm) continue;
+                        if (best.size() < k) {
+                            best.add(new Hit<>(e.id(), e.value(), e.latitude(), e.longitude(), d));
+                        } else if (d < best.peek().distanceKm()) {
+                            best.poll();
+                            best.add(new Hit<>(e.id(), e.value(), e.latitude(), e.longitude(), d));
+                        }
+                    }
+                }
+            }
+            // Every point outside this ring is at least ring * ringKm away.
+            if (best.size() == k && best.peek().distanceKm() <= ring * ringKm) break;
+        }
+        List<Hit<K, V>> out = new ArrayList<>(best);
+        out.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return out;
+    }
+
+    private List<Hit<K, V>> scanNearest(double latitude, double longitude, int k, double maxRadiusKm,
+                                        Predicate<? super V> filter) {
+        double cosLat = GeoDistance.cosLat(latitude);
+        List<Hit<K, V>> hits = new ArrayList<>();
+        for (Entry<K, V> e : entries.values()) {
+            if (!filter.test(e.value())) continue;
+            double d = GeoDistance.haversineKm(latitude, longitude, cosLat, e.latitude(), e.longitude(), e.cosLatitude());
+            if (d <= maxRadiusKm) hits.add(new Hit<>(e.id(), e.value(), e.latitude(), e.longitude(), d));
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+        return hits.size() > k ? new ArrayList<>(hits.subList(0, k)) : hits;
+    }
+
+    /** Every indexed entry, in no particular order. */
+    public Collection<Entry<K, V>> entries() {
+        return Collections.unmodifiableCollection(entries.values());
+    }
+
+    private void removeFromCell(Entry<K, V> entry) {
+        cells.computeIfPresent(entry.cell(), (c, members) -> {
+            members.remove(entry.id(), entry);
+            return members.isEmpty() ? null : members;
+        });
+    }
+
+    private long cellOf(double latitude, double longitude) {
+        return key(row(latitude), col(longitude));
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor(latitude / cellDegrees);
+    }
+
+    private int col(double longitude) {
+        return (int) Math.floor(longitude / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) ^ (col & 0xffffffffL);
+    }
+}
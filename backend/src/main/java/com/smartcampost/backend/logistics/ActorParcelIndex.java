@@ -0,0 +1,252 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.ParcelLatestScan;
+import com.smartcampost.backend.model.PickupRequest;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.PickupRequestState;
+import com.smartcampost.backend.repository.ParcelLatestScanRepository;
+import com.smartcampost.backend.repository.PickupRequestRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory index of the active parcels each actor currently handles: parcels whose latest scan
+ * was performed by the actor, plus parcels of pickups assigned to the courier. It replaces the
+ * per-ping walk over the actor's whole scan history (one query per parcel ever scanned) used by
+ * GPS propagation and actor visibility checks; a lookup is O(parcels of that actor).
+ *
+ * - Kept up to date by {@link #scanRecorded} (live and offline scans) and {@link #pickupChanged}
+ *   (pickup assignment and state changes), applied when the caller's transaction commits.
+ * - A parcel leaves the index when a scan moves it out of the active statuses.
+ * - Rebuilt from the database when the application is ready and then every
+ *   rebuild-interval-minutes, which also picks up changes made by other replicas and parcels
+ *   closed without a scan. Changes made during a rebuild are replayed on top of it.
+ *
+ * {@link #isLatestScanner} falls back to parcel_latest_scan on a miss, since the scan may have
+ * been made on another replica since the last rebuild. Callers still filter parcels by status
+ * when they load them.
+ */
+@Component
+@Slf4j
+public class ActorParcelIndex {
+
+    private final ParcelLatestScanRepository parcelLatestScanRepository;
+    private final PickupRequestRepository pickupRequestRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.gps.actor-index.rebuild-interval-minutes:10}")
+    private long rebuildIntervalMinutes = 10;
+
+    // Guarded by this
+    private final Map<UUID, String> scannerByParcel = new HashMap<>();
+    private final Map<String, Set<UUID>> scannedByActor = new HashMap<>();
+    private final Map<UUID, String> courierByPickupParcel = new HashMap<>();
+    private final Map<String, Set<UUID>> pickupsByCourier = new HashMap<>();
+    private List<Runnable> changesDuringRebuild;
+
+    private volatile Instant lastRebuildAt;
+    private Timer rebuildTimer;
+    private Counter scannerFallbacks;
+
+    public ActorParcelIndex(ParcelLatestScanRepository parcelLatestScanRepository,
+                            PickupRequestRepository pickupRequestRepository,
+                            MeterRegistry meterRegistry) {
+        this.parcelLatestScanRepository = parcelLatestScanRepository;
+        this.pickupRequestRepository = pickupRequestRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        rebuildTimer = Timer.builder("smartcampost.gps.actor-index.rebuild")
+                .description("Time to rebuild the actor -> active parcels index from the database")
+                .register(meterRegistry);
+        scannerFallbacks = Counter.builder("smartcampost.gps.actor-index.scanner-fallbacks")
+                .description("Latest-scanner checks that missed the index and read parcel_latest_scan")
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.gps.actor-index.parcels", this, ActorParcelIndex::indexedParcels)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        rebuildQuietly();
+    }
+
+    // Runs on every replica: each keeps its own index
+    @Scheduled(fixedDelayString = "${smartcampost.gps.actor-index.rebuild-interval-minutes:10}",
+               initialDelayString = "${smartcampost.gps.actor-index.rebuild-interval-minutes:10}",
+               timeUnit = TimeUnit.MINUTES)
+    public void refresh() {
+        rebuildQuietly();
+    }
+
+    // ==================== Updates ====================
+
+    /** A scan by {@code actorKey} left the parcel in {@code status}. */
+    public void scanRecorded(UUID parcelId, String actorKey, ParcelStatus status) {
+        if (parcelId == null) return;
+        afterCommit(() -> applyScan(parcelId, actorKey, status));
+    }
+
+    /** The pickup was created, assigned or changed state. */
+    public void pickupChanged(PickupRequest pickup) {
+        if (pickup == null || pickup.getParcel() == null || pickup.getParcel().getId() == null) return;
+        UUID parcelId = pickup.getParcel().getId();
+        String courierKey = pickup.getState() == PickupRequestState.ASSIGNED && pickup.getCourier() != null
+                ? pickup.getCourier().getId().toString()
+                : null;
+        afterCommit(() -> applyPickup(parcelId, courierKey));
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        change.run();
+        if (changesDuringRebuild != null) changesDuringRebuild.add(change);
+    }
+
+    private void applyScan(UUID parcelId, String actorKey, ParcelStatus status) {
+        boolean active = status != null && GpsIngestionPipeline.ACTIVE_STATUSES.contains(status);
+        move(scannerByParcel, scannedByActor, parcelId, active ? actorKey : null);
+        if (!active) move(courierByPickupParcel, pickupsByCourier, parcelId, null);
+    }
+
+    private void applyPickup(UUID parcelId, String courierKey) {
+        move(courierByPickupParcel, pickupsByCourier, parcelId, courierKey);
+    }
+
+    private static void move(Map<UUID, String> ownerByParcel, Map<String, Set<UUID>> parcelsByOwner,
+                             UUID parcelId, String newOwner) {
+        String previous = newOwner != null ? ownerByParcel.put(parcelId, newOwner) : ownerByParcel.remove(parcelId);
+        if (previous != null && !previous.equals(newOwner)) {
+            Set<UUID> parcels = parcelsByOwner.get(previous);
+            if (parcels != null) {
+                parcels.remove(parcelId);
+                if (parcels.isEmpty()) parcelsByOwner.remove(previous);
+            }
+        }
+        if (newOwner != null) parcelsByOwner.computeIfAbsent(newOwner, k -> new HashSet<>()).add(parcelId);
+    }
+
+    // ==================== Lookups ====================
+
+    /** Parcels last scanned by the actor, plus parcels of pickups assigned to it. */
+    public synchronized Set<UUID> parcelsOf(String actorKey) {
+        if (actorKey == null) return Set.of();
+        Set<UUID> scanned = scannedByActor.get(actorKey);
+        Set<UUID> pickups = pickupsByCourier.get(actorKey);
+        if (scanned == null && pickups == null) return Set.of();
+        Set<UUID> parcels = new LinkedHashSet<>();
+        if (scanned != null) parcels.addAll(scanned);
+        if (pickups != null) parcels.addAll(pickups);
+        return parcels;
+    }
+
+    /**
+     * Whether the latest scan of the parcel was performed by the actor. A miss is checked against
+     * parcel_latest_scan (one primary-key read), so a scan from another replica counts before the
+     * next rebuild.
+     */
+    public boolean isLatestScanner(UUID parcelId, String actorKey) {
+        if (parcelId == null || actorKey == null) return false;
+        synchronized (this) {
+            if (actorKey.equals(scannerByParcel.get(parcelId))) return true;
+        }
+        scannerFallbacks.increment();
+        return parcelLatestScanRepository.findById(parcelId)
+                .map(ParcelLatestScan::getActorId)
+                .filter(actorKey::equals)
+                .isPresent();
+    }
+
+    // ==================== Rebuild ====================
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (Exception e) {
+            log.warn("[ACTOR-INDEX] Rebuild failed, keeping the incremental index: {}", e.getMessage());
+            synchronized (this) {
+                changesDuringRebuild = null;
+            }
+        }
+    }
+
+    /** Reloads the index from parcel_latest_scan and pickup_request. */
+    void rebuild() {
+        long started = System.nanoTime();
+        synchronized (this) {
+            changesDuringRebuild = new ArrayList<>();
+        }
+        List<ParcelLatestScan> scans =
+                parcelLatestScanRepository.findByParcelStatusIn(GpsIngestionPipeline.ACTIVE_STATUSES);
+        List<PickupRequestRepository.PickupAssignment> pickups =
+                pickupRequestRepository.findAssignments(PickupRequestState.ASSIGNED);
+        synchronized (this) {
+            scannerByParcel.clear();
+            scannedByActor.clear();
+            courierByPickupParcel.clear();
+            pickupsByCourier.clear();
+            for (ParcelLatestScan scan : scans) {
+                if (scan.getActorId() != null) move(scannerByParcel, scannedByActor, scan.getParcelId(), scan.getActorId());
+            }
+            for (PickupRequestRepository.PickupAssignment pickup : pickups) {
+                move(courierByPickupParcel, pickupsByCourier, pickup.getParcelId(), pickup.getCourierId().toString());
+            }
+            List<Runnable> replay = changesDuringRebuild;
+            changesDuringRebuild = null;
+            replay.forEach(Runnable::run);
+        }
+        rebuildTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        lastRebuildAt = Instant.now();
+        log.info("[ACTOR-INDEX] Rebuilt: {} scanned parcels for {} actors, {} assigned pickups",
+                scans.size(), scannedByActorCount(), pickups.size());
+    }
+
+    private synchronized int scannedByActorCount() {
+        return scannedByActor.size();
+    }
+
+    private synchronized int indexedParcels() {
+        return scannerByParcel.size() + courierByPickupParcel.size();
+    }
+
+    public synchronized Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("scannedParcels", scannerByParcel.size());
+        stats.put("actors", scannedByActor.size());
+        stats.put("assignedPickups", courierByPickupParcel.size());
+        stats.put("couriersWithPickups", pickupsByCourier.size());
+        stats.put("rebuildIntervalMinutes", rebuildIntervalMinutes);
+        stats.put("lastRebuildAt", lastRebuildAt);
+        stats.put("rebuildMeanMs", rebuildTimer.mean(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+}
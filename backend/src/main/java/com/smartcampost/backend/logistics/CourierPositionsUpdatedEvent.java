@@ -0,0 +1,9 @@
+package com.smartcampost.backend.logistics;
+
+import java.util.List;
+
+/**
+ * Published by {@link GpsIngestionPipeline} after a batch is committed, with the newest
+ * fix per actor in that batch.
+ */
+public record CourierPositionsUpdatedEvent(List<GpsFix> fixes) {}
@@ -0,0 +1,38 @@
+package com.smartcampost.backend.logistics;
+
+import java.time.Instant;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * A single GPS position accepted by {@link GpsIngestionPipeline}, waiting to be persisted.
+ *
+ * @param actorKey        courier/agent entity id (or tracker device id) the fix belongs to
+ * @param source          MOBILE_GPS | IOT_GPS
+ * @param trackerId       IoT tracker whose last-known position must follow this fix, if any
+ * @param trackedParcelId parcel carrying the tracker directly (tracker assigned to a PARCEL)
+ * @param propagate       whether the fix should move the parcels currently handled by the actor
+ */
+public record GpsFix(
+        String actorKey,
+        String source,
+        double latitude,
+        double longitude,
+        Double speed,
+        Double heading,
+        Instant timestamp,
+        UUID trackerId,
+        UUID trackedParcelId,
+        boolean propagate
+) {
+    public GpsFix {
+        Objects.requireNonNull(actorKey, "actorKey is required");
+        Objects.requireNonNull(source, "source is required");
+        if (timestamp == null) timestamp = Instant.now();
+    }
+
+    public static GpsFix mobile(String actorKey, double latitude, double longitude,
+                                Double speed, Double heading, Instant timestamp) {
+        return new GpsFix(actorKey, "MOBILE_GPS", latitude, longitude, speed, heading, timestamp, null, null, true);
+    }
+}
@@ -0,0 +1,419 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.repository.GpsTrackerRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.sse.SseEmitters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Asynchronous, batched GPS ingestion for /api/logistics/gps/*.
+ *
+ * Controllers only validate and {@link #submit(GpsFix)} — the HTTP request is acknowledged
+ * as soon as the fix is queued. A single background writer drains the bounded queue every
+ * flush interval (or as soon as flush-size fixes are waiting) and:
+ * - bulk-inserts every fix into {@code locations} with one JDBC batch,
+ * - coalesces the flush per actor / tracker / tracked parcel, keeping only the newest fix,
+ * - moves the active parcels each actor currently handles (looked up in {@link ActorParcelIndex})
+ *   and the courier itself through {@link LastKnownLocationCache}, which writes them behind with
+ *   one batched UPDATE per table,
+ * - pushes SSE updates once per actor and tracking page instead of once per ping.
+ *
+ * Accepted fixes are published to {@link LivePositionIndex} straight away; once a batch is
+ * committed a {@link CourierPositionsUpdatedEvent} drives incremental geofence checks.
+ *
+ * When the queue is full {@link #submit(GpsFix)} returns false so the caller can shed load
+ * (HTTP 503) instead of piling up connections on the Hikari pool; {@link #submitAll(List)} takes
+ * a batch whole or not at all.
+ */
+@Component
+@Slf4j
+public class GpsIngestionPipeline {
+
+    static final List<ParcelStatus> ACTIVE_STATUSES = List.of(
+            ParcelStatus.CREATED, ParcelStatus.ACCEPTED, ParcelStatus.TAKEN_IN_CHARGE,
+            ParcelStatus.IN_TRANSIT, ParcelStatus.ARRIVED_HUB, ParcelStatus.ARRIVED_DEST_AGENCY,
+            ParcelStatus.OUT_FOR_DELIVERY
+    );
+
+    // Same role set trusted with GET /api/logistics/live — see LogisticsRealtimeController.
+    static final Set<String> GPS_VISIBLE_AUTHORITIES = Set.of(
+            "ROLE_ADMIN", "ROLE_STAFF", "ROLE_RISK", "ROLE_COURIER", "ROLE_AGENT"
+    );
+
+    private static final String INSERT_LOCATION_SQL =
+            "INSERT INTO locations (user_id, latitude, longitude, source, timestamp) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ParcelRepository parcelRepository;
+    private final GpsTrackerRepository gpsTrackerRepository;
+    private final ActorParcelIndex actorParcelIndex;
+    private final SseEmitters sseEmitters;
+    private final LivePositionIndex livePositionIndex;
+    private final LastKnownLocationCache lastKnownLocations;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${smartcampost.gps.ingestion.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${smartcampost.gps.ingestion.flush-interval-ms:1000}")
+    private long flushIntervalMs;
+
+    @Value("${smartcampost.gps.ingestion.flush-size:500}")
+    private int flushSize;
+
+    private BlockingQueue<GpsFix> queue;
+    // Makes submitAll all-or-nothing against concurrent submits
+    private final Object submitLock = new Object();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong persisted = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong flushes = new AtomicLong();
+    private volatile long lastFlushMillis;
+    private volatile int lastFlushSize;
+    private volatile Instant lastFlushAt;
+
+    private Timer flushTimer;
+    private Counter rejectedCounter;
+
+    public GpsIngestionPipeline(JdbcTemplate jdbcTemplate,
+                                PlatformTransactionManager transactionManager,
+                                ParcelRepository parcelRepository,
+                                GpsTrackerRepository gpsTrackerRepository,
+                                ActorParcelIndex actorParcelIndex,
+                                SseEmitters sseEmitters,
+                                LivePositionIndex livePositionIndex,
+                                LastKnownLocationCache lastKnownLocations,
+                                MeterRegistry meterRegistry,
+                                ApplicationEventPublisher eventPublisher) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.parcelRepository = parcelRepository;
+        this.gpsTrackerRepository = gpsTrackerRepository;
+        this.actorParcelIndex = actorParcelIndex;
+        this.sseEmitters = sseEmitters;
+        this.livePositionIndex = livePositionIndex;
+        this.lastKnownLocations = lastKnownLocations;
+        this.meterRegistry = meterRegistry;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void start() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        flushSize = Math.max(1, flushSize);
+        flushIntervalMs = Math.max(10, flushIntervalMs);
+
+        Gauge.builder("smartcampost.gps.ingestion.queue.depth", queue, Collection::size)
+                .description("GPS fixes waiting for the background writer")
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.gps.ingestion.queue.remaining", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("smartcampost.gps.ingestion.rejected")
+                .description("GPS fixes refused because the ingestion queue was full")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("smartcampost.gps.ingestion.flush")
+                .description("Time spent persisting one coalesced GPS batch")
+                .register(meterRegistry);
+
+        running = true;
+        writer = new Thread(this::drainLoop, "gps-ingestion-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("[GPS-INGEST] Writer started (capacity={}, flushSize={}, flushIntervalMs={})",
+                queueCapacity, flushSize, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(flushIntervalMs * 2 + 5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        List<GpsFix> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            log.info("[GPS-INGEST] Flushing {} queued fixes on shutdown", remaining.size());
+            flush(remaining);
+        }
+    }
+
+    /**
+     * Queues a fix for the background writer. Never blocks.
+     *
+     * @return false when the queue is full and the fix was dropped
+     */
+    public boolean submit(GpsFix fix) {
+        Objects.requireNonNull(fix, "fix is required");
+        boolean queued;
+        synchronized (submitLock) {
+            queued = queue.offer(fix);
+        }
+        if (queued) {
+            onAccepted(fix);
+            return true;
+        }
+        onRejected(1);
+        return false;
+    }
+
+    /**
+     * Queues every fix or none of them, so a caller that answers 503 knows nothing was kept
+     * and can resend the whole batch. Only the writer takes from the queue, so the capacity
+     * checked under the lock can only grow before the offers.
+     *
+     * @return false when the queue cannot take the whole batch
+     */
+    public boolean submitAll(List<GpsFix> fixes) {
+        fixes.forEach(fix -> Objects.requireNonNull(fix, "fix is required"));
+        synchronized (submitLock) {
+            if (queue.remainingCapacity() < fixes.size()) {
+                onRejected(fixes.size());
+                return false;
+            }
+            fixes.forEach(queue::offer);
+        }
+        fixes.forEach(this::onAccepted);
+        return true;
+    }
+
+    private void onAccepted(GpsFix fix) {
+        accepted.incrementAndGet();
+        // Readers see the position immediately, before the writer persists it.
+        livePositionIndex.record(fix);
+    }
+
+    private void onRejected(int count) {
+        rejected.addAndGet(count);
+        if (rejectedCounter != null) rejectedCounter.increment(count);
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queueDepth", queue.size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("flushSize", flushSize);
+        stats.put("flushIntervalMs", flushIntervalMs);
+        stats.put("accepted", accepted.get());
+        stats.put("rejected", rejected.get());
+        stats.put("persisted", persisted.get());
+        stats.put("coalesced", coalesced.get());
+        stats.put("failed", failed.get());
+        stats.put("flushes", flushes.get());
+        stats.put("lastFlushSize", lastFlushSize);
+        stats.put("lastFlushMillis", lastFlushMillis);
+        stats.put("lastFlushAt", lastFlushAt);
+        return stats;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                List<GpsFix> batch = collectBatch();
+                if (!batch.isEmpty()) flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[GPS-INGEST] Writer loop error: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /** Waits for the first fix, then keeps collecting until flush-size or the flush interval elapses. */
+    private List<GpsFix> collectBatch() throws InterruptedException {
+        GpsFix first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) return List.of();
+
+        List<GpsFix> batch = new ArrayList<>(Math.min(flushSize, 1024));
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < flushSize && running) {
+            queue.drainTo(batch, flushSize - batch.size());
+            if (batch.size() >= flushSize) break;
+            long waitNanos = deadline - System.nanoTime();
+            if (waitNanos <= 0) break;
+            GpsFix next = queue.poll(waitNanos, TimeUnit.NANOSECONDS);
+            if (next == null) break;
+            batch.add(next);
+        }
+        return batch;
+    }
+
+    void flush(List<GpsFix> batch) {
+        long started = System.nanoTime();
+        try {
+            Map<String, GpsFix> latestByActor = new LinkedHashMap<>();
+            Map<UUID, GpsFix> latestByTracker = new LinkedHashMap<>();
+            Map<UUID, GpsFix> latestByTrackedParcel = new LinkedHashMap<>();
+            for (GpsFix fix : batch) {
+                if (fix.propagate()) latestByActor.merge(fix.actorKey(), fix, GpsIngestionPipeline::newest);
+                if (fix.trackerId() != null) latestByTracker.merge(fix.trackerId(), fix, GpsIngestionPipeline::newest);
+                if (fix.trackedParcelId() != null) latestByTrackedParcel.merge(fix.trackedParcelId(), fix, GpsIngestionPipeline::newest);
+            }
+            coalesced.addAndGet(batch.size() - batch.stream().map(GpsFix::actorKey).distinct().count());
+
+            transactionTemplate.executeWithoutResult(status -> {
+                insertLocations(batch);
+                latestByTracker.forEach((trackerId, fix) -> gpsTrackerRepository.updateLastPosition(
+                        trackerId, fix.latitude(), fix.longitude(), fix.speed(), fix.heading(), fix.timestamp()));
+            });
+            persisted.addAndGet(batch.size());
+
+            // parcel -> fix moving it; an actor's fix wins over a tracker sitting in one of its parcels
+            Map<UUID, GpsFix> parcelFixes = new LinkedHashMap<>();
+            parcelFixes.putAll(latestByTrackedParcel);
+            latestByActor.forEach((actorKey, fix) ->
+                    actorParcelIndex.parcelsOf(actorKey).forEach(parcelId -> parcelFixes.put(parcelId, fix)));
+
+            Map<UUID, Parcel> moved = moveParcels(parcelFixes);
+            latestByActor.forEach(this::moveCourier);
+
+            Map<String, Set<UUID>> movedByActor = new LinkedHashMap<>();
+            parcelFixes.forEach((parcelId, fix) -> {
+                if (moved.containsKey(parcelId)) {
+                    movedByActor.computeIfAbsent(fix.actorKey(), k -> new LinkedHashSet<>()).add(parcelId);
+                }
+            });
+            publish(latestByActor, latestByTracker, movedByActor, moved);
+            if (!latestByActor.isEmpty()) {
+                eventPublisher.publishEvent(new CourierPositionsUpdatedEvent(List.copyOf(latestByActor.values())));
+            }
+        } catch (Exception e) {
+            failed.addAndGet(batch.size());
+            log.error("[GPS-INGEST] Failed to persist batch of {} fixes: {}", batch.size(), e.getMessage(), e);
+        } finally {
+            long elapsed = System.nanoTime() - started;
+            flushes.incrementAndGet();
+            lastFlushSize = batch.size();
+            lastFlushMillis = TimeUnit.NANOSECONDS.toMillis(elapsed);
+            lastFlushAt = Instant.now();
+            if (flushTimer != null) flushTimer.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void insertLocations(List<GpsFix> batch) {
+        jdbcTemplate.batchUpdate(INSERT_LOCATION_SQL, batch, batch.size(), (ps, fix) -> {
+            ps.setString(1, fix.actorKey());
+            ps.setDouble(2, fix.latitude());
+            ps.setDouble(3, fix.longitude());
+            ps.setString(4, fix.source());
+            ps.setTimestamp(5, Timestamp.from(fix.timestamp()));
+        });
+    }
+
+    /**
+     * Records the new position of every parcel still in an active status, stamped with the fix's
+     * own time so a late, older fix cannot pass for the newest. Returns those parcels, which the
+     * SSE fan-out reuses.
+     */
+    private Map<UUID, Parcel> moveParcels(Map<UUID, GpsFix> parcelFixes) {
+        Map<UUID, Parcel> moved = new HashMap<>();
+        if (parcelFixes.isEmpty()) return moved;
+        for (Parcel parcel : parcelRepository.findAllById(parcelFixes.keySet())) {
+            if (!ACTIVE_STATUSES.contains(parcel.getStatus())) continue;
+            GpsFix fix = parcelFixes.get(parcel.getId());
+            lastKnownLocations.recordParcel(parcel.getId(), fix.latitude(), fix.longitude(), fix.timestamp());
+            moved.put(parcel.getId(), parcel);
+        }
+        return moved;
+    }
+
+    /** Courier actors and COURIER trackers are keyed by Courier.id; any other key updates no row. */
+    private void moveCourier(String actorKey, GpsFix fix) {
+        try {
+            lastKnownLocations.recordCourier(UUID.fromString(actorKey), fix.latitude(), fix.longitude(), fix.timestamp());
+        } catch (IllegalArgumentException ignored) { /* actorKey is not an entity id */ }
+    }
+
+    private void publish(Map<String, GpsFix> latestByActor,
+                         Map<UUID, GpsFix> latestByTracker,
+                         Map<String, Set<UUID>> movedByActor,
+                         Map<UUID, Parcel> parcels) {
+        for (Parcel parcel : parcels.values()) {
+            Map<String, Object> ip = parcelLocation(parcel);
+            if (parcel.getTrackingRef() == null || ip == null) continue;
+            Map<String, Object> scoped = new LinkedHashMap<>();
+            scoped.put("inheritedParcels", List.of(ip));
+            scoped.put("updatedAt", Instant.now());
+            sseEmitters.emitTrackingUpdate("gps-update", parcel.getTrackingRef(), scoped);
+        }
+
+        Map<String, GpsFix> byActor = new LinkedHashMap<>(latestByActor);
+        latestByTracker.values().forEach(fix -> byActor.merge(fix.actorKey(), fix, GpsIngestionPipeline::newest));
+        byActor.forEach((actorKey, fix) -> {
+            List<Map<String, Object>> inherited = movedByActor.getOrDefault(actorKey, Set.of()).stream()
+                    .map(parcels::get)
+                    .filter(Objects::nonNull)
+                    .map(this::parcelLocation)
+                    .filter(Objects::nonNull)
+                    .toList();
+            Map<String, Object> payload = livePayload(fix);
+            payload.put("inheritedParcels", inherited);
+            sseEmitters.emitAiEventToRoles("gps-update", payload, GPS_VISIBLE_AUTHORITIES);
+        });
+    }
+
+    public static Map<String, Object> livePayload(GpsFix fix) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("source", "IOT_GPS".equals(fix.source()) ? "iot" : "mobile");
+        payload.put("actorId", fix.actorKey());
+        payload.put("latitude", fix.latitude());
+        payload.put("longitude", fix.longitude());
+        payload.put("speed", fix.speed());
+        payload.put("heading", fix.heading());
+        payload.put("timestamp", fix.timestamp());
+        return payload;
+    }
+
+    private Map<String, Object> parcelLocation(Parcel parcel) {
+        LastKnownLocation location = lastKnownLocations.parcel(parcel).orElse(null);
+        if (location == null) return null;
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("parcelId", parcel.getId());
+        out.put("trackingRef", parcel.getTrackingRef());
+        out.put("status", parcel.getStatus() == null ? null : parcel.getStatus().name());
+        out.put("deliveryOption", parcel.getDeliveryOption() == null ? null : parcel.getDeliveryOption().name());
+        out.put("latitude", location.latitude());
+        out.put("longitude", location.longitude());
+        out.put("source", "PARCEL_ACTIVE_GPS");
+        out.put("timestamp", location.at());
+        return out;
+    }
+
+    private static GpsFix newest(GpsFix a, GpsFix b) {
+        return b.timestamp().isBefore(a.timestamp()) ? a : b;
+    }
+}
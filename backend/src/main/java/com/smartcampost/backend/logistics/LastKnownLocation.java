@@ -0,0 +1,25 @@
+package com.smartcampost.backend.logistics;
+
+import java.time.Instant;
+
+/**
+ * Last known position of a parcel or courier as held by {@link LastKnownLocationCache}:
+ * the values of its current_latitude / current_longitude / location timestamp columns.
+ */
+public record LastKnownLocation(double latitude, double longitude, Instant at) {
+
+    /** True when this position is strictly more recent than {@code other} (a null side is older). */
+    public boolean isNewerThan(LastKnownLocation other) {
+        if (other == null || other.at == null) return true;
+        return at != null && at.isAfter(other.at);
+    }
+
+    static LastKnownLocation of(Double latitude, Double longitude, Instant at) {
+        if (latitude == null || longitude == null) return null;
+        return new LastKnownLocation(latitude, longitude, at);
+    }
+
+    static LastKnownLocation newest(LastKnownLocation a, LastKnownLocation b) {
+        return a.isNewerThan(b) ? a : b;
+    }
+}
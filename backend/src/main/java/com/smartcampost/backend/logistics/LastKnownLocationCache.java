@@ -0,0 +1,282 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.Courier;
+import com.smartcampost.backend.model.Parcel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind cache for the "last known position" columns of {@link Parcel}
+ * (current_latitude, current_longitude, location_updated_at) and {@link Courier}
+ * (current_latitude, current_longitude, last_location_at).
+ *
+ * Scans, GPS pings and offline syncs only {@link #recordParcel record} the new position; the
+ * "location-writer" thread flushes every flush-interval-ms, or as soon as max-pending positions
+ * are waiting, with one batched partial UPDATE per table. Positions for the same parcel or
+ * courier are merged until then, so a courier pinging every few seconds costs one row update
+ * per flush instead of one full-row save per ping.
+ *
+ * - Called inside a transaction, the position is only recorded once it commits, like the entity
+ *   save it replaces: a scan that is rolled back does not move the parcel.
+ * - A position never replaces a more recent one, neither in the cache nor in the database:
+ *   the UPDATE only applies when the stored timestamp is not newer.
+ * - Readers call {@link #parcel(Parcel)} / {@link #courier(Courier)}, which return the newer of
+ *   the pending position and the entity's columns; entities are never modified, so reading
+ *   does not make them dirty.
+ * - A failed flush keeps its positions for the next one unless a newer position replaced them.
+ * - Both entities are {@code @DynamicUpdate}, so saving one writes only its changed columns and
+ *   never overwrites a position flushed from here with the stale value the entity still holds.
+ *
+ * Pending positions live in this node only: another replica reads them once they are flushed,
+ * at most flush-interval-ms later. Live map consumers get positions from SSE and
+ * {@link LivePositionIndex} in the meantime.
+ */
+@Component
+@Slf4j
+public class LastKnownLocationCache {
+
+    private static final String UPDATE_PARCEL =
+            "UPDATE parcel SET current_latitude = ?, current_longitude = ?, location_updated_at = ? " +
+            "WHERE parcel_id = ? AND (location_updated_at IS NULL OR location_updated_at <= ?)";
+
+    private static final String UPDATE_COURIER =
+            "UPDATE courier SET current_latitude = ?, current_longitude = ?, last_location_at = ? " +
+            "WHERE courier_id = ? AND (last_location_at IS NULL OR last_location_at <= ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate txTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.gps.last-known.flush-interval-ms:2000}")
+    private long flushIntervalMs = 2000;
+
+    @Value("${smartcampost.gps.last-known.max-pending:5000}")
+    private int maxPending = 5000;
+
+    private final ConcurrentHashMap<UUID, LastKnownLocation> pendingParcels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, LastKnownLocation> pendingCouriers = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final Object signal = new Object();
+    private Thread writer;
+    private volatile boolean running;
+
+    private final AtomicLong recorded = new AtomicLong();
+    private final AtomicLong merged = new AtomicLong();
+    private Timer flushTimer;
+    private Counter writtenCounter;
+    private Counter failedCounter;
+
+    public LastKnownLocationCache(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        running = true;
+        writer = new Thread(this::writeLoop, "location-writer");
+        writer.setDaemon(true);
+        writer.start();
+        log.info("[LOCATION] Write-behind started (interval={}ms, maxPending={})", flushIntervalMs, maxPending);
+    }
+
+    void init() {
+        flushTimer = Timer.builder("smartcampost.gps.last-known.flush")
+                .description("Latency of one batched last-known-location flush")
+                .register(meterRegistry);
+        writtenCounter = Counter.builder("smartcampost.gps.last-known.written")
+                .description("Parcel and courier rows updated by the location writer")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("smartcampost.gps.last-known.flush.failed").register(meterRegistry);
+        Gauge.builder("smartcampost.gps.last-known.pending", this, c -> c.pendingParcels.size() + c.pendingCouriers.size())
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (writer != null) writer.interrupt();
+        flush();
+    }
+
+    // ==================== Writers ====================
+
+    public void recordParcel(UUID parcelId, Double latitude, Double longitude, Instant at) {
+        record(pendingParcels, parcelId, LastKnownLocation.of(latitude, longitude, at));
+    }
+
+    public void recordCourier(UUID courierId, Double latitude, Double longitude, Instant at) {
+        record(pendingCouriers, courierId, LastKnownLocation.of(latitude, longitude, at));
+    }
+
+    private void record(ConcurrentHashMap<UUID, LastKnownLocation> pending, UUID id, LastKnownLocation location) {
+        if (id == null || location == null) return;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    put(pending, id, location);
+                }
+            });
+        } else {
+            put(pending, id, location);
+        }
+    }
+
+    private void put(ConcurrentHashMap<UUID, LastKnownLocation> pending, UUID id, LastKnownLocation location) {
+        recorded.incrementAndGet();
+        if (pending.putIfAbsent(id, location) != null) {
+            merged.incrementAndGet();
+            pending.merge(id, location, LastKnownLocation::newest);
+        }
+        if (pendingParcels.size() + pendingCouriers.size() >= maxPending) wakeWriter();
+    }
+
+    private void wakeWriter() {
+        synchronized (signal) {
+            signal.notifyAll();
+        }
+    }
+
+    // ==================== Readers ====================
+
+    /** Newest of the pending position and the parcel's stored columns, or empty when neither is known. */
+    public Optional<LastKnownLocation> parcel(Parcel parcel) {
+        if (parcel == null) return Optional.empty();
+        return newest(pending(pendingParcels, parcel.getId()),
+                LastKnownLocation.of(parcel.getCurrentLatitude(), parcel.getCurrentLongitude(), parcel.getLocationUpdatedAt()));
+    }
+
+    /** Newest of the pending position and the courier's stored columns, or empty when neither is known. */
+    public Optional<LastKnownLocation> courier(Courier courier) {
+        if (courier == null) return Optional.empty();
+        return newest(pending(pendingCouriers, courier.getId()),
+                LastKnownLocation.of(courier.getCurrentLatitude(), courier.getCurrentLongitude(), courier.getLastLocationAt()));
+    }
+
+    private static LastKnownLocation pending(Map<UUID, LastKnownLocation> pending, UUID id) {
+        return id != null ? pending.get(id) : null;
+    }
+
+    private static Optional<LastKnownLocation> newest(LastKnownLocation pending, LastKnownLocation stored) {
+        if (pending == null) return Optional.ofNullable(stored);
+        if (stored == null) return Optional.of(pending);
+        return Optional.of(stored.isNewerThan(pending) ? stored : pending);
+    }
+
+    // ==================== Flushing ====================
+
+    private void writeLoop() {
+        while (running) {
+            try {
+                synchronized (signal) {
+                    if (pendingParcels.size() + pendingCouriers.size() < maxPending) {
+                        signal.wait(flushIntervalMs);
+                    }
+                }
+                flush();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("[LOCATION] Flush failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    /** Writes every pending position. Returns the number of rows updated. */
+    int flush() {
+        flushLock.lock();
+        try {
+            Map<UUID, LastKnownLocation> parcels = new HashMap<>(pendingParcels);
+            Map<UUID, LastKnownLocation> couriers = new HashMap<>(pendingCouriers);
+            if (parcels.isEmpty() && couriers.isEmpty()) return 0;
+
+            long started = System.nanoTime();
+            int written;
+            try {
+                written = txTemplate.execute(status -> update(UPDATE_PARCEL, parcels) + update(UPDATE_COURIER, couriers));
+            } catch (RuntimeException e) {
+                failedCounter.increment();
+                log.error("[LOCATION] Could not write {} parcel and {} courier positions, retrying next flush: {}",
+                        parcels.size(), couriers.size(), e.getMessage());
+                return 0;
+            } finally {
+                flushTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+            // Only forget what was written: a position recorded during the flush stays pending
+            parcels.forEach(pendingParcels::remove);
+            couriers.forEach(pendingCouriers::remove);
+            writtenCounter.increment(written);
+            return written;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private int update(String sql, Map<UUID, LastKnownLocation> positions) {
+        if (positions.isEmpty()) return 0;
+        List<Map.Entry<UUID, LastKnownLocation>> rows = new ArrayList<>(positions.entrySet());
+        int[][] counts = jdbcTemplate.batchUpdate(sql, rows, rows.size(), (ps, row) -> {
+            LastKnownLocation location = row.getValue();
+            Timestamp at = Timestamp.from(location.at() != null ? location.at() : Instant.now());
+            ps.setDouble(1, location.latitude());
+            ps.setDouble(2, location.longitude());
+            ps.setTimestamp(3, at);
+            ps.setBytes(4, bytes(row.getKey()));
+            ps.setTimestamp(5, at);
+        });
+        int updated = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) updated += Math.max(0, count);
+        }
+        return updated;
+    }
+
+    /** BINARY(16) layout used by Hibernate for the UUID ids of these entities. */
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingParcels", pendingParcels.size());
+        stats.put("pendingCouriers", pendingCouriers.size());
+        stats.put("flushIntervalMs", flushIntervalMs);
+        stats.put("maxPending", maxPending);
+        stats.put("recorded", recorded.get());
+        stats.put("merged", merged.get());
+        stats.put("written", (long) writtenCounter.count());
+        stats.put("failedFlushes", (long) failedCounter.count());
+        stats.put("flushCount", flushTimer.count());
+        stats.put("flushMeanMs", flushTimer.mean(TimeUnit.MILLISECONDS));
+        stats.put("flushMaxMs", flushTimer.max(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+}
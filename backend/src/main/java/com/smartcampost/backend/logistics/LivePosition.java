@@ -0,0 +1,23 @@
+package com.smartcampost.backend.logistics;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Last known fix of one courier/agent/tracker as held by {@link LivePositionIndex}.
+ * Field names mirror {@link com.smartcampost.backend.model.Location} so endpoints that used to
+ * return raw location rows keep the same JSON shape.
+ */
+public record LivePosition(
+        String userId,
+        double latitude,
+        double longitude,
+        Double speed,
+        Double heading,
+        String source,
+        String address,
+        OffsetDateTime timestamp
+) {
+    public boolean isFresherThan(OffsetDateTime cutoff) {
+        return timestamp != null && timestamp.isAfter(cutoff);
+    }
+}
@@ -0,0 +1,147 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.geo.SpatialGridIndex;
+import com.smartcampost.backend.model.Location;
+import com.smartcampost.backend.repository.LocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared, concurrently-updated "latest fix per actor" view of courier/agent/tracker positions.
+ *
+ * Fed by {@link GpsIngestionPipeline} as soon as a fix is accepted (before it is persisted) and
+ * by manual location updates; warmed from {@code locations} on startup. Schedulers and map
+ * endpoints read from here instead of each re-reading the newest 500 location rows and
+ * rebuilding their own latest-per-user map. Positions are also kept in a {@link SpatialGridIndex}
+ * so "who is near X" is a grid lookup rather than a scan.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LivePositionIndex {
+
+    private final LocationRepository locationRepository;
+
+    @Value("${smartcampost.gps.live-index.retention-hours:24}")
+    private long retentionHours = 24;
+
+    private final ConcurrentHashMap<String, LivePosition> positions = new ConcurrentHashMap<>();
+    private final SpatialGridIndex<String, LivePosition> grid = new SpatialGridIndex<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        OffsetDateTime since = OffsetDateTime.now(ZoneOffset.UTC).minusHours(retentionHours);
+        try {
+            List<Location> latest = locationRepository.findLatestPerUserSince(since);
+            latest.forEach(this::record);
+            log.info("[LIVE-INDEX] Warmed with {} actor positions from the last {}h", positions.size(), retentionHours);
+        } catch (Exception e) {
+            log.warn("[LIVE-INDEX] Warm-up failed, index will fill from live GPS: {}", e.getMessage());
+        }
+    }
+
+    public void record(GpsFix fix) {
+        OffsetDateTime at = OffsetDateTime.ofInstant(fix.timestamp(), ZoneOffset.UTC);
+        put(new LivePosition(fix.actorKey(), fix.latitude(), fix.longitude(),
+                fix.speed(), fix.heading(), fix.source(), null, at));
+    }
+
+    public void record(Location location) {
+        if (location == null || location.getUserId() == null
+                || location.getLatitude() == null || location.getLongitude() == null) return;
+        OffsetDateTime at = location.getTimestamp() == null
+                ? OffsetDateTime.now(ZoneOffset.UTC)
+                : location.getTimestamp();
+        put(new LivePosition(location.getUserId(), location.getLatitude(), location.getLongitude(),
+                null, null, location.getSource(), location.getAddress(), at));
+    }
+
+    /** Keeps the newest fix; an older fix (e.g. a replayed offline batch) never overwrites a newer one. */
+    private void put(LivePosition position) {
+        positions.compute(position.userId(), (actorId, current) -> {
+            LivePosition next = current == null ? position : merge(current, position);
+            // Updated under the map's per-key lock so the grid never lags behind a newer fix.
+            if (next != current) grid.put(actorId, next.latitude(), next.longitude(), next);
+            return next;
+        });
+    }
+
+    private static LivePosition merge(LivePosition current, LivePosition incoming) {
+        if (current.timestamp() != null && incoming.timestamp() != null
+                && incoming.timestamp().isBefore(current.timestamp())) {
+            return current;
+        }
+        // Keep a known address/speed when the newer fix does not carry one.
+        return new LivePosition(incoming.userId(), incoming.latitude(), incoming.longitude(),
+                incoming.speed() != null ? incoming.speed() : current.speed(),
+                incoming.heading() != null ? incoming.heading() : current.heading(),
+                incoming.source(),
+                incoming.address() != null ? incoming.address() : current.address(),
+                incoming.timestamp());
+    }
+
+    public Optional<LivePosition> get(String actorId) {
+        return actorId == null ? Optional.empty() : Optional.ofNullable(positions.get(actorId));
+    }
+
+    /** All known positions, newest first. */
+    public List<LivePosition> snapshot() {
+        List<LivePosition> out = new ArrayList<>(positions.values());
+        out.sort(NEWEST_FIRST);
+        return out;
+    }
+
+    /** Positions reported after the cutoff, newest first. */
+    public List<LivePosition> freshSince(OffsetDateTime cutoff) {
+        List<LivePosition> out = new ArrayList<>();
+        for (LivePosition position : positions.values()) {
+            if (position.isFresherThan(cutoff)) out.add(position);
+        }
+        out.sort(NEWEST_FIRST);
+        return out;
+    }
+
+    /** Actors reported after the cutoff within radiusKm of the point, closest first. */
+    public List<SpatialGridIndex.Hit<String, LivePosition>> withinRadius(double latitude, double longitude,
+                                                                          double radiusKm, OffsetDateTime cutoff) {
+        return grid.withinRadius(latitude, longitude, radiusKm, position -> position.isFresherThan(cutoff));
+    }
+
+    /** The k closest actors reported after the cutoff, within maxRadiusKm, closest first. */
+    public List<SpatialGridIndex.Hit<String, LivePosition>> nearest(double latitude, double longitude, int k,
+                                                                     double maxRadiusKm, OffsetDateTime cutoff) {
+        return grid.nearest(latitude, longitude, k, maxRadiusKm,
+                position -> cutoff == null || position.isFresherThan(cutoff));
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /** Drops actors silent for longer than the retention window. */
+    @Scheduled(fixedDelayString = "${smartcampost.gps.live-index.prune-interval-ms:600000}")
+    public void prune() {
+        OffsetDateTime cutoff = OffsetDateTime.now(ZoneOffset.UTC).minusHours(retentionHours);
+        for (LivePosition position : positions.values()) {
+            if (position.isFresherThan(cutoff)) continue;
+            positions.computeIfPresent(position.userId(), (actorId, current) -> {
+                if (current.isFresherThan(cutoff)) return current;
+                grid.remove(actorId);
+                return null;
+            });
+        }
+    }
+
+    private static final Comparator<LivePosition> NEWEST_FIRST = Comparator.comparing(
+            LivePosition::timestamp, Comparator.nullsLast(Comparator.reverseOrder()));
+}
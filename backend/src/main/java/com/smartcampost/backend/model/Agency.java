@@ -3,6 +3,7 @@ package com.smartcampost.backend.model;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
 import java.util.UUID;
 
 @Entity
@@ -33,6 +34,13 @@ public class Agency {
     @Builder.Default
     private String country = "Cameroon";
 
+    // Backfilled by GeocodeBackfillJob
+    @Column(name = "latitude", precision = 9, scale = 6)
+    private BigDecimal latitude;
+
+    @Column(name = "longitude", precision = 9, scale = 6)
+    private BigDecimal longitude;
+
     @PrePersist
     void onCreate() {
         if (id == null) {
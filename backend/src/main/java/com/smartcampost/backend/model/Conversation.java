@@ -57,6 +57,18 @@ public class Conversation {
     @Column(name = "context_data", columnDefinition = "JSON")
     private String contextData;
 
+    /** Rolling summary of the messages that have left the chat prompt window. */
+    @Lob
+    @Column(name = "summary", columnDefinition = "TEXT")
+    private String summary;
+
+    /** Timestamp of the newest message folded into {@link #summary}. */
+    @Column(name = "summarized_until")
+    private Instant summarizedUntil;
+
+    @Column(name = "summarized_messages")
+    private Integer summarizedMessages;
+
     @PrePersist
     void onCreate() {
         if (id == null) id = UUID.randomUUID();
@@ -3,12 +3,15 @@ package com.smartcampost.backend.model;
 import com.smartcampost.backend.model.enums.CourierStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Instant;
 import java.util.UUID;
 
+// @DynamicUpdate: see LastKnownLocationCache
 @Entity
 @Table(name = "courier")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,43 @@
+package com.smartcampost.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A geocoding result kept by {@link com.smartcampost.backend.geo.Geocoder}, keyed by the
+ * SHA-256 of the normalized address. found = false rows remember addresses Nominatim could
+ * not place, so they are only retried after the negative TTL.
+ */
+@Entity
+@Table(name = "geocode_cache")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GeocodeCacheEntry {
+
+    @Id
+    @Column(name = "address_hash", nullable = false, columnDefinition = "CHAR(64)")
+    private String addressHash;
+
+    @Column(name = "address", nullable = false, length = 500)
+    private String address;
+
+    @Column(name = "found", nullable = false)
+    private boolean found;
+
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
+    @Column(name = "display_name", length = 500)
+    private String displayName;
+
+    @Column(name = "geocoded_at", nullable = false)
+    private Instant geocodedAt;
+}
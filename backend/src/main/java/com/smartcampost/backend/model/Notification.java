@@ -79,6 +79,10 @@ public class Notification {
     @Column(name = "sent_at")
     private Instant sentAt;
 
+    // Outbox: earliest time a worker may (re)try delivery; also the claim lease while in flight.
+    @Column(name = "next_attempt_at")
+    private Instant nextAttemptAt;
+
     @Column(name = "read_at")
     private Instant readAt;
 
@@ -0,0 +1,65 @@
+package com.smartcampost.backend.model;
+
+import com.smartcampost.backend.model.enums.NotificationChannel;
+import com.smartcampost.backend.model.enums.NotificationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Notification the outbox gave up on after the maximum number of attempts.
+ * The original {@link Notification} stays in place (status FAILED) for the recipient's inbox.
+ */
+@Entity
+@Table(name = "notification_dead_letter")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class NotificationDeadLetter {
+
+    @Id
+    @Column(name = "dead_letter_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID id;
+
+    @Column(name = "notification_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID notificationId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "channel", nullable = false, length = 20)
+    private NotificationChannel channel;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 40)
+    private NotificationType type;
+
+    @Column(name = "recipient", length = 100)
+    private String recipient;
+
+    @Column(name = "subject", length = 255)
+    private String subject;
+
+    @Column(name = "message", nullable = false, columnDefinition = "TEXT")
+    private String message;
+
+    @Column(name = "error_message", length = 255)
+    private String errorMessage;
+
+    @Column(name = "retry_count", nullable = false)
+    private int retryCount;
+
+    @Column(name = "failed_at", nullable = false)
+    private Instant failedAt;
+
+    @PrePersist
+    void onCreate() {
+        if (id == null) {
+            id = UUID.randomUUID();
+        }
+        if (failedAt == null) {
+            failedAt = Instant.now();
+        }
+    }
+}
@@ -8,12 +8,15 @@ import com.smartcampost.backend.model.enums.QrStatus;
 import com.smartcampost.backend.model.enums.LocationMode;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.Instant;
 import java.util.UUID;
 
+// @DynamicUpdate: see LastKnownLocationCache
 @Entity
 @Table(name = "parcel")
+@DynamicUpdate
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
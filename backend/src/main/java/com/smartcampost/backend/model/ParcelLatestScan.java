@@ -0,0 +1,35 @@
+package com.smartcampost.backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Latest ScanEvent of each parcel, maintained in the same transaction as the scan insert by
+ * {@link com.smartcampost.backend.service.scan.LatestScanProjection}. Lets "last scan of these
+ * parcels" be read with one query instead of one ordered scan_event query per parcel.
+ */
+@Entity
+@Table(name = "parcel_latest_scan")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ParcelLatestScan {
+
+    @Id
+    @Column(name = "parcel_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID parcelId;
+
+    @Column(name = "scan_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID scanId;
+
+    @Column(name = "scanned_at", nullable = false)
+    private Instant scannedAt;
+
+    @Column(name = "actor_id", length = 64)
+    private String actorId;
+}
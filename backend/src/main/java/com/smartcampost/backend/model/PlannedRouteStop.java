@@ -0,0 +1,65 @@
+package com.smartcampost.backend.model;
+
+import com.smartcampost.backend.routing.FleetPlanner;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * One stop of a courier's planned route for a day, written by
+ * {@link com.smartcampost.backend.routing.FleetRoutePlanningService} and fetched by the courier
+ * app. A planning run replaces the whole day's rows of each agency it plans.
+ */
+@Entity
+@Table(name = "planned_route_stop")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PlannedRouteStop {
+
+    @Id
+    @Column(name = "stop_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID id;
+
+    @Column(name = "plan_date", nullable = false)
+    private LocalDate planDate;
+
+    @Column(name = "agency_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID agencyId;
+
+    @Column(name = "courier_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID courierId;
+
+    @Column(name = "stop_sequence", nullable = false)
+    private Integer sequence;
+
+    @Column(name = "parcel_id", nullable = false, columnDefinition = "BINARY(16)")
+    private UUID parcelId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "stop_type", nullable = false, length = 20)
+    private FleetPlanner.StopType stopType;
+
+    @Column(name = "latitude", nullable = false)
+    private Double latitude;
+
+    @Column(name = "longitude", nullable = false)
+    private Double longitude;
+
+    @Column(name = "leg_km", nullable = false)
+    private Double legKm;
+
+    @Column(name = "planned_arrival_at", nullable = false)
+    private Instant plannedArrivalAt;
+
+    @Column(name = "late_minutes", nullable = false)
+    private Integer lateMinutes;
+
+    @Column(name = "planned_at", nullable = false)
+    private Instant plannedAt;
+}
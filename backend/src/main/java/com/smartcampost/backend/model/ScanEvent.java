@@ -14,7 +14,10 @@ import java.util.UUID;
  * No status change is allowed without a ScanEvent.
  */
 @Entity
-@Table(name = "scan_event")
+@Table(
+        name = "scan_event",
+        uniqueConstraints = @UniqueConstraint(name = "ux_scan_device_local", columnNames = {"device_id", "local_id"})
+)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -131,6 +134,13 @@ public class ScanEvent {
 
     @Column(name = "synced_at")
     private Instant syncedAt;
+
+    // (device_id, local_id) is unique: a re-uploaded offline event is recognised, not duplicated
+    @Column(name = "device_id", length = 64)
+    private String deviceId;
+
+    @Column(name = "local_id", length = 64)
+    private String localId;
     // --------------------------------------------------
 
     // Convenience accessors for legacy code
@@ -3,5 +3,9 @@ package com.smartcampost.backend.model.enums;
 public enum NotificationStatus {
     PENDING,
     SENT,
-    FAILED
+    FAILED,
+    // Waiting for the recipient's digest window to close (NotificationCoalescer)
+    HELD,
+    // A HELD update that went out as part of a digest
+    DIGESTED
 }
@@ -0,0 +1,44 @@
+package com.smartcampost.backend.notification;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket shared by every outbox worker sending through one gateway, so a backlog
+ * drains at the provider's allowed rate instead of tripping its throttling.
+ */
+public class GatewayRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private double tokens;
+    private long refilledAt = System.nanoTime();
+
+    public GatewayRateLimiter(double permitsPerSecond) {
+        if (permitsPerSecond <= 0) throw new IllegalArgumentException("permitsPerSecond must be positive");
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = Math.max(1.0, permitsPerSecond);
+        this.tokens = burst;
+    }
+
+    /** Blocks until a permit is available. */
+    public void acquire() throws InterruptedException {
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= 1.0) {
+                    tokens -= 1.0;
+                    return;
+                }
+                waitNanos = (long) ((1.0 - tokens) / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(waitNanos, 1_000_000));
+        }
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - refilledAt) / 1e9 * permitsPerSecond);
+        refilledAt = now;
+    }
+}
@@ -0,0 +1,99 @@
+package com.smartcampost.backend.notification;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Optional persistence behind {@link NotificationCoalescer}: last send time per dedup key in the
+ * {@code notification_dedup} table (database/migrations/0008_notification_dedup.sql), so
+ * suppression windows survive restarts and hold across replicas. Only consulted on an in-memory
+ * miss. Disabled by default; expired keys are deleted by the coalescer's digest sweep.
+ */
+@Component
+@Slf4j
+public class JdbcNotificationDedupStore {
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS notification_dedup (" +
+            "dedup_key VARCHAR(255) NOT NULL PRIMARY KEY, " +
+            "last_sent_at DATETIME(3) NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${smartcampost.notifications.coalescing.persist:false}")
+    private boolean enabled;
+
+    public JdbcNotificationDedupStore(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        log.info("[NOTIF-COALESCE] Dedup state persisted to notification_dedup");
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return the last recorded send for the key, or null when unknown (or the lookup failed) */
+    public Instant lastSent(String key) {
+        if (!enabled) return null;
+        try {
+            List<Timestamp> rows = jdbcTemplate.queryForList(
+                    "SELECT last_sent_at FROM notification_dedup WHERE dedup_key = ?", Timestamp.class, key);
+            return rows.isEmpty() ? null : rows.get(0).toInstant();
+        } catch (DataAccessException e) {
+            // Fail open: a duplicate SMS is better than a lost one.
+            log.warn("[NOTIF-COALESCE] Dedup lookup failed for {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    public void recordSent(String key, Instant at) {
+        if (!enabled) return;
+        Timestamp ts = Timestamp.from(at);
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE notification_dedup SET last_sent_at = ? WHERE dedup_key = ?", ts, key);
+            if (updated == 0) {
+                jdbcTemplate.update("INSERT INTO notification_dedup (dedup_key, last_sent_at) VALUES (?, ?)", key, ts);
+            }
+        } catch (DuplicateKeyException raced) {
+            jdbcTemplate.update("UPDATE notification_dedup SET last_sent_at = ? WHERE dedup_key = ?", ts, key);
+        } catch (DataAccessException e) {
+            log.warn("[NOTIF-COALESCE] Dedup write failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    public void forget(String key) {
+        if (!enabled) return;
+        try {
+            jdbcTemplate.update("DELETE FROM notification_dedup WHERE dedup_key = ?", key);
+        } catch (DataAccessException e) {
+            log.warn("[NOTIF-COALESCE] Dedup delete failed for {}: {}", key, e.getMessage());
+        }
+    }
+
+    /** Deletes keys last sent before the cutoff; returns how many rows went. */
+    public int deleteOlderThan(Instant cutoff) {
+        if (!enabled) return 0;
+        try {
+            return jdbcTemplate.update("DELETE FROM notification_dedup WHERE last_sent_at < ?", Timestamp.from(cutoff));
+        } catch (DataAccessException e) {
+            log.warn("[NOTIF-COALESCE] Dedup prune failed: {}", e.getMessage());
+            return 0;
+        }
+    }
+}
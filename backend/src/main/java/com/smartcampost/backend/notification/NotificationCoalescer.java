@@ -0,0 +1,398 @@
+package com.smartcampost.backend.notification;
+
+import com.smartcampost.backend.model.Notification;
+import com.smartcampost.backend.model.enums.NotificationChannel;
+import com.smartcampost.backend.model.enums.NotificationStatus;
+import com.smartcampost.backend.model.enums.NotificationType;
+import com.smartcampost.backend.repository.NotificationRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sits in front of the notification outbox for parcel notifications and decides, per
+ * notification, whether it is sent, suppressed, or folded into a digest:
+ * - de-duplication: one notification per (recipient, parcel, type) per suppression window, so the
+ *   15-minute delayed-parcel sweep or two listeners reacting to the same status change do not
+ *   produce repeated SMS (and repeated notification rows),
+ * - digesting: once a recipient has received digest.threshold SMS within digest.window-minutes,
+ *   further parcel SMS are held and flushed as one summary SMS (latest update per parcel).
+ *
+ * Held updates are saved by the caller like any other notification, as HELD rows whose
+ * next_attempt_at is the end of the recipient's digest window, so they commit or roll back with
+ * the caller and survive a restart. {@link #flushDigests} turns due HELD rows into one PENDING
+ * digest per recipient (the rows become DIGESTED), or releases a lone update as PENDING, and the
+ * outbox delivers them from there.
+ *
+ * Dedup state lives in bounded LRU maps; with coalescing.persist=true the keys are also written
+ * through {@link JdbcNotificationDedupStore} when the notification is actually sent: on offer
+ * for SEND, when the digest is written for DIGESTED. Notifications without a parcel, email, and
+ * the exempt types (OTP, manual) always pass through.
+ */
+@Component
+@Slf4j
+public class NotificationCoalescer {
+
+    public enum Decision { SEND, SUPPRESSED, DIGESTED }
+
+    private static final int DIGEST_MAX_LISTED = 5;
+    private static final int DIGEST_FLUSH_BATCH = 500;
+
+    private final JdbcNotificationDedupStore dedupStore;
+    private final NotificationRepository notificationRepository;
+    private final NotificationOutboxWorker outboxWorker;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.notifications.coalescing.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${smartcampost.notifications.coalescing.max-entries:50000}")
+    private int maxEntries = 50000;
+
+    @Value("${smartcampost.notifications.coalescing.default-window-minutes:30}")
+    private long defaultWindowMinutes = 30;
+
+    // TYPE=minutes pairs overriding the default window, e.g. DELIVERY_ATTEMPT_FAILED=360
+    @Value("${smartcampost.notifications.coalescing.windows:DELIVERY_ATTEMPT_FAILED=360,REMINDER_NOT_COLLECTED=1440}")
+    private String windowOverrides = "DELIVERY_ATTEMPT_FAILED=360,REMINDER_NOT_COLLECTED=1440";
+
+    @Value("${smartcampost.notifications.coalescing.exempt-types:DELIVERY_OTP,MANUAL}")
+    private String exemptTypeList = "DELIVERY_OTP,MANUAL";
+
+    // 0 disables digesting
+    @Value("${smartcampost.notifications.coalescing.digest.threshold:3}")
+    private int digestThreshold = 3;
+
+    @Value("${smartcampost.notifications.coalescing.digest.window-minutes:10}")
+    private long digestWindowMinutes = 10;
+
+    // How often the digest sweep also deletes persisted dedup keys older than the longest window
+    @Value("${smartcampost.notifications.coalescing.dedup-prune-interval-minutes:60}")
+    private long dedupPruneIntervalMinutes = 60;
+
+    private final Map<NotificationType, Long> windowMs = new EnumMap<>(NotificationType.class);
+    private final Set<NotificationType> exemptTypes = EnumSet.noneOf(NotificationType.class);
+
+    // All three guarded by this; openDigests maps a recipient to the start of its digest window
+    private Map<String, Long> lastSent;
+    private Map<String, ArrayDeque<Long>> recentSmsByRecipient;
+    private final Map<String, Long> openDigests = new LinkedHashMap<>();
+
+    private volatile long lastDedupPruneMs;
+
+    private final AtomicLong suppressed = new AtomicLong();
+    private final AtomicLong digested = new AtomicLong();
+    private final AtomicLong digestsSent = new AtomicLong();
+    private Counter suppressedCounter;
+    private Counter digestedCounter;
+    private Counter digestsSentCounter;
+
+    public NotificationCoalescer(JdbcNotificationDedupStore dedupStore,
+                                 NotificationRepository notificationRepository,
+                                 NotificationOutboxWorker outboxWorker,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.dedupStore = dedupStore;
+        this.notificationRepository = notificationRepository;
+        this.outboxWorker = outboxWorker;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        lastSent = lruMap(maxEntries);
+        recentSmsByRecipient = lruMap(maxEntries);
+        parseWindows();
+        for (String type : exemptTypeList.split(",")) {
+            if (!type.isBlank()) exemptTypes.add(NotificationType.valueOf(type.trim()));
+        }
+        suppressedCounter = Counter.builder("smartcampost.notifications.coalescer.suppressed").register(meterRegistry);
+        digestedCounter = Counter.builder("smartcampost.notifications.coalescer.digested").register(meterRegistry);
+        digestsSentCounter = Counter.builder("smartcampost.notifications.coalescer.digests.sent").register(meterRegistry);
+        Gauge.builder("smartcampost.notifications.coalescer.pending.digests", this, NotificationCoalescer::pendingDigestCount)
+                .register(meterRegistry);
+        log.info("[NOTIF-COALESCE] enabled={} defaultWindow={}min overrides={} digest={}/{}min persist={}",
+                enabled, defaultWindowMinutes, windowOverrides, digestThreshold, digestWindowMinutes, dedupStore.isEnabled());
+    }
+
+    /**
+     * Decides what happens to a not-yet-saved notification. The caller saves it for SEND and
+     * DIGESTED; a DIGESTED one has been turned into a HELD row released at the end of the digest
+     * window. Both reserve the dedup key, and a rollback of the caller's transaction releases it.
+     */
+    public Decision offer(Notification notification) {
+        return offer(notification, System.currentTimeMillis());
+    }
+
+    Decision offer(Notification notification, long nowMs) {
+        if (!enabled || notification.getParcel() == null || notification.getParcel().getId() == null
+                || exemptTypes.contains(notification.getType())) {
+            return Decision.SEND;
+        }
+        String recipient = recipientOf(notification);
+        if (recipient == null) return Decision.SEND;
+
+        String key = recipient + "|" + notification.getParcel().getId() + "|" + notification.getType();
+        long window = windowMs.getOrDefault(notification.getType(), defaultWindowMinutes * 60_000L);
+
+        Long known;
+        synchronized (this) {
+            known = lastSent.get(key);
+        }
+        if (known == null && dedupStore.isEnabled()) {
+            Instant persisted = dedupStore.lastSent(key);
+            if (persisted != null) known = persisted.toEpochMilli();
+        }
+
+        Decision decision;
+        long digestOpenedAt = nowMs;
+        synchronized (this) {
+            Long current = lastSent.get(key);
+            long last = Math.max(known == null ? Long.MIN_VALUE : known, current == null ? Long.MIN_VALUE : current);
+            if (last != Long.MIN_VALUE && nowMs - last < window) {
+                suppressed.incrementAndGet();
+                if (suppressedCounter != null) suppressedCounter.increment();
+                log.debug("[NOTIF-COALESCE] Suppressed {} (last sent {}ms ago)", key, nowMs - last);
+                return Decision.SUPPRESSED;
+            }
+            lastSent.put(key, nowMs);
+            decision = notification.getChannel() == NotificationChannel.SMS
+                    ? admitSms(recipient, nowMs)
+                    : Decision.SEND;
+            if (decision == Decision.DIGESTED) digestOpenedAt = openDigests.get(recipient);
+        }
+        if (decision == Decision.SEND) {
+            dedupStore.recordSent(key, Instant.ofEpochMilli(nowMs));
+            releaseOnRollback(key, null);
+        } else {
+            // Recorded in the dedup store when the digest is written (flushDigests)
+            notification.setStatus(NotificationStatus.HELD);
+            notification.setNextAttemptAt(Instant.ofEpochMilli(digestOpenedAt + digestWindowMinutes * 60_000L));
+            releaseOnRollback(key, this::countDigested);
+        }
+        return decision;
+    }
+
+    // Caller holds the lock
+    private Decision admitSms(String recipient, long nowMs) {
+        if (digestThreshold <= 0) return Decision.SEND;
+        long digestWindowMs = digestWindowMinutes * 60_000L;
+        ArrayDeque<Long> recent = recentSmsByRecipient.computeIfAbsent(recipient, r -> new ArrayDeque<>());
+        while (!recent.isEmpty() && nowMs - recent.peekFirst() >= digestWindowMs) recent.pollFirst();
+
+        Long openedAt = openDigests.get(recipient);
+        if (openedAt != null && nowMs - openedAt >= digestWindowMs) {
+            // Window over; its HELD rows are due and go out with the next flush
+            openDigests.remove(recipient);
+            openedAt = null;
+        }
+        if (openedAt == null && (recent.size() < digestThreshold || openDigests.size() >= maxEntries)) {
+            recent.addLast(nowMs);
+            return Decision.SEND;
+        }
+        if (openedAt == null) {
+            openDigests.put(recipient, nowMs);
+        }
+        return Decision.DIGESTED;
+    }
+
+    private void countDigested() {
+        digested.incrementAndGet();
+        if (digestedCounter != null) digestedCounter.increment();
+    }
+
+    /**
+     * Runs {@code onCommit} once the caller's transaction commits (immediately without one); on
+     * rollback releases the dedup reservation instead.
+     */
+    private void releaseOnRollback(String key, Runnable onCommit) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (onCommit != null) onCommit.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    if (onCommit != null) onCommit.run();
+                    return;
+                }
+                synchronized (NotificationCoalescer.this) {
+                    lastSent.remove(key);
+                }
+                if (onCommit == null) dedupStore.forget(key);
+            }
+        });
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.notifications.coalescing.digest.flush-interval-ms:60000}")
+    public void flushDueDigests() {
+        long nowMs = System.currentTimeMillis();
+        flushDigests(nowMs);
+        pruneDedup(nowMs);
+    }
+
+    /** Deletes persisted dedup keys that no suppression window can still match. */
+    void pruneDedup(long nowMs) {
+        if (!dedupStore.isEnabled() || nowMs - lastDedupPruneMs < dedupPruneIntervalMinutes * 60_000L) return;
+        lastDedupPruneMs = nowMs;
+        long longestWindowMs = defaultWindowMinutes * 60_000L;
+        for (long window : windowMs.values()) longestWindowMs = Math.max(longestWindowMs, window);
+        int deleted = dedupStore.deleteOlderThan(Instant.ofEpochMilli(nowMs - longestWindowMs));
+        if (deleted > 0) log.info("[NOTIF-COALESCE] Pruned {} expired dedup key(s)", deleted);
+    }
+
+    /**
+     * Releases every HELD row whose digest window has elapsed: per recipient, one PENDING digest
+     * of the latest update per parcel, or the update itself when only one parcel is involved.
+     * Rows are claimed with FOR UPDATE SKIP LOCKED, so replicas never release the same row twice.
+     * Returns how many notifications were handed to the outbox.
+     */
+    int flushDigests(long nowMs) {
+        long digestWindowMs = digestWindowMinutes * 60_000L;
+        synchronized (this) {
+            openDigests.values().removeIf(openedAt -> nowMs - openedAt >= digestWindowMs);
+        }
+        int written = 0;
+        while (true) {
+            Flush flush = transactionTemplate.execute(status -> releaseHeld(Instant.ofEpochMilli(nowMs)));
+            if (flush == null || flush.claimed() == 0) break;
+            written += flush.recipients().size();
+            synchronized (this) {
+                for (String recipient : flush.recipients()) {
+                    recentSmsByRecipient.computeIfAbsent(recipient, r -> new ArrayDeque<>()).addLast(nowMs);
+                }
+            }
+            flush.dedupKeys().forEach((key, offeredAt) -> dedupStore.recordSent(key, offeredAt));
+            if (flush.claimed() < DIGEST_FLUSH_BATCH) break;
+        }
+        if (written > 0) {
+            outboxWorker.wakeUpAfterCommit();
+            digestsSent.addAndGet(written);
+            if (digestsSentCounter != null) digestsSentCounter.increment(written);
+            log.info("[NOTIF-COALESCE] Flushed {} digest(s)", written);
+        }
+        return written;
+    }
+
+    private record Flush(int claimed, Set<String> recipients, Map<String, Instant> dedupKeys) {}
+
+    // Runs in the flush transaction
+    private Flush releaseHeld(Instant now) {
+        List<Notification> held = notificationRepository.lockDueHeld(now, DIGEST_FLUSH_BATCH);
+        // Rows come ordered by recipient then creation, so later updates replace earlier ones
+        Map<String, LinkedHashMap<UUID, Notification>> byRecipient = new LinkedHashMap<>();
+        Map<String, Instant> dedupKeys = new HashMap<>();
+        for (Notification n : held) {
+            String phone = n.getRecipientPhone().trim();
+            UUID parcelId = n.getParcel().getId();
+            LinkedHashMap<UUID, Notification> latest = byRecipient.computeIfAbsent(phone, p -> new LinkedHashMap<>());
+            latest.remove(parcelId);
+            latest.put(parcelId, n);
+            dedupKeys.merge(phone + "|" + parcelId + "|" + n.getType(), n.getCreatedAt(),
+                    (a, b) -> b.isAfter(a) ? b : a);
+            n.setStatus(NotificationStatus.DIGESTED);
+            n.setNextAttemptAt(null);
+        }
+        byRecipient.forEach((phone, latest) -> {
+            List<Notification> entries = new ArrayList<>(latest.values());
+            if (entries.size() == 1) {
+                // A lone held update goes out as-is, still linked to its parcel
+                entries.get(0).setStatus(NotificationStatus.PENDING);
+                entries.get(0).setNextAttemptAt(now);
+            } else {
+                notificationRepository.save(toDigest(phone, entries));
+            }
+        });
+        notificationRepository.saveAll(held);
+        return new Flush(held.size(), byRecipient.keySet(), dedupKeys);
+    }
+
+    private Notification toDigest(String phone, List<Notification> entries) {
+        StringBuilder message = new StringBuilder("SmartCAMPOST: updates on ")
+                .append(entries.size()).append(" of your parcels. ");
+        for (int i = 0; i < Math.min(entries.size(), DIGEST_MAX_LISTED); i++) {
+            Notification e = entries.get(i);
+            String trackingRef = e.getParcel().getTrackingRef();
+            if (i > 0) message.append("; ");
+            message.append(trackingRef != null ? trackingRef : "parcel").append(": ").append(e.getSubject());
+        }
+        if (entries.size() > DIGEST_MAX_LISTED) {
+            message.append("; and ").append(entries.size() - DIGEST_MAX_LISTED).append(" more");
+        }
+        message.append(". Details in the SmartCAMPOST app.");
+        return Notification.builder()
+                .recipientPhone(phone)
+                .recipientEmail(entries.get(0).getRecipientEmail())
+                .channel(NotificationChannel.SMS)
+                .status(NotificationStatus.PENDING)
+                .retryCount(0)
+                .type(NotificationType.PARCEL_STATUS_CHANGE)
+                .subject("Updates on " + entries.size() + " parcels")
+                .message(message.toString())
+                .build();
+    }
+
+    /** Recipients whose digest window is open on this node. */
+    public synchronized int pendingDigestCount() {
+        return openDigests.size();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("persisted", dedupStore.isEnabled());
+        stats.put("suppressed", suppressed.get());
+        stats.put("digested", digested.get());
+        stats.put("digestsSent", digestsSent.get());
+        synchronized (this) {
+            stats.put("trackedKeys", lastSent.size());
+            stats.put("pendingDigests", openDigests.size());
+        }
+        return stats;
+    }
+
+    private void parseWindows() {
+        for (String pair : windowOverrides.split(",")) {
+            String[] parts = pair.split("=");
+            if (parts.length != 2) continue;
+            try {
+                windowMs.put(NotificationType.valueOf(parts[0].trim()), Long.parseLong(parts[1].trim()) * 60_000L);
+            } catch (IllegalArgumentException e) {
+                log.warn("[NOTIF-COALESCE] Ignoring suppression window '{}': {}", pair, e.getMessage());
+            }
+        }
+    }
+
+    private static String recipientOf(Notification n) {
+        String recipient = n.getChannel() == NotificationChannel.EMAIL ? n.getRecipientEmail() : n.getRecipientPhone();
+        return recipient == null || recipient.isBlank() ? null : recipient.trim();
+    }
+
+    private static <V> Map<String, V> lruMap(int maxEntries) {
+        int cap = Math.max(1, maxEntries);
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > cap;
+            }
+        };
+    }
+}
@@ -0,0 +1,344 @@
+package com.smartcampost.backend.notification;
+
+import com.smartcampost.backend.model.Notification;
+import com.smartcampost.backend.model.NotificationDeadLetter;
+import com.smartcampost.backend.model.enums.NotificationChannel;
+import com.smartcampost.backend.model.enums.NotificationStatus;
+import com.smartcampost.backend.repository.NotificationDeadLetterRepository;
+import com.smartcampost.backend.repository.NotificationRepository;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import com.smartcampost.backend.service.NotificationGatewayService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox dispatcher for {@link Notification}s.
+ *
+ * NotificationServiceImpl only inserts PENDING rows in the caller's transaction and calls
+ * {@link #wakeUpAfterCommit()}; SMS/email gateway latency never reaches the request path.
+ * Worker threads then:
+ * - claim a batch of due rows with SELECT ... FOR UPDATE SKIP LOCKED and lease them by pushing
+ *   next_attempt_at forward (a crashed worker's rows become due again once the lease expires),
+ * - send outside any transaction, paced per channel by {@link GatewayRateLimiter},
+ * - record SENT, or reschedule with exponential backoff on retry_count, or after max-attempts
+ *   mark the row FAILED and copy it to notification_dead_letter.
+ *
+ * Rows still never attempted after stale-after-hours are not sent any more; {@link #expireStale()}
+ * marks them FAILED and dead-letters them so they do not sit PENDING forever.
+ */
+@Component
+@Slf4j
+public class NotificationOutboxWorker {
+
+    private final NotificationRepository notificationRepository;
+    private final NotificationDeadLetterRepository deadLetterRepository;
+    private final NotificationGatewayService gatewayService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.notifications.outbox.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${smartcampost.notifications.outbox.worker-threads:2}")
+    private int workerThreads = 2;
+
+    @Value("${smartcampost.notifications.outbox.batch-size:20}")
+    private int batchSize = 20;
+
+    @Value("${smartcampost.notifications.outbox.poll-interval-ms:2000}")
+    private long pollIntervalMs = 2000;
+
+    @Value("${smartcampost.notifications.outbox.lease-ms:120000}")
+    private long leaseMs = 120000;
+
+    @Value("${smartcampost.notifications.outbox.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${smartcampost.notifications.outbox.backoff-base-ms:30000}")
+    private long backoffBaseMs = 30000;
+
+    @Value("${smartcampost.notifications.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs = 3600000;
+
+    // Never-attempted rows older than this are not picked up — a week-old "out for delivery" SMS is noise.
+    @Value("${smartcampost.notifications.outbox.stale-after-hours:24}")
+    private long staleAfterHours = 24;
+
+    @Value("${smartcampost.notifications.outbox.rate.sms-per-second:5}")
+    private double smsPerSecond = 5;
+
+    @Value("${smartcampost.notifications.outbox.rate.email-per-second:10}")
+    private double emailPerSecond = 10;
+
+    private final Semaphore wakeups = new Semaphore(0);
+    private final Map<NotificationChannel, GatewayRateLimiter> limiters = new EnumMap<>(NotificationChannel.class);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+    private final AtomicLong expired = new AtomicLong();
+    private Counter sentCounter;
+    private Counter retriedCounter;
+    private Counter deadLetterCounter;
+    private Counter expiredCounter;
+    private Timer sendTimer;
+
+    public NotificationOutboxWorker(NotificationRepository notificationRepository,
+                                    NotificationDeadLetterRepository deadLetterRepository,
+                                    NotificationGatewayService gatewayService,
+                                    PlatformTransactionManager transactionManager,
+                                    MeterRegistry meterRegistry) {
+        this.notificationRepository = notificationRepository;
+        this.deadLetterRepository = deadLetterRepository;
+        this.gatewayService = gatewayService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        limiters.put(NotificationChannel.SMS, new GatewayRateLimiter(smsPerSecond));
+        limiters.put(NotificationChannel.EMAIL, new GatewayRateLimiter(emailPerSecond));
+        sentCounter = Counter.builder("smartcampost.notifications.outbox.sent").register(meterRegistry);
+        retriedCounter = Counter.builder("smartcampost.notifications.outbox.retried").register(meterRegistry);
+        deadLetterCounter = Counter.builder("smartcampost.notifications.outbox.dead_lettered").register(meterRegistry);
+        expiredCounter = Counter.builder("smartcampost.notifications.outbox.expired")
+                .description("Notifications dead-lettered because they were never attempted before going stale")
+                .register(meterRegistry);
+        sendTimer = Timer.builder("smartcampost.notifications.outbox.send")
+                .description("Gateway call latency per notification")
+                .register(meterRegistry);
+
+        if (!enabled) {
+            log.warn("[OUTBOX] Notification outbox disabled — PENDING notifications will not be delivered");
+            return;
+        }
+        running = true;
+        for (int i = 0; i < Math.max(1, workerThreads); i++) {
+            Thread worker = new Thread(this::workLoop, "notification-outbox-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+        log.info("[OUTBOX] {} workers started (batch={}, sms/s={}, email/s={}, maxAttempts={})",
+                workers.size(), batchSize, smsPerSecond, emailPerSecond, maxAttempts);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        wakeups.release(workers.size());
+        for (Thread worker : workers) {
+            try {
+                worker.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Wakes a worker once the current transaction commits (immediately when there is none). */
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    private void wakeUp() {
+        // One pending permit is enough to get a worker polling; don't let them pile up.
+        if (wakeups.availablePermits() == 0) wakeups.release();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("workers", workers.size());
+        stats.put("sent", sent.get());
+        stats.put("retried", retried.get());
+        stats.put("deadLettered", deadLettered.get());
+        stats.put("expired", expired.get());
+        stats.put("deadLetterTotal", deadLetterRepository.count());
+        return stats;
+    }
+
+    private void workLoop() {
+        while (running) {
+            try {
+                int dispatched = dispatchBatch();
+                if (dispatched < batchSize) {
+                    if (wakeups.tryAcquire(pollIntervalMs, TimeUnit.MILLISECONDS)) wakeups.drainPermits();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("[OUTBOX] Worker loop error: {}", e.getMessage(), e);
+                try {
+                    TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Claims and sends one batch; returns how many notifications were claimed. */
+    int dispatchBatch() throws InterruptedException {
+        List<Notification> claimed = claimBatch();
+        for (Notification notification : claimed) {
+            if (!running) break; // lease expires, the rest is picked up after restart
+            dispatch(notification);
+        }
+        return claimed.size();
+    }
+
+    private List<Notification> claimBatch() {
+        List<Notification> claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Notification> due = notificationRepository.lockDueForDispatch(
+                    now, now.minus(Duration.ofHours(staleAfterHours)), batchSize);
+            if (!due.isEmpty()) {
+                notificationRepository.leaseUntil(due.stream().map(Notification::getId).toList(),
+                        now.plusMillis(leaseMs));
+            }
+            return due;
+        });
+        return claimed == null ? List.of() : claimed;
+    }
+
+    /**
+     * Dead-letters PENDING rows that were never attempted and are past stale-after-hours, one
+     * batch per transaction. Returns how many were expired.
+     */
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.notifications.outbox.stale-sweep-interval-ms:600000}")
+    public int expireStale() {
+        if (!enabled) return 0; // nothing is dispatched either; keep the rows for when it is re-enabled
+        int total = 0;
+        while (true) {
+            Integer count = transactionTemplate.execute(status -> {
+                Instant notBefore = Instant.now().minus(Duration.ofHours(staleAfterHours));
+                List<Notification> stale = notificationRepository.lockStale(notBefore, batchSize);
+                String error = "Not dispatched within " + staleAfterHours + "h";
+                stale.forEach(notification -> deadLetter(notification, error, notification.getRetryCount()));
+                return stale.size();
+            });
+            int expiredNow = count == null ? 0 : count;
+            total += expiredNow;
+            if (expiredNow < batchSize) break;
+        }
+        if (total > 0) {
+            expired.addAndGet(total);
+            expiredCounter.increment(total);
+            log.warn("[OUTBOX] Expired {} notifications never dispatched within {}h", total, staleAfterHours);
+        }
+        return total;
+    }
+
+    private void dispatch(Notification notification) throws InterruptedException {
+        GatewayRateLimiter limiter = limiters.get(notification.getChannel());
+        if (limiter != null) limiter.acquire();
+
+        long started = System.nanoTime();
+        try {
+            send(notification);
+            sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            transactionTemplate.executeWithoutResult(status -> notificationRepository.recordAttempt(
+                    notification.getId(), NotificationStatus.SENT, Instant.now(), null,
+                    notification.getRetryCount(), null));
+            sent.incrementAndGet();
+            sentCounter.increment();
+        } catch (Exception e) {
+            sendTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            onFailure(notification, e);
+        }
+    }
+
+    private void send(Notification notification) throws Exception {
+        if (notification.getChannel() == NotificationChannel.SMS) {
+            gatewayService.sendSms(notification.getRecipientPhone(), notification.getMessage());
+        } else if (notification.getChannel() == NotificationChannel.EMAIL) {
+            gatewayService.sendEmail(notification.getRecipientEmail(), notification.getSubject(), notification.getMessage());
+        } else {
+            throw new IllegalStateException("Unsupported notification channel " + notification.getChannel());
+        }
+    }
+
+    private void onFailure(Notification notification, Exception e) {
+        int attempts = notification.getRetryCount() + 1;
+        String error = truncate(e.getMessage());
+        if (attempts >= maxAttempts) {
+            transactionTemplate.executeWithoutResult(status -> deadLetter(notification, error, attempts));
+            deadLettered.incrementAndGet();
+            deadLetterCounter.increment();
+            log.error("[OUTBOX] Notification {} dead-lettered after {} attempts: {}", notification.getId(), attempts, error);
+            return;
+        }
+
+        Instant next = Instant.now().plusMillis(backoffMillis(attempts));
+        transactionTemplate.executeWithoutResult(status -> notificationRepository.recordAttempt(
+                notification.getId(), NotificationStatus.PENDING, null, error, attempts, next));
+        retried.incrementAndGet();
+        retriedCounter.increment();
+        log.warn("[OUTBOX] Notification {} attempt {} failed, retrying at {}: {}", notification.getId(), attempts, next, error);
+    }
+
+    /** Marks the row FAILED and copies it to notification_dead_letter, in the caller's transaction. */
+    private void deadLetter(Notification notification, String error, int attempts) {
+        notificationRepository.recordAttempt(notification.getId(), NotificationStatus.FAILED,
+                null, error, attempts, null);
+        deadLetterRepository.save(NotificationDeadLetter.builder()
+                .notificationId(notification.getId())
+                .channel(notification.getChannel())
+                .type(notification.getType())
+                .recipient(notification.getChannel() == NotificationChannel.SMS
+                        ? notification.getRecipientPhone() : notification.getRecipientEmail())
+                .subject(notification.getSubject())
+                .message(notification.getMessage())
+                .errorMessage(error)
+                .retryCount(attempts)
+                .build());
+    }
+
+    /** base * 2^(attempts-1), capped, with ±20% jitter so a gateway outage does not end in a retry storm. */
+    long backoffMillis(int attempts) {
+        long exp = backoffBaseMs << Math.min(Math.max(attempts - 1, 0), 20);
+        long capped = Math.min(exp <= 0 ? backoffMaxMs : exp, backoffMaxMs);
+        double jitter = 0.8 + ThreadLocalRandom.current().nextDouble() * 0.4;
+        return (long) (capped * jitter);
+    }
+
+    private static String truncate(String message) {
+        if (message == null) return "Unknown error";
+        return message.length() > 255 ? message.substring(0, 255) : message;
+    }
+}
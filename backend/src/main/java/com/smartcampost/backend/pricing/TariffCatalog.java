@@ -0,0 +1,153 @@
+package com.smartcampost.backend.pricing;
+
+import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.repository.TariffRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link TariffTable} that pricing quotes read. The table is compiled from
+ * the tariffs table and swapped in whole, so readers always see one consistent version.
+ *
+ * - Compiled when the application is ready (after the default tariffs are seeded), or on
+ *   first use if a quote comes earlier.
+ * - Recompiled after each tariff create/update/delete commits ({@link #tariffsChanged}).
+ * - Reloaded every reload-interval-minutes to pick up changes made through other replicas;
+ *   the version only moves when the content differs.
+ */
+@Component
+@Slf4j
+public class TariffCatalog {
+
+    private final TariffRepository tariffRepository;
+    private final MeterRegistry meterRegistry;
+
+    private volatile TariffTable table = TariffTable.EMPTY;
+    private volatile boolean loaded;
+    // Guarded by this
+    private List<Tariff> source = List.of();
+
+    private Timer compileTimer;
+
+    public TariffCatalog(TariffRepository tariffRepository, MeterRegistry meterRegistry) {
+        this.tariffRepository = tariffRepository;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        compileTimer = Timer.builder("smartcampost.pricing.tariff-table.compile")
+                .description("Time to load and compile the in-memory tariff table")
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.pricing.tariff-table.version", this, c -> c.table.version())
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.pricing.tariff-table.tariffs", this, c -> c.table.size())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warm() {
+        reloadQuietly();
+    }
+
+    // Runs on every replica: each keeps its own table
+    @Scheduled(fixedDelayString = "${smartcampost.pricing.tariff-table.reload-interval-minutes:5}",
+               initialDelayString = "${smartcampost.pricing.tariff-table.reload-interval-minutes:5}",
+               timeUnit = TimeUnit.MINUTES)
+    public void refresh() {
+        reloadQuietly();
+    }
+
+    /** The current table, compiled on first use if the startup load has not run yet. */
+    public TariffTable table() {
+        if (!loaded) reload();
+        return table;
+    }
+
+    /** A tariff was created, repriced or deleted: recompile once the caller's transaction commits. */
+    public void tariffsChanged() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    reloadQuietly();
+                }
+            });
+        } else {
+            reloadQuietly();
+        }
+    }
+
+    /** Reads every tariff and swaps in a freshly compiled table if anything changed. */
+    public synchronized TariffTable reload() {
+        long start = System.nanoTime();
+        List<Tariff> tariffs = tariffRepository.findAll().stream()
+                .map(TariffCatalog::snapshot)
+                .toList();
+        if (loaded && sameContent(source, tariffs)) return table;
+
+        TariffTable compiled = TariffTable.compile(tariffs, table.version() + 1);
+        source = tariffs;
+        table = compiled;
+        loaded = true;
+        compileTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.info("[TARIFF] Compiled tariff table v{} ({} tariffs)", compiled.version(), compiled.size());
+        return compiled;
+    }
+
+    private void reloadQuietly() {
+        try {
+            reload();
+        } catch (Exception e) {
+            // Keep serving the previous table; the next change or periodic reload retries
+            log.warn("[TARIFF] Tariff table reload failed: {}", e.getMessage());
+        }
+    }
+
+    // Detached copy, so later changes to managed entities cannot leak into the comparison
+    private static Tariff snapshot(Tariff t) {
+        return Tariff.builder()
+                .id(t.getId())
+                .serviceType(t.getServiceType())
+                .originZone(t.getOriginZone())
+                .destinationZone(t.getDestinationZone())
+                .weightBracket(t.getWeightBracket())
+                .price(t.getPrice())
+                .build();
+    }
+
+    private static boolean sameContent(List<Tariff> a, List<Tariff> b) {
+        if (a.size() != b.size()) return false;
+        Map<UUID, Tariff> byId = new HashMap<>();
+        for (Tariff t : a) byId.put(t.getId(), t);
+        for (Tariff t : b) {
+            Tariff old = byId.get(t.getId());
+            if (old == null
+                    || old.getServiceType() != t.getServiceType()
+                    || !Objects.equals(old.getOriginZone(), t.getOriginZone())
+                    || !Objects.equals(old.getDestinationZone(), t.getDestinationZone())
+                    || !Objects.equals(old.getWeightBracket(), t.getWeightBracket())
+                    || (old.getPrice() == null ? t.getPrice() != null
+                        : t.getPrice() == null || old.getPrice().compareTo(t.getPrice()) != 0)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,160 @@
+package com.smartcampost.backend.pricing;
+
+import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.util.WeightBracketResolver;
+
+import java.math.BigDecimal;
+import java.util.*;
+
+/**
+ * Immutable, compiled snapshot of the tariff grid. Each service type gets a dense
+ * origin x destination x bracket array over the zone codes that appear in its tariffs, with
+ * the NATIONAL fallbacks already folded into the cells, so a quote is a zone-id lookup and
+ * an array read with no query and no allocation.
+ *
+ * Resolution order, as the pricing services applied it against the database:
+ * - {@link #resolve}: exact zones and bracket, then NATIONAL/NATIONAL with the same bracket.
+ * - {@link #resolveBroad}: the above, then NATIONAL/NATIONAL with any bracket, then any
+ *   tariff of the service type.
+ * Where several tariffs qualify for an "any" fallback, the lightest bracket wins, then the
+ * lowest id. Tariffs whose bracket is not one of {@link WeightBracketResolver#BRACKETS} can
+ * only be reached through those fallbacks, as before.
+ */
+public final class TariffTable {
+
+    public static final String NATIONAL = "NATIONAL";
+
+    public static final TariffTable EMPTY = compile(List.of(), 0);
+
+    private static final int BRACKETS = WeightBracketResolver.BRACKETS.size();
+
+    /** What a quote needs from a tariff; {@code tariffId} references the row it came from. */
+    public record Entry(UUID tariffId, ServiceType serviceType, String originZone, String destinationZone,
+                        String weightBracket, BigDecimal price) {
+
+        public double priceValue() {
+            return price.doubleValue();
+        }
+    }
+
+    private final long version;
+    private final int size;
+    private final EnumMap<ServiceType, Grid> grids;
+
+    private TariffTable(long version, int size, EnumMap<ServiceType, Grid> grids) {
+        this.version = version;
+        this.size = size;
+        this.grids = grids;
+    }
+
+    public static TariffTable compile(Collection<Tariff> tariffs, long version) {
+        // Deterministic order: the first tariff of a slot wins and the "any" fallbacks pick the lightest
+        List<Tariff> ordered = tariffs.stream()
+                .filter(t -> t.getServiceType() != null && t.getPrice() != null)
+                .sorted(Comparator.comparingInt((Tariff t) -> bracketOrder(t.getWeightBracket()))
+                        .thenComparing(Tariff::getId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        EnumMap<ServiceType, Grid> grids = new EnumMap<>(ServiceType.class);
+        for (ServiceType serviceType : ServiceType.values()) {
+            List<Tariff> ofType = ordered.stream().filter(t -> t.getServiceType() == serviceType).toList();
+            if (!ofType.isEmpty()) grids.put(serviceType, Grid.compile(ofType));
+        }
+        return new TariffTable(version, ordered.size(), grids);
+    }
+
+    public long version() {
+        return version;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Exact match, else NATIONAL/NATIONAL in the same bracket; null when neither exists. */
+    public Entry resolve(ServiceType serviceType, String originZone, String destinationZone, int bracket) {
+        Grid grid = serviceType == null ? null : grids.get(serviceType);
+        return grid == null ? null : grid.resolve(originZone, destinationZone, bracket);
+    }
+
+    /** {@link #resolve}, widened to any NATIONAL/NATIONAL tariff and then any tariff of the service type. */
+    public Entry resolveBroad(ServiceType serviceType, String originZone, String destinationZone, int bracket) {
+        Grid grid = serviceType == null ? null : grids.get(serviceType);
+        if (grid == null) return null;
+        Entry entry = grid.resolve(originZone, destinationZone, bracket);
+        return entry != null ? entry : grid.broadFallback;
+    }
+
+    private static int bracketOrder(String bracket) {
+        int index = WeightBracketResolver.indexOf(bracket);
+        return index < 0 ? BRACKETS : index;
+    }
+
+    private static final class Grid {
+
+        // Zone code -> dense id; keys are the interned codes the entries carry
+        private final Map<String, Integer> zoneIds;
+        private final int zones;
+        // [(origin * zones + destination) * BRACKETS + bracket], NATIONAL fallback folded in
+        private final Entry[] cells;
+        // NATIONAL/NATIONAL per bracket, for zones no tariff mentions
+        private final Entry[] national;
+        private final Entry broadFallback;
+
+        private Grid(Map<String, Integer> zoneIds, Entry[] cells, Entry[] national, Entry broadFallback) {
+            this.zoneIds = zoneIds;
+            this.zones = zoneIds.size();
+            this.cells = cells;
+            this.national = national;
+            this.broadFallback = broadFallback;
+        }
+
+        static Grid compile(List<Tariff> tariffs) {
+            Map<String, Integer> zoneIds = new HashMap<>();
+            Map<String, String> canonical = new HashMap<>();
+            List<Entry> entries = new ArrayList<>(tariffs.size());
+            for (Tariff t : tariffs) {
+                String origin = intern(zoneIds, canonical, t.getOriginZone());
+                String destination = intern(zoneIds, canonical, t.getDestinationZone());
+                entries.add(new Entry(t.getId(), t.getServiceType(), origin, destination,
+                        t.getWeightBracket(), t.getPrice()));
+            }
+
+            int zones = zoneIds.size();
+            Entry[] exact = new Entry[zones * zones * BRACKETS];
+            Entry[] national = new Entry[BRACKETS];
+            Entry nationalAny = null;
+            for (Entry e : entries) {
+                boolean isNational = NATIONAL.equals(e.originZone()) && NATIONAL.equals(e.destinationZone());
+                if (isNational && nationalAny == null) nationalAny = e;
+                int bracket = WeightBracketResolver.indexOf(e.weightBracket());
+                if (bracket < 0) continue;
+                int cell = (zoneIds.get(e.originZone()) * zones + zoneIds.get(e.destinationZone())) * BRACKETS + bracket;
+                if (exact[cell] == null) exact[cell] = e;
+                if (isNational && national[bracket] == null) national[bracket] = e;
+            }
+
+            Entry[] cells = new Entry[exact.length];
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] = exact[i] != null ? exact[i] : national[i % BRACKETS];
+            }
+            Entry broadFallback = nationalAny != null ? nationalAny : entries.get(0);
+            return new Grid(Map.copyOf(zoneIds), cells, national, broadFallback);
+        }
+
+        Entry resolve(String originZone, String destinationZone, int bracket) {
+            if (bracket < 0 || bracket >= BRACKETS) return null;
+            Integer origin = originZone == null ? null : zoneIds.get(originZone);
+            Integer destination = destinationZone == null ? null : zoneIds.get(destinationZone);
+            if (origin == null || destination == null) return national[bracket];
+            return cells[(origin * zones + destination) * BRACKETS + bracket];
+        }
+
+        private static String intern(Map<String, Integer> zoneIds, Map<String, String> canonical, String zone) {
+            String code = canonical.computeIfAbsent(zone == null ? "" : zone, z -> z);
+            zoneIds.putIfAbsent(code, zoneIds.size());
+            return code;
+        }
+    }
+}
@@ -1,11 +1,28 @@
 package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.Address;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.UUID;
 
 public interface AddressRepository extends JpaRepository<Address, UUID> {
 	List<Address> findByClient_Id(UUID clientId);
+
+	// Geocoding backfill: addresses without a position, walked in id order
+	List<Address> findByLatitudeIsNullOrderByIdAsc(Pageable page);
+
+	List<Address> findByLatitudeIsNullAndIdGreaterThanOrderByIdAsc(UUID after, Pageable page);
+
+	/** Sets the position unless someone set it meanwhile. */
+	@Modifying
+	@Transactional
+	@Query("UPDATE Address a SET a.latitude = :lat, a.longitude = :lng WHERE a.id = :id AND a.latitude IS NULL")
+	int setPosition(@Param("id") UUID id, @Param("lat") BigDecimal latitude, @Param("lng") BigDecimal longitude);
 }
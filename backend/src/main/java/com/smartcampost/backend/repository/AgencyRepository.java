@@ -2,7 +2,12 @@ package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.Agency;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,4 +21,12 @@ public interface AgencyRepository extends JpaRepository<Agency, UUID> {
     List<Agency> findByCityIgnoreCase(String city);
 
     List<Agency> findByRegionIgnoreCaseAndCityIgnoreCase(String region, String city);
+
+    List<Agency> findByLatitudeIsNull();
+
+    /** Sets the position unless someone set it meanwhile. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Agency a SET a.latitude = :lat, a.longitude = :lng WHERE a.id = :id AND a.latitude IS NULL")
+    int setPosition(@Param("id") UUID id, @Param("lat") BigDecimal latitude, @Param("lng") BigDecimal longitude);
 }
@@ -20,6 +20,18 @@ public interface ConversationMessageRepository extends JpaRepository<Conversatio
 
     Page<ConversationMessage> findByConversationId(UUID conversationId, Pageable pageable);
 
+    /** Newest first; pass {@code PageRequest.of(0, n)} to read only the last n messages. */
+    List<ConversationMessage> findByConversationIdOrderByTimestampDesc(UUID conversationId, Pageable pageable);
+
+    List<ConversationMessage> findByConversationIdAndTimestampAfterOrderByTimestampAsc(
+            UUID conversationId, Instant after, Pageable pageable);
+
+    /** Newest first; the messages not yet folded into the conversation summary. */
+    List<ConversationMessage> findByConversationIdAndTimestampAfterOrderByTimestampDesc(
+            UUID conversationId, Instant after, Pageable pageable);
+
+    long countByConversationIdAndTimestampAfter(UUID conversationId, Instant after);
+
     List<ConversationMessage> findByConversationIdAndRole(UUID conversationId, ConversationRole role);
 
     List<ConversationMessage> findByDetectedIntent(String detectedIntent);
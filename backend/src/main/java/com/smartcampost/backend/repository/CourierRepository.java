@@ -3,7 +3,10 @@ package com.smartcampost.backend.repository;
 import com.smartcampost.backend.model.Courier;
 import com.smartcampost.backend.model.enums.CourierStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -14,4 +17,7 @@ public interface CourierRepository extends JpaRepository<Courier, UUID> {
     Optional<Courier> findByPhone(String phone);
 
     long countByStatusNotIn(List<CourierStatus> statuses);
+
+    @Query("SELECT c FROM Courier c JOIN FETCH c.agency WHERE c.status IN :statuses")
+    List<Courier> findWithAgencyByStatusIn(@Param("statuses") Collection<CourierStatus> statuses);
 }
@@ -0,0 +1,7 @@
+package com.smartcampost.backend.repository;
+
+import com.smartcampost.backend.model.GeocodeCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface GeocodeCacheRepository extends JpaRepository<GeocodeCacheEntry, String> {
+}
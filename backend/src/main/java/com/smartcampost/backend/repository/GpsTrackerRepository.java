@@ -2,11 +2,25 @@ package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.GpsTracker;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
 public interface GpsTrackerRepository extends JpaRepository<GpsTracker, UUID> {
     Optional<GpsTracker> findByDeviceId(String deviceId);
     Optional<GpsTracker> findByImei(String imei);
+
+    @Modifying
+    @Query("UPDATE GpsTracker t SET t.lastLatitude = :lat, t.lastLongitude = :lng, t.lastSpeed = :speed, " +
+            "t.lastHeading = :heading, t.lastSeenAt = :seenAt WHERE t.id = :id")
+    int updateLastPosition(@Param("id") UUID trackerId,
+                           @Param("lat") Double latitude,
+                           @Param("lng") Double longitude,
+                           @Param("speed") Double speed,
+                           @Param("heading") Double heading,
+                           @Param("seenAt") Instant seenAt);
 }
@@ -2,10 +2,18 @@ package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.Location;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 
 public interface LocationRepository extends JpaRepository<Location, Long> {
     List<Location> findTop100ByUserIdOrderByTimestampDesc(String userId);
     List<Location> findTop500ByOrderByTimestampDesc();
+
+    // Warm-up for LivePositionIndex: newest row per user within the window (uses idx_locations_user_time)
+    @Query("SELECT l FROM Location l WHERE l.userId IS NOT NULL AND l.timestamp >= :since " +
+            "AND l.timestamp = (SELECT MAX(l2.timestamp) FROM Location l2 WHERE l2.userId = l.userId)")
+    List<Location> findLatestPerUserSince(@Param("since") OffsetDateTime since);
 }
@@ -0,0 +1,13 @@
+package com.smartcampost.backend.repository;
+
+import com.smartcampost.backend.model.NotificationDeadLetter;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.UUID;
+
+public interface NotificationDeadLetterRepository extends JpaRepository<NotificationDeadLetter, UUID> {
+
+    Page<NotificationDeadLetter> findAllByOrderByFailedAtDesc(Pageable pageable);
+}
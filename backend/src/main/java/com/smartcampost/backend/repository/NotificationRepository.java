@@ -1,12 +1,16 @@
 package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.Notification;
+import com.smartcampost.backend.model.enums.NotificationStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -44,4 +48,39 @@ public interface NotificationRepository extends JpaRepository<Notification, UUID
     List<Notification> findUnreadByPhoneOrClientId(
             @Param("phone") String phone,
             @Param("clientId") UUID clientId);
+
+    // ==================== Outbox ====================
+
+    /** Due PENDING notifications, row-locked; concurrent workers skip each other's rows. */
+    @Query(value = "SELECT * FROM notification WHERE status = 'PENDING' " +
+           "AND ((next_attempt_at IS NULL AND created_at >= :notBefore) OR next_attempt_at <= :now) " +
+           "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> lockDueForDispatch(@Param("now") Instant now,
+                                          @Param("notBefore") Instant notBefore,
+                                          @Param("limit") int limit);
+
+    /** Never-attempted PENDING rows older than the cutoff, which lockDueForDispatch no longer returns. */
+    @Query(value = "SELECT * FROM notification WHERE status = 'PENDING' " +
+           "AND next_attempt_at IS NULL AND created_at < :notBefore " +
+           "ORDER BY created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> lockStale(@Param("notBefore") Instant notBefore, @Param("limit") int limit);
+
+    /** HELD digest updates whose digest window ended, grouped by recipient. */
+    @Query(value = "SELECT * FROM notification WHERE status = 'HELD' AND next_attempt_at <= :now " +
+           "ORDER BY recipient_phone, created_at LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Notification> lockDueHeld(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.nextAttemptAt = :until WHERE n.id IN :ids")
+    int leaseUntil(@Param("ids") Collection<UUID> ids, @Param("until") Instant until);
+
+    @Modifying
+    @Query("UPDATE Notification n SET n.status = :status, n.sentAt = :sentAt, n.errorMessage = :error, " +
+           "n.retryCount = :retryCount, n.nextAttemptAt = :nextAttemptAt WHERE n.id = :id")
+    int recordAttempt(@Param("id") UUID id,
+                      @Param("status") NotificationStatus status,
+                      @Param("sentAt") Instant sentAt,
+                      @Param("error") String error,
+                      @Param("retryCount") int retryCount,
+                      @Param("nextAttemptAt") Instant nextAttemptAt);
 }
@@ -0,0 +1,18 @@
+package com.smartcampost.backend.repository;
+
+import com.smartcampost.backend.model.ParcelLatestScan;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface ParcelLatestScanRepository extends JpaRepository<ParcelLatestScan, UUID> {
+
+    // Actor -> parcels index rebuild: actor of the latest scan of every parcel in these statuses
+    @Query("SELECT l FROM ParcelLatestScan l, Parcel p WHERE p.id = l.parcelId AND p.status IN :statuses")
+    List<ParcelLatestScan> findByParcelStatusIn(@Param("statuses") Collection<ParcelStatus> statuses);
+}
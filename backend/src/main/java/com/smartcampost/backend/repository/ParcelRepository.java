@@ -1,6 +1,7 @@
 package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.enums.DeliveryOption;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -32,6 +33,12 @@ public interface ParcelRepository extends JpaRepository<Parcel, UUID> {
     // Find parcels by status
     List<Parcel> findByStatusIn(List<ParcelStatus> statuses);
 
+    // Fleet route planning: home deliveries waiting at (or leaving) their destination agency
+    @Query("SELECT p FROM Parcel p JOIN FETCH p.destinationAgency LEFT JOIN FETCH p.recipientAddress " +
+           "WHERE p.deliveryOption = :option AND p.status IN :statuses")
+    List<Parcel> findForDeliveryPlanning(@Param("option") DeliveryOption option,
+                                         @Param("statuses") List<ParcelStatus> statuses);
+
     // ✅ FIX: Paginated version for map endpoints - prevents memory bomb
     Page<Parcel> findByStatusIn(List<ParcelStatus> statuses, Pageable pageable);
 
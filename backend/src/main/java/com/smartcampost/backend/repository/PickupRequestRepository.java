@@ -5,7 +5,11 @@ import com.smartcampost.backend.model.enums.PickupRequestState;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,6 +20,8 @@ public interface PickupRequestRepository extends JpaRepository<PickupRequest, UU
 
     Optional<PickupRequest> findByParcel_Id(UUID parcelId);
 
+    List<PickupRequest> findByParcel_IdIn(Collection<UUID> parcelIds);
+
     Page<PickupRequest> findByParcel_Client_Id(UUID clientId, Pageable pageable);
 
     Page<PickupRequest> findByCourier_Id(UUID courierId, Pageable pageable);
@@ -23,5 +29,23 @@ public interface PickupRequestRepository extends JpaRepository<PickupRequest, UU
     /** All pickups assigned to a specific courier in a given state (no pagination needed for map). */
     List<PickupRequest> findByCourier_IdAndState(UUID courierId, PickupRequestState state);
 
+    // Fleet route planning: the day's pickups with their parcel, sender address and agencies
+    @Query("SELECT pr FROM PickupRequest pr JOIN FETCH pr.parcel p LEFT JOIN FETCH p.senderAddress " +
+           "LEFT JOIN FETCH p.originAgency LEFT JOIN FETCH pr.courier c LEFT JOIN FETCH c.agency " +
+           "WHERE pr.requestedDate = :date AND pr.state IN :states")
+    List<PickupRequest> findForPlanning(@Param("date") LocalDate date,
+                                        @Param("states") Collection<PickupRequestState> states);
+
     boolean existsByParcel_IdAndCourier_IdAndState(UUID parcelId, UUID courierId, PickupRequestState state);
+
+    // Actor -> parcels index rebuild: (parcel, courier) of every pickup in this state
+    @Query("SELECT pr.parcel.id AS parcelId, pr.courier.id AS courierId FROM PickupRequest pr " +
+           "WHERE pr.state = :state AND pr.parcel IS NOT NULL AND pr.courier IS NOT NULL")
+    List<PickupAssignment> findAssignments(@Param("state") PickupRequestState state);
+
+    interface PickupAssignment {
+        UUID getParcelId();
+
+        UUID getCourierId();
+    }
 }
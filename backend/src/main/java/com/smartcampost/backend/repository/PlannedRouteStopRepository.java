@@ -0,0 +1,13 @@
+package com.smartcampost.backend.repository;
+
+import com.smartcampost.backend.model.PlannedRouteStop;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+public interface PlannedRouteStopRepository extends JpaRepository<PlannedRouteStop, UUID> {
+
+    List<PlannedRouteStop> findByCourierIdAndPlanDateOrderBySequenceAsc(UUID courierId, LocalDate planDate);
+}
@@ -2,7 +2,11 @@ package com.smartcampost.backend.repository;
 
 import com.smartcampost.backend.model.ScanEvent;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,6 +19,13 @@ public interface ScanEventRepository extends JpaRepository<ScanEvent, UUID> {
     // Get last scan event for a parcel (current location)
     Optional<ScanEvent> findTopByParcel_IdOrderByTimestampDesc(UUID parcelId);
 
+    // Last scan event of each parcel, through the parcel_latest_scan projection (one query for all)
+    @Query("SELECT e FROM ScanEvent e JOIN FETCH e.parcel LEFT JOIN FETCH e.agency LEFT JOIN FETCH e.agent " +
+           "WHERE e.id IN (SELECT l.scanId FROM ParcelLatestScan l WHERE l.parcelId IN :parcelIds)")
+    List<ScanEvent> findLatestByParcelIds(@Param("parcelIds") Collection<UUID> parcelIds);
+
+    long countByParcel_Id(UUID parcelId);
+
     // Audit: find by actor
     List<ScanEvent> findByActorIdOrderByTimestampDesc(String actorId);
 
@@ -23,4 +34,18 @@ public interface ScanEventRepository extends JpaRepository<ScanEvent, UUID> {
 
     // Find unsynced events
     List<ScanEvent> findBySyncedFalseOrderByTimestampAsc();
+
+    // Offline sync: events of this device already stored, by client-side localId
+    @Query("SELECT e.localId AS localId, e.id AS id, e.timestamp AS timestamp FROM ScanEvent e " +
+           "WHERE e.deviceId = :deviceId AND e.localId IN :localIds")
+    List<SyncedEventKey> findSyncedKeys(@Param("deviceId") String deviceId,
+                                        @Param("localIds") Collection<String> localIds);
+
+    interface SyncedEventKey {
+        String getLocalId();
+
+        UUID getId();
+
+        Instant getTimestamp();
+    }
 }
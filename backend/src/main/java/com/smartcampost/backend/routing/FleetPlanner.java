@@ -0,0 +1,211 @@
+package com.smartcampost.backend.routing;
+
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.GeoPoints;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Splits an agency's day of pickups and home deliveries across its couriers and plans each
+ * courier's tour with {@link VrpSolver}; agencies are planned in parallel on a fork/join pool.
+ *
+ * Clustering (per agency):
+ * - jobs are taken in decreasing regret (distance to the second-closest courier minus the
+ *   closest), so jobs that clearly belong to one courier are placed before contested ones,
+ * - each goes to the courier whose start or already-assigned stops are closest, among couriers
+ *   under the stop cap (fair share times balance-slack) whose capacity still fits the weight,
+ * - jobs no courier can take are returned as unplanned.
+ *
+ * Pure computation, no I/O; positions missing for a courier fall back to the centroid of the
+ * agency's jobs.
+ */
+public final class FleetPlanner {
+
+    public enum StopType { PICKUP, DELIVERY }
+
+    /** One stop to serve; windows are minutes since midnight or {@link VrpProblem#NO_WINDOW}. */
+    public record Job(UUID parcelId, StopType type, double latitude, double longitude,
+                      int windowOpen, int windowClose, double weightKg) {}
+
+    /** capacityKg of zero or less means unlimited. */
+    public record CourierSlot(UUID courierId, Double latitude, Double longitude, double capacityKg) {}
+
+    public record AgencyWork(UUID agencyId, List<CourierSlot> couriers, List<Job> jobs) {}
+
+    public record PlannedStop(Job job, int sequence, double legKm, double arrivalMinute, double lateMinutes) {}
+
+    public record CourierRoute(UUID courierId, List<PlannedStop> stops, double distanceKm,
+                               double completionMinute, boolean feasible) {}
+
+    public record AgencyPlan(UUID agencyId, List<CourierRoute> routes, List<Job> unplanned) {}
+
+    /** travelModel may be null: straight-line legs only. */
+    public record Settings(double startMinute, double averageSpeedKmh, double detourFactor,
+                           double serviceMinutes, double balanceSlack, Duration budgetPerRoute,
+                           TravelModel travelModel) {}
+
+    private final Settings settings;
+
+    public FleetPlanner(Settings settings) {
+        this.settings = settings;
+    }
+
+    /** Plans every agency, splitting the list across the pool's workers. */
+    public List<AgencyPlan> planAll(List<AgencyWork> work, ForkJoinPool pool) {
+        if (work.isEmpty()) return List.of();
+        return pool.invoke(new PlanTask(work));
+    }
+
+    public AgencyPlan plan(AgencyWork work) {
+        List<Job> jobs = work.jobs();
+        List<CourierSlot> couriers = work.couriers();
+        if (jobs.isEmpty() || couriers.isEmpty()) {
+            return new AgencyPlan(work.agencyId(), List.of(), List.copyOf(jobs));
+        }
+
+        GeoPoints starts = startPositions(couriers, jobs);
+        int[] assigned = cluster(jobs, couriers, starts, settings.balanceSlack());
+
+        List<CourierRoute> routes = new ArrayList<>();
+        for (int c = 0; c < couriers.size(); c++) {
+            List<Job> mine = new ArrayList<>();
+            for (int j = 0; j < jobs.size(); j++) {
+                if (assigned[j] == c) mine.add(jobs.get(j));
+            }
+            if (!mine.isEmpty()) {
+                routes.add(route(couriers.get(c), starts.latitude(c), starts.longitude(c), mine));
+            }
+        }
+        List<Job> unplanned = new ArrayList<>();
+        for (int j = 0; j < jobs.size(); j++) {
+            if (assigned[j] < 0) unplanned.add(jobs.get(j));
+        }
+        return new AgencyPlan(work.agencyId(), routes, unplanned);
+    }
+
+    /** Courier index for each job, or -1 when none can take it. */
+    static int[] cluster(List<Job> jobs, List<CourierSlot> couriers, GeoPoints starts, double balanceSlack) {
+        int n = jobs.size();
+        int m = couriers.size();
+        int maxStops = Math.max(1, (int) Math.ceil((double) n / m * Math.max(balanceSlack, 1.0)));
+
+        GeoPoints jobPoints = new GeoPoints(n);
+        for (Job job : jobs) jobPoints.add(job.latitude(), job.longitude());
+        // Closest distance from each job to each courier's start, then to its assigned stops
+        double[][] reach = new double[n][m];
+        Integer[] byRegret = new Integer[n];
+        double[] regret = new double[n];
+        for (int j = 0; j < n; j++) {
+            GeoDistance.haversineKm(jobPoints.latitude(j), jobPoints.longitude(j), starts, reach[j]);
+            double best = Double.MAX_VALUE;
+            double second = Double.MAX_VALUE;
+            for (double d : reach[j]) {
+                if (d < best) {
+                    second = best;
+                    best = d;
+                } else if (d < second) {
+                    second = d;
+                }
+            }
+            regret[j] = m > 1 ? second - best : 0;
+            byRegret[j] = j;
+        }
+        Arrays.sort(byRegret, (a, b) -> Double.compare(regret[b], regret[a]));
+
+        int[] assigned = new int[n];
+        Arrays.fill(assigned, -1);
+        int[] stops = new int[m];
+        double[] pickupKg = new double[m];
+        double[] deliveryKg = new double[m];
+        for (int j : byRegret) {
+            Job job = jobs.get(j);
+            int best = -1;
+            for (int c = 0; c < m; c++) {
+                if (stops[c] >= maxStops || !fits(couriers.get(c), job, pickupKg[c], deliveryKg[c])) continue;
+                if (best < 0 || reach[j][c] < reach[j][best]) best = c;
+            }
+            if (best < 0) continue;
+            assigned[j] = best;
+            stops[best]++;
+            if (job.type() == StopType.PICKUP) pickupKg[best] += job.weightKg();
+            else deliveryKg[best] += job.weightKg();
+            for (int other = 0; other < n; other++) {
+                if (assigned[other] >= 0) continue;
+                double d = jobPoints.haversineKm(j, other);
+                if (d < reach[other][best]) reach[other][best] = d;
+            }
+        }
+        return assigned;
+    }
+
+    // Deliveries all leave the agency on board; pickups are carried back, so each total must fit
+    private static boolean fits(CourierSlot courier, Job job, double pickupKg, double deliveryKg) {
+        if (courier.capacityKg() <= 0) return true;
+        double total = job.type() == StopType.PICKUP ? pickupKg : deliveryKg;
+        return total + job.weightKg() <= courier.capacityKg();
+    }
+
+    private CourierRoute route(CourierSlot courier, double startLat, double startLng, List<Job> jobs) {
+        VrpProblem.Builder builder = VrpProblem.builder(startLat, startLng)
+                .startMinute(settings.startMinute())
+                .averageSpeedKmh(settings.averageSpeedKmh())
+                .detourFactor(settings.detourFactor())
+                .serviceMinutes(settings.serviceMinutes())
+                .capacityKg(courier.capacityKg())
+                .travelModel(settings.travelModel());
+        for (Job job : jobs) {
+            double delta = job.type() == StopType.PICKUP ? job.weightKg() : -job.weightKg();
+            builder.stop(job.latitude(), job.longitude(), job.windowOpen(), job.windowClose(), delta, -1, 1);
+        }
+        VrpSolution solution = VrpSolver.solve(builder.build(), settings.budgetPerRoute());
+
+        List<PlannedStop> stops = new ArrayList<>(jobs.size());
+        for (int k = 0; k < solution.order().length; k++) {
+            stops.add(new PlannedStop(jobs.get(solution.order()[k]), k + 1, solution.legKm()[k],
+                    solution.arrivalMinute()[k], solution.lateMinutes()[k]));
+        }
+        return new CourierRoute(courier.courierId(), stops, solution.distanceKm(),
+                solution.completionMinute(), solution.feasible());
+    }
+
+    private static GeoPoints startPositions(List<CourierSlot> couriers, List<Job> jobs) {
+        double lat = 0;
+        double lng = 0;
+        for (Job job : jobs) {
+            lat += job.latitude();
+            lng += job.longitude();
+        }
+        lat /= jobs.size();
+        lng /= jobs.size();
+        GeoPoints starts = new GeoPoints(couriers.size());
+        for (CourierSlot courier : couriers) {
+            boolean located = courier.latitude() != null && courier.longitude() != null;
+            starts.add(located ? courier.latitude() : lat, located ? courier.longitude() : lng);
+        }
+        return starts;
+    }
+
+    private final class PlanTask extends RecursiveTask<List<AgencyPlan>> {
+
+        private final List<AgencyWork> work;
+
+        PlanTask(List<AgencyWork> work) {
+            this.work = work;
+        }
+
+        @Override
+        protected List<AgencyPlan> compute() {
+            if (work.size() == 1) return List.of(plan(work.get(0)));
+            int mid = work.size() / 2;
+            PlanTask left = new PlanTask(work.subList(0, mid));
+            left.fork();
+            List<AgencyPlan> right = new PlanTask(work.subList(mid, work.size())).compute();
+            List<AgencyPlan> out = new ArrayList<>(left.join());
+            out.addAll(right);
+            return out;
+        }
+    }
+}
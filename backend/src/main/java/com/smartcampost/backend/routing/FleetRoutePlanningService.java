@@ -0,0 +1,301 @@
+package com.smartcampost.backend.routing;
+
+import com.smartcampost.backend.exception.ConflictException;
+import com.smartcampost.backend.exception.ErrorCode;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.model.Agency;
+import com.smartcampost.backend.model.Courier;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.PickupRequest;
+import com.smartcampost.backend.model.PlannedRouteStop;
+import com.smartcampost.backend.model.enums.CourierStatus;
+import com.smartcampost.backend.model.enums.DeliveryOption;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.PickupRequestState;
+import com.smartcampost.backend.repository.CourierRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.PickupRequestRepository;
+import com.smartcampost.backend.repository.PlannedRouteStopRepository;
+import com.smartcampost.backend.routing.road.RoadRoutingEngine;
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Plans the day's routes of every courier in one batch pass: loads the day's pickups and the
+ * home deliveries waiting at their destination agency, groups them with the agency's active
+ * couriers, plans all agencies in parallel with {@link FleetPlanner} and writes the result to
+ * planned_route_stop, from where the courier app fetches its route (GET /api/route-plans/me).
+ *
+ * - Runs nightly on smartcampost.routing.fleet.cron (before the first shift) and on demand
+ *   through POST /api/route-plans/run; one run at a time per replica.
+ * - Each agency's rows for the day are replaced in their own transaction, so a run that fails
+ *   half-way leaves every agency with either its previous or its new plan.
+ * - Couriers start from their last known position, else from their agency's; jobs without
+ *   coordinates are skipped.
+ */
+@Service
+@Slf4j
+public class FleetRoutePlanningService {
+
+    private static final List<CourierStatus> PLANNABLE_COURIERS =
+            List.of(CourierStatus.AVAILABLE, CourierStatus.ON_ROUTE, CourierStatus.BUSY);
+    private static final List<PickupRequestState> PLANNABLE_PICKUPS =
+            List.of(PickupRequestState.REQUESTED, PickupRequestState.ASSIGNED);
+    private static final List<ParcelStatus> PLANNABLE_DELIVERIES =
+            List.of(ParcelStatus.ARRIVED_DEST_AGENCY, ParcelStatus.OUT_FOR_DELIVERY);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO planned_route_stop (stop_id, plan_date, agency_id, courier_id, stop_sequence, parcel_id, " +
+            "stop_type, latitude, longitude, leg_km, planned_arrival_at, late_minutes, planned_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readTemplate;
+    private final CourierRepository courierRepository;
+    private final PickupRequestRepository pickupRequestRepository;
+    private final ParcelRepository parcelRepository;
+    private final PlannedRouteStopRepository plannedRouteStopRepository;
+    private final RoadRoutingEngine roadRoutingEngine;
+    private final MeterRegistry meterRegistry;
+    private final ReentrantLock running = new ReentrantLock();
+
+    @Value("${smartcampost.routing.fleet.zone:Africa/Douala}")
+    private String zone = "Africa/Douala";
+
+    @Value("${smartcampost.routing.fleet.day-start:08:00}")
+    private String dayStart = "08:00";
+
+    @Value("${smartcampost.routing.fleet.parallelism:0}")
+    private int parallelism;
+
+    @Value("${smartcampost.routing.fleet.route-budget-ms:500}")
+    private long routeBudgetMs = 500;
+
+    @Value("${smartcampost.routing.fleet.balance-slack:1.2}")
+    private double balanceSlack = 1.2;
+
+    @Value("${smartcampost.routing.vrp.average-speed-kmh:25}")
+    private double averageSpeedKmh = 25;
+
+    @Value("${smartcampost.routing.vrp.detour-factor:1.3}")
+    private double detourFactor = 1.3;
+
+    @Value("${smartcampost.routing.vrp.service-minutes:5}")
+    private double serviceMinutes = 5;
+
+    @Value("${smartcampost.routing.vrp.default-capacity-kg:0}")
+    private double capacityKg = 0;
+
+    private ForkJoinPool pool;
+    private Timer planTimer;
+
+    public record PlanningRun(LocalDate date, int agencies, int routes, int stops, int unplanned,
+                              double distanceKm, long durationMs) {}
+
+    public FleetRoutePlanningService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     CourierRepository courierRepository,
+                                     PickupRequestRepository pickupRequestRepository,
+                                     ParcelRepository parcelRepository,
+                                     PlannedRouteStopRepository plannedRouteStopRepository,
+                                     RoadRoutingEngine roadRoutingEngine,
+                                     MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.courierRepository = courierRepository;
+        this.pickupRequestRepository = pickupRequestRepository;
+        this.parcelRepository = parcelRepository;
+        this.plannedRouteStopRepository = plannedRouteStopRepository;
+        this.roadRoutingEngine = roadRoutingEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        pool = new ForkJoinPool(workers, p -> {
+            var t = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            t.setName("route-planner-" + t.getPoolIndex());
+            t.setDaemon(true);
+            return t;
+        }, null, false);
+        planTimer = Timer.builder("smartcampost.routing.fleet.plan")
+                .description("Time to plan every courier's routes for a day")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pool != null) pool.shutdownNow();
+    }
+
+    @ClusterSingleton
+    @Scheduled(cron = "${smartcampost.routing.fleet.cron:0 0 5 * * *}", zone = "${smartcampost.routing.fleet.zone:Africa/Douala}")
+    public void planToday() {
+        try {
+            plan(LocalDate.now(zoneId()));
+        } catch (ConflictException busy) {
+            log.info("[ROUTE-PLAN] Skipping scheduled run: {}", busy.getMessage());
+        }
+    }
+
+    /** Plans and stores every courier's route for the date, replacing that day's previous plan. */
+    public PlanningRun plan(LocalDate date) {
+        if (!running.tryLock()) {
+            throw new ConflictException("Route planning is already running", ErrorCode.BUSINESS_ERROR);
+        }
+        try {
+            long started = System.nanoTime();
+            List<FleetPlanner.AgencyWork> work = readTemplate.execute(status -> loadWork(date));
+            FleetPlanner planner = new FleetPlanner(new FleetPlanner.Settings(startMinute(date), averageSpeedKmh,
+                    detourFactor, serviceMinutes, balanceSlack, Duration.ofMillis(routeBudgetMs), roadRoutingEngine));
+            List<FleetPlanner.AgencyPlan> plans = planner.planAll(work, pool);
+
+            Instant plannedAt = Instant.now();
+            int routes = 0, stops = 0, unplanned = 0;
+            double distance = 0;
+            for (FleetPlanner.AgencyPlan plan : plans) {
+                transactionTemplate.executeWithoutResult(status -> store(date, plan, plannedAt));
+                routes += plan.routes().size();
+                unplanned += plan.unplanned().size();
+                for (FleetPlanner.CourierRoute route : plan.routes()) {
+                    stops += route.stops().size();
+                    distance += route.distanceKm();
+                }
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            planTimer.record(Duration.ofNanos(elapsedNanos));
+            PlanningRun run = new PlanningRun(date, plans.size(), routes, stops, unplanned,
+                    Math.round(distance * 100.0) / 100.0, Duration.ofNanos(elapsedNanos).toMillis());
+            log.info("[ROUTE-PLAN] {}: {} agencies, {} routes, {} stops ({} unplanned), {} km in {}ms",
+                    date, run.agencies(), run.routes(), run.stops(), run.unplanned(), run.distanceKm(), run.durationMs());
+            return run;
+        } finally {
+            running.unlock();
+        }
+    }
+
+    public List<PlannedRouteStop> routeFor(UUID courierId, LocalDate date) {
+        return plannedRouteStopRepository.findByCourierIdAndPlanDateOrderBySequenceAsc(courierId, date);
+    }
+
+    public LocalDate today() {
+        return LocalDate.now(zoneId());
+    }
+
+    // ==================== Loading ====================
+
+    private List<FleetPlanner.AgencyWork> loadWork(LocalDate date) {
+        Map<UUID, List<FleetPlanner.CourierSlot>> couriers = new HashMap<>();
+        for (Courier c : courierRepository.findWithAgencyByStatusIn(PLANNABLE_COURIERS)) {
+            // No GPS fix yet: the courier starts from the agency, when its position is known
+            Agency agency = c.getAgency();
+            boolean atAgency = c.getCurrentLatitude() == null && agency.getLatitude() != null && agency.getLongitude() != null;
+            Double lat = atAgency ? Double.valueOf(agency.getLatitude().doubleValue()) : c.getCurrentLatitude();
+            Double lng = atAgency ? Double.valueOf(agency.getLongitude().doubleValue()) : c.getCurrentLongitude();
+            couriers.computeIfAbsent(agency.getId(), k -> new ArrayList<>())
+                    .add(new FleetPlanner.CourierSlot(c.getId(), lat, lng, capacityKg));
+        }
+
+        Map<UUID, List<FleetPlanner.Job>> jobs = new HashMap<>();
+        for (PickupRequest pr : pickupRequestRepository.findForPlanning(date, PLANNABLE_PICKUPS)) {
+            Parcel parcel = pr.getParcel();
+            Agency agency = parcel.getOriginAgency() != null ? parcel.getOriginAgency()
+                    : pr.getCourier() != null ? pr.getCourier().getAgency() : null;
+            Double lat = pr.getPickupLatitude() != null ? pr.getPickupLatitude() : latitude(parcel.getSenderAddress());
+            Double lng = pr.getPickupLongitude() != null ? pr.getPickupLongitude() : longitude(parcel.getSenderAddress());
+            if (agency == null || lat == null || lng == null) continue;
+            int[] window = VrpProblem.parseWindow(pr.getTimeWindow());
+            jobs.computeIfAbsent(agency.getId(), k -> new ArrayList<>()).add(new FleetPlanner.Job(parcel.getId(),
+                    FleetPlanner.StopType.PICKUP, lat, lng, window[0], window[1], weight(parcel)));
+        }
+        for (Parcel parcel : parcelRepository.findForDeliveryPlanning(DeliveryOption.HOME, PLANNABLE_DELIVERIES)) {
+            Double lat = latitude(parcel.getRecipientAddress());
+            Double lng = longitude(parcel.getRecipientAddress());
+            if (lat == null || lng == null) continue;
+            jobs.computeIfAbsent(parcel.getDestinationAgency().getId(), k -> new ArrayList<>()).add(new FleetPlanner.Job(
+                    parcel.getId(), FleetPlanner.StopType.DELIVERY, lat, lng,
+                    VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, weight(parcel)));
+        }
+
+        // Agencies with couriers but no jobs are planned too, which clears their stale routes
+        Set<UUID> agencies = new TreeSet<>(couriers.keySet());
+        agencies.addAll(jobs.keySet());
+        List<FleetPlanner.AgencyWork> work = new ArrayList<>(agencies.size());
+        for (UUID agencyId : agencies) {
+            work.add(new FleetPlanner.AgencyWork(agencyId,
+                    couriers.getOrDefault(agencyId, List.of()), jobs.getOrDefault(agencyId, List.of())));
+        }
+        return work;
+    }
+
+    private double startMinute(LocalDate date) {
+        LocalTime start = LocalTime.parse(dayStart);
+        LocalDateTime now = LocalDateTime.now(zoneId());
+        if (date.equals(now.toLocalDate()) && now.toLocalTime().isAfter(start)) start = now.toLocalTime();
+        return start.getHour() * 60 + start.getMinute();
+    }
+
+    private ZoneId zoneId() {
+        return ZoneId.of(zone);
+    }
+
+    private static Double latitude(Address address) {
+        return address != null && address.getLatitude() != null ? address.getLatitude().doubleValue() : null;
+    }
+
+    private static Double longitude(Address address) {
+        return address != null && address.getLongitude() != null ? address.getLongitude().doubleValue() : null;
+    }
+
+    private static double weight(Parcel parcel) {
+        return parcel.getWeight() != null ? Math.max(parcel.getWeight(), 0) : 0;
+    }
+
+    // ==================== Storing ====================
+
+    private void store(LocalDate date, FleetPlanner.AgencyPlan plan, Instant plannedAt) {
+        jdbcTemplate.update("DELETE FROM planned_route_stop WHERE plan_date = ? AND agency_id = ?",
+                Date.valueOf(date), bytes(plan.agencyId()));
+        List<Object[]> rows = new ArrayList<>();
+        Instant midnight = date.atStartOfDay(zoneId()).toInstant();
+        for (FleetPlanner.CourierRoute route : plan.routes()) {
+            for (FleetPlanner.PlannedStop stop : route.stops()) {
+                FleetPlanner.Job job = stop.job();
+                rows.add(new Object[]{
+                        bytes(UUID.randomUUID()), Date.valueOf(date), bytes(plan.agencyId()), bytes(route.courierId()),
+                        stop.sequence(), bytes(job.parcelId()), job.type().name(), job.latitude(), job.longitude(),
+                        Math.round(stop.legKm() * 100.0) / 100.0,
+                        Timestamp.from(midnight.plusSeconds(Math.round(stop.arrivalMinute() * 60))),
+                        (int) Math.round(stop.lateMinutes()), Timestamp.from(plannedAt)
+                });
+            }
+        }
+        if (!rows.isEmpty()) jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,13 @@
+package com.smartcampost.backend.routing;
+
+/**
+ * Travel distance and time between two point lists: {@code km[i][j]} and {@code minutes[i][j]}
+ * from origin i to destination j. NaN marks a pair the {@link TravelModel} has no route for;
+ * callers fall back to their straight-line estimate for it.
+ */
+public record TravelMatrix(double[][] km, double[][] minutes) {
+
+    public boolean known(int from, int to) {
+        return !Double.isNaN(km[from][to]);
+    }
+}
@@ -0,0 +1,10 @@
+package com.smartcampost.backend.routing;
+
+import com.smartcampost.backend.geo.GeoPoints;
+
+/** Source of travel distances and times between points, e.g. the road network. */
+public interface TravelModel {
+
+    /** Many-to-many matrix from every origin to every destination; see {@link TravelMatrix} for gaps. */
+    TravelMatrix matrix(GeoPoints origins, GeoPoints destinations);
+}
@@ -0,0 +1,221 @@
+package com.smartcampost.backend.routing;
+
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.GeoPoints;
+
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One courier's tour to plan: stops with optional time windows, parcel weight picked up or
+ * dropped, and pickup-before-delivery pairs, starting from the courier's position. Immutable;
+ * built once per request and solved by {@link VrpSolver}.
+ *
+ * Stops are indexed 0..size()-1 in insertion order; the start position is node size() of the
+ * distance matrix. Times are minutes since midnight. Leg distances and times come from the
+ * {@link TravelModel} when one is set (the road network); pairs it cannot route, or all pairs
+ * without one, use the great-circle distance times a detour factor, driven at the average speed.
+ */
+public final class VrpProblem {
+
+    public enum Objective {
+        /** Shortest total distance. */
+        SHORTEST,
+        /** Earliest completion of the last stop, waiting for time windows included. */
+        FASTEST,
+        /** Distance plus how long high-priority stops wait to be served. */
+        BALANCED
+    }
+
+    public static final int NO_WINDOW = -1;
+
+    final int size;
+    final double[][] distanceKm;
+    final double[][] travelMinutes;
+    final boolean symmetric;
+    final double minutesPerKm;
+    final double serviceMinutes;
+    final double startMinute;
+    final int[] windowOpen;
+    final int[] windowClose;
+    final double[] loadDeltaKg;
+    final int[] pickupOf;
+    final int[] priority;
+    final double capacityKg;
+    final double startLoadKg;
+    final Objective objective;
+
+    private VrpProblem(Builder b) {
+        size = b.stops.size();
+        minutesPerKm = 60.0 / b.averageSpeedKmh;
+        distanceKm = new double[size + 1][size + 1];
+        travelMinutes = new double[size + 1][size + 1];
+        GeoPoints points = new GeoPoints(size + 1);
+        for (StopSpec s : b.stops) points.add(s.latitude(), s.longitude());
+        points.add(b.startLatitude, b.startLongitude);
+        TravelMatrix roads = b.travelModel != null ? b.travelModel.matrix(points, points) : null;
+        boolean sym = true;
+        for (int i = 0; i <= size; i++) {
+            for (int j = 0; j <= size; j++) {
+                if (i == j) continue;
+                if (roads != null && roads.known(i, j)) {
+                    distanceKm[i][j] = roads.km()[i][j];
+                    travelMinutes[i][j] = roads.minutes()[i][j];
+                } else {
+                    distanceKm[i][j] = points.haversineKm(i, j) * b.detourFactor;
+                    travelMinutes[i][j] = distanceKm[i][j] * minutesPerKm;
+                }
+                if (j < i && distanceKm[i][j] != distanceKm[j][i]) sym = false;
+            }
+        }
+        symmetric = sym;
+        serviceMinutes = b.serviceMinutes;
+        startMinute = b.startMinute;
+        capacityKg = b.capacityKg;
+        objective = b.objective;
+
+        windowOpen = new int[size];
+        windowClose = new int[size];
+        loadDeltaKg = new double[size];
+        pickupOf = new int[size];
+        priority = new int[size];
+        double onBoard = 0;
+        for (int i = 0; i < size; i++) {
+            StopSpec s = b.stops.get(i);
+            windowOpen[i] = s.windowOpen();
+            windowClose[i] = s.windowClose();
+            loadDeltaKg[i] = s.loadDeltaKg();
+            pickupOf[i] = s.pickupOf();
+            priority[i] = s.priority();
+            // Deliveries without a pickup in this tour are already in the vehicle
+            if (s.loadDeltaKg() < 0 && s.pickupOf() < 0) onBoard -= s.loadDeltaKg();
+        }
+        startLoadKg = onBoard;
+    }
+
+    public static Builder builder(double startLatitude, double startLongitude) {
+        return new Builder(startLatitude, startLongitude);
+    }
+
+    /** "HH:mm-HH:mm" as {open, close} minutes since midnight; {@link #NO_WINDOW} when absent or malformed. */
+    public static int[] parseWindow(String window) {
+        int[] none = {NO_WINDOW, NO_WINDOW};
+        if (window == null) return none;
+        String[] parts = window.split("-");
+        if (parts.length != 2) return none;
+        try {
+            LocalTime open = LocalTime.parse(parts[0].trim());
+            LocalTime close = LocalTime.parse(parts[1].trim());
+            return new int[]{open.getHour() * 60 + open.getMinute(), close.getHour() * 60 + close.getMinute()};
+        } catch (DateTimeParseException e) {
+            return none;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Road distance between two stops; index size() is the start position. */
+    public double distanceKm(int from, int to) {
+        return distanceKm[from][to];
+    }
+
+    /** Driving time between two stops; index size() is the start position. */
+    public double travelMinutes(int from, int to) {
+        return travelMinutes[from][to];
+    }
+
+    /** Whether only distance matters, so a move's effect can be judged from the edges it changes. */
+    boolean distanceOnly() {
+        if (objective != Objective.SHORTEST || capacityKg > 0 || !symmetric) return false;
+        for (int i = 0; i < size; i++) {
+            if (windowOpen[i] != NO_WINDOW || windowClose[i] != NO_WINDOW || pickupOf[i] >= 0) return false;
+        }
+        return true;
+    }
+
+    private record StopSpec(double latitude, double longitude, int windowOpen, int windowClose,
+                            double loadDeltaKg, int pickupOf, int priority) {}
+
+    public static final class Builder {
+
+        private final double startLatitude;
+        private final double startLongitude;
+        private final List<StopSpec> stops = new ArrayList<>();
+        private double startMinute;
+        private double averageSpeedKmh = 25.0;
+        private double detourFactor = 1.0;
+        private double serviceMinutes;
+        private double capacityKg;
+        private Objective objective = Objective.SHORTEST;
+        private TravelModel travelModel;
+
+        private Builder(double startLatitude, double startLongitude) {
+            this.startLatitude = startLatitude;
+            this.startLongitude = startLongitude;
+        }
+
+        /**
+         * Adds a stop and returns its index. Windows are minutes since midnight or
+         * {@link #NO_WINDOW}; a window closing before it opens runs past midnight.
+         * loadDeltaKg is positive for a pickup and negative for a delivery; pickupOf is the
+         * index of the stop that must come first, or -1.
+         */
+        public int stop(double latitude, double longitude, int windowOpen, int windowClose,
+                        double loadDeltaKg, int pickupOf, int priority) {
+            if (pickupOf >= stops.size()) {
+                throw new IllegalArgumentException("pickup " + pickupOf + " must be added before its delivery");
+            }
+            int close = windowOpen != NO_WINDOW && windowClose != NO_WINDOW && windowClose < windowOpen
+                    ? windowClose + 24 * 60
+                    : windowClose;
+            stops.add(new StopSpec(latitude, longitude, windowOpen, close, loadDeltaKg, pickupOf, Math.max(priority, 1)));
+            return stops.size() - 1;
+        }
+
+        public Builder startMinute(double startMinute) {
+            this.startMinute = startMinute;
+            return this;
+        }
+
+        public Builder averageSpeedKmh(double averageSpeedKmh) {
+            if (averageSpeedKmh <= 0) throw new IllegalArgumentException("averageSpeedKmh must be positive");
+            this.averageSpeedKmh = averageSpeedKmh;
+            return this;
+        }
+
+        public Builder detourFactor(double detourFactor) {
+            this.detourFactor = Math.max(detourFactor, 1.0);
+            return this;
+        }
+
+        public Builder serviceMinutes(double serviceMinutes) {
+            this.serviceMinutes = Math.max(serviceMinutes, 0);
+            return this;
+        }
+
+        /** Vehicle capacity; zero or less means unlimited. */
+        public Builder capacityKg(double capacityKg) {
+            this.capacityKg = capacityKg;
+            return this;
+        }
+
+        public Builder objective(Objective objective) {
+            this.objective = objective != null ? objective : Objective.SHORTEST;
+            return this;
+        }
+
+        /** Road distances and times; null keeps the straight-line estimate for every leg. */
+        public Builder travelModel(TravelModel travelModel) {
+            this.travelModel = travelModel;
+            return this;
+        }
+
+        public VrpProblem build() {
+            return new VrpProblem(this);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.smartcampost.backend.routing;
+
+/**
+ * A planned tour: stop indices in visiting order and, per position, the leg driven to reach it
+ * (km and minutes) and the minute (since midnight) the courier arrives there, before any wait
+ * for its window.
+ *
+ * lateMinutes, overloadKg and precedenceViolations are zero for a feasible tour; the solver
+ * only leaves them positive when the constraints cannot all be met.
+ */
+public record VrpSolution(
+        int[] order,
+        double[] legKm,
+        double[] legMinutes,
+        double[] arrivalMinute,
+        double[] lateMinutes,
+        double distanceKm,
+        double completionMinute,
+        double totalLateMinutes,
+        double overloadKg,
+        int precedenceViolations,
+        double cost,
+        int improvingMoves,
+        boolean timedOut
+) {
+
+    public boolean feasible() {
+        return totalLateMinutes == 0 && overloadKg == 0 && precedenceViolations == 0;
+    }
+}
@@ -0,0 +1,256 @@
+package com.smartcampost.backend.routing;
+
+import java.time.Duration;
+
+/**
+ * Local-search solver for one courier's tour ({@link VrpProblem}).
+ *
+ * - Initial tour: nearest neighbour over the stops that can come next (pickup done, parcel
+ *   fits in the vehicle when any such stop exists).
+ * - Improvement: 2-opt (reverse a stretch of the tour) and Or-opt (move a run of 1-3 stops
+ *   elsewhere), first-improvement, until a full pass finds nothing or the time budget runs out.
+ * - Every candidate is scored by one O(n) walk of the tour over the precomputed distance
+ *   matrix: the objective plus heavy penalties for lateness past a window, load above
+ *   capacity and a delivery before its pickup, so the search is steered back to feasible
+ *   tours and only ends on an infeasible one when no feasible tour was found.
+ *
+ * Stateless; solve() may be called concurrently.
+ */
+public final class VrpSolver {
+
+    private static final double LATE_PENALTY_PER_MINUTE = 5.0;
+    private static final double OVERLOAD_PENALTY_PER_KG = 50.0;
+    private static final double PRECEDENCE_PENALTY = 10_000.0;
+    // BALANCED: weight of the priority-weighted mean time to reach a stop, in km of driving
+    private static final double PRIORITY_WAIT_WEIGHT = 0.5;
+    private static final double EPSILON = 1e-9;
+    private static final int MAX_OR_OPT_SEGMENT = 3;
+
+    private VrpSolver() {}
+
+    /** Best tour found within the time budget. */
+    public static VrpSolution solve(VrpProblem problem, Duration budget) {
+        int n = problem.size;
+        Evaluator evaluator = new Evaluator(problem);
+        int[] tour = initialTour(problem);
+        if (n < 3) return evaluator.solution(tour, 0, false);
+
+        long deadline = System.nanoTime() + budget.toNanos();
+        boolean distanceOnly = problem.distanceOnly();
+        int[] candidate = new int[n];
+        double cost = evaluator.cost(tour);
+        int moves = 0;
+        boolean timedOut = false;
+        boolean improved = true;
+
+        while (improved && !timedOut) {
+            improved = false;
+
+            // 2-opt: reverse tour[i..j]
+            for (int i = 0; i < n - 1 && !timedOut; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    if (distanceOnly && twoOptDelta(problem, tour, i, j) > -EPSILON) continue;
+                    copyReversed(tour, i, j, candidate);
+                    double c = evaluator.cost(candidate);
+                    if (c < cost - EPSILON) {
+                        int[] t = tour; tour = candidate; candidate = t;
+                        cost = c;
+                        moves++;
+                        improved = true;
+                    }
+                }
+                timedOut = System.nanoTime() > deadline;
+            }
+
+            // Or-opt: move tour[i..i+len-1] to position k among the remaining stops
+            for (int len = 1; len <= MAX_OR_OPT_SEGMENT && !timedOut; len++) {
+                for (int i = 0; i + len <= n && !timedOut; i++) {
+                    for (int k = 0; k <= n - len; k++) {
+                        if (k == i) continue;
+                        copyMoved(tour, i, len, k, candidate);
+                        double c = evaluator.cost(candidate);
+                        if (c < cost - EPSILON) {
+                            int[] t = tour; tour = candidate; candidate = t;
+                            cost = c;
+                            moves++;
+                            improved = true;
+                        }
+                    }
+                    timedOut = System.nanoTime() > deadline;
+                }
+            }
+        }
+        return evaluator.solution(tour, moves, timedOut);
+    }
+
+    /** Plain nearest neighbour ignoring every constraint: the tour planned before this solver. */
+    public static VrpSolution nearestNeighbour(VrpProblem problem) {
+        int n = problem.size;
+        boolean[] done = new boolean[n];
+        int[] tour = new int[n];
+        int prev = n;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            for (int s = 0; s < n; s++) {
+                if (done[s]) continue;
+                if (best < 0 || problem.distanceKm[prev][s] < problem.distanceKm[prev][best]) best = s;
+            }
+            done[best] = true;
+            tour[step] = best;
+            prev = best;
+        }
+        return new Evaluator(problem).solution(tour, 0, false);
+    }
+
+    /** Scores a given visiting order, e.g. the order stops were submitted in. */
+    public static VrpSolution evaluate(VrpProblem problem, int[] order) {
+        if (order.length != problem.size) throw new IllegalArgumentException("order must visit every stop once");
+        return new Evaluator(problem).solution(order.clone(), 0, false);
+    }
+
+    private static int[] initialTour(VrpProblem p) {
+        int n = p.size;
+        boolean[] done = new boolean[n];
+        int[] tour = new int[n];
+        int prev = n;
+        double load = p.startLoadKg;
+        for (int step = 0; step < n; step++) {
+            int best = -1;
+            int bestFitting = -1;
+            for (int s = 0; s < n; s++) {
+                if (done[s] || (p.pickupOf[s] >= 0 && !done[p.pickupOf[s]])) continue;
+                double d = p.distanceKm[prev][s];
+                if (best < 0 || d < p.distanceKm[prev][best]) best = s;
+                boolean fits = p.capacityKg <= 0 || load + p.loadDeltaKg[s] <= p.capacityKg;
+                if (fits && (bestFitting < 0 || d < p.distanceKm[prev][bestFitting])) bestFitting = s;
+            }
+            int next = bestFitting >= 0 ? bestFitting : best;
+            done[next] = true;
+            tour[step] = next;
+            load += p.loadDeltaKg[next];
+            prev = next;
+        }
+        return tour;
+    }
+
+    /** Change in distance from reversing tour[i..j] of an open path (symmetric distances only). */
+    private static double twoOptDelta(VrpProblem p, int[] tour, int i, int j) {
+        double[][] d = p.distanceKm;
+        int before = i == 0 ? p.size : tour[i - 1];
+        double delta = d[before][tour[j]] - d[before][tour[i]];
+        if (j + 1 < tour.length) delta += d[tour[i]][tour[j + 1]] - d[tour[j]][tour[j + 1]];
+        return delta;
+    }
+
+    private static void copyReversed(int[] tour, int i, int j, int[] out) {
+        System.arraycopy(tour, 0, out, 0, tour.length);
+        for (int a = i, b = j; a < b; a++, b--) {
+            out[a] = tour[b];
+            out[b] = tour[a];
+        }
+    }
+
+    private static void copyMoved(int[] tour, int i, int len, int k, int[] out) {
+        int o = 0;
+        int rest = 0;
+        for (int idx = 0; idx < tour.length; idx++) {
+            if (idx >= i && idx < i + len) continue;
+            if (rest == k) {
+                System.arraycopy(tour, i, out, o, len);
+                o += len;
+            }
+            out[o++] = tour[idx];
+            rest++;
+        }
+        if (rest == k) System.arraycopy(tour, i, out, o, len);
+    }
+
+    /** Walks a tour once; reuses its visited marks across calls (not thread-safe, one per solve). */
+    private static final class Evaluator {
+
+        private final VrpProblem p;
+        private final int[] visitedStamp;
+        private int stamp;
+        // Totals of the last walk, read by solution()
+        private double lastCompletion;
+        private double lastOverload;
+        private int lastViolations;
+
+        Evaluator(VrpProblem p) {
+            this.p = p;
+            this.visitedStamp = new int[p.size];
+        }
+
+        double cost(int[] tour) {
+            return walk(tour, null, null, null, null);
+        }
+
+        VrpSolution solution(int[] tour, int moves, boolean timedOut) {
+            int n = tour.length;
+            double[] legKm = new double[n];
+            double[] legMinutes = new double[n];
+            double[] arrival = new double[n];
+            double[] late = new double[n];
+            double cost = walk(tour, legKm, legMinutes, arrival, late);
+            double distance = 0;
+            double totalLate = 0;
+            for (int k = 0; k < n; k++) {
+                distance += legKm[k];
+                totalLate += late[k];
+            }
+            return new VrpSolution(tour, legKm, legMinutes, arrival, late, distance, lastCompletion, totalLate,
+                    lastOverload, lastViolations, cost, moves, timedOut);
+        }
+
+        private double walk(int[] tour, double[] legOut, double[] legMinutesOut, double[] arrivalOut, double[] lateOut) {
+            double[][] d = p.distanceKm;
+            stamp++;
+            int prev = p.size;
+            double minute = p.startMinute;
+            double load = p.startLoadKg;
+            double distance = 0;
+            double late = 0;
+            double overload = p.capacityKg > 0 ? Math.max(0, load - p.capacityKg) : 0;
+            double priorityWait = 0;
+            int prioritySum = 0;
+            int violations = 0;
+            for (int k = 0; k < tour.length; k++) {
+                int s = tour[k];
+                double leg = d[prev][s];
+                distance += leg;
+                minute += p.travelMinutes[prev][s];
+                if (arrivalOut != null) {
+                    legOut[k] = leg;
+                    legMinutesOut[k] = p.travelMinutes[prev][s];
+                    arrivalOut[k] = minute;
+                }
+                if (p.windowOpen[s] != VrpProblem.NO_WINDOW && minute < p.windowOpen[s]) minute = p.windowOpen[s];
+                if (p.windowClose[s] != VrpProblem.NO_WINDOW && minute > p.windowClose[s]) {
+                    late += minute - p.windowClose[s];
+                    if (lateOut != null) lateOut[k] = minute - p.windowClose[s];
+                }
+                priorityWait += p.priority[s] * (minute - p.startMinute);
+                prioritySum += p.priority[s];
+                if (p.pickupOf[s] >= 0 && visitedStamp[p.pickupOf[s]] != stamp) violations++;
+                visitedStamp[s] = stamp;
+                load += p.loadDeltaKg[s];
+                if (p.capacityKg > 0 && load > p.capacityKg) overload += load - p.capacityKg;
+                minute += p.serviceMinutes;
+                prev = s;
+            }
+            lastCompletion = minute;
+            lastOverload = overload;
+            lastViolations = violations;
+
+            double base = switch (p.objective) {
+                case SHORTEST -> distance;
+                case FASTEST -> (minute - p.startMinute) / p.minutesPerKm;
+                case BALANCED -> distance + PRIORITY_WAIT_WEIGHT * (prioritySum > 0 ? priorityWait / prioritySum : 0) / p.minutesPerKm;
+            };
+            return base
+                    + LATE_PENALTY_PER_MINUTE * late
+                    + OVERLOAD_PENALTY_PER_KG * overload
+                    + PRECEDENCE_PENALTY * violations;
+        }
+    }
+}
@@ -0,0 +1,435 @@
+package com.smartcampost.backend.routing.road;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Contraction hierarchy over the fastest-time road graph, built once when a {@link RoadGraph}
+ * is created. Nodes are contracted one by one (fewest added shortcuts first, lazily updated);
+ * each contraction adds the shortcuts needed to keep travel times between the remaining nodes,
+ * unless a short witness search finds a path at least as fast. A query then only searches
+ * upwards in the order from both ends, a few hundred nodes instead of the whole city.
+ *
+ * {@link #manyToMany} is the bucket algorithm: one backward upward search per target leaves
+ * (target, minutes, km) entries at every node it settles, one forward upward search per source
+ * meets them. Shortcuts carry the km of the path they stand for, so distances come along with
+ * times at no extra search cost.
+ */
+final class ContractionHierarchy {
+
+    // Witness searches give up after this many nodes; priority estimates use a shorter search
+    private static final int WITNESS_SETTLE_LIMIT = 100;
+    private static final int ESTIMATE_SETTLE_LIMIT = 25;
+
+    // Forward: v -> higher-ranked w. Backward: higher-ranked w -> v, stored at v.
+    private final int[] upFirst;
+    private final int[] upTarget;
+    private final float[] upMinutes;
+    private final float[] upKm;
+    private final int[] downFirst;
+    private final int[] downSource;
+    private final float[] downMinutes;
+    private final float[] downKm;
+
+    private ContractionHierarchy(Edges up, Edges down, int nodes) {
+        upFirst = up.firstByNode(nodes);
+        upTarget = up.sortedOther();
+        upMinutes = up.sortedMinutes();
+        upKm = up.sortedKm();
+        downFirst = down.firstByNode(nodes);
+        downSource = down.sortedOther();
+        downMinutes = down.sortedMinutes();
+        downKm = down.sortedKm();
+    }
+
+    static ContractionHierarchy contract(int[] firstEdge, int[] edgeTarget, float[] edgeKm, float[] edgeMinutes) {
+        return new Contractor(firstEdge, edgeTarget, edgeKm, edgeMinutes).run();
+    }
+
+    int shortcutCount() {
+        return upTarget.length + downSource.length;
+    }
+
+    Query newQuery() {
+        return new Query(upFirst.length - 1);
+    }
+
+    /**
+     * Fastest minutes and their km from every source node to every target node, written into
+     * minutesOut[i][j] / kmOut[i][j]; NaN where the target cannot be reached.
+     */
+    void manyToMany(int[] sources, int[] targets, Query q, double[][] minutesOut, double[][] kmOut) {
+        q.newBuckets();
+        for (int j = 0; j < targets.length; j++) {
+            q.upward(targets[j], downFirst, downSource, downMinutes, downKm);
+            for (int s = 0; s < q.settledCount; s++) {
+                int v = q.settled[s];
+                q.addBucketEntry(v, j, q.minutes[v], q.km[v]);
+            }
+        }
+        for (int i = 0; i < sources.length; i++) {
+            double[] bestMinutes = minutesOut[i];
+            double[] bestKm = kmOut[i];
+            Arrays.fill(bestMinutes, Double.POSITIVE_INFINITY);
+            q.upward(sources[i], upFirst, upTarget, upMinutes, upKm);
+            for (int s = 0; s < q.settledCount; s++) {
+                int v = q.settled[s];
+                if (q.bucketStamp[v] != q.buckets) continue;
+                for (int e = q.bucketHead[v]; e >= 0; e = q.entryNext[e]) {
+                    int j = q.entryTarget[e];
+                    double total = q.minutes[v] + q.entryMinutes[e];
+                    if (total < bestMinutes[j]) {
+                        bestMinutes[j] = total;
+                        bestKm[j] = q.km[v] + q.entryKm[e];
+                    }
+                }
+            }
+            for (int j = 0; j < targets.length; j++) {
+                if (bestMinutes[j] == Double.POSITIVE_INFINITY) {
+                    bestMinutes[j] = Double.NaN;
+                    bestKm[j] = Double.NaN;
+                }
+            }
+        }
+    }
+
+    /** Search workspace, reused across queries by one thread at a time. */
+    static final class Query {
+
+        private final double[] minutes;
+        private final double[] km;
+        private final int[] seen;
+        private final NodeHeap heap;
+        private int stamp;
+        private int[] settled = new int[256];
+        private int settledCount;
+
+        private final int[] bucketHead;
+        private final int[] bucketStamp;
+        private int buckets;
+        private int[] entryTarget = new int[1024];
+        private double[] entryMinutes = new double[1024];
+        private double[] entryKm = new double[1024];
+        private int[] entryNext = new int[1024];
+        private int entryCount;
+
+        private Query(int nodes) {
+            minutes = new double[nodes];
+            km = new double[nodes];
+            seen = new int[nodes];
+            heap = new NodeHeap(minutes);
+            bucketHead = new int[nodes];
+            bucketStamp = new int[nodes];
+        }
+
+        /** Settles every node reachable from source over the given upward edges. */
+        private void upward(int source, int[] first, int[] other, float[] edgeMinutes, float[] edgeKm) {
+            stamp++;
+            settledCount = 0;
+            heap.clear();
+            seen[source] = stamp;
+            minutes[source] = 0;
+            km[source] = 0;
+            heap.push(source);
+            while (!heap.isEmpty()) {
+                int v = heap.pop();
+                if (settledCount == settled.length) settled = Arrays.copyOf(settled, settledCount * 2);
+                settled[settledCount++] = v;
+                for (int e = first[v]; e < first[v + 1]; e++) {
+                    int w = other[e];
+                    double m = minutes[v] + edgeMinutes[e];
+                    if (seen[w] != stamp) {
+                        seen[w] = stamp;
+                        minutes[w] = m;
+                        km[w] = km[v] + edgeKm[e];
+                        heap.push(w);
+                    } else if (m < minutes[w] && heap.contains(w)) {
+                        minutes[w] = m;
+                        km[w] = km[v] + edgeKm[e];
+                        heap.decreased(w);
+                    }
+                }
+            }
+        }
+
+        private void newBuckets() {
+            buckets++;
+            entryCount = 0;
+        }
+
+        private void addBucketEntry(int node, int target, double entryMinute, double entryDistance) {
+            if (entryCount == entryTarget.length) {
+                int grown = entryCount * 2;
+                entryTarget = Arrays.copyOf(entryTarget, grown);
+                entryMinutes = Arrays.copyOf(entryMinutes, grown);
+                entryKm = Arrays.copyOf(entryKm, grown);
+                entryNext = Arrays.copyOf(entryNext, grown);
+            }
+            if (bucketStamp[node] != buckets) {
+                bucketStamp[node] = buckets;
+                bucketHead[node] = -1;
+            }
+            entryTarget[entryCount] = target;
+            entryMinutes[entryCount] = entryMinute;
+            entryKm[entryCount] = entryDistance;
+            entryNext[entryCount] = bucketHead[node];
+            bucketHead[node] = entryCount++;
+        }
+    }
+
+    /**
+     * Node-by-node contraction over a mutable adjacency: each node keeps one int[] of
+     * (neighbour << 1 | IN, minutes bits, km bits) triples for its edges to uncontracted nodes.
+     */
+    private static final class Contractor {
+
+        private static final int IN = 1;
+
+        private final int n;
+        private final int[][] adj;
+        private final int[] adjSize;
+        private final boolean[] contracted;
+        private final int[] deletedNeighbours;
+        private final int[] priority;
+        private final Edges up = new Edges();
+        private final Edges down = new Edges();
+
+        private final double[] dist;
+        private final int[] seen;
+        private final NodeHeap heap;
+        private int stamp;
+
+        Contractor(int[] firstEdge, int[] edgeTarget, float[] edgeKm, float[] edgeMinutes) {
+            n = firstEdge.length - 1;
+            adj = new int[n][];
+            adjSize = new int[n];
+            contracted = new boolean[n];
+            deletedNeighbours = new int[n];
+            priority = new int[n];
+            dist = new double[n];
+            seen = new int[n];
+            heap = new NodeHeap(dist);
+            for (int v = 0; v < n; v++) adj[v] = new int[3 * 4];
+            for (int v = 0; v < n; v++) {
+                for (int e = firstEdge[v]; e < firstEdge[v + 1]; e++) {
+                    addEdge(v, edgeTarget[e], edgeMinutes[e], edgeKm[e]);
+                }
+            }
+        }
+
+        ContractionHierarchy run() {
+            PriorityQueue<long[]> queue = new PriorityQueue<>(Math.max(1, n),
+                    (a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+            for (int v = 0; v < n; v++) {
+                priority[v] = priorityOf(v);
+                queue.add(new long[] {priority[v], v});
+            }
+            int[] neighbours = new int[16];
+            while (!queue.isEmpty()) {
+                long[] top = queue.poll();
+                int v = (int) top[1];
+                if (contracted[v] || top[0] != priority[v]) continue; // superseded entry
+                int fresh = priorityOf(v);
+                if (fresh > priority[v] && !queue.isEmpty() && fresh > queue.peek()[0]) {
+                    priority[v] = fresh;
+                    queue.add(new long[] {fresh, v});
+                    continue;
+                }
+
+                shortcuts(v, true);
+                int neighbourCount = 0;
+                int[] edges = adj[v];
+                for (int k = 0; k < adjSize[v]; k += 3) {
+                    int other = edges[k] >>> 1;
+                    float minutes = Float.intBitsToFloat(edges[k + 1]);
+                    float km = Float.intBitsToFloat(edges[k + 2]);
+                    if ((edges[k] & IN) == 0) up.add(v, other, minutes, km);
+                    else down.add(v, other, minutes, km);
+                    if (neighbourCount == neighbours.length) neighbours = Arrays.copyOf(neighbours, neighbourCount * 2);
+                    neighbours[neighbourCount++] = other;
+                }
+                contracted[v] = true;
+                adj[v] = null;
+                adjSize[v] = 0;
+                for (int i = 0; i < neighbourCount; i++) {
+                    int w = neighbours[i];
+                    if (removeEdgesTo(w, v)) {
+                        deletedNeighbours[w]++;
+                        priority[w] = priorityOf(w);
+                        queue.add(new long[] {priority[w], w});
+                    }
+                }
+            }
+            return new ContractionHierarchy(up, down, n);
+        }
+
+        private int priorityOf(int v) {
+            return 2 * (shortcuts(v, false) - adjSize[v] / 3) + deletedNeighbours[v];
+        }
+
+        /** Shortcuts needed if v were contracted now; added to the graph when apply is set. */
+        private int shortcuts(int v, boolean apply) {
+            int count = 0;
+            int[] edges = adj[v];
+            int size = adjSize[v];
+            for (int a = 0; a < size; a += 3) {
+                if ((edges[a] & IN) == 0) continue;
+                int u = edges[a] >>> 1;
+                double toV = Float.intBitsToFloat(edges[a + 1]);
+                double bound = -1;
+                for (int b = 0; b < size; b += 3) {
+                    if ((edges[b] & IN) != 0 || edges[b] >>> 1 == u) continue;
+                    bound = Math.max(bound, toV + Float.intBitsToFloat(edges[b + 1]));
+                }
+                if (bound < 0) continue;
+                witness(u, v, bound, apply ? WITNESS_SETTLE_LIMIT : ESTIMATE_SETTLE_LIMIT);
+                for (int b = 0; b < size; b += 3) {
+                    int x = edges[b] >>> 1;
+                    if ((edges[b] & IN) != 0 || x == u) continue;
+                    double via = toV + Float.intBitsToFloat(edges[b + 1]);
+                    if (seen[x] == stamp && dist[x] <= via) continue;
+                    count++;
+                    if (apply) {
+                        addEdge(u, x, (float) via,
+                                Float.intBitsToFloat(edges[a + 2]) + Float.intBitsToFloat(edges[b + 2]));
+                    }
+                }
+            }
+            return count;
+        }
+
+        /** Bounded search from source avoiding skip; dist[] holds upper bounds for reached nodes. */
+        private void witness(int source, int skip, double bound, int settleLimit) {
+            stamp++;
+            heap.clear();
+            seen[source] = stamp;
+            dist[source] = 0;
+            heap.push(source);
+            int settled = 0;
+            while (!heap.isEmpty() && settled++ < settleLimit) {
+                int a = heap.pop();
+                if (dist[a] > bound) break;
+                int[] edges = adj[a];
+                for (int k = 0; k < adjSize[a]; k += 3) {
+                    if ((edges[k] & IN) != 0) continue;
+                    int b = edges[k] >>> 1;
+                    if (b == skip) continue;
+                    double d = dist[a] + Float.intBitsToFloat(edges[k + 1]);
+                    if (seen[b] != stamp) {
+                        seen[b] = stamp;
+                        dist[b] = d;
+                        heap.push(b);
+                    } else if (d < dist[b] && heap.contains(b)) {
+                        dist[b] = d;
+                        heap.decreased(b);
+                    }
+                }
+            }
+        }
+
+        /** Adds u -> x, or lowers an existing u -> x to the given time. */
+        private void addEdge(int u, int x, float minutes, float km) {
+            if (u == x) return;
+            int k = find(u, x << 1);
+            if (k >= 0) {
+                if (Float.intBitsToFloat(adj[u][k + 1]) <= minutes) return;
+                set(u, k, x << 1, minutes, km);
+                set(x, find(x, u << 1 | IN), u << 1 | IN, minutes, km);
+                return;
+            }
+            append(u, x << 1, minutes, km);
+            append(x, u << 1 | IN, minutes, km);
+        }
+
+        private int find(int v, int head) {
+            int[] edges = adj[v];
+            for (int k = 0; k < adjSize[v]; k += 3) {
+                if (edges[k] == head) return k;
+            }
+            return -1;
+        }
+
+        private void set(int v, int k, int head, float minutes, float km) {
+            adj[v][k] = head;
+            adj[v][k + 1] = Float.floatToRawIntBits(minutes);
+            adj[v][k + 2] = Float.floatToRawIntBits(km);
+        }
+
+        private void append(int v, int head, float minutes, float km) {
+            if (adjSize[v] == adj[v].length) adj[v] = Arrays.copyOf(adj[v], adjSize[v] * 2);
+            set(v, adjSize[v], head, minutes, km);
+            adjSize[v] += 3;
+        }
+
+        /** Drops w's edges to and from v; false when w had none (already seen as a neighbour). */
+        private boolean removeEdgesTo(int w, int v) {
+            int[] edges = adj[w];
+            int size = adjSize[w];
+            boolean removed = false;
+            for (int k = 0; k < size; ) {
+                if (edges[k] >>> 1 == v) {
+                    size -= 3;
+                    System.arraycopy(edges, size, edges, k, 3);
+                    removed = true;
+                } else {
+                    k += 3;
+                }
+            }
+            adjSize[w] = size;
+            return removed;
+        }
+    }
+
+    /** Growable edge list (node, other, minutes, km), compacted into CSR by node. */
+    private static final class Edges {
+
+        private int[] node = new int[1024];
+        private int[] other = new int[1024];
+        private float[] minutes = new float[1024];
+        private float[] km = new float[1024];
+        private int size;
+        private int[] order;
+
+        void add(int v, int w, float edgeMinutes, float edgeKm) {
+            if (size == node.length) {
+                node = Arrays.copyOf(node, size * 2);
+                other = Arrays.copyOf(other, size * 2);
+                minutes = Arrays.copyOf(minutes, size * 2);
+                km = Arrays.copyOf(km, size * 2);
+            }
+            node[size] = v;
+            other[size] = w;
+            minutes[size] = edgeMinutes;
+            km[size] = edgeKm;
+            size++;
+        }
+
+        int[] firstByNode(int nodes) {
+            int[] first = new int[nodes + 1];
+            for (int i = 0; i < size; i++) first[node[i] + 1]++;
+            for (int v = 0; v < nodes; v++) first[v + 1] += first[v];
+            int[] cursor = Arrays.copyOf(first, nodes);
+            order = new int[size];
+            for (int i = 0; i < size; i++) order[cursor[node[i]]++] = i;
+            return first;
+        }
+
+        int[] sortedOther() {
+            int[] sorted = new int[size];
+            for (int i = 0; i < size; i++) sorted[i] = other[order[i]];
+            return sorted;
+        }
+
+        float[] sortedMinutes() {
+            float[] sorted = new float[size];
+            for (int i = 0; i < size; i++) sorted[i] = minutes[order[i]];
+            return sorted;
+        }
+
+        float[] sortedKm() {
+            float[] sorted = new float[size];
+            for (int i = 0; i < size; i++) sorted[i] = km[order[i]];
+            return sorted;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartcampost.backend.routing.road;
+
+/**
+ * Indexed binary min-heap of node ids ordered by an external key array, for Dijkstra-style
+ * searches. A node's heap position is only meaningful for nodes pushed in the current search:
+ * callers stamp the nodes they reach and check the stamp before {@link #contains}.
+ */
+final class NodeHeap {
+
+    private final double[] key;
+    private final int[] heap;
+    private final int[] index;
+    private int size;
+
+    NodeHeap(double[] key) {
+        this.key = key;
+        this.heap = new int[key.length];
+        this.index = new int[key.length];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** False once the node has been popped in the current search. */
+    boolean contains(int v) {
+        return index[v] >= 0;
+    }
+
+    void push(int v) {
+        heap[size] = v;
+        index[v] = size;
+        siftUp(size++);
+    }
+
+    int pop() {
+        int top = heap[0];
+        index[top] = -1;
+        int last = heap[--size];
+        if (size > 0) {
+            heap[0] = last;
+            index[last] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    /** Restores heap order after the node's key was lowered. */
+    void decreased(int v) {
+        siftUp(index[v]);
+    }
+
+    private void siftUp(int i) {
+        int v = heap[i];
+        double k = key[v];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            int p = heap[parent];
+            if (key[p] <= k) break;
+            heap[i] = p;
+            index[p] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        index[v] = i;
+    }
+
+    private void siftDown(int i) {
+        int v = heap[i];
+        double k = key[v];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && key[heap[child + 1]] < key[heap[child]]) child++;
+            int c = heap[child];
+            if (key[c] >= k) break;
+            heap[i] = c;
+            index[c] = i;
+            i = child;
+        }
+        heap[i] = v;
+        index[v] = i;
+    }
+}
@@ -0,0 +1,217 @@
+package com.smartcampost.backend.routing.road;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads an OpenStreetMap XML extract (.osm or .osm.gz) into a {@link RoadGraph} with the JDK's
+ * streaming XML parser, so no routing library or network access is needed. A PBF extract (e.g.
+ * from Geofabrik) is converted once with {@code osmium cat cameroon-latest.osm.pbf -o cameroon.osm.gz}.
+ *
+ * Only drivable ways are kept (highway=* in {@link #SPEED_KMH}); the speed is the class speed,
+ * lowered to maxspeed when that is smaller. oneway=yes/1/true, oneway=-1 and roundabouts are
+ * honoured. Node ids are kept in a sorted long[] and resolved by binary search, the order OSM
+ * extracts are written in; an unsorted file is sorted before ways are resolved.
+ */
+public final class OsmGraphLoader {
+
+    /** Typical speeds on Cameroonian roads, km/h, by OSM highway class. */
+    static final Map<String, Double> SPEED_KMH = Map.ofEntries(
+            Map.entry("motorway", 80.0), Map.entry("motorway_link", 50.0),
+            Map.entry("trunk", 60.0), Map.entry("trunk_link", 40.0),
+            Map.entry("primary", 45.0), Map.entry("primary_link", 35.0),
+            Map.entry("secondary", 35.0), Map.entry("secondary_link", 30.0),
+            Map.entry("tertiary", 30.0), Map.entry("tertiary_link", 25.0),
+            Map.entry("unclassified", 25.0), Map.entry("road", 20.0),
+            Map.entry("residential", 20.0), Map.entry("living_street", 10.0),
+            Map.entry("service", 10.0), Map.entry("track", 10.0));
+
+    private OsmGraphLoader() {}
+
+    public static RoadGraph load(Path file) throws IOException {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            InputStream in = file.getFileName().toString().endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : raw;
+            return load(in);
+        }
+    }
+
+    public static RoadGraph load(InputStream in) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(in);
+            try {
+                return read(xml);
+            } finally {
+                xml.close();
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid OSM XML: " + e.getMessage(), e);
+        }
+    }
+
+    private static RoadGraph read(XMLStreamReader xml) throws XMLStreamException {
+        NodeTable nodes = new NodeTable();
+        Ways ways = new Ways();
+        long[] refs = new long[256];
+        int refCount = 0;
+        boolean inWay = false;
+        String highway = null;
+        String oneway = null;
+        String maxspeed = null;
+        boolean roundabout = false;
+
+        while (xml.hasNext()) {
+            int event = xml.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (xml.getLocalName()) {
+                    case "node" -> nodes.add(Long.parseLong(xml.getAttributeValue(null, "id")),
+                            Double.parseDouble(xml.getAttributeValue(null, "lat")),
+                            Double.parseDouble(xml.getAttributeValue(null, "lon")));
+                    case "way" -> {
+                        inWay = true;
+                        refCount = 0;
+                        highway = oneway = maxspeed = null;
+                        roundabout = false;
+                    }
+                    case "nd" -> {
+                        if (!inWay) break;
+                        if (refCount == refs.length) refs = Arrays.copyOf(refs, refCount * 2);
+                        refs[refCount++] = Long.parseLong(xml.getAttributeValue(null, "ref"));
+                    }
+                    case "tag" -> {
+                        if (!inWay) break;
+                        String k = xml.getAttributeValue(null, "k");
+                        String v = xml.getAttributeValue(null, "v");
+                        switch (k) {
+                            case "highway" -> highway = v;
+                            case "oneway" -> oneway = v;
+                            case "maxspeed" -> maxspeed = v;
+                            case "junction" -> roundabout = "roundabout".equals(v);
+                            default -> { }
+                        }
+                    }
+                    default -> { }
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && "way".equals(xml.getLocalName())) {
+                inWay = false;
+                Double classSpeed = highway != null ? SPEED_KMH.get(highway) : null;
+                if (classSpeed == null || refCount < 2) continue;
+                double speed = Math.min(classSpeed, parseMaxspeed(maxspeed, classSpeed));
+                boolean reverse = "-1".equals(oneway);
+                boolean single = reverse || roundabout || "yes".equals(oneway) || "1".equals(oneway) || "true".equals(oneway);
+                for (int i = 0; i + 1 < refCount; i++) {
+                    if (reverse) ways.add(refs[i + 1], refs[i], speed, true);
+                    else ways.add(refs[i], refs[i + 1], speed, single);
+                }
+            }
+        }
+
+        nodes.sortIfNeeded();
+        RoadGraph.Builder builder = RoadGraph.builder();
+        int[] graphNode = new int[nodes.size];
+        Arrays.fill(graphNode, -1);
+        for (int s = 0; s < ways.size; s++) {
+            int a = nodes.indexOf(ways.from[s]);
+            int b = nodes.indexOf(ways.to[s]);
+            if (a < 0 || b < 0) continue; // way clipped at the extract boundary
+            if (graphNode[a] < 0) graphNode[a] = builder.node(nodes.lat[a], nodes.lng[a]);
+            if (graphNode[b] < 0) graphNode[b] = builder.node(nodes.lat[b], nodes.lng[b]);
+            builder.road(graphNode[a], graphNode[b], ways.speed[s], ways.oneway[s]);
+        }
+        return builder.build();
+    }
+
+    /** "50", "50 km/h" or "30 mph"; anything else (e.g. "none", "FR:urban") keeps the fallback. */
+    static double parseMaxspeed(String value, double fallback) {
+        if (value == null) return fallback;
+        String v = value.trim().toLowerCase(Locale.ROOT);
+        double factor = v.endsWith("mph") ? 1.609 : 1.0;
+        v = v.replace("km/h", "").replace("kmh", "").replace("mph", "").trim();
+        try {
+            double speed = Double.parseDouble(v) * factor;
+            return speed > 0 ? speed : fallback;
+        } catch (NumberFormatException e) {
+            return fallback;
+        }
+    }
+
+    private static final class NodeTable {
+        long[] id = new long[4096];
+        double[] lat = new double[4096];
+        double[] lng = new double[4096];
+        int size;
+        boolean sorted = true;
+
+        void add(long nodeId, double latitude, double longitude) {
+            if (size == id.length) {
+                id = Arrays.copyOf(id, size * 2);
+                lat = Arrays.copyOf(lat, size * 2);
+                lng = Arrays.copyOf(lng, size * 2);
+            }
+            if (size > 0 && nodeId <= id[size - 1]) sorted = false;
+            id[size] = nodeId;
+            lat[size] = latitude;
+            lng[size] = longitude;
+            size++;
+        }
+
+        void sortIfNeeded() {
+            if (sorted) return;
+            Integer[] order = new Integer[size];
+            for (int i = 0; i < size; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> Long.compare(id[a], id[b]));
+            long[] ids = new long[size];
+            double[] lats = new double[size];
+            double[] lngs = new double[size];
+            for (int i = 0; i < size; i++) {
+                ids[i] = id[order[i]];
+                lats[i] = lat[order[i]];
+                lngs[i] = lng[order[i]];
+            }
+            id = ids;
+            lat = lats;
+            lng = lngs;
+            sorted = true;
+        }
+
+        int indexOf(long nodeId) {
+            int i = Arrays.binarySearch(id, 0, size, nodeId);
+            return i >= 0 ? i : -1;
+        }
+    }
+
+    private static final class Ways {
+        long[] from = new long[4096];
+        long[] to = new long[4096];
+        double[] speed = new double[4096];
+        boolean[] oneway = new boolean[4096];
+        int size;
+
+        void add(long a, long b, double kmh, boolean single) {
+            if (size == from.length) {
+                from = Arrays.copyOf(from, size * 2);
+                to = Arrays.copyOf(to, size * 2);
+                speed = Arrays.copyOf(speed, size * 2);
+                oneway = Arrays.copyOf(oneway, size * 2);
+            }
+            from[size] = a;
+            to[size] = b;
+            speed[size] = kmh;
+            oneway[size] = single;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.smartcampost.backend.routing.road;
+
+import com.smartcampost.backend.geo.GeoDistance;
+
+import java.util.Arrays;
+
+/**
+ * Immutable directed road graph in compressed sparse row form: the edges leaving node v are
+ * {@code firstEdge[v] .. firstEdge[v + 1] - 1}, each with a target node, a length and a
+ * travel time. About 28 bytes per node plus 12 bytes per edge, so the Cameroon road network
+ * fits in memory without object overhead.
+ *
+ * Built with {@link Builder} (by {@link OsmGraphLoader} or directly in tests), which keeps only
+ * the largest connected part of the network so every snapped point can reach every other,
+ * indexes nodes on a lat/lng grid for {@link #snap} and contracts the graph into the
+ * {@link ContractionHierarchy} that answers distance queries.
+ */
+public final class RoadGraph {
+
+    private static final double CELL_DEGREES = 0.002;
+
+    final int[] firstEdge;
+    final int[] edgeTarget;
+    final float[] edgeKm;
+    final float[] edgeMinutes;
+    private final double[] latitude;
+    private final double[] longitude;
+    private final double[] cosLatitude;
+    // Snap grid: nodes sorted by cell; cells[i] holds nodes cellNodes[cellStart[i] .. cellStart[i+1]-1]
+    private final long[] cells;
+    private final int[] cellStart;
+    private final int[] cellNodes;
+    final ContractionHierarchy hierarchy;
+
+    private RoadGraph(int[] firstEdge, int[] edgeTarget, float[] edgeKm, float[] edgeMinutes,
+                      double[] latitude, double[] longitude) {
+        this.firstEdge = firstEdge;
+        this.edgeTarget = edgeTarget;
+        this.edgeKm = edgeKm;
+        this.edgeMinutes = edgeMinutes;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        int n = latitude.length;
+        this.cosLatitude = new double[n];
+        for (int v = 0; v < n; v++) cosLatitude[v] = GeoDistance.cosLat(latitude[v]);
+
+        long[] keyed = new long[n];
+        for (int v = 0; v < n; v++) keyed[v] = cellOf(latitude[v], longitude[v]);
+        Integer[] order = new Integer[n];
+        for (int v = 0; v < n; v++) order[v] = v;
+        Arrays.sort(order, (a, b) -> Long.compare(keyed[a], keyed[b]));
+        cellNodes = new int[n];
+        long[] cellKeys = new long[n];
+        int[] starts = new int[n + 1];
+        int cellCount = 0;
+        for (int i = 0; i < n; i++) {
+            cellNodes[i] = order[i];
+            if (i == 0 || keyed[order[i]] != keyed[order[i - 1]]) {
+                cellKeys[cellCount] = keyed[order[i]];
+                starts[cellCount++] = i;
+            }
+        }
+        starts[cellCount] = n;
+        cells = Arrays.copyOf(cellKeys, cellCount);
+        cellStart = Arrays.copyOf(starts, cellCount + 1);
+        hierarchy = ContractionHierarchy.contract(firstEdge, edgeTarget, edgeKm, edgeMinutes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int nodeCount() {
+        return latitude.length;
+    }
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public double latitude(int node) {
+        return latitude[node];
+    }
+
+    public double longitude(int node) {
+        return longitude[node];
+    }
+
+    /** Closest node within maxKm of the point, or -1. Scans grid rings outwards from the point's cell. */
+    public int snap(double lat, double lng, double maxKm) {
+        double cosLat = GeoDistance.cosLat(lat);
+        double cellKm = GeoDistance.KM_PER_DEGREE * CELL_DEGREES * Math.max(cosLat, 0.1);
+        int rings = (int) Math.ceil(maxKm / cellKm);
+        long row = (long) Math.floor(lat / CELL_DEGREES);
+        long col = (long) Math.floor(lng / CELL_DEGREES);
+        int best = -1;
+        double bestKm = maxKm;
+        for (int ring = 0; ring <= rings; ring++) {
+            // every node beyond this ring is at least ring cells away
+            if (best >= 0 && bestKm <= (ring - 1) * cellKm) break;
+            for (long r = row - ring; r <= row + ring; r++) {
+                boolean edgeRow = r == row - ring || r == row + ring;
+                for (long c = col - ring; c <= col + ring; c += edgeRow ? 1 : 2L * ring) {
+                    int i = Arrays.binarySearch(cells, key(r, c));
+                    if (i >= 0) {
+                        for (int k = cellStart[i]; k < cellStart[i + 1]; k++) {
+                            int v = cellNodes[k];
+                            double d = GeoDistance.haversineKm(lat, lng, cosLat, latitude[v], longitude[v], cosLatitude[v]);
+                            if (d <= bestKm) {
+                                bestKm = d;
+                                best = v;
+                            }
+                        }
+                    }
+                    if (ring == 0) break;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static long cellOf(double lat, double lng) {
+        return key((long) Math.floor(lat / CELL_DEGREES), (long) Math.floor(lng / CELL_DEGREES));
+    }
+
+    private static long key(long row, long col) {
+        return (row << 32) ^ (col & 0xffffffffL);
+    }
+
+    /** Collects nodes and road segments, then compacts them into a {@link RoadGraph}. */
+    public static final class Builder {
+
+        private double[] lat = new double[1024];
+        private double[] lng = new double[1024];
+        private int nodes;
+        private int[] from = new int[1024];
+        private int[] to = new int[1024];
+        private float[] km = new float[1024];
+        private float[] minutes = new float[1024];
+        private int edges;
+
+        private Builder() {}
+
+        public int node(double latitude, double longitude) {
+            if (nodes == lat.length) {
+                lat = Arrays.copyOf(lat, nodes * 2);
+                lng = Arrays.copyOf(lng, nodes * 2);
+            }
+            lat[nodes] = latitude;
+            lng[nodes] = longitude;
+            return nodes++;
+        }
+
+        /** A road segment between two nodes driven at speedKmh, both ways unless oneway. */
+        public Builder road(int a, int b, double speedKmh, boolean oneway) {
+            if (a == b) return this;
+            double length = GeoDistance.haversineKm(lat[a], lng[a], lat[b], lng[b]);
+            double time = length / speedKmh * 60.0;
+            edge(a, b, length, time);
+            if (!oneway) edge(b, a, length, time);
+            return this;
+        }
+
+        private void edge(int a, int b, double length, double time) {
+            if (edges == from.length) {
+                from = Arrays.copyOf(from, edges * 2);
+                to = Arrays.copyOf(to, edges * 2);
+                km = Arrays.copyOf(km, edges * 2);
+                minutes = Arrays.copyOf(minutes, edges * 2);
+            }
+            from[edges] = a;
+            to[edges] = b;
+            km[edges] = (float) length;
+            minutes[edges] = (float) time;
+            edges++;
+        }
+
+        /** Keeps the nodes of the largest connected component that carry at least one edge. */
+        public RoadGraph build() {
+            int[] parent = new int[nodes];
+            for (int v = 0; v < nodes; v++) parent[v] = v;
+            for (int e = 0; e < edges; e++) union(parent, from[e], to[e]);
+            int[] componentSize = new int[nodes];
+            boolean[] used = new boolean[nodes];
+            for (int e = 0; e < edges; e++) {
+                used[from[e]] = true;
+                used[to[e]] = true;
+            }
+            int largest = -1;
+            for (int v = 0; v < nodes; v++) {
+                if (!used[v]) continue;
+                int root = find(parent, v);
+                if (++componentSize[root] > (largest < 0 ? 0 : componentSize[largest])) largest = root;
+            }
+
+            int[] remap = new int[nodes];
+            Arrays.fill(remap, -1);
+            int kept = 0;
+            for (int v = 0; v < nodes; v++) {
+                if (used[v] && find(parent, v) == largest) remap[v] = kept++;
+            }
+            double[] keptLat = new double[kept];
+            double[] keptLng = new double[kept];
+            for (int v = 0; v < nodes; v++) {
+                if (remap[v] < 0) continue;
+                keptLat[remap[v]] = lat[v];
+                keptLng[remap[v]] = lng[v];
+            }
+
+            int[] first = new int[kept + 1];
+            int keptEdges = 0;
+            for (int e = 0; e < edges; e++) {
+                if (remap[from[e]] < 0) continue;
+                first[remap[from[e]] + 1]++;
+                keptEdges++;
+            }
+            for (int v = 0; v < kept; v++) first[v + 1] += first[v];
+            int[] cursor = Arrays.copyOf(first, kept);
+            int[] target = new int[keptEdges];
+            float[] length = new float[keptEdges];
+            float[] time = new float[keptEdges];
+            for (int e = 0; e < edges; e++) {
+                int a = remap[from[e]];
+                if (a < 0) continue;
+                int slot = cursor[a]++;
+                target[slot] = remap[to[e]];
+                length[slot] = km[e];
+                time[slot] = minutes[e];
+            }
+            return new RoadGraph(first, target, length, time, keptLat, keptLng);
+        }
+
+        private static int find(int[] parent, int v) {
+            while (parent[v] != v) {
+                parent[v] = parent[parent[v]];
+                v = parent[v];
+            }
+            return v;
+        }
+
+        private static void union(int[] parent, int a, int b) {
+            int ra = find(parent, a);
+            int rb = find(parent, b);
+            if (ra != rb) parent[ra] = rb;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.smartcampost.backend.routing.road;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.GeoPoints;
+import com.smartcampost.backend.routing.TravelMatrix;
+import com.smartcampost.backend.routing.TravelModel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded road routing over an offline OSM extract ({@link OsmGraphLoader}), shared by route
+ * optimization, fleet planning, route ETA and the home-delivery surcharge.
+ *
+ * - Points are snapped to the closest road node within snap-radius-m; the straight-line hop
+ *   from the point to its node is added at access-speed-kmh.
+ * - Node-to-node results are cached (Caffeine, size-bounded) keyed by the snapped pair, so
+ *   repeat pairs from nearby points cost a hash lookup; the remaining pairs of a matrix are
+ *   answered by one many-to-many query on the graph's {@link ContractionHierarchy}.
+ * - Without a configured extract, or until it has loaded in the background, and for points
+ *   too far from any road, results are NaN / empty and callers keep their straight-line
+ *   estimate.
+ *
+ * Metrics: smartcampost.routing.road.{matrix,cache.hits,cache.misses,nodes}.
+ */
+@Component
+@Slf4j
+public class RoadRoutingEngine implements TravelModel {
+
+    public record RoadLeg(double km, double minutes) {}
+
+    @Value("${smartcampost.routing.road.osm-file:}")
+    private String osmFile = "";
+
+    @Value("${smartcampost.routing.road.snap-radius-m:1000}")
+    private double snapRadiusM = 1000;
+
+    @Value("${smartcampost.routing.road.access-speed-kmh:15}")
+    private double accessSpeedKmh = 15;
+
+    @Value("${smartcampost.routing.road.cache.max-entries:500000}")
+    private long cacheMaxEntries = 500000;
+
+    private final Timer matrixTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private volatile Loaded loaded;
+
+    // Graph with its node-pair cache and reusable search workspaces, swapped as one
+    private record Loaded(RoadGraph graph, Cache<Long, Long> cache, ConcurrentLinkedQueue<ContractionHierarchy.Query> queries) {}
+
+    public RoadRoutingEngine(MeterRegistry meterRegistry) {
+        this.matrixTimer = Timer.builder("smartcampost.routing.road.matrix")
+                .description("Time to compute a road distance/time matrix")
+                .register(meterRegistry);
+        this.cacheHits = Counter.builder("smartcampost.routing.road.cache.hits").register(meterRegistry);
+        this.cacheMisses = Counter.builder("smartcampost.routing.road.cache.misses").register(meterRegistry);
+        Gauge.builder("smartcampost.routing.road.nodes", this, e -> e.loaded == null ? 0 : e.loaded.graph().nodeCount())
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        if (osmFile == null || osmFile.isBlank()) {
+            log.info("[ROAD] No OSM extract configured, routing uses straight-line estimates");
+            return;
+        }
+        Path path = Path.of(osmFile);
+        if (!Files.isReadable(path)) {
+            log.warn("[ROAD] OSM extract {} not readable, routing uses straight-line estimates", path);
+            return;
+        }
+        Thread loader = new Thread(() -> {
+            long started = System.nanoTime();
+            try {
+                RoadGraph graph = OsmGraphLoader.load(path);
+                use(graph);
+                log.info("[ROAD] Loaded {}: {} nodes, {} edges in {}ms", path, graph.nodeCount(), graph.edgeCount(),
+                        (System.nanoTime() - started) / 1_000_000);
+            } catch (Exception | OutOfMemoryError e) {
+                log.error("[ROAD] Failed to load {}: {}", path, e.toString());
+            }
+        }, "road-graph-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /** Switches to the given graph, with an empty cache. */
+    public void use(RoadGraph graph) {
+        Cache<Long, Long> cache = Caffeine.newBuilder().maximumSize(cacheMaxEntries).build();
+        loaded = new Loaded(graph, cache, new ConcurrentLinkedQueue<>());
+    }
+
+    public boolean isLoaded() {
+        return loaded != null;
+    }
+
+    /** Road distance and time between two points, empty when either is off the road network. */
+    public Optional<RoadLeg> route(double fromLat, double fromLng, double toLat, double toLng) {
+        GeoPoints from = new GeoPoints(1);
+        from.add(fromLat, fromLng);
+        GeoPoints to = new GeoPoints(1);
+        to.add(toLat, toLng);
+        TravelMatrix m = matrix(from, to);
+        return m.known(0, 0) ? Optional.of(new RoadLeg(m.km()[0][0], m.minutes()[0][0])) : Optional.empty();
+    }
+
+    @Override
+    public TravelMatrix matrix(GeoPoints origins, GeoPoints destinations) {
+        int rows = origins.size();
+        int cols = destinations.size();
+        double[][] km = new double[rows][cols];
+        double[][] minutes = new double[rows][cols];
+        for (double[] row : km) Arrays.fill(row, Double.NaN);
+        for (double[] row : minutes) Arrays.fill(row, Double.NaN);
+        Loaded current = loaded;
+        if (current == null || rows == 0 || cols == 0) return new TravelMatrix(km, minutes);
+
+        long started = System.nanoTime();
+        RoadGraph graph = current.graph();
+        double snapKm = snapRadiusM / 1000.0;
+        int[] fromNode = new int[rows];
+        double[] fromAccess = new double[rows];
+        int[] toNode = new int[cols];
+        double[] toAccess = new double[cols];
+        snapAll(graph, origins, snapKm, fromNode, fromAccess);
+        snapAll(graph, destinations, snapKm, toNode, toAccess);
+
+        // Cached node pairs first; the rest in one many-to-many query over the rows and
+        // columns that still have gaps
+        boolean[][] pending = new boolean[rows][cols];
+        boolean[] pendingRow = new boolean[rows];
+        boolean[] pendingCol = new boolean[cols];
+        long hits = 0;
+        long misses = 0;
+        for (int i = 0; i < rows; i++) {
+            if (fromNode[i] < 0) continue;
+            for (int j = 0; j < cols; j++) {
+                if (toNode[j] < 0) continue;
+                Long packed = current.cache().getIfPresent(pairKey(fromNode[i], toNode[j]));
+                if (packed != null) {
+                    hits++;
+                    fill(km, minutes, i, j, packed, fromAccess[i] + toAccess[j]);
+                } else {
+                    misses++;
+                    pending[i][j] = pendingRow[i] = pendingCol[j] = true;
+                }
+            }
+        }
+        if (misses > 0) {
+            int[] sourceRows = indexesOf(pendingRow);
+            int[] targetCols = indexesOf(pendingCol);
+            int[] sources = new int[sourceRows.length];
+            int[] targets = new int[targetCols.length];
+            for (int s = 0; s < sources.length; s++) sources[s] = fromNode[sourceRows[s]];
+            for (int t = 0; t < targets.length; t++) targets[t] = toNode[targetCols[t]];
+            double[][] roadMinutes = new double[sources.length][targets.length];
+            double[][] roadKm = new double[sources.length][targets.length];
+            ContractionHierarchy.Query query = current.queries().poll();
+            if (query == null) query = graph.hierarchy.newQuery();
+            try {
+                graph.hierarchy.manyToMany(sources, targets, query, roadMinutes, roadKm);
+            } finally {
+                current.queries().offer(query);
+            }
+            for (int s = 0; s < sources.length; s++) {
+                int i = sourceRows[s];
+                for (int t = 0; t < targets.length; t++) {
+                    int j = targetCols[t];
+                    if (!pending[i][j]) continue;
+                    long packed = ((long) Float.floatToRawIntBits((float) roadKm[s][t]) << 32)
+                            | (Float.floatToRawIntBits((float) roadMinutes[s][t]) & 0xffffffffL);
+                    current.cache().put(pairKey(sources[s], targets[t]), packed);
+                    fill(km, minutes, i, j, packed, fromAccess[i] + toAccess[j]);
+                }
+            }
+        }
+        cacheHits.increment(hits);
+        cacheMisses.increment(misses);
+        matrixTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        return new TravelMatrix(km, minutes);
+    }
+
+    private static void snapAll(RoadGraph graph, GeoPoints points, double snapKm, int[] node, double[] accessKm) {
+        for (int i = 0; i < points.size(); i++) {
+            node[i] = graph.snap(points.latitude(i), points.longitude(i), snapKm);
+            if (node[i] >= 0) {
+                accessKm[i] = GeoDistance.haversineKm(points.latitude(i), points.longitude(i),
+                        graph.latitude(node[i]), graph.longitude(node[i]));
+            }
+        }
+    }
+
+    private void fill(double[][] km, double[][] minutes, int i, int j, long packed, double accessKm) {
+        float roadKm = Float.intBitsToFloat((int) (packed >>> 32));
+        float roadMinutes = Float.intBitsToFloat((int) packed);
+        if (Float.isNaN(roadKm)) return; // unreachable, e.g. a one-way dead end
+        km[i][j] = roadKm + accessKm;
+        minutes[i][j] = roadMinutes + accessKm / accessSpeedKmh * 60.0;
+    }
+
+    private static int[] indexesOf(boolean[] flags) {
+        int count = 0;
+        for (boolean flag : flags) if (flag) count++;
+        int[] indexes = new int[count];
+        count = 0;
+        for (int i = 0; i < flags.length; i++) if (flags[i]) indexes[count++] = i;
+        return indexes;
+    }
+
+    private static long pairKey(int from, int to) {
+        return ((long) from << 32) | (to & 0xffffffffL);
+    }
+}
@@ -0,0 +1,16 @@
+package com.smartcampost.backend.scheduling;
+
+import java.lang.annotation.*;
+
+/**
+ * Marks a @Scheduled method that must run on one replica at a time: database sweeps and
+ * jobs with external side effects. When smartcampost.scheduling.distributed-lock.enabled is
+ * set, {@link ScheduledJobMonitor} runs it only while holding its {@link JdbcSchedulerLock}
+ * lease. Jobs without it (heartbeats, flushes and pruning of node-local memory) run on
+ * every replica.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ClusterSingleton {
+}
@@ -0,0 +1,100 @@
+package com.smartcampost.backend.scheduling;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Opt-in cluster lock for @Scheduled sweeps marked {@link ClusterSingleton}, backed by the
+ * {@code scheduler_locks} table in the application database
+ * (see database/migrations/0006_scheduler_locks.sql).
+ *
+ * A replica runs a job only if it can move the job's lease forward: an UPDATE guarded by
+ * {@code locked_until <= now}, or the first INSERT for that job. On release the lease is kept
+ * until 80% of the job's interval has elapsed, so replicas with staggered fixed-delay clocks do
+ * not run the same sweep back to back. Disabled by default — every replica then runs every job.
+ */
+@Component
+@Slf4j
+public class JdbcSchedulerLock {
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS scheduler_locks (" +
+            "name VARCHAR(100) NOT NULL PRIMARY KEY, " +
+            "locked_until DATETIME(3) NOT NULL, " +
+            "locked_at DATETIME(3) NOT NULL, " +
+            "locked_by VARCHAR(255) NOT NULL)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Value("${smartcampost.scheduling.distributed-lock.enabled:false}")
+    private boolean enabled;
+
+    @Value("${smartcampost.scheduling.distributed-lock.max-lease-ms:600000}")
+    private long maxLeaseMs = 600000;
+
+    public JdbcSchedulerLock(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    void init() {
+        if (!enabled) return;
+        // Same DDL as the migration, so a fresh environment does not lose every job to a missing table.
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        log.info("[SCHEDULER] Distributed lock enabled (node={}, maxLeaseMs={})", nodeId, maxLeaseMs);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** @return true when this replica may run the job now */
+    public boolean tryAcquire(String job, Instant now) {
+        if (!enabled) return true;
+        Timestamp until = Timestamp.from(now.plusMillis(maxLeaseMs));
+        Timestamp at = Timestamp.from(now);
+        try {
+            int updated = jdbcTemplate.update(
+                    "UPDATE scheduler_locks SET locked_until = ?, locked_at = ?, locked_by = ? " +
+                    "WHERE name = ? AND locked_until <= ?",
+                    until, at, nodeId, job, at);
+            if (updated == 1) return true;
+            jdbcTemplate.update(
+                    "INSERT INTO scheduler_locks (name, locked_until, locked_at, locked_by) VALUES (?, ?, ?, ?)",
+                    job, until, at, nodeId);
+            return true;
+        } catch (DuplicateKeyException held) {
+            return false;
+        } catch (DataAccessException e) {
+            // Fail closed: skipping one tick is safer than every replica running the sweep.
+            log.warn("[SCHEDULER] Lock check failed for {}, skipping this run: {}", job, e.getMessage());
+            return false;
+        }
+    }
+
+    public void release(String job, Instant startedAt, Duration interval) {
+        if (!enabled) return;
+        Instant holdUntil = Instant.now();
+        if (interval != null) {
+            Instant minimum = startedAt.plusMillis(interval.toMillis() * 8 / 10);
+            if (minimum.isAfter(holdUntil)) holdUntil = minimum;
+        }
+        try {
+            jdbcTemplate.update("UPDATE scheduler_locks SET locked_until = ? WHERE name = ? AND locked_by = ?",
+                    Timestamp.from(holdUntil), job, nodeId);
+        } catch (DataAccessException e) {
+            log.warn("[SCHEDULER] Lock release failed for {} (lease expires on its own): {}", job, e.getMessage());
+        }
+    }
+}
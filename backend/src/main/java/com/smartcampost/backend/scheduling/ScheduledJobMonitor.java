@@ -0,0 +1,210 @@
+package com.smartcampost.backend.scheduling;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Wraps every @Scheduled job registered on the shared scheduler pool (see SchedulingConfig):
+ * - overlap protection: a run is skipped while the previous one of the same job is still going,
+ * - optional cluster lock through {@link JdbcSchedulerLock}, for jobs marked {@link ClusterSingleton}
+ *   only; the others touch node-local state and run on every replica,
+ * - per-job statistics (last/max duration, overruns past the job's interval, skipped runs),
+ *   served by GET /api/automation/scheduler/jobs and timed as smartcampost.scheduler.job.
+ */
+@Component
+@Slf4j
+public class ScheduledJobMonitor {
+
+    private final JdbcSchedulerLock schedulerLock;
+    private final MeterRegistry meterRegistry;
+    private final ConcurrentHashMap<String, JobState> jobs = new ConcurrentHashMap<>();
+
+    public ScheduledJobMonitor(JdbcSchedulerLock schedulerLock, MeterRegistry meterRegistry) {
+        this.schedulerLock = schedulerLock;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record JobStats(
+            String job,
+            Long intervalMs,
+            boolean clusterSingleton,
+            boolean running,
+            long runs,
+            long failures,
+            long overruns,
+            long skippedOverlapping,
+            long skippedLocked,
+            Instant lastStartedAt,
+            Long lastDurationMs,
+            long maxDurationMs,
+            String lastError
+    ) {}
+
+    /**
+     * @param interval fixed delay / rate of the job, or null for trigger-based jobs (no overrun tracking)
+     */
+    public Runnable wrap(Runnable task, Duration interval) {
+        if (task instanceof MonitoredJob) return task;
+        return wrap(task, interval, isClusterSingleton(task));
+    }
+
+    Runnable wrap(Runnable task, Duration interval, boolean clusterSingleton) {
+        String name = jobName(task);
+        JobState state = jobs.computeIfAbsent(name, n -> new JobState(n, interval, clusterSingleton,
+                Timer.builder("smartcampost.scheduler.job").tag("job", n).register(meterRegistry)));
+        if (clusterSingleton && schedulerLock.isEnabled()) {
+            log.info("[SCHEDULER] {} runs on one replica at a time", name);
+        }
+        return new MonitoredJob(task, state);
+    }
+
+    public List<JobStats> stats() {
+        List<JobStats> out = new ArrayList<>();
+        for (JobState s : jobs.values()) {
+            out.add(new JobStats(s.name, s.interval == null ? null : s.interval.toMillis(), s.clusterSingleton,
+                    s.running.get(),
+                    s.runs.get(), s.failures.get(), s.overruns.get(), s.skippedOverlapping.get(),
+                    s.skippedLocked.get(), s.lastStartedAt, s.lastDurationMs, s.maxDurationMs.get(), s.lastError));
+        }
+        out.sort(Comparator.comparing(JobStats::job));
+        return out;
+    }
+
+    /** "com.x.automation.EtaRecalculationScheduler.recalculate" → "EtaRecalculationScheduler.recalculate". */
+    static String jobName(Runnable task) {
+        String raw = task.toString();
+        int proxy = raw.indexOf("$$");
+        if (proxy >= 0) {
+            int methodDot = raw.lastIndexOf('.');
+            raw = raw.substring(0, proxy) + (methodDot > proxy ? raw.substring(methodDot) : "");
+        }
+        int methodDot = raw.lastIndexOf('.');
+        int classDot = methodDot > 0 ? raw.lastIndexOf('.', methodDot - 1) : -1;
+        return classDot >= 0 ? raw.substring(classDot + 1) : raw;
+    }
+
+    /**
+     * Whether the scheduled method carries {@link ClusterSingleton}. Spring hands the scheduler a
+     * wrapper whose toString is "declaring.Class.method", so that name is resolved when the
+     * runnable is not a {@link ScheduledMethodRunnable} itself.
+     */
+    static boolean isClusterSingleton(Runnable task) {
+        if (task instanceof ScheduledMethodRunnable scheduled) {
+            return AnnotatedElementUtils.hasAnnotation(scheduled.getMethod(), ClusterSingleton.class);
+        }
+        String raw = task.toString();
+        int methodDot = raw.lastIndexOf('.');
+        if (methodDot <= 0) return false;
+        String methodName = raw.substring(methodDot + 1);
+        try {
+            Class<?> type = ClassUtils.getUserClass(
+                    ClassUtils.forName(raw.substring(0, methodDot), ClassUtils.getDefaultClassLoader()));
+            for (Method method : ReflectionUtils.getUniqueDeclaredMethods(type)) {
+                if (method.getName().equals(methodName)
+                        && AnnotatedElementUtils.hasAnnotation(method, ClusterSingleton.class)) {
+                    return true;
+                }
+            }
+        } catch (ClassNotFoundException | LinkageError e) {
+            log.debug("[SCHEDULER] Cannot resolve job {}: {}", raw, e.getMessage());
+        }
+        return false;
+    }
+
+    private static final class JobState {
+        final String name;
+        final Duration interval;
+        final boolean clusterSingleton;
+        final Timer timer;
+        final AtomicBoolean running = new AtomicBoolean();
+        final AtomicLong runs = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong overruns = new AtomicLong();
+        final AtomicLong skippedOverlapping = new AtomicLong();
+        final AtomicLong skippedLocked = new AtomicLong();
+        final AtomicLong maxDurationMs = new AtomicLong();
+        volatile Instant lastStartedAt;
+        volatile Long lastDurationMs;
+        volatile String lastError;
+
+        JobState(String name, Duration interval, boolean clusterSingleton, Timer timer) {
+            this.name = name;
+            this.interval = interval;
+            this.clusterSingleton = clusterSingleton;
+            this.timer = timer;
+        }
+    }
+
+    private final class MonitoredJob implements Runnable {
+        private final Runnable delegate;
+        private final JobState state;
+
+        MonitoredJob(Runnable delegate, JobState state) {
+            this.delegate = delegate;
+            this.state = state;
+        }
+
+        @Override
+        public void run() {
+            if (!state.running.compareAndSet(false, true)) {
+                state.skippedOverlapping.incrementAndGet();
+                log.warn("[SCHEDULER] {} still running, skipping this tick", state.name);
+                return;
+            }
+            try {
+                Instant startedAt = Instant.now();
+                boolean leased = state.clusterSingleton;
+                if (leased && !schedulerLock.tryAcquire(state.name, startedAt)) {
+                    state.skippedLocked.incrementAndGet();
+                    log.debug("[SCHEDULER] {} holds no lease on this replica, skipping", state.name);
+                    return;
+                }
+                long started = System.nanoTime();
+                state.lastStartedAt = startedAt;
+                try {
+                    delegate.run();
+                    state.lastError = null;
+                } catch (RuntimeException | Error e) {
+                    state.failures.incrementAndGet();
+                    state.lastError = e.getClass().getSimpleName() + ": " + e.getMessage();
+                    throw e;
+                } finally {
+                    long elapsedNanos = System.nanoTime() - started;
+                    long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+                    state.runs.incrementAndGet();
+                    state.lastDurationMs = elapsedMs;
+                    state.maxDurationMs.accumulateAndGet(elapsedMs, Math::max);
+                    state.timer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+                    if (state.interval != null && elapsedMs > state.interval.toMillis()) {
+                        state.overruns.incrementAndGet();
+                        log.warn("[SCHEDULER] {} took {}ms, longer than its {}ms interval",
+                                state.name, elapsedMs, state.interval.toMillis());
+                    }
+                    if (leased) schedulerLock.release(state.name, startedAt, state.interval);
+                }
+            } finally {
+                state.running.set(false);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return delegate.toString();
+        }
+    }
+}
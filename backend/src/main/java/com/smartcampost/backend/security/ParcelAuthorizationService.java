@@ -4,11 +4,11 @@ import com.smartcampost.backend.exception.AuthException;
 import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
 import com.smartcampost.backend.model.Parcel;
-import com.smartcampost.backend.model.ScanEvent;
+import com.smartcampost.backend.model.ParcelLatestScan;
 import com.smartcampost.backend.model.UserAccount;
 import com.smartcampost.backend.model.enums.UserRole;
+import com.smartcampost.backend.repository.ParcelLatestScanRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
-import com.smartcampost.backend.repository.ScanEventRepository;
 import com.smartcampost.backend.repository.UserAccountRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.Authentication;
@@ -22,7 +22,7 @@ import java.util.UUID;
 public class ParcelAuthorizationService {
 
     private final ParcelRepository parcelRepository;
-    private final ScanEventRepository scanEventRepository;
+    private final ParcelLatestScanRepository parcelLatestScanRepository;
     private final UserAccountRepository userAccountRepository;
 
     public Parcel requireReadableParcel(UUID parcelId, Authentication authentication) {
@@ -63,8 +63,8 @@ public class ParcelAuthorizationService {
             String entityId = user.getEntityId() != null ? user.getEntityId().toString() : null;
             boolean validatedByUser = parcel.getValidatedBy() != null
                     && Objects.equals(parcel.getValidatedBy().getId(), user.getEntityId());
-            boolean scannedByUser = scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(parcel.getId())
-                    .map(ScanEvent::getActorId)
+            boolean scannedByUser = parcelLatestScanRepository.findById(parcel.getId())
+                    .map(ParcelLatestScan::getActorId)
                     .filter(actorId -> Objects.equals(actorId, subject) || Objects.equals(actorId, entityId))
                     .isPresent();
             return validatedByUser || scannedByUser;
@@ -3,6 +3,7 @@ package com.smartcampost.backend.service;
 import com.smartcampost.backend.dto.ai.*;
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionRequest;
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionResponse;
+import reactor.core.publisher.Flux;
 
 public interface AIService {
 
@@ -16,6 +17,11 @@ public interface AIService {
      */
     ChatResponse processChat(ChatRequest request);
 
+    /**
+     * Process chatbot message, streaming the answer as it is generated
+     */
+    Flux<ChatStreamEvent> streamChat(ChatRequest request);
+
     /**
      * Predict delivery time based on various factors
      */
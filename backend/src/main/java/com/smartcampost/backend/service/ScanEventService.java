@@ -2,10 +2,13 @@ package com.smartcampost.backend.service;
 
 import com.smartcampost.backend.dto.scan.ScanEventCreateRequest;
 import com.smartcampost.backend.dto.scan.ScanEventResponse;
+import com.smartcampost.backend.dto.scan.OfflineSyncCursorResponse;
 import com.smartcampost.backend.dto.scan.OfflineSyncRequest;
 import com.smartcampost.backend.dto.scan.OfflineSyncResponse;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 public interface ScanEventService {
@@ -19,6 +22,13 @@ public interface ScanEventService {
     // Offline sync: process batch of queued events
     OfflineSyncResponse syncOfflineEvents(OfflineSyncRequest request);
 
+    // Offline sync: how far a device's chunked upload of a batch has been committed
+    OfflineSyncCursorResponse getSyncCursor(String deviceId, String batchId);
+
     // Get last scan event for parcel (current location)
     ScanEventResponse getLastScanEvent(UUID parcelId);
+
+    // Last scan event of each parcel, in one query; parcels never scanned are absent.
+    // No per-parcel access check: callers pass parcels they already authorized.
+    Map<UUID, ScanEventResponse> getLastScanEvents(Collection<UUID> parcelIds);
 }
@@ -0,0 +1,220 @@
+package com.smartcampost.backend.service.ai;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.smartcampost.backend.model.enums.UserRole;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Shared cache of model answers for chat prompts that carry no personal data, with single-flight:
+ * concurrent identical prompts wait for the first one's model call instead of making their own.
+ *
+ * The key is (role, normalized message, hash of the rest of the prompt). AIServiceImpl only asks
+ * for a key when the message does not look personal ({@link #isPersonal}), and then leaves the
+ * user's own data (email, phone, parcels) out of the prompt, so an answer is only ever shared
+ * between users who sent the same prompt.
+ *
+ * Metrics: smartcampost.ai.cache.{hits,misses,coalesced}, hit ratio gauge, and
+ * smartcampost.ai.cache.saved, the model latency avoided by each hit (average miss latency).
+ */
+@Component
+@Slf4j
+public class ChatResponseCache {
+
+    private static final Pattern TRACKING_REF = Pattern.compile("\\b([A-Z]{2,4}[-_]?\\d{4,}|[A-Z0-9]{8,20})\\b");
+    private static final Pattern LONG_NUMBER = Pattern.compile("\\d{4,}");
+    // Matched against words split on anything but letters, so "I'm" gives "i" and "j'ai" gives "j"
+    private static final Set<String> FIRST_PERSON = Set.of(
+            // English
+            "i", "im", "ive", "me", "my", "mine", "myself", "we", "us", "our", "ours", "ourselves",
+            // French
+            "je", "j", "m", "moi", "mon", "ma", "mes", "mien", "mienne", "miens", "miennes",
+            "nous", "notre", "nos", "nôtre", "nôtres");
+
+    public record Key(String role, String message, String contextHash) {}
+
+    /** One caller's stake in a key: the leader computes and must {@link #finish}; others wait. */
+    public record Flight(Key key, boolean leader, boolean hit, CompletableFuture<String> result, long startedNanos) {}
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.ai.cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${smartcampost.ai.cache.ttl-minutes:60}")
+    private long ttlMinutes = 60;
+
+    @Value("${smartcampost.ai.cache.max-entries:5000}")
+    private long maxEntries = 5000;
+
+    @Value("${smartcampost.ai.cache.wait-timeout-ms:25000}")
+    private long waitTimeoutMs = 25000;
+
+    private AsyncCache<Key, String> cache;
+    private final AtomicLong avgMissNanos = new AtomicLong();
+    private Counter hits;
+    private Counter misses;
+    private Counter coalesced;
+    private Timer saved;
+
+    public ChatResponseCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        // A future completed with null (failed model call) is removed by Caffeine, so it is never served
+        cache = Caffeine.newBuilder()
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .maximumSize(maxEntries)
+                .buildAsync();
+        hits = Counter.builder("smartcampost.ai.cache.hits").register(meterRegistry);
+        misses = Counter.builder("smartcampost.ai.cache.misses").register(meterRegistry);
+        coalesced = Counter.builder("smartcampost.ai.cache.coalesced")
+                .description("Requests that waited for an identical in-flight model call")
+                .register(meterRegistry);
+        saved = Timer.builder("smartcampost.ai.cache.saved")
+                .description("Model latency avoided per cache hit or coalesced request")
+                .register(meterRegistry);
+        Gauge.builder("smartcampost.ai.cache.hit.ratio", this, ChatResponseCache::hitRatio).register(meterRegistry);
+        Gauge.builder("smartcampost.ai.cache.size", cache, c -> c.synchronous().estimatedSize()).register(meterRegistry);
+        log.info("[AI-CACHE] enabled={} ttl={}min maxEntries={}", enabled, ttlMinutes, maxEntries);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** True when the message refers to the user's own data: first person, tracking refs, numbers, emails. */
+    public static boolean isPersonal(String message) {
+        if (message == null) return false;
+        if (message.indexOf('@') >= 0 || LONG_NUMBER.matcher(message).find() || TRACKING_REF.matcher(message).find()) {
+            return true;
+        }
+        for (String word : message.toLowerCase(Locale.ROOT).split("[^\\p{L}]+")) {
+            if (FIRST_PERSON.contains(word)) return true;
+        }
+        return false;
+    }
+
+    /** Lower-case, punctuation-free, single-spaced: "Prices??" and "  prices " share a key. */
+    static String normalize(String message) {
+        return message.toLowerCase(Locale.ROOT)
+                .replaceAll("[^\\p{L}\\p{N}]+", " ")
+                .trim();
+    }
+
+    public Key keyFor(UserRole role, String message, String promptContext) {
+        return new Key(role != null ? role.name() : "ANONYMOUS", normalize(message), sha256(promptContext));
+    }
+
+    /**
+     * Joins the flight for a key: a hit (result already done), a follower of an in-flight call,
+     * or the leader, who must call {@link #finish} exactly once.
+     */
+    public Flight begin(Key key) {
+        CompletableFuture<String> mine = new CompletableFuture<>();
+        CompletableFuture<String> existing = cache.asMap().putIfAbsent(key, mine);
+        if (existing == null) {
+            misses.increment();
+            return new Flight(key, true, false, mine, System.nanoTime());
+        }
+        boolean hit = existing.isDone() && !existing.isCompletedExceptionally() && existing.getNow(null) != null;
+        if (hit) {
+            hits.increment();
+        } else {
+            coalesced.increment();
+        }
+        long avg = avgMissNanos.get();
+        if (avg > 0) saved.record(avg, TimeUnit.NANOSECONDS);
+        return new Flight(key, false, hit, existing, System.nanoTime());
+    }
+
+    /** Publishes the leader's answer; null (model failed or gave nothing) caches nothing. */
+    public void finish(Flight flight, String answer) {
+        if (!flight.leader()) return;
+        if (answer != null && !answer.isBlank()) {
+            long took = System.nanoTime() - flight.startedNanos();
+            avgMissNanos.updateAndGet(avg -> avg == 0 ? took : (avg * 7 + took) / 8);
+            flight.result().complete(answer);
+        } else {
+            flight.result().complete(null);
+        }
+    }
+
+    /** Blocking single-flight lookup for the non-streaming path; null when no answer could be produced. */
+    public String get(Key key, Supplier<String> loader) {
+        Flight flight = begin(key);
+        if (!flight.leader()) return await(flight);
+        String answer = null;
+        try {
+            answer = loader.get();
+            return answer;
+        } finally {
+            finish(flight, answer);
+        }
+    }
+
+    public String await(Flight flight) {
+        try {
+            return flight.result().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            log.debug("[AI-CACHE] Gave up waiting for in-flight answer: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    public long waitTimeoutMs() {
+        return waitTimeoutMs;
+    }
+
+    private double hitRatio() {
+        double served = hits.count() + coalesced.count();
+        double total = served + misses.count();
+        return total == 0 ? 0 : served / total;
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("size", cache.synchronous().estimatedSize());
+        stats.put("hits", (long) hits.count());
+        stats.put("coalesced", (long) coalesced.count());
+        stats.put("misses", (long) misses.count());
+        stats.put("hitRatio", hitRatio());
+        stats.put("avgModelLatencyMs", TimeUnit.NANOSECONDS.toMillis(avgMissNanos.get()));
+        stats.put("savedTotalMs", (long) saved.totalTime(TimeUnit.MILLISECONDS));
+        return stats;
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((value != null ? value : "").getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
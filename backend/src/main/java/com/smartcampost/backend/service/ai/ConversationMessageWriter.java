@@ -0,0 +1,56 @@
+package com.smartcampost.backend.service.ai;
+
+import com.smartcampost.backend.config.AsyncConfig;
+import com.smartcampost.backend.model.ConversationMessage;
+import com.smartcampost.backend.model.enums.ConversationRole;
+import com.smartcampost.backend.repository.ConversationMessageRepository;
+import com.smartcampost.backend.repository.ConversationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Appends chat messages to a conversation in their own short transaction, so the chat flow never
+ * keeps a connection open across the model call. The timestamp is taken by the caller: a message
+ * written later on the conversation executor still sorts where the turn happened.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationMessageWriter {
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMessageRepository conversationMessageRepository;
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void append(UUID conversationId, ConversationRole role, String content, Integer processingTimeMs, Instant at) {
+        try {
+            conversationMessageRepository.save(ConversationMessage.builder()
+                    .id(UUID.randomUUID())
+                    .conversation(conversationRepository.getReferenceById(conversationId))
+                    .role(role)
+                    .content(content)
+                    .timestamp(at)
+                    .processingTimeMs(processingTimeMs)
+                    .build());
+        } catch (Exception e) {
+            log.warn("Failed to persist conversation message: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Same as {@link #append}, on the conversation executor; used once a streamed answer is
+     * complete. That pool never discards, so the summarizer's turn counts stay right.
+     */
+    @Async(AsyncConfig.CONVERSATION_EXECUTOR)
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void appendAsync(UUID conversationId, ConversationRole role, String content, Integer processingTimeMs, Instant at) {
+        append(conversationId, role, content, processingTimeMs, at);
+    }
+}
@@ -0,0 +1,173 @@
+package com.smartcampost.backend.service.ai;
+
+import com.smartcampost.backend.config.AsyncConfig;
+import com.smartcampost.backend.model.Conversation;
+import com.smartcampost.backend.model.ConversationMessage;
+import com.smartcampost.backend.model.enums.ConversationRole;
+import com.smartcampost.backend.repository.ConversationMessageRepository;
+import com.smartcampost.backend.repository.ConversationRepository;
+import com.smartcampost.backend.service.impl.client.OpenAIClient;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a rolling summary of each chat conversation so the model prompt is the summary plus the
+ * messages after it (at least the last {@code history-messages}), whatever the length of the
+ * conversation.
+ *
+ * Once {@code summary-every-turns} turns have left the prompt window they are folded into the
+ * stored summary with one model call. Both database steps are short transactions around that
+ * call; a fold that finds the summary moved on meanwhile (another replica) is discarded.
+ * Without an OpenAI key there is no model prompt to bound, so nothing is summarized.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConversationSummarizer {
+
+    private static final int MAX_CHARS_PER_MESSAGE = 1000;
+
+    private final ConversationRepository conversationRepository;
+    private final ConversationMessageRepository conversationMessageRepository;
+    private final OpenAIClient openAIClient;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${OPENAI_API_KEY:}")
+    private String openAiApiKey;
+
+    @Value("${smartcampost.ai.chat.history-messages:10}")
+    private int historyMessages = 10;
+
+    @Value("${smartcampost.ai.chat.summary-every-turns:5}")
+    private int summaryEveryTurns = 5;
+
+    @Value("${smartcampost.ai.chat.summary-max-tokens:300}")
+    private int summaryMaxTokens = 300;
+
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    /** Messages folded into the summary by one pass, read before the model call. */
+    private record Fold(String previousSummary, Instant previousUntil, int previousCount,
+                        List<ConversationMessage> messages) {}
+
+    /** Number of recent messages sent verbatim with each prompt. */
+    public int historyMessages() {
+        return Math.max(0, historyMessages);
+    }
+
+    /**
+     * Most messages a conversation can have after its summary: the window plus the turns that
+     * wait outside it until the next fold. The prompt sends all of them, so none is skipped.
+     */
+    public int unsummarizedMessages() {
+        return summaryEveryTurns <= 0 ? historyMessages() : historyMessages() + 2 * summaryEveryTurns;
+    }
+
+    /** Same as {@link #maybeSummarize}, on the AI executor; called after each model turn. */
+    @Async(AsyncConfig.AI_EXECUTOR)
+    public void maybeSummarizeAsync(UUID conversationId) {
+        maybeSummarize(conversationId);
+    }
+
+    /**
+     * Folds the messages outside the prompt window into the summary once there are at least
+     * {@code summary-every-turns} turns of them. Returns the number of messages folded.
+     */
+    public int maybeSummarize(UUID conversationId) {
+        if (openAiApiKey == null || openAiApiKey.isBlank() || summaryEveryTurns <= 0) return 0;
+        if (!inFlight.add(conversationId)) return 0;
+        try {
+            Fold fold = readFold(conversationId);
+            if (fold == null) return 0;
+
+            String summary = summarize(fold);
+            if (summary == null || summary.isBlank()) return 0;
+
+            ConversationMessage last = fold.messages().get(fold.messages().size() - 1);
+            int folded = fold.messages().size();
+            Boolean saved = newTransaction().execute(status -> {
+                Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+                if (conversation == null || !Objects.equals(conversation.getSummarizedUntil(), fold.previousUntil())) {
+                    return false;
+                }
+                conversation.setSummary(summary.trim());
+                conversation.setSummarizedUntil(last.getTimestamp());
+                conversation.setSummarizedMessages(fold.previousCount() + folded);
+                conversationRepository.save(conversation);
+                return true;
+            });
+            if (!Boolean.TRUE.equals(saved)) return 0;
+            log.debug("Folded {} messages into the summary of conversation {}", folded, conversationId);
+            return folded;
+        } catch (Exception e) {
+            log.warn("Conversation summary failed for {}: {}", conversationId, e.getMessage());
+            return 0;
+        } finally {
+            inFlight.remove(conversationId);
+        }
+    }
+
+    private Fold readFold(UUID conversationId) {
+        TransactionTemplate readOnly = newTransaction();
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> {
+            Conversation conversation = conversationRepository.findById(conversationId).orElse(null);
+            if (conversation == null) return null;
+            Instant since = conversation.getSummarizedUntil() != null ? conversation.getSummarizedUntil() : Instant.EPOCH;
+            long outsideWindow = conversationMessageRepository.countByConversationIdAndTimestampAfter(conversationId, since)
+                    - historyMessages();
+            // a turn is a user message and its answer
+            if (outsideWindow < 2L * summaryEveryTurns) return null;
+            List<ConversationMessage> messages = conversationMessageRepository
+                    .findByConversationIdAndTimestampAfterOrderByTimestampAsc(
+                            conversationId, since, PageRequest.of(0, (int) outsideWindow));
+            if (messages.isEmpty()) return null;
+            int previousCount = conversation.getSummarizedMessages() != null ? conversation.getSummarizedMessages() : 0;
+            return new Fold(conversation.getSummary(), conversation.getSummarizedUntil(), previousCount, messages);
+        });
+    }
+
+    private String summarize(Fold fold) {
+        StringBuilder transcript = new StringBuilder();
+        if (fold.previousSummary() != null && !fold.previousSummary().isBlank()) {
+            transcript.append("Summary so far:\n").append(fold.previousSummary()).append("\n\n");
+        }
+        transcript.append("New messages:\n");
+        for (ConversationMessage m : fold.messages()) {
+            String content = m.getContent() == null ? "" : m.getContent();
+            if (content.length() > MAX_CHARS_PER_MESSAGE) content = content.substring(0, MAX_CHARS_PER_MESSAGE) + "...";
+            transcript.append(m.getRole() == ConversationRole.USER ? "User: " : "Assistant: ")
+                    .append(content).append('\n');
+        }
+
+        List<Map<String, String>> messages = List.of(
+                Map.of("role", "system", "content",
+                        "You maintain the memory of a SmartCAMPOST support conversation. Merge the summary so far "
+                        + "and the new messages into one updated summary of at most 150 words. Keep tracking "
+                        + "numbers, names, amounts, decisions and open questions; drop greetings and small talk. "
+                        + "Reply with the summary only."),
+                Map.of("role", "user", "content", transcript.toString()));
+        return openAIClient.createChatCompletion(chatModel(), messages, summaryMaxTokens, 0.0).block();
+    }
+
+    private TransactionTemplate newTransaction() {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+    private String chatModel() {
+        return System.getenv().getOrDefault("SMARTCAMPOST_AI_MODEL", "gpt-4o-mini");
+    }
+}
@@ -2,22 +2,84 @@ package com.smartcampost.backend.service.ai.agents;
 
 import com.smartcampost.backend.dto.ai.RouteOptimizationRequest;
 import com.smartcampost.backend.dto.ai.RouteOptimizationResponse;
-import com.smartcampost.backend.service.ai.util.GeoMath;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.PickupRequest;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.PickupRequestRepository;
+import com.smartcampost.backend.routing.VrpProblem;
+import com.smartcampost.backend.routing.VrpSolution;
+import com.smartcampost.backend.routing.VrpSolver;
+import com.smartcampost.backend.routing.road.RoadRoutingEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
+import java.util.*;
+
+/**
+ * Plans one courier's tour over the submitted pickup and delivery stops with {@link VrpSolver}:
+ * 2-opt / Or-opt local search within a time budget, honouring stop time windows, vehicle
+ * capacity and pickup-before-delivery for stops sharing a parcelId.
+ *
+ * Stops carrying a parcelId get their missing weight from the parcel and, for pickups, their
+ * missing time window from the pickup request. Legs are driven on the road network
+ * ({@link RoadRoutingEngine}) when an OSM extract is loaded, otherwise estimated from the
+ * straight-line distance times a detour factor at a configured average speed.
+ */
 @Service
 @Slf4j
 public class RouteOptimizationAgent {
 
+    private static final DateTimeFormatter HH_MM = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final ParcelRepository parcelRepository;
+    private final PickupRequestRepository pickupRequestRepository;
+    private final RoadRoutingEngine roadRoutingEngine;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.routing.vrp.time-budget-ms:250}")
+    private long timeBudgetMs = 250;
+
+    @Value("${smartcampost.routing.vrp.average-speed-kmh:25}")
+    private double averageSpeedKmh = 25;
+
+    @Value("${smartcampost.routing.vrp.detour-factor:1.3}")
+    private double detourFactor = 1.3;
+
+    @Value("${smartcampost.routing.vrp.service-minutes:5}")
+    private double serviceMinutes = 5;
+
+    @Value("${smartcampost.routing.vrp.default-capacity-kg:0}")
+    private double defaultCapacityKg = 0;
+
+    private Timer solveTimer;
+
+    public RouteOptimizationAgent(ParcelRepository parcelRepository,
+                                  PickupRequestRepository pickupRequestRepository,
+                                  RoadRoutingEngine roadRoutingEngine,
+                                  MeterRegistry meterRegistry) {
+        this.parcelRepository = parcelRepository;
+        this.pickupRequestRepository = pickupRequestRepository;
+        this.roadRoutingEngine = roadRoutingEngine;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        solveTimer = Timer.builder("smartcampost.routing.vrp.solve")
+                .description("Time to plan a courier tour")
+                .register(meterRegistry);
+    }
+
     public RouteOptimizationResponse optimize(RouteOptimizationRequest request) {
         List<RouteOptimizationRequest.Stop> stops = request.getStops();
+        String strategy = request.getOptimizationStrategy() != null ? request.getOptimizationStrategy() : "SHORTEST";
         if (stops == null || stops.isEmpty()) {
             return RouteOptimizationResponse.builder()
                     .optimizedRoute(Collections.emptyList())
@@ -25,94 +87,139 @@ public class RouteOptimizationAgent {
                     .estimatedDurationMinutes(0L)
                     .fuelSavingsPercent(0.0)
                     .optimizationStrategy(request.getOptimizationStrategy())
+                    .feasible(true)
                     .build();
         }
 
         log.info("Optimizing route for {} stops", stops.size());
 
-        double currentLat = request.getCourierLat() != null ? request.getCourierLat() :
-                stops.stream().findFirst().map(RouteOptimizationRequest.Stop::getLatitude)
-                        .orElseThrow(() -> new IllegalStateException("stops cannot be empty"));
-        double currentLng = request.getCourierLng() != null ? request.getCourierLng() :
-                stops.stream().findFirst().map(RouteOptimizationRequest.Stop::getLongitude)
-                        .orElseThrow(() -> new IllegalStateException("stops cannot be empty"));
-
-        List<RouteOptimizationResponse.OptimizedStop> optimizedRoute = new ArrayList<>();
-        List<RouteOptimizationRequest.Stop> remaining = new ArrayList<>(stops);
-        double totalDistance = 0;
-        long totalMinutes = 0;
-        LocalDateTime currentTime = LocalDateTime.now();
-
-        int order = 1;
-        while (!remaining.isEmpty()) {
-            int nearestIndex = 0;
-            double nearestScore = Double.MAX_VALUE;
-            for (int i = 0; i < remaining.size(); i++) {
-                RouteOptimizationRequest.Stop stop = remaining.get(i);
-                double distance = GeoMath.haversineKm(currentLat, currentLng, stop.getLatitude(), stop.getLongitude());
-                double score = distance;
-                if ("BALANCED".equals(request.getOptimizationStrategy()) && stop.getPriority() != null) {
-                    score = distance / (1 + stop.getPriority() * 0.2);
-                }
-                if (score < nearestScore) {
-                    nearestScore = score;
-                    nearestIndex = i;
+        RouteOptimizationRequest.Stop first = stops.get(0);
+        double startLat = request.getCourierLat() != null ? request.getCourierLat() : first.getLatitude();
+        double startLng = request.getCourierLng() != null ? request.getCourierLng() : first.getLongitude();
+        LocalDateTime now = LocalDateTime.now();
+        int startMinute = now.getHour() * 60 + now.getMinute();
+
+        VrpProblem.Builder builder = VrpProblem.builder(startLat, startLng)
+                .startMinute(startMinute)
+                .averageSpeedKmh(averageSpeedKmh)
+                .detourFactor(detourFactor)
+                .serviceMinutes(serviceMinutes)
+                .capacityKg(request.getVehicleCapacityKg() != null ? request.getVehicleCapacityKg() : defaultCapacityKg)
+                .objective(objective(strategy))
+                .travelModel(roadRoutingEngine);
+
+        // Pickups go in first so a delivery can reference its pickup's index
+        Map<UUID, Parcel> parcels = loadParcels(stops);
+        Map<UUID, PickupRequest> pickups = loadPickups(parcels.keySet());
+        Map<UUID, Integer> pickupIndexByParcel = new HashMap<>();
+        int[] requestIndexOf = new int[stops.size()];
+        int[] problemIndexOf = new int[stops.size()];
+        for (boolean pickupPass : new boolean[]{true, false}) {
+            for (int i = 0; i < stops.size(); i++) {
+                RouteOptimizationRequest.Stop stop = stops.get(i);
+                if (isPickup(stop) != pickupPass) continue;
+                UUID parcelId = parseUuid(stop.getParcelId());
+                double weight = weightKg(stop, parcels.get(parcelId));
+                String window = stop.getTimeWindow();
+                if (window == null && pickupPass && pickups.containsKey(parcelId)) {
+                    window = pickups.get(parcelId).getTimeWindow();
                 }
+                int[] minutes = VrpProblem.parseWindow(window);
+                Integer pickupOf = !pickupPass && parcelId != null ? pickupIndexByParcel.get(parcelId) : null;
+                int index = builder.stop(stop.getLatitude(), stop.getLongitude(), minutes[0], minutes[1],
+                        pickupPass ? weight : -weight, pickupOf != null ? pickupOf : -1,
+                        stop.getPriority() != null ? stop.getPriority() : 1);
+                if (pickupPass && parcelId != null) pickupIndexByParcel.putIfAbsent(parcelId, index);
+                requestIndexOf[index] = i;
+                problemIndexOf[i] = index;
             }
-
-            RouteOptimizationRequest.Stop nearest = remaining.remove(nearestIndex);
-            double distance = GeoMath.haversineKm(currentLat, currentLng, nearest.getLatitude(), nearest.getLongitude());
-            long etaMinutes = (long) ((distance / 30.0) * 60);
-
-            currentTime = currentTime.plusMinutes(etaMinutes);
-            totalDistance += distance;
-            totalMinutes += etaMinutes;
-
+        }
+        VrpProblem problem = builder.build();
+
+        VrpSolution solution = solveTimer.record(() -> VrpSolver.solve(problem, Duration.ofMillis(timeBudgetMs)));
+        log.debug("Route planned: {} stops, {} km, {} improving moves{}", problem.size(),
+                Math.round(solution.distanceKm() * 100.0) / 100.0, solution.improvingMoves(),
+                solution.timedOut() ? " (time budget reached)" : "");
+
+        List<RouteOptimizationResponse.OptimizedStop> optimizedRoute = new ArrayList<>(stops.size());
+        LocalDateTime midnight = now.toLocalDate().atStartOfDay();
+        for (int k = 0; k < solution.order().length; k++) {
+            RouteOptimizationRequest.Stop stop = stops.get(requestIndexOf[solution.order()[k]]);
+            long late = Math.round(solution.lateMinutes()[k]);
             optimizedRoute.add(RouteOptimizationResponse.OptimizedStop.builder()
-                    .id(nearest.getId())
-                    .order(order++)
-                    .type(nearest.getType())
-                    .latitude(nearest.getLatitude())
-                    .longitude(nearest.getLongitude())
-                    .address(nearest.getAddress())
-                    .distanceFromPrevious(Math.round(distance * 100.0) / 100.0)
-                    .etaMinutes(etaMinutes)
-                    .arrivalTime(currentTime.format(DateTimeFormatter.ofPattern("HH:mm")))
+                    .id(stop.getId())
+                    .order(k + 1)
+                    .type(stop.getType())
+                    .latitude(stop.getLatitude())
+                    .longitude(stop.getLongitude())
+                    .address(stop.getAddress())
+                    .distanceFromPrevious(Math.round(solution.legKm()[k] * 100.0) / 100.0)
+                    .etaMinutes(Math.round(solution.legMinutes()[k]))
+                    .arrivalTime(midnight.plusSeconds(Math.round(solution.arrivalMinute()[k] * 60)).format(HH_MM))
+                    .lateMinutes(late > 0 ? late : null)
                     .build());
-
-            currentLat = nearest.getLatitude();
-            currentLng = nearest.getLongitude();
         }
 
-        double originalDistance = calculateOriginalRouteDistance(request.getCourierLat(), request.getCourierLng(), stops);
-        double savings = originalDistance > 0 ? ((originalDistance - totalDistance) / originalDistance) * 100 : 0;
+        double submittedDistance = VrpSolver.evaluate(problem, problemIndexOf).distanceKm();
+        double savings = submittedDistance > 0 ? ((submittedDistance - solution.distanceKm()) / submittedDistance) * 100 : 0;
 
         return RouteOptimizationResponse.builder()
                 .optimizedRoute(optimizedRoute)
-                .totalDistanceKm(Math.round(totalDistance * 100.0) / 100.0)
-                .estimatedDurationMinutes(totalMinutes)
+                .totalDistanceKm(Math.round(solution.distanceKm() * 100.0) / 100.0)
+                .estimatedDurationMinutes(Math.round(solution.completionMinute() - startMinute))
                 .fuelSavingsPercent(Math.max(0, Math.round(savings * 10.0) / 10.0))
-                .optimizationStrategy(request.getOptimizationStrategy() != null ? request.getOptimizationStrategy() : "SHORTEST")
+                .optimizationStrategy(strategy)
+                .feasible(solution.feasible())
                 .build();
     }
 
-    private double calculateOriginalRouteDistance(Double startLat, Double startLng, List<RouteOptimizationRequest.Stop> stops) {
-        if (stops == null || stops.isEmpty()) return 0;
+    private Map<UUID, Parcel> loadParcels(List<RouteOptimizationRequest.Stop> stops) {
+        Set<UUID> ids = new HashSet<>();
+        for (RouteOptimizationRequest.Stop stop : stops) {
+            UUID id = parseUuid(stop.getParcelId());
+            if (id != null) ids.add(id);
+        }
+        Map<UUID, Parcel> parcels = new HashMap<>();
+        if (ids.isEmpty()) return parcels;
+        for (Parcel parcel : parcelRepository.findAllById(ids)) parcels.put(parcel.getId(), parcel);
+        // Keep parcelIds that did not resolve so stops can still be paired by them
+        for (UUID id : ids) parcels.putIfAbsent(id, null);
+        return parcels;
+    }
 
-        double total = 0;
-        double currentLat = startLat != null ? startLat :
-                stops.stream().findFirst().map(RouteOptimizationRequest.Stop::getLatitude)
-                        .orElseThrow(() -> new IllegalStateException("stops cannot be empty"));
-        double currentLng = startLng != null ? startLng :
-                stops.stream().findFirst().map(RouteOptimizationRequest.Stop::getLongitude)
-                        .orElseThrow(() -> new IllegalStateException("stops cannot be empty"));
+    private Map<UUID, PickupRequest> loadPickups(Set<UUID> parcelIds) {
+        Map<UUID, PickupRequest> pickups = new HashMap<>();
+        if (parcelIds.isEmpty()) return pickups;
+        for (PickupRequest pickup : pickupRequestRepository.findByParcel_IdIn(parcelIds)) {
+            if (pickup.getParcel() != null) pickups.put(pickup.getParcel().getId(), pickup);
+        }
+        return pickups;
+    }
 
-        for (RouteOptimizationRequest.Stop stop : stops) {
-            total += GeoMath.haversineKm(currentLat, currentLng, stop.getLatitude(), stop.getLongitude());
-            currentLat = stop.getLatitude();
-            currentLng = stop.getLongitude();
+    private static boolean isPickup(RouteOptimizationRequest.Stop stop) {
+        return "PICKUP".equalsIgnoreCase(stop.getType());
+    }
+
+    private static double weightKg(RouteOptimizationRequest.Stop stop, Parcel parcel) {
+        if (stop.getWeightKg() != null) return Math.max(stop.getWeightKg(), 0);
+        if (parcel != null && parcel.getWeight() != null) return Math.max(parcel.getWeight(), 0);
+        return 0;
+    }
+
+    private static VrpProblem.Objective objective(String strategy) {
+        try {
+            return VrpProblem.Objective.valueOf(strategy.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return VrpProblem.Objective.SHORTEST;
         }
+    }
 
-        return total;
+    private static UUID parseUuid(String value) {
+        if (value == null || value.isBlank()) return null;
+        try {
+            return UUID.fromString(value.trim());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
     }
 }
@@ -2,7 +2,7 @@ package com.smartcampost.backend.service.ai.agents;
 
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionRequest;
 import com.smartcampost.backend.dto.analytics.DeliveryPredictionResponse;
-import com.smartcampost.backend.service.ai.util.GeoMath;
+import com.smartcampost.backend.geo.GeoDistance;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -31,10 +31,11 @@ public class TrackingPredictionAgent {
         );
         if (cached != null) return cached;
 
-        double distance = GeoMath.haversineKm(
-                request.getOriginLat(), request.getOriginLng(),
-                request.getDestinationLat(), request.getDestinationLng()
-        );
+        double distance = request.getOriginLat() != null && request.getOriginLng() != null
+                && request.getDestinationLat() != null && request.getDestinationLng() != null
+                ? GeoDistance.haversineKm(request.getOriginLat(), request.getOriginLng(),
+                        request.getDestinationLat(), request.getDestinationLng())
+                : 0;
 
         // Base hours = distance / 50 km/h average for logistics
         double baseHours = distance / 50;
@@ -1,21 +0,0 @@
-package com.smartcampost.backend.service.ai.util;
-
-public final class GeoMath {
-    private GeoMath() {}
-
-    // Haversine distance calculation - using Double wrapper to allow null checks
-    public static double haversineKm(Double lat1, Double lng1, Double lat2, Double lng2) {
-        if (lat1 == null || lng1 == null || lat2 == null || lng2 == null) {
-            return 0;
-        }
-
-        final double R = 6371; // Earth's radius in km
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLng = Math.toRadians(lng2 - lng1);
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2) +
-                Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) *
-                        Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return R * c;
-    }
-}
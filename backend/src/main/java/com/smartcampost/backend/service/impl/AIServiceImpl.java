@@ -12,14 +12,24 @@ import com.smartcampost.backend.model.enums.UserRole;
 import com.smartcampost.backend.repository.ConversationMessageRepository;
 import com.smartcampost.backend.repository.ConversationRepository;
 import com.smartcampost.backend.service.AIService;
+import com.smartcampost.backend.service.ai.ChatResponseCache;
+import com.smartcampost.backend.service.ai.ConversationMessageWriter;
+import com.smartcampost.backend.service.ai.ConversationSummarizer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -31,6 +41,10 @@ public class AIServiceImpl implements AIService {
     private final com.smartcampost.backend.repository.ParcelRepository parcelRepository;
     private final ConversationRepository conversationRepository;
     private final ConversationMessageRepository conversationMessageRepository;
+    private final ConversationMessageWriter conversationMessageWriter;
+    private final ChatResponseCache chatResponseCache;
+    private final ConversationSummarizer conversationSummarizer;
+    private final PlatformTransactionManager transactionManager;
 
     private final com.smartcampost.backend.service.ai.agents.RouteOptimizationAgent routeOptimizationAgent;
     private final com.smartcampost.backend.service.ai.agents.TrackingPredictionAgent trackingPredictionAgent;
@@ -39,8 +53,6 @@ public class AIServiceImpl implements AIService {
     @Value("${OPENAI_API_KEY:}")
     private String openAiApiKey;
 
-    private static final int MAX_HISTORY_MESSAGES = 10;
-
     private static final Map<String, KnowledgeEntry> KNOWLEDGE_BASE = new HashMap<>();
 
     static {
@@ -90,110 +102,230 @@ public class AIServiceImpl implements AIService {
         return routeOptimizationAgent.optimize(request);
     }
 
+    /**
+     * Non-streaming chat. The database is only used in short transactions before and after the
+     * model call, never across it.
+     */
     @Override
-    @Transactional
     public ChatResponse processChat(ChatRequest request) {
         log.info("Processing chat: {}", request.getMessage());
         long startMs = System.currentTimeMillis();
+        ChatTurn turn = prepareTurn(request);
 
-        String sessionId = request.getSessionId() != null ? request.getSessionId() : UUID.randomUUID().toString();
+        String aiText = null;
+        if (turn.modelMessages() != null) {
+            aiText = turn.cacheKey() != null
+                    ? chatResponseCache.get(turn.cacheKey(), () -> callModel(turn))
+                    : callModel(turn);
+        }
+        ChatResponse response = aiText == null || aiText.isBlank()
+                ? fallbackResponse(request, turn)
+                : modelResponse(aiText.trim(), request, turn);
+        conversationMessageWriter.append(turn.conversationId(), ConversationRole.ASSISTANT, response.getMessage(),
+                (int) (System.currentTimeMillis() - startMs), Instant.now());
+        if (turn.modelMessages() != null) conversationSummarizer.maybeSummarizeAsync(turn.conversationId());
+        return response;
+    }
 
-        // 1) Resolve authenticated user
-        UserRole userRole = null;
-        UUID userId = null;
-        try {
-            var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.isAuthenticated()) {
-                String subject = auth.getName();
-                try {
-                    userId = UUID.fromString(subject);
-                    var userOpt = userAccountRepository.findById(Objects.requireNonNull(userId));
-                    if (userOpt.isPresent()) {
-                        userRole = userOpt.get().getRole();
+    /**
+     * Token-streaming chat: a "session" event, the model deltas as they arrive, then "done".
+     * The turn is prepared on the calling thread; the stream itself holds no connection, and
+     * the answer (or what was streamed before the client left) is persisted on the conversation
+     * executor.
+     */
+    @Override
+    public Flux<ChatStreamEvent> streamChat(ChatRequest request) {
+        log.info("Streaming chat: {}", request.getMessage());
+        long startMs = System.currentTimeMillis();
+        ChatTurn turn = prepareTurn(request);
+
+        StringBuffer answer = new StringBuffer();
+        AtomicBoolean persisted = new AtomicBoolean();
+        Consumer<String> persist = text -> {
+            if (!text.isBlank() && persisted.compareAndSet(false, true)) {
+                conversationMessageWriter.appendAsync(turn.conversationId(), ConversationRole.ASSISTANT, text,
+                        (int) (System.currentTimeMillis() - startMs), Instant.now());
+                if (turn.modelMessages() != null) conversationSummarizer.maybeSummarizeAsync(turn.conversationId());
+            }
+        };
+
+        Flux<String> deltas = turn.modelMessages() != null ? streamModel(turn) : Flux.empty();
+        Flux<ChatStreamEvent> answerEvents = deltas
+                .doOnNext(answer::append)
+                .map(ChatStreamEvent::delta)
+                .concatWith(Flux.defer(() -> {
+                    if (answer.length() > 0) {
+                        ChatResponse response = modelResponse(answer.toString().trim(), request, turn);
+                        persist.accept(response.getMessage());
+                        return Flux.just(ChatStreamEvent.done(response));
                     }
-                } catch (IllegalArgumentException ex) {
-                    var userOpt = userAccountRepository.findByPhone(subject);
-                    if (userOpt.isPresent()) {
-                        userRole = userOpt.get().getRole();
-                        userId = userOpt.get().getId();
+                    // No key, model error or empty answer: the local fallback needs the database
+                    return Mono.fromCallable(() -> fallbackResponse(request, turn))
+                            .subscribeOn(Schedulers.boundedElastic())
+                            .doOnNext(response -> persist.accept(response.getMessage()))
+                            .flatMapMany(response -> Flux.just(
+                                    ChatStreamEvent.delta(response.getMessage()), ChatStreamEvent.done(response)));
+                }))
+                .doOnCancel(() -> persist.accept(answer.toString().trim()));
+        return Flux.just(ChatStreamEvent.session(turn.sessionId())).concatWith(answerEvents);
+    }
+
+    private String callModel(ChatTurn turn) {
+        try {
+            return openAIClient.createChatCompletion(chatModel(), turn.modelMessages(), 800, 0.25).block();
+        } catch (Exception e) {
+            log.error("AI chat failed: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Model deltas for a turn. A cacheable turn either replays the cached answer as one delta,
+     * waits for an identical in-flight call, or streams and publishes the answer once complete.
+     */
+    private Flux<String> streamModel(ChatTurn turn) {
+        if (turn.cacheKey() == null) {
+            return openAIClient.streamChatCompletion(chatModel(), turn.modelMessages(), 800, 0.25);
+        }
+        // The flight starts on subscription, not on assembly: a stream that is never subscribed
+        // (client gone before the body is written) must not leave a pending entry behind
+        return Flux.defer(() -> {
+            ChatResponseCache.Flight flight = chatResponseCache.begin(turn.cacheKey());
+            if (!flight.leader()) {
+                return Mono.fromFuture(flight.result())
+                        .timeout(java.time.Duration.ofMillis(chatResponseCache.waitTimeoutMs()))
+                        .onErrorResume(e -> Mono.empty())
+                        .flux();
+            }
+            StringBuffer answer = new StringBuffer();
+            AtomicBoolean completed = new AtomicBoolean();
+            // Complete, error or cancel: finish exactly once; anything but a full answer is dropped
+            return Flux.defer(() -> openAIClient.streamChatCompletion(chatModel(), turn.modelMessages(), 800, 0.25))
+                    .doOnNext(answer::append)
+                    .doOnComplete(() -> completed.set(true))
+                    .doFinally(signal -> chatResponseCache.finish(flight,
+                            completed.get() ? answer.toString().trim() : null));
+        });
+    }
+
+    /** What a chat turn needs from the database, loaded before the model is called. */
+    private record ChatTurn(String sessionId, UUID conversationId, UserRole userRole, String rag,
+                            List<Map<String, String>> modelMessages, ChatResponseCache.Key cacheKey) {}
+
+    /**
+     * Resolves the user and conversation, stores the user's message and builds the RAG context
+     * and model prompt in one short transaction. {@code modelMessages} is null without an API key.
+     */
+    private ChatTurn prepareTurn(ChatRequest request) {
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            String sessionId = request.getSessionId() != null ? request.getSessionId() : UUID.randomUUID().toString();
+
+            // 1) Resolve authenticated user
+            UserRole userRole = null;
+            UUID userId = null;
+            try {
+                var auth = org.springframework.security.core.context.SecurityContextHolder.getContext().getAuthentication();
+                if (auth != null && auth.isAuthenticated()) {
+                    String subject = auth.getName();
+                    try {
+                        userId = UUID.fromString(subject);
+                        var userOpt = userAccountRepository.findById(Objects.requireNonNull(userId));
+                        if (userOpt.isPresent()) {
+                            userRole = userOpt.get().getRole();
+                        }
+                    } catch (IllegalArgumentException ex) {
+                        var userOpt = userAccountRepository.findByPhone(subject);
+                        if (userOpt.isPresent()) {
+                            userRole = userOpt.get().getRole();
+                            userId = userOpt.get().getId();
+                        }
                     }
                 }
+            } catch (Exception e) {
+                log.debug("No authenticated user: {}", e.getMessage());
             }
-        } catch (Exception e) {
-            log.debug("No authenticated user: {}", e.getMessage());
-        }
 
-        // 2) Resolve or create conversation in DB
-        Conversation conversation = resolveConversation(sessionId, userId, userRole);
+            // 2) Resolve or create conversation in DB
+            Conversation conversation = resolveConversation(sessionId, userId, userRole);
 
-        // 3) Persist user message
-        persistMessage(conversation, ConversationRole.USER, request.getMessage(), null);
+            // 3) Persist user message
+            persistMessage(conversation, ConversationRole.USER, request.getMessage(), null);
 
-        // 4) Build RAG context with real DB data
-        StringBuilder rag = buildRagContext(userRole, userId, request);
+            // 4) Without an OpenAI key the answer comes from the local fallback
+            boolean useModel = openAiApiKey != null && !openAiApiKey.isBlank();
 
-        // 5) If no OpenAI key, use context-aware local fallback
-        if (openAiApiKey == null || openAiApiKey.isBlank()) {
-            ChatResponse response = fallbackLocalResponse(request, sessionId, userRole, rag.toString());
-            persistMessage(conversation, ConversationRole.ASSISTANT, response.getMessage(),
-                    (int) (System.currentTimeMillis() - startMs));
-            return response;
-        }
+            // 5) Build RAG context with real DB data; a prompt without personal data can be shared
+            boolean shareable = useModel && chatResponseCache.isEnabled()
+                    && !ChatResponseCache.isPersonal(request.getMessage()) && !isTrackingContext(request);
+            StringBuilder rag = buildRagContext(userRole, userId, request, !shareable);
+            if (!useModel) {
+                return new ChatTurn(sessionId, conversation.getId(), userRole, rag.toString(), null, null);
+            }
 
-        // 6) Build OpenAI messages with role-distinct system prompt + conversation history
-        List<Map<String, String>> messages = new ArrayList<>();
-
-        Map<String, String> sys = new HashMap<>();
-        sys.put("role", "system");
-        sys.put("content", buildSystemPrompt(userRole) + "\n\n--- CURRENT CONTEXT ---\n" + rag);
-        messages.add(sys);
-
-        // Load last N messages from conversation history
-        List<ConversationMessage> history = conversationMessageRepository
-                .findByConversationIdOrderByTimestampAsc(conversation.getId());
-        int startIdx = Math.max(0, history.size() - MAX_HISTORY_MESSAGES - 1);
-        for (int i = startIdx; i < history.size() - 1; i++) {
-            ConversationMessage m = history.get(i);
-            Map<String, String> msg = new HashMap<>();
-            msg.put("role", m.getRole() == ConversationRole.USER ? "user" : "assistant");
-            msg.put("content", m.getContent());
-            messages.add(msg);
-        }
+            // 6) Build OpenAI messages: role-distinct system prompt, rolling summary, messages since it
+            List<Map<String, String>> messages = new ArrayList<>();
 
-        Map<String, String> userMsg = new HashMap<>();
-        userMsg.put("role", "user");
-        userMsg.put("content", request.getMessage());
-        messages.add(userMsg);
+            Map<String, String> sys = new HashMap<>();
+            sys.put("role", "system");
+            sys.put("content", buildSystemPrompt(userRole) + "\n\n--- CURRENT CONTEXT ---\n" + rag);
+            messages.add(sys);
 
-        // 7) Call OpenAI
-        String model = System.getenv().getOrDefault("SMARTCAMPOST_AI_MODEL", "gpt-4o-mini");
-        try {
-            var responseMono = openAIClient.createChatCompletion(model, messages, 800, 0.25);
-            String aiText = responseMono.block();
-            if (aiText == null || aiText.isBlank()) {
-                ChatResponse response = fallbackLocalResponse(request, sessionId, userRole, rag.toString());
-                persistMessage(conversation, ConversationRole.ASSISTANT, response.getMessage(),
-                        (int) (System.currentTimeMillis() - startMs));
-                return response;
+            if (conversation.getSummary() != null && !conversation.getSummary().isBlank()) {
+                Map<String, String> summary = new HashMap<>();
+                summary.put("role", "system");
+                summary.put("content", "Summary of the earlier conversation:\n" + conversation.getSummary());
+                messages.add(summary);
             }
 
-            int processingMs = (int) (System.currentTimeMillis() - startMs);
-            persistMessage(conversation, ConversationRole.ASSISTANT, aiText.trim(), processingMs);
+            // Every message the summary does not cover yet (bounded by the summarizer's fold size),
+            // so none falls between the summary and the prompt; the newest row is the message stored above
+            Instant since = conversation.getSummarizedUntil() != null ? conversation.getSummarizedUntil() : Instant.EPOCH;
+            int limit = conversationSummarizer.unsummarizedMessages() + 1;
+            List<ConversationMessage> recent = conversationMessageRepository
+                    .findByConversationIdAndTimestampAfterOrderByTimestampDesc(conversation.getId(), since, PageRequest.of(0, limit));
+            if (recent.size() == limit) {
+                log.debug("Conversation {} is behind on its summary, oldest unsummarized messages left out", conversation.getId());
+            }
+            for (int i = recent.size() - 1; i >= 1; i--) {
+                ConversationMessage m = recent.get(i);
+                Map<String, String> msg = new HashMap<>();
+                msg.put("role", m.getRole() == ConversationRole.USER ? "user" : "assistant");
+                msg.put("content", m.getContent());
+                messages.add(msg);
+            }
 
-            return ChatResponse.builder()
-                    .message(aiText.trim())
-                    .sessionId(sessionId)
-                    .suggestions(generateSuggestionsForRole(userRole, request.getMessage()))
-                    .intent("AI_ASSISTANT")
-                    .confidence(0.85)
-                    .build();
-        } catch (Exception e) {
-            log.error("AI chat failed: {}", e.getMessage());
-            ChatResponse response = fallbackLocalResponse(request, sessionId, userRole, rag.toString());
-            persistMessage(conversation, ConversationRole.ASSISTANT, response.getMessage(),
-                    (int) (System.currentTimeMillis() - startMs));
-            return response;
-        }
+            ChatResponseCache.Key cacheKey = shareable
+                    ? chatResponseCache.keyFor(userRole, request.getMessage(), messages.toString())
+                    : null;
+
+            Map<String, String> userMsg = new HashMap<>();
+            userMsg.put("role", "user");
+            userMsg.put("content", request.getMessage());
+            messages.add(userMsg);
+
+            return new ChatTurn(sessionId, conversation.getId(), userRole, rag.toString(), messages, cacheKey);
+        });
+    }
+
+    private ChatResponse modelResponse(String aiText, ChatRequest request, ChatTurn turn) {
+        return ChatResponse.builder()
+                .message(aiText)
+                .sessionId(turn.sessionId())
+                .suggestions(generateSuggestionsForRole(turn.userRole(), request.getMessage()))
+                .intent("AI_ASSISTANT")
+                .confidence(0.85)
+                .build();
+    }
+
+    /** The local fallback reads parcels, so it gets its own read-only transaction. */
+    private ChatResponse fallbackResponse(ChatRequest request, ChatTurn turn) {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+        return readOnly.execute(status -> fallbackLocalResponse(request, turn.sessionId(), turn.userRole(), turn.rag()));
+    }
+
+    private String chatModel() {
+        return System.getenv().getOrDefault("SMARTCAMPOST_AI_MODEL", "gpt-4o-mini");
     }
 
     // ==================== CONVERSATION PERSISTENCE ====================
@@ -327,7 +459,17 @@ public class AIServiceImpl implements AIService {
 
     // ==================== RAG CONTEXT ====================
 
-    private StringBuilder buildRagContext(UserRole userRole, UUID userId, ChatRequest request) {
+    /** A short alphanumeric context is a tracking ref, looked up as PARCEL_CONTEXT. */
+    private boolean isTrackingContext(ChatRequest request) {
+        String ctx = request.getContext() != null ? request.getContext().trim() : "";
+        return !ctx.isEmpty() && ctx.length() < 30 && ctx.matches("[A-Za-z0-9_\\-]+");
+    }
+
+    /**
+     * @param includePersonal false for prompts that may be answered from the shared cache: the
+     *                        user's email, phone and parcels are then left out
+     */
+    private StringBuilder buildRagContext(UserRole userRole, UUID userId, ChatRequest request, boolean includePersonal) {
         StringBuilder rag = new StringBuilder();
         if (userRole != null) rag.append("USER_ROLE: ").append(userRole.name()).append("\n");
 
@@ -335,7 +477,7 @@ public class AIServiceImpl implements AIService {
         if (request.getContext() != null && !request.getContext().isBlank()) {
             String ctx = request.getContext().trim();
             // If it looks like a tracking ref (short, alphanumeric), try parcel lookup
-            if (ctx.length() < 30 && ctx.matches("[A-Za-z0-9_\\-]+")) {
+            if (isTrackingContext(request)) {
                 var parcelOpt = parcelRepository.findByTrackingRef(ctx);
                 if (parcelOpt.isPresent()) {
                     var parcel = parcelOpt.get();
@@ -356,7 +498,7 @@ public class AIServiceImpl implements AIService {
         }
 
         // Load real user data from DB
-        if (userId != null) {
+        if (includePersonal && userId != null) {
             try {
                 var userOpt = userAccountRepository.findById(userId);
                 userOpt.ifPresent(u -> {
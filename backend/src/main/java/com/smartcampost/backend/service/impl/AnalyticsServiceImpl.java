@@ -12,6 +12,7 @@ import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.model.enums.ScanEventType;
 import com.smartcampost.backend.repository.AgencyRepository;
 import com.smartcampost.backend.repository.AiDecisionLogRepository;
+import com.smartcampost.backend.repository.ParcelLatestScanRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.repository.PaymentRepository;
 import com.smartcampost.backend.repository.ScanEventRepository;
@@ -41,6 +42,7 @@ public class AnalyticsServiceImpl implements AnalyticsService {
     private final ParcelRepository parcelRepository;
     private final PaymentRepository paymentRepository;
     private final ScanEventRepository scanEventRepository;
+    private final ParcelLatestScanRepository parcelLatestScanRepository;
     private final AgencyRepository agencyRepository;
     private final AiDecisionLogRepository aiDecisionLogRepository;
 
@@ -65,13 +67,13 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         int scanCount = 0;
 
         try {
-            lastEvent = scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(parcelId).orElse(null);
+            lastEvent = scanEventRepository.findLatestByParcelIds(List.of(parcelId)).stream().findFirst().orElse(null);
             if (lastEvent != null) {
                 lastType = lastEvent.getEventType();
                 lastTs = lastEvent.getTimestamp();
                 lastLocationNote = lastEvent.getLocationNote();
             }
-            scanCount = scanEventRepository.findByParcel_IdOrderByTimestampAsc(parcelId).size();
+            scanCount = (int) scanEventRepository.countByParcel_Id(parcelId);
         } catch (Exception ex) {
             log.warn("Failed to load scan events for parcel {}", parcelId, ex);
             lastEvent = null;
@@ -385,6 +387,17 @@ public class AnalyticsServiceImpl implements AnalyticsService {
         List<Parcel> activeParcels = parcelRepository.findByStatusIn(
                 ACTIVE_STATUSES, org.springframework.data.domain.PageRequest.of(0, 1000)
         ).getContent();
+        // Last scan time of the parcels that can be stuck, in one query
+        Map<UUID, Instant> lastScanAt = new HashMap<>();
+        try {
+            parcelLatestScanRepository.findAllById(activeParcels.stream()
+                            .filter(p -> p.getStatus() == ParcelStatus.IN_TRANSIT || p.getStatus() == ParcelStatus.ACCEPTED)
+                            .map(Parcel::getId)
+                            .toList())
+                    .forEach(l -> lastScanAt.put(l.getParcelId(), l.getScannedAt()));
+        } catch (Exception ex) {
+            log.warn("Failed to load latest scans for smart notifications: {}", ex.getMessage());
+        }
 
         for (Parcel parcel : activeParcels) {
             // 1. Delay Risk: expected delivery in the past but not delivered
@@ -403,9 +416,8 @@ public class AnalyticsServiceImpl implements AnalyticsService {
 
             // 2. Stuck Parcel: no scan event in over 72 hours for in-transit parcels
             if (parcel.getStatus() == ParcelStatus.IN_TRANSIT || parcel.getStatus() == ParcelStatus.ACCEPTED) {
-                try {
-                    Optional<ScanEvent> lastScan = scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(parcel.getId());
-                    Instant lastActivity = lastScan.map(ScanEvent::getTimestamp).orElse(parcel.getCreatedAt());
+                Instant lastActivity = lastScanAt.getOrDefault(parcel.getId(), parcel.getCreatedAt());
+                if (lastActivity != null) {
                     long hoursSinceActivity = ChronoUnit.HOURS.between(lastActivity, now);
                     if (hoursSinceActivity > 72) {
                         alerts.add(SmartNotificationResponse.SmartAlert.builder()
@@ -417,8 +429,6 @@ public class AnalyticsServiceImpl implements AnalyticsService {
                                 .recommendation("Investigate parcel location. It may be stuck at a hub.")
                                 .build());
                     }
-                } catch (Exception ignored) {
-                    // Skip if scan events can't be loaded
                 }
             }
 
@@ -4,6 +4,8 @@ import com.smartcampost.backend.dto.courier.*;
 import com.smartcampost.backend.exception.ConflictException;
 import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
+import com.smartcampost.backend.logistics.LastKnownLocation;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
 import com.smartcampost.backend.model.Courier;
 import com.smartcampost.backend.model.UserAccount;
 import com.smartcampost.backend.model.enums.CourierStatus;
@@ -29,6 +31,7 @@ public class CourierServiceImpl implements CourierService {
 
     private final CourierRepository courierRepository;
     private final UserAccountRepository userAccountRepository;
+    private final LastKnownLocationCache lastKnownLocations;
 
     private final BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
 
@@ -140,6 +143,7 @@ public class CourierServiceImpl implements CourierService {
 
     // ================= HELPER =================
     private CourierResponse toResponse(Courier courier) {
+        LastKnownLocation location = lastKnownLocations.courier(courier).orElse(null);
         return CourierResponse.builder()
                 .id(courier.getId())
                 .fullName(courier.getFullName())
@@ -149,9 +153,9 @@ public class CourierServiceImpl implements CourierService {
                 .createdAt(courier.getCreatedAt())
                 .agencyId(courier.getAgency() != null ? courier.getAgency().getId() : null)
                 .agencyName(courier.getAgency() != null ? courier.getAgency().getAgencyName() : null)
-                .currentLatitude(courier.getCurrentLatitude())
-                .currentLongitude(courier.getCurrentLongitude())
-                .lastLocationAt(courier.getLastLocationAt())
+                .currentLatitude(location != null ? location.latitude() : null)
+                .currentLongitude(location != null ? location.longitude() : null)
+                .lastLocationAt(location != null ? location.at() : null)
                 .build();
     }
 }
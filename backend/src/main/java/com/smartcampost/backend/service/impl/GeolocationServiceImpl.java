@@ -1,7 +1,6 @@
 package com.smartcampost.backend.service.impl;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartcampost.backend.dto.geo.GeocodeRequest;
 import com.smartcampost.backend.dto.geo.GeocodeResponse;
 import com.smartcampost.backend.dto.geo.GeoSearchRequest;
@@ -10,29 +9,23 @@ import com.smartcampost.backend.dto.geo.RouteEtaRequest;
 import com.smartcampost.backend.dto.geo.RouteEtaResponse;
 import com.smartcampost.backend.exception.ConflictException;
 import com.smartcampost.backend.exception.ErrorCode;
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.Geocoder;
+import com.smartcampost.backend.routing.road.RoadRoutingEngine;
 import com.smartcampost.backend.service.GeolocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.net.URI;
 import java.net.URLEncoder;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
-import java.time.Duration;
 
 @Service
 @RequiredArgsConstructor
 public class GeolocationServiceImpl implements GeolocationService {
 
-    private static final double EARTH_RADIUS_KM = 6371.0;
-
-    private final ObjectMapper objectMapper;
-
-    @Value("${geolocation.nominatim-url:https://nominatim.openstreetmap.org/search}")
-    private String nominatimUrl;
+    private final Geocoder geocoder;
+    private final RoadRoutingEngine roadRoutingEngine;
 
     @Value("${geolocation.average-speed-kmh:40}")
     private double averageSpeedKmh;
@@ -49,44 +42,13 @@ public class GeolocationServiceImpl implements GeolocationService {
             }
 
             String addr = request.getAddressLine().trim();
-            String encoded = URLEncoder.encode(addr, StandardCharsets.UTF_8);
-            String url = nominatimUrl + "?q=" + encoded + "&format=json&limit=1";
-
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "SmartCAMPOST/1.0 (support@smartcampost.cm)")
-                    .GET()
-                    .timeout(Duration.ofSeconds(15))
-                    .build();
-
-            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new ConflictException("Geocoding provider unavailable", ErrorCode.GEOLOCATION_ERROR);
-            }
-
-            JsonNode root = objectMapper.readTree(response.body());
-            if (!root.isArray() || root.isEmpty()) {
-                throw new ConflictException("Address not found", ErrorCode.ROUTE_NOT_FOUND);
-            }
-
-            JsonNode first = root.get(0);
-            double lat = first.path("lat").asDouble(Double.NaN);
-            double lng = first.path("lon").asDouble(Double.NaN);
-            String normalizedAddress = first.path("display_name").asText(addr);
-
-            if (Double.isNaN(lat) || Double.isNaN(lng)) {
-                throw new ConflictException("Geocoding response missing coordinates", ErrorCode.GEOLOCATION_ERROR);
-            }
+            Geocoder.Place place = geocoder.geocode(addr)
+                    .orElseThrow(() -> new ConflictException("Address not found", ErrorCode.ROUTE_NOT_FOUND));
 
             return GeocodeResponse.builder()
-                    .latitude(lat)
-                    .longitude(lng)
-                    .normalizedAddress(normalizedAddress)
+                    .latitude(place.latitude())
+                    .longitude(place.longitude())
+                    .normalizedAddress(place.displayName())
                     .build();
 
         } catch (ConflictException ex) {
@@ -115,33 +77,13 @@ public class GeolocationServiceImpl implements GeolocationService {
             // Nominatim expects viewbox=left,top,right,bottom where left/right are longitudes and top/bottom are latitudes.
             final String viewbox = "8.4,13.1,16.3,1.65";
 
-            final String url = nominatimUrl
-                    + "?q=" + encoded
+            JsonNode root = geocoder.search("q=" + encoded
                     + "&format=jsonv2"
                     + "&addressdetails=1"
                     + "&limit=" + limit
                     + "&countrycodes=cm"
                     + "&bounded=1"
-                    + "&viewbox=" + viewbox;
-
-            HttpClient client = HttpClient.newBuilder()
-                    .connectTimeout(Duration.ofSeconds(10))
-                    .build();
-
-            HttpRequest httpRequest = HttpRequest.newBuilder()
-                    .uri(URI.create(url))
-                    .header("Accept", "application/json")
-                    .header("User-Agent", "SmartCAMPOST/1.0 (support@smartcampost.cm)")
-                    .GET()
-                    .timeout(Duration.ofSeconds(15))
-                    .build();
-
-            HttpResponse<String> response = client.send(httpRequest, HttpResponse.BodyHandlers.ofString());
-            if (response.statusCode() < 200 || response.statusCode() >= 300) {
-                throw new ConflictException("Geocoding provider unavailable", ErrorCode.GEOLOCATION_ERROR);
-            }
-
-            JsonNode root = objectMapper.readTree(response.body());
+                    + "&viewbox=" + viewbox);
             if (!root.isArray() || root.isEmpty()) {
                 return java.util.List.of();
             }
@@ -211,7 +153,17 @@ public class GeolocationServiceImpl implements GeolocationService {
                 );
             }
 
-                double distanceKm = haversineKm(
+            // Road network when the OSM extract is loaded and both ends are near a road
+            var road = roadRoutingEngine.route(request.getFromLat(), request.getFromLng(),
+                    request.getToLat(), request.getToLng());
+            if (road.isPresent()) {
+                return RouteEtaResponse.builder()
+                        .distanceKm(road.get().km())
+                        .durationSeconds(Math.max(60L, Math.round(road.get().minutes() * 60)))
+                        .build();
+            }
+
+                double distanceKm = GeoDistance.haversineKm(
                     request.getFromLat(),
                     request.getFromLng(),
                     request.getToLat(),
@@ -236,16 +188,4 @@ public class GeolocationServiceImpl implements GeolocationService {
             );
         }
     }
-
-    private double haversineKm(double fromLat, double fromLng, double toLat, double toLng) {
-        double dLat = Math.toRadians(toLat - fromLat);
-        double dLng = Math.toRadians(toLng - fromLng);
-        double lat1 = Math.toRadians(fromLat);
-        double lat2 = Math.toRadians(toLat);
-
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(lat1) * Math.cos(lat2) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
-        return EARTH_RADIUS_KM * c;
-    }
 }
@@ -1,5 +1,6 @@
 package com.smartcampost.backend.service.impl;
 
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.model.Location;
 import com.smartcampost.backend.repository.LocationRepository;
 import com.smartcampost.backend.service.LocationService;
@@ -12,15 +13,19 @@ import java.util.Objects;
 public class LocationServiceImpl implements LocationService {
 
     private final LocationRepository locationRepository;
+    private final LivePositionIndex livePositionIndex;
 
-    public LocationServiceImpl(LocationRepository locationRepository) {
+    public LocationServiceImpl(LocationRepository locationRepository, LivePositionIndex livePositionIndex) {
         this.locationRepository = locationRepository;
+        this.livePositionIndex = livePositionIndex;
     }
 
     @Override
     public Location saveLocation(Location loc) {
         Objects.requireNonNull(loc, "loc is required");
-        return Objects.requireNonNull(locationRepository.save(loc), "failed to save location");
+        Location saved = Objects.requireNonNull(locationRepository.save(loc), "failed to save location");
+        livePositionIndex.record(saved);
+        return saved;
     }
 
     @Override
@@ -8,8 +8,9 @@ import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
 import com.smartcampost.backend.model.*;
 import com.smartcampost.backend.model.enums.*;
+import com.smartcampost.backend.notification.NotificationCoalescer;
+import com.smartcampost.backend.notification.NotificationOutboxWorker;
 import com.smartcampost.backend.repository.*;
-import com.smartcampost.backend.service.NotificationGatewayService;
 import com.smartcampost.backend.service.NotificationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -35,7 +36,8 @@ public class NotificationServiceImpl implements NotificationService {
     private final ParcelRepository parcelRepository;
     private final PickupRequestRepository pickupRequestRepository;
     private final UserAccountRepository userAccountRepository;
-    private final NotificationGatewayService gatewayService;
+    private final NotificationOutboxWorker outboxWorker;
+    private final NotificationCoalescer coalescer;
 
     // ======================== PUBLIC API ========================
 
@@ -128,7 +130,7 @@ public class NotificationServiceImpl implements NotificationService {
         Objects.requireNonNull(notif, "notification must not be null");
         Notification savedNotif = notificationRepository.save(notif);
 
-        sendAndUpdate(savedNotif);
+        outboxWorker.wakeUpAfterCommit();
 
         return toResponse(savedNotif);
     }
@@ -214,10 +216,11 @@ public class NotificationServiceImpl implements NotificationService {
         notif.setRetryCount(notif.getRetryCount() + 1);
         notif.setStatus(NotificationStatus.PENDING);
         notif.setErrorMessage(null);
+        notif.setNextAttemptAt(Instant.now());
         Objects.requireNonNull(notif, "notification must not be null");
         Notification savedNotif = notificationRepository.save(notif);
 
-        sendAndUpdate(savedNotif);
+        outboxWorker.wakeUpAfterCommit();
 
         return toResponse(savedNotif);
     }
@@ -344,9 +347,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     @Override
@@ -376,9 +377,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     @Override
@@ -407,9 +406,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification lors de la création du colis
@@ -439,9 +436,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 SPRINT 15: notification when parcel is validated/accepted by agent
@@ -477,9 +472,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification "out for delivery"
@@ -509,9 +502,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification when parcel is in transit
@@ -541,9 +532,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification when parcel arrives at destination agency
@@ -581,9 +570,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Objects.requireNonNull(notif, "notification must not be null");
-        Notification savedNotif = notificationRepository.save(notif);
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: reminder for uncollected parcels at agency
@@ -619,9 +606,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-                Objects.requireNonNull(notif, "notification must not be null");
-                Notification savedNotif = notificationRepository.save(notif);
-                sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification when delivery is rescheduled
@@ -657,9 +642,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-                Objects.requireNonNull(notif, "notification must not be null");
-                Notification savedNotif = notificationRepository.save(notif);
-                sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: notification when delivery attempt fails
@@ -691,9 +674,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-                Objects.requireNonNull(notif, "notification must not be null");
-                Notification savedNotif = notificationRepository.save(notif);
-                sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // 🔥 NEW: envoi spécifique pour OTP de livraison
@@ -724,9 +705,7 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-                Objects.requireNonNull(notif, "notification must not be null");
-                Notification savedNotif = notificationRepository.save(notif);
-                sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
     // ======================== OPERATIONAL MODULES ========================
@@ -945,38 +924,19 @@ public class NotificationServiceImpl implements NotificationService {
                 .retryCount(0)
                 .build();
 
-        Notification savedNotif = notificationRepository.save(Objects.requireNonNull(notif, "notification must not be null"));
-        sendAndUpdate(savedNotif);
+        enqueue(notif);
     }
 
-    private void sendAndUpdate(Notification notif) {
-        try {
-            if (notif.getChannel() == NotificationChannel.SMS) {
-                gatewayService.sendSms(notif.getRecipientPhone(), notif.getMessage());
-            } else if (notif.getChannel() == NotificationChannel.EMAIL) {
-                gatewayService.sendEmail(
-                        notif.getRecipientEmail(),
-                        notif.getSubject(),
-                        notif.getMessage()
-                );
-            } else {
-                throw new ConflictException(
-                        "Unsupported notification channel",
-                        ErrorCode.NOTIFICATION_CHANNEL_UNSUPPORTED
-                );
-            }
-
-            notif.setStatus(NotificationStatus.SENT);
-            notif.setSentAt(Instant.now());
-            notif.setErrorMessage(null);
-
-        } catch (Exception ex) {
-            log.error("❌ Notification send failed: {}", ex.getMessage(), ex);
-            notif.setStatus(NotificationStatus.FAILED);
-            notif.setErrorMessage(ex.getMessage());
-        }
-
-                notificationRepository.save(notif);
+    /**
+     * Saves an automatic notification for the outbox unless the coalescer suppresses it; a
+     * digested one is saved HELD and reaches the outbox when its digest is flushed.
+     */
+    private void enqueue(Notification notif) {
+        Objects.requireNonNull(notif, "notification must not be null");
+        NotificationCoalescer.Decision decision = coalescer.offer(notif);
+        if (decision == NotificationCoalescer.Decision.SUPPRESSED) return;
+        notificationRepository.save(notif);
+        if (decision == NotificationCoalescer.Decision.SEND) outboxWorker.wakeUpAfterCommit();
     }
 
         private String buildWebOtpSuffix(String code) {
@@ -9,6 +9,7 @@ import com.smartcampost.backend.exception.AuthException;
 import com.smartcampost.backend.exception.ConflictException;
 import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
+import com.smartcampost.backend.logistics.ActorParcelIndex;
 import com.smartcampost.backend.model.*;
 import com.smartcampost.backend.model.enums.LocationMode;
 import com.smartcampost.backend.model.enums.ParcelStatus;
@@ -46,6 +47,7 @@ public class PickupRequestServiceImpl implements PickupRequestService {
     private final NotificationService notificationService;
     private final QrCodeService qrCodeService;
     private final ScanEventService scanEventService;
+    private final ActorParcelIndex actorParcelIndex;
 
     // ================== CREATE (US25) ==================
     @Override
@@ -202,6 +204,7 @@ public class PickupRequestServiceImpl implements PickupRequestService {
         }
 
         pickup = Objects.requireNonNull(pickupRequestRepository.save(pickup), "failed to save pickup request");
+        actorParcelIndex.pickupChanged(pickup);
 
         return toResponse(pickup);
     }
@@ -242,6 +245,7 @@ public class PickupRequestServiceImpl implements PickupRequestService {
 
         pickup.setState(next);
         pickup = Objects.requireNonNull(pickupRequestRepository.save(pickup), "failed to save pickup request");
+        actorParcelIndex.pickupChanged(pickup);
 
         // 🔔 si le pickup est COMPLETED -> notifier le client
         if (next == PickupRequestState.COMPLETED) {
@@ -502,6 +506,7 @@ public class PickupRequestServiceImpl implements PickupRequestService {
         // Update pickup state to COMPLETED
         pickup.setState(PickupRequestState.COMPLETED);
         pickup = Objects.requireNonNull(pickupRequestRepository.save(pickup), "failed to save pickup request");
+        actorParcelIndex.pickupChanged(pickup);
 
         // Convert temporary QR to permanent
         QrCodeData permanentQr = qrCodeService.convertTemporaryToPermanent(pickup.getId());
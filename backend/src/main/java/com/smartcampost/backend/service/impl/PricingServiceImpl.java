@@ -2,9 +2,15 @@ package com.smartcampost.backend.service.impl;
 
 import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
+import com.smartcampost.backend.geo.AddressPositioner;
+import com.smartcampost.backend.geo.Geocoder;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.model.Agency;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.PricingDetail;
 import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.pricing.TariffCatalog;
+import com.smartcampost.backend.pricing.TariffTable;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.repository.PricingDetailRepository;
 import com.smartcampost.backend.repository.TariffRepository;
@@ -17,6 +23,7 @@ import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.Objects;
 import java.util.UUID;
@@ -30,7 +37,10 @@ public class PricingServiceImpl implements PricingService {
     private final ParcelRepository parcelRepository;
     private final TariffRepository tariffRepository;
     private final PricingDetailRepository pricingDetailRepository;
+    private final TariffCatalog tariffCatalog;
         private final GeolocationService geolocationService;
+        private final Geocoder geocoder;
+        private final AddressPositioner addressPositioner;
 
         @Value("${smartcampost.pricing.home-delivery.enabled:true}")
         private boolean homeDeliverySurchargeEnabled;
@@ -42,6 +52,10 @@ public class PricingServiceImpl implements PricingService {
         @Value("${smartcampost.pricing.home-delivery.per-km-fee-xaf:0}")
         private double homeDeliveryPerKmFeeXaf;
 
+        /** How long a quote waits for an address that is still being geocoded. */
+        @Value("${smartcampost.pricing.home-delivery.position-wait-ms:3000}")
+        private long positionWaitMs = 3000;
+
     @Override
     @Transactional(readOnly = true, noRollbackFor = ResourceNotFoundException.class)
     public BigDecimal quotePrice(UUID parcelId) {
@@ -125,19 +139,18 @@ public class PricingServiceImpl implements PricingService {
         // Get origin and destination zones from addresses
         String originZone = getZoneFromAddress(parcel.getSenderAddress());
         String destZone = getZoneFromAddress(parcel.getRecipientAddress());
-        String weightBracket = getWeightBracket(weight);
-
-        // Find matching tariff — try exact zones first, fall back to NATIONAL
-        double basePrice = tariffRepository.findByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(
-                parcel.getServiceType(), originZone, destZone, weightBracket
-        ).map(t -> t.getPrice().doubleValue())
-         .or(() -> tariffRepository.findByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(
-                parcel.getServiceType(), "NATIONAL", "NATIONAL", weightBracket
-         ).map(t -> t.getPrice().doubleValue()))
-         .orElseThrow(() -> new ResourceNotFoundException(
-                "No tariff configured for " + parcel.getServiceType() + " " + originZone + " -> " + destZone + " (" + weightBracket + ")",
-                ErrorCode.PRICING_TARIFF_NOT_FOUND
-        ));
+        int bracket = getWeightBracket(weight);
+
+        // Find matching tariff — exact zones, else NATIONAL (precomputed in the table)
+        TariffTable.Entry tariff = tariffCatalog.table().resolve(parcel.getServiceType(), originZone, destZone, bracket);
+        if (tariff == null) {
+            throw new ResourceNotFoundException(
+                    "No tariff configured for " + parcel.getServiceType() + " " + originZone + " -> " + destZone
+                            + " (" + WeightBracketResolver.BRACKETS.get(bracket) + ")",
+                    ErrorCode.PRICING_TARIFF_NOT_FOUND
+            );
+        }
+        double basePrice = tariff.priceValue();
 
                 double surcharge = calculateHomeDeliverySurcharge(parcel);
                 return basePrice + surcharge;
@@ -179,57 +192,43 @@ public class PricingServiceImpl implements PricingService {
 
         private record LatLng(double latitude, double longitude) {}
 
+        // Stored positions, the geocoding cache, or for an address saved moments ago its pending
+        // lookup (started by AddressPositioner on save), waited on for at most position-wait-ms.
         private LatLng getOriginCoordinates(Parcel parcel) {
                 if (parcel == null) return null;
 
                 // Prefer explicit origin agency if provided, otherwise sender address
-                if (parcel.getOriginAgency() != null) {
-                        String query = String.format("%s, %s, %s, %s",
-                                        safe(parcel.getOriginAgency().getAgencyName()),
-                                        safe(parcel.getOriginAgency().getCity()),
-                                        safe(parcel.getOriginAgency().getRegion()),
-                                        safe(parcel.getOriginAgency().getCountry()));
-                        LatLng ll = geocode(query);
+                Agency agency = parcel.getOriginAgency();
+                if (agency != null) {
+                        if (agency.getLatitude() != null && agency.getLongitude() != null) {
+                                return new LatLng(agency.getLatitude().doubleValue(), agency.getLongitude().doubleValue());
+                        }
+                        LatLng ll = cachedPosition(Geocoder.queryFor(agency));
                         if (ll != null) return ll;
                 }
 
-                return addressLatLngOrGeocode(parcel.getSenderAddress());
+                return addressLatLng(parcel.getSenderAddress());
         }
 
         private LatLng getRecipientCoordinates(Parcel parcel) {
                 if (parcel == null) return null;
-                return addressLatLngOrGeocode(parcel.getRecipientAddress());
+                return addressLatLng(parcel.getRecipientAddress());
         }
 
-        private LatLng addressLatLngOrGeocode(com.smartcampost.backend.model.Address address) {
+        private LatLng addressLatLng(Address address) {
                 if (address == null) return null;
-                try {
-                        if (address.getLatitude() != null && address.getLongitude() != null) {
-                                return new LatLng(address.getLatitude().doubleValue(), address.getLongitude().doubleValue());
-                        }
-                } catch (Exception ignored) {
-                        // fall back to geocode
+                if (address.getLatitude() != null && address.getLongitude() != null) {
+                        return new LatLng(address.getLatitude().doubleValue(), address.getLongitude().doubleValue());
                 }
-
-                String query = String.format("%s, %s, %s, %s",
-                                safe(address.getStreet()),
-                                safe(address.getCity()),
-                                safe(address.getRegion()),
-                                safe(address.getCountry()));
-                return geocode(query);
+                return addressPositioner.position(address, Duration.ofMillis(positionWaitMs))
+                                .map(place -> new LatLng(place.latitude(), place.longitude()))
+                                .orElse(null);
         }
 
-        private LatLng geocode(String addressLine) {
-                if (addressLine == null || addressLine.isBlank()) return null;
-                var req = new com.smartcampost.backend.dto.geo.GeocodeRequest();
-                req.setAddressLine(addressLine);
-                var resp = geolocationService.geocode(req);
-                if (resp == null) return null;
-                return new LatLng(resp.getLatitude(), resp.getLongitude());
-        }
-
-        private String safe(String s) {
-                return s == null ? "" : s.trim();
+        private LatLng cachedPosition(String addressLine) {
+                return geocoder.cached(addressLine)
+                                .map(place -> new LatLng(place.latitude(), place.longitude()))
+                                .orElse(null);
         }
 
     private Tariff findMatchingTariff(Parcel parcel) {
@@ -238,16 +237,17 @@ public class PricingServiceImpl implements PricingService {
         Double weight = parcel.getValidatedWeight() != null 
                 ? parcel.getValidatedWeight() 
                 : parcel.getWeight();
-        String weightBracket = getWeightBracket(weight);
-
-        return tariffRepository.findByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(
-                parcel.getServiceType(), originZone, destZone, weightBracket
-        ).or(() -> tariffRepository.findByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(
-                parcel.getServiceType(), "NATIONAL", "NATIONAL", weightBracket
-        )).orElseThrow(() -> new ResourceNotFoundException(
-                "Pricing tariff not found",
-                ErrorCode.PRICING_TARIFF_NOT_FOUND
-        ));
+        int bracket = getWeightBracket(weight);
+
+        TariffTable.Entry tariff = tariffCatalog.table().resolve(parcel.getServiceType(), originZone, destZone, bracket);
+        if (tariff == null) {
+            throw new ResourceNotFoundException(
+                    "Pricing tariff not found",
+                    ErrorCode.PRICING_TARIFF_NOT_FOUND
+            );
+        }
+        // Reference only: the pricing detail needs the foreign key, not the row
+        return tariffRepository.getReferenceById(tariff.tariffId());
     }
 
     private String getZoneFromAddress(com.smartcampost.backend.model.Address address) {
@@ -256,7 +256,7 @@ public class PricingServiceImpl implements PricingService {
         return address.getRegion() != null ? address.getRegion().toUpperCase() : "NATIONAL";
     }
 
-    private String getWeightBracket(Double weight) {
-        return WeightBracketResolver.resolve(weight == null ? 0.0 : weight);
+    private int getWeightBracket(Double weight) {
+        return WeightBracketResolver.index(weight == null ? 0.0 : weight);
     }
 }
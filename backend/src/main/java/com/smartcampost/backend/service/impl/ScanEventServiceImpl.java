@@ -1,5 +1,8 @@
 package com.smartcampost.backend.service.impl;
 
+import com.smartcampost.backend.dto.scan.OfflineSyncCursorResponse;
+import com.smartcampost.backend.dto.scan.OfflineSyncRequest;
+import com.smartcampost.backend.dto.scan.OfflineSyncResponse;
 import com.smartcampost.backend.dto.scan.ScanEventCreateRequest;
 import com.smartcampost.backend.dto.scan.ScanEventResponse;
 import com.smartcampost.backend.exception.AuthException;
@@ -10,24 +13,26 @@ import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.Agency;
 import com.smartcampost.backend.model.Agent;
 import com.smartcampost.backend.model.UserAccount;
-import com.smartcampost.backend.model.enums.LocationSource;
 import com.smartcampost.backend.model.enums.ParcelStatus;
 import com.smartcampost.backend.model.enums.ScanEventType;
 import com.smartcampost.backend.model.enums.UserRole;
 import com.smartcampost.backend.model.Payment;
 import com.smartcampost.backend.model.enums.PaymentOption;
 import com.smartcampost.backend.model.enums.PaymentStatus;
-import com.smartcampost.backend.model.Courier;
 import com.smartcampost.backend.repository.ScanEventRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.repository.PaymentRepository;
 import com.smartcampost.backend.repository.AgencyRepository;
 import com.smartcampost.backend.repository.AgentRepository;
-import com.smartcampost.backend.repository.CourierRepository;
 import com.smartcampost.backend.repository.UserAccountRepository;
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
 import com.smartcampost.backend.sse.SseEmitters;
 import com.smartcampost.backend.service.NotificationService;
 import com.smartcampost.backend.service.ScanEventService;
+import com.smartcampost.backend.service.scan.LatestScanProjection;
+import com.smartcampost.backend.service.scan.OfflineSyncEngine;
+import com.smartcampost.backend.service.scan.ScanEventRules;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.ApplicationEventPublisher;
@@ -36,15 +41,15 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
-import java.util.EnumMap;
-import java.util.EnumSet;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 @Slf4j
@@ -53,16 +58,21 @@ import org.springframework.transaction.annotation.Transactional;
 @Transactional
 public class ScanEventServiceImpl implements ScanEventService {
 
+    private static final int LATEST_SCAN_BATCH_SIZE = 500;
+
     private final ScanEventRepository scanEventRepository;
     private final ParcelRepository parcelRepository;
     private final PaymentRepository paymentRepository;
     private final AgencyRepository agencyRepository;
     private final AgentRepository agentRepository;
-    private final CourierRepository courierRepository;
+    private final LastKnownLocationCache lastKnownLocations;
+    private final ActorParcelIndex actorParcelIndex;
+    private final LatestScanProjection latestScanProjection;
     private final UserAccountRepository userAccountRepository;
     private final NotificationService notificationService; // 🔔
     private final SseEmitters sseEmitters; // 📡
     private final ApplicationEventPublisher eventPublisher;
+    private final OfflineSyncEngine offlineSyncEngine;
 
     // ================== RECORD SCAN EVENT (US38 + US40) ==================
     @Override
@@ -155,7 +165,7 @@ public class ScanEventServiceImpl implements ScanEventService {
                 .locationNote(request.getLocationNote())
             .latitude(request.getLatitude())
             .longitude(request.getLongitude())
-            .locationSource(resolveLocationSource(request.getLocationSource()))
+            .locationSource(ScanEventRules.locationSource(request.getLocationSource()))
             .deviceTimestamp(request.getDeviceTimestamp())
             .actorId(actorId)
             .actorRole(actorRole)
@@ -165,6 +175,7 @@ public class ScanEventServiceImpl implements ScanEventService {
         ScanEvent toSave = java.util.Objects.requireNonNull(event, "event is required");
         ScanEvent savedEvent = Objects.requireNonNull(scanEventRepository.save(toSave), "failed to save scan event");
         event = savedEvent;
+        latestScanProjection.record(event);
 
         // 🔁 Domain event for AI agents / downstream processors
         try {
@@ -210,26 +221,19 @@ public class ScanEventServiceImpl implements ScanEventService {
         }
 
         // mettre à jour le statut du colis selon l’event
-        ParcelStatus newStatus = applyParcelStatusFromEvent(parcel, type);
+        ParcelStatus newStatus = ScanEventRules.statusAfter(type);
         // 📍 Update parcel’s current location from scan event GPS
         updateParcelLocation(parcel, event);
         // 📍 Update courier’s live position when they perform a scan
-        // `event` was reassigned above so it’s not effectively-final — capture it here
-        final ScanEvent savedScanEvent = event;
         if (UserRole.COURIER.name().equals(actorRole) && actorId != null) {
             try {
-                UUID courierId = UUID.fromString(actorId);
-                courierRepository.findById(courierId).ifPresent(courier -> {
-                    courier.setCurrentLatitude(savedScanEvent.getLatitude());
-                    courier.setCurrentLongitude(savedScanEvent.getLongitude());
-                    courier.setLastLocationAt(savedScanEvent.getTimestamp());
-                    courierRepository.save(courier);
-                });
+                lastKnownLocations.recordCourier(UUID.fromString(actorId),
+                        event.getLatitude(), event.getLongitude(), event.getTimestamp());
             } catch (IllegalArgumentException ignored) { /* actorId not a UUID */ }
         }
         if (newStatus != null) {
             ParcelStatus oldStatus = parcel.getStatus();
-            validateStatusTransition(oldStatus, newStatus);
+            ScanEventRules.validateTransition(oldStatus, newStatus);
             enforcePaymentGate(parcel, newStatus);
             parcel.setStatus(newStatus);
             Parcel savedParcel = parcelRepository.save(parcel);
@@ -273,6 +277,8 @@ public class ScanEventServiceImpl implements ScanEventService {
             }
         }
 
+        actorParcelIndex.scanRecorded(parcel.getId(), actorId, parcel.getStatus());
+
         return toResponse(event);
     }
 
@@ -305,134 +311,6 @@ public class ScanEventServiceImpl implements ScanEventService {
             .collect(Collectors.toList());
     }
 
-    // ================== STATUS AUTO-UPDATE (CONTEXT-AWARE) ==================
-
-    /**
-     * Determines the new parcel status based on the scan event type AND the parcel's
-     * delivery option (HOME vs AGENCY). This is the core business logic that drives
-     * the parcel lifecycle.
-     *
-     * KEY RULES:
-     * - HOME delivery: courier scans QR at client's home = TAKEN_IN_CHARGE (collection)
-     * - AGENCY delivery: agent scans QR at agency = AT_ORIGIN_AGENCY → TAKEN_IN_CHARGE
-     * - AT_ORIGIN_AGENCY always advances to TAKEN_IN_CHARGE (parcel is physically at agency)
-     * - The rest of the transit chain is identical for both delivery options
-     */
-    private ParcelStatus applyParcelStatusFromEvent(Parcel parcel, ScanEventType type) {
-        if (type == null) return null;
-
-        return switch (type) {
-            case CREATED -> ParcelStatus.CREATED;
-            case ACCEPTED -> ParcelStatus.ACCEPTED;
-
-            // Context-aware: AT_ORIGIN_AGENCY means client deposited at agency
-            // → parcel is ready for transit → advance to TAKEN_IN_CHARGE
-            case AT_ORIGIN_AGENCY -> ParcelStatus.TAKEN_IN_CHARGE;
-
-            case TAKEN_IN_CHARGE -> ParcelStatus.TAKEN_IN_CHARGE;
-            case IN_TRANSIT -> ParcelStatus.IN_TRANSIT;
-            case ARRIVED_HUB -> ParcelStatus.ARRIVED_HUB;
-            case DEPARTED_HUB -> ParcelStatus.IN_TRANSIT;
-            case ARRIVED_DESTINATION, ARRIVED_DEST_AGENCY -> ParcelStatus.ARRIVED_DEST_AGENCY;
-
-            // Context-aware last mile:
-            // HOME delivery → OUT_FOR_DELIVERY makes sense (courier is en route)
-            // AGENCY delivery → OUT_FOR_DELIVERY still valid (parcel moved to pickup counter)
-            case OUT_FOR_DELIVERY -> ParcelStatus.OUT_FOR_DELIVERY;
-
-            case DELIVERED -> ParcelStatus.DELIVERED;
-            case PICKED_UP_AT_AGENCY -> ParcelStatus.PICKED_UP_AT_AGENCY;
-            case RETURNED_TO_SENDER -> ParcelStatus.RETURNED_TO_SENDER;
-            case RETURNED -> ParcelStatus.RETURNED;
-            case CANCELLED -> ParcelStatus.CANCELLED;
-
-            // Operational / audit events do not auto-change parcel status
-            case DELIVERY_FAILED, RESCHEDULED, OTP_SENT, OTP_VERIFIED, PROOF_CAPTURED, PAYMENT_CONFIRMED -> null;
-        };
-    }
-
-    // ================== ALLOWED TRANSITIONS MAP ==================
-
-    /**
-     * Explicit allowed transitions map — replaces ordinal-based comparison.
-     * Each status maps to the set of statuses it can transition TO.
-     * CANCELLED, RETURNED, and RETURNED_TO_SENDER are always allowed (handled separately).
-     */
-    private static final Map<ParcelStatus, Set<ParcelStatus>> ALLOWED_TRANSITIONS;
-    static {
-        ALLOWED_TRANSITIONS = new EnumMap<>(ParcelStatus.class);
-
-        ALLOWED_TRANSITIONS.put(ParcelStatus.CREATED, EnumSet.of(
-                ParcelStatus.ACCEPTED
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.ACCEPTED, EnumSet.of(
-                ParcelStatus.TAKEN_IN_CHARGE,
-                ParcelStatus.IN_TRANSIT   // small parcels may skip TAKEN_IN_CHARGE
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.TAKEN_IN_CHARGE, EnumSet.of(
-                ParcelStatus.IN_TRANSIT,
-                ParcelStatus.ARRIVED_HUB  // direct to hub if single-hop
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.IN_TRANSIT, EnumSet.of(
-                ParcelStatus.ARRIVED_HUB,
-                ParcelStatus.ARRIVED_DEST_AGENCY,  // direct to destination if no intermediate hub
-                ParcelStatus.OUT_FOR_DELIVERY       // direct delivery if same-city
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.ARRIVED_HUB, EnumSet.of(
-                ParcelStatus.IN_TRANSIT,            // DEPARTED_HUB → back to IN_TRANSIT
-                ParcelStatus.ARRIVED_DEST_AGENCY,
-                ParcelStatus.OUT_FOR_DELIVERY
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.ARRIVED_DEST_AGENCY, EnumSet.of(
-                ParcelStatus.OUT_FOR_DELIVERY,
-                ParcelStatus.PICKED_UP_AT_AGENCY,
-                ParcelStatus.DELIVERED              // agency hand-off counts as delivered
-        ));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.OUT_FOR_DELIVERY, EnumSet.of(
-                ParcelStatus.DELIVERED,
-                ParcelStatus.ARRIVED_DEST_AGENCY   // returned to agency after failed delivery
-        ));
-
-        // Final states — no forward transitions (only CANCEL/RETURN handled separately)
-        ALLOWED_TRANSITIONS.put(ParcelStatus.DELIVERED, EnumSet.noneOf(ParcelStatus.class));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.PICKED_UP_AT_AGENCY, EnumSet.noneOf(ParcelStatus.class));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.RETURNED_TO_SENDER, EnumSet.noneOf(ParcelStatus.class));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.RETURNED, EnumSet.noneOf(ParcelStatus.class));
-        ALLOWED_TRANSITIONS.put(ParcelStatus.CANCELLED, EnumSet.noneOf(ParcelStatus.class));
-    }
-
-    private void validateStatusTransition(ParcelStatus current, ParcelStatus next) {
-        if (current == next) return;
-
-        // Final states: no transitions out
-        if (current == ParcelStatus.DELIVERED
-                || current == ParcelStatus.PICKED_UP_AT_AGENCY
-                || current == ParcelStatus.RETURNED_TO_SENDER
-                || current == ParcelStatus.RETURNED
-                || current == ParcelStatus.CANCELLED) {
-            throw new AuthException(
-                    ErrorCode.PARCEL_STATUS_INVALID,
-                    "Cannot change status from a final state: " + current
-            );
-        }
-
-        // Cancel/Return always possible before final
-        if (next == ParcelStatus.CANCELLED
-                || next == ParcelStatus.RETURNED
-                || next == ParcelStatus.RETURNED_TO_SENDER) {
-            return;
-        }
-
-        // Check explicit allowed transitions
-        Set<ParcelStatus> allowed = ALLOWED_TRANSITIONS.getOrDefault(current, EnumSet.noneOf(ParcelStatus.class));
-        if (!allowed.contains(next)) {
-            throw new AuthException(
-                    ErrorCode.PARCEL_STATUS_INVALID,
-                    "Invalid status transition: " + current + " -> " + next
-            );
-        }
-    }
-
     // ================== PAYMENT GATE ==================
 
     /**
@@ -462,14 +340,10 @@ public class ScanEventServiceImpl implements ScanEventService {
     /**
      * Updates the parcel's denormalized current location from the scan event GPS.
      * The parcel's location during transit = the GPS of the last scanning device.
+     * Written behind by {@link LastKnownLocationCache} with a partial UPDATE, not a parcel save.
      */
     private void updateParcelLocation(Parcel parcel, ScanEvent event) {
-        if (event.getLatitude() != null && event.getLongitude() != null) {
-            parcel.setCurrentLatitude(event.getLatitude());
-            parcel.setCurrentLongitude(event.getLongitude());
-            parcel.setLocationUpdatedAt(event.getTimestamp());
-            parcelRepository.save(parcel);
-        }
+        lastKnownLocations.recordParcel(parcel.getId(), event.getLatitude(), event.getLongitude(), event.getTimestamp());
     }
 
     // ================== CURRENT USER ==================
@@ -537,18 +411,18 @@ public class ScanEventServiceImpl implements ScanEventService {
     // ================== OFFLINE SYNC (SPEC SECTION 11) ==================
 
     /**
-     * Sync offline events - processes events that were recorded offline
-     * and syncs them to the server with proper ordering by deviceTimestamp.
+     * Sync offline events. The caller is resolved once; OfflineSyncEngine commits the batch in
+     * chunks of its own, so this runs outside the class-level transaction.
      */
     @Override
-    public com.smartcampost.backend.dto.scan.OfflineSyncResponse syncOfflineEvents(
-            com.smartcampost.backend.dto.scan.OfflineSyncRequest request) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public OfflineSyncResponse syncOfflineEvents(OfflineSyncRequest request) {
 
         Objects.requireNonNull(request, "request is required");
         Objects.requireNonNull(request.getEvents(), "events list is required");
 
         UserAccount currentUser = getCurrentUser();
-        
+
         // Clients are not allowed to sync operational scan events
         if (currentUser.getRole() == UserRole.CLIENT) {
             throw new AuthException(
@@ -557,187 +431,13 @@ public class ScanEventServiceImpl implements ScanEventService {
             );
         }
 
-        final int totalEvents = request.getEvents().size();
-        final String batchId = (request.getBatchId() != null && !request.getBatchId().isBlank())
-                ? request.getBatchId()
-                : java.util.UUID.randomUUID().toString();
-
-        List<com.smartcampost.backend.dto.scan.OfflineSyncResponse.SyncedEvent> syncedEvents = 
-            new java.util.ArrayList<>();
-        List<com.smartcampost.backend.dto.scan.OfflineSyncResponse.FailedEvent> failedEvents = 
-            new java.util.ArrayList<>();
-
-        // Legacy failure format (kept for backward compatibility with existing frontend)
-        List<com.smartcampost.backend.dto.scan.OfflineSyncResponse.SyncFailure> failures =
-            new java.util.ArrayList<>();
-
-        // Sort events by deviceTimestamp to maintain correct order
-        List<ScanEventCreateRequest> sortedEvents = request.getEvents().stream()
-                .sorted((a, b) -> {
-                    Instant timeA = a.getDeviceTimestamp() != null ? a.getDeviceTimestamp() : Instant.now();
-                    Instant timeB = b.getDeviceTimestamp() != null ? b.getDeviceTimestamp() : Instant.now();
-                    return timeA.compareTo(timeB);
-                })
-                .collect(Collectors.toList());
-
-        for (int idx = 0; idx < sortedEvents.size(); idx++) {
-            ScanEventCreateRequest eventRequest = sortedEvents.get(idx);
-            try {
-                // Create the scan event with offline metadata
-                ScanEventResponse response = recordOfflineScanEvent(eventRequest, request.getDeviceId());
-                
-                syncedEvents.add(com.smartcampost.backend.dto.scan.OfflineSyncResponse.SyncedEvent.builder()
-                        .localId(eventRequest.getLocalId())
-                        .serverId(response.getId())
-                        .serverTimestamp(response.getTimestamp())
-                        .build());
-                        
-            } catch (Exception e) {
-                failedEvents.add(com.smartcampost.backend.dto.scan.OfflineSyncResponse.FailedEvent.builder()
-                        .localId(eventRequest.getLocalId())
-                        .error(e.getMessage())
-                        .retryable(isRetryableError(e))
-                        .build());
-
-                failures.add(com.smartcampost.backend.dto.scan.OfflineSyncResponse.SyncFailure.builder()
-                    .eventIndex(idx)
-                    .parcelId(eventRequest.getParcelId() != null ? eventRequest.getParcelId().toString() : null)
-                    .eventType(eventRequest.getEventType())
-                    .errorMessage(e.getMessage())
-                    .build());
-            }
-        }
-
-        return com.smartcampost.backend.dto.scan.OfflineSyncResponse.builder()
-                .batchId(batchId)
-                .totalEvents(totalEvents)
-                .successCount(syncedEvents.size())
-                .failureCount(failedEvents.size())
-                .failures(failures)
-                .syncedAt(Instant.now())
-                .syncedCount(syncedEvents.size())
-                .failedCount(failedEvents.size())
-                .syncedEvents(syncedEvents)
-                .failedEvents(failedEvents)
-                .serverTimestamp(Instant.now())
-                .build();
-    }
-
-    /**
-     * Record a scan event that was created offline.
-     */
-    private ScanEventResponse recordOfflineScanEvent(ScanEventCreateRequest request, String deviceId) {
-            UserAccount currentUser = getCurrentUser();
-
-            // Actor must be authoritative from authenticated context
-            final String actorId = currentUser.getEntityId() != null ? currentUser.getEntityId().toString() : null;
-            final String actorRole = currentUser.getRole() != null ? currentUser.getRole().name() : null;
-        Objects.requireNonNull(request.getParcelId(), "parcelId is required");
-        Objects.requireNonNull(request.getEventType(), "eventType is required");
-        Objects.requireNonNull(request.getLatitude(), "GPS latitude is mandatory");
-        Objects.requireNonNull(request.getLongitude(), "GPS longitude is mandatory");
-
-        UUID reqParcelId = request.getParcelId();
-        Parcel parcel = parcelRepository.findById(Objects.requireNonNull(reqParcelId, "parcelId is required"))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "Parcel not found",
-                        ErrorCode.PARCEL_NOT_FOUND
-                ));
-
-        Agency agency = null;
-        if (request.getAgencyId() != null) {
-            agency = agencyRepository.findById(Objects.requireNonNull(request.getAgencyId(), "agencyId is required"))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                    "Agency not found",
-                    ErrorCode.AGENCY_NOT_FOUND
-                ));
-        }
-
-        Agent agent = null;
-        if (request.getAgentId() != null) {
-            agent = agentRepository.findById(Objects.requireNonNull(request.getAgentId(), "agentId is required"))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                    "Agent not found",
-                    ErrorCode.AGENT_NOT_FOUND
-                ));
-        } else if (currentUser.getRole() == UserRole.AGENT) {
-            UUID currentEntityId = Objects.requireNonNull(currentUser.getEntityId(), "current user entityId is required");
-            agent = agentRepository.findById(currentEntityId)
-                .orElseThrow(() -> new ResourceNotFoundException(
-                    "Agent not found for current user",
-                    ErrorCode.AGENT_NOT_FOUND
-                ));
-        }
-
-        ScanEventType type;
-        try {
-            type = ScanEventType.valueOf(request.getEventType().toUpperCase());
-        } catch (IllegalArgumentException ex) {
-            throw new AuthException(
-                    ErrorCode.BUSINESS_ERROR,
-                    "Unknown scan event type: " + request.getEventType()
-            );
-        }
-
-        // Create event with offline metadata
-        ScanEvent event = ScanEvent.builder()
-                .id(UUID.randomUUID())
-                .parcel(parcel)
-                .agency(agency)
-                .agent(agent)
-                .eventType(type)
-                .timestamp(Instant.now())
-                .locationNote(request.getLocationNote())
-                // GPS data (mandatory)
-                .latitude(request.getLatitude())
-                .longitude(request.getLongitude())
-                .locationSource(resolveLocationSource(request.getLocationSource()))
-                // Device timestamp for offline sync ordering
-                .deviceTimestamp(request.getDeviceTimestamp())
-                // Actor info
-                .actorId(actorId)
-                .actorRole(actorRole)
-                // Proof
-                .proofUrl(request.getProofUrl())
-                .comment(request.getComment())
-                // Offline sync metadata
-                .synced(true)
-                .offlineCreatedAt(request.getDeviceTimestamp())
-                .syncedAt(Instant.now())
-                .build();
-
-        ScanEvent savedEvent = scanEventRepository.save(event);
-
-        // Update parcel location from scan event GPS
-        updateParcelLocation(parcel, savedEvent);
-
-        // Update parcel status based on event
-        ParcelStatus newStatus = applyParcelStatusFromEvent(parcel, type);
-        if (newStatus != null) {
-            ParcelStatus oldStatus = parcel.getStatus();
-            validateStatusTransition(oldStatus, newStatus);
-            parcel.setStatus(newStatus);
-            parcelRepository.save(parcel);
-        }
-
-        return toResponse(savedEvent);
+        return offlineSyncEngine.sync(request, currentUser);
     }
 
-    private LocationSource resolveLocationSource(String raw) {
-        if (raw == null || raw.isBlank()) {
-            return LocationSource.DEVICE_GPS;
-        }
-
-        String normalized = raw.trim().toUpperCase();
-        if ("GPS".equals(normalized)) {
-            normalized = "DEVICE_GPS";
-        }
-
-        try {
-            return LocationSource.valueOf(normalized);
-        } catch (IllegalArgumentException ex) {
-            return LocationSource.CACHED;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public OfflineSyncCursorResponse getSyncCursor(String deviceId, String batchId) {
+        return offlineSyncEngine.cursor(deviceId, batchId, getCurrentUser());
     }
 
     /**
@@ -763,24 +463,22 @@ public class ScanEventServiceImpl implements ScanEventService {
             );
         }
 
-        return scanEventRepository.findTopByParcel_IdOrderByTimestampDesc(id)
-                .map(this::toResponse)
-                .orElse(null);
+        return getLastScanEvents(List.of(id)).get(id);
     }
 
-    /**
-     * Determine if an error is retryable for offline sync.
-     */
-    private boolean isRetryableError(Exception e) {
-        // Network errors, timeouts are retryable
-        // Validation errors, not found errors are not retryable
-        if (e instanceof ResourceNotFoundException) {
-            return false;
-        }
-        if (e instanceof AuthException) {
-            return false;
+    @Override
+    @Transactional(readOnly = true)
+    public Map<UUID, ScanEventResponse> getLastScanEvents(Collection<UUID> parcelIds) {
+        if (parcelIds == null || parcelIds.isEmpty()) return Map.of();
+        List<UUID> ids = List.copyOf(parcelIds);
+        Map<UUID, ScanEventResponse> latest = new HashMap<>();
+        // Bounded IN lists: map overviews can cover thousands of parcels
+        for (int from = 0; from < ids.size(); from += LATEST_SCAN_BATCH_SIZE) {
+            List<UUID> batch = ids.subList(from, Math.min(ids.size(), from + LATEST_SCAN_BATCH_SIZE));
+            for (ScanEvent event : scanEventRepository.findLatestByParcelIds(batch)) {
+                latest.put(event.getParcelId(), toResponse(event));
+            }
         }
-        // Database connectivity issues, etc. are retryable
-        return true;
+        return latest;
     }
 }
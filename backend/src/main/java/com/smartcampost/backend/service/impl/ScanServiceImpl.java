@@ -8,6 +8,7 @@ import com.smartcampost.backend.service.ScanService;
 import com.smartcampost.backend.dto.scan.ScanEventCreateRequest;
 import com.smartcampost.backend.dto.scan.ScanEventResponse;
 import com.smartcampost.backend.service.ScanEventService;
+import com.smartcampost.backend.service.scan.LatestScanProjection;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.slf4j.Logger;
@@ -23,14 +24,17 @@ public class ScanServiceImpl implements ScanService {
 
     private final ScanEventRepository scanEventRepository;
     private final ScanEventService scanEventService;
+    private final LatestScanProjection latestScanProjection;
 
     private final com.smartcampost.backend.sse.SseEmitters sseEmitters;
 
     public ScanServiceImpl(ScanEventRepository scanEventRepository,
                            ScanEventService scanEventService,
+                           LatestScanProjection latestScanProjection,
                            com.smartcampost.backend.sse.SseEmitters sseEmitters) {
         this.scanEventRepository = scanEventRepository;
         this.scanEventService = scanEventService;
+        this.latestScanProjection = latestScanProjection;
         this.sseEmitters = sseEmitters;
     }
 
@@ -53,6 +57,7 @@ public class ScanServiceImpl implements ScanService {
         // Clients may record tracking scans without GPS (legacy behavior)
         if (!canUpdate) {
             ScanEvent saved = scanEventRepository.save(evt);
+            latestScanProjection.record(saved);
             try {
                 sseEmitters.emitScan(saved);
             } catch (Exception ex) {
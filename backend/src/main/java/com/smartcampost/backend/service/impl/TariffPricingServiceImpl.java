@@ -6,8 +6,9 @@ import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.PricingDetail;
-import com.smartcampost.backend.model.Tariff;
 import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.pricing.TariffCatalog;
+import com.smartcampost.backend.pricing.TariffTable;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.repository.PricingDetailRepository;
 import com.smartcampost.backend.repository.TariffRepository;
@@ -28,6 +29,7 @@ public class TariffPricingServiceImpl implements TariffPricingService {
     private final TariffRepository tariffRepository;
     private final ParcelRepository parcelRepository;
     private final PricingDetailRepository pricingDetailRepository;
+    private final TariffCatalog tariffCatalog;
 
     @Override
     public TariffQuoteResponse quotePrice(TariffQuoteRequest request) {
@@ -48,7 +50,8 @@ public class TariffPricingServiceImpl implements TariffPricingService {
             throw new RuntimeException("Invalid service type: " + request.getServiceType());
         }
 
-        String weightBracket = WeightBracketResolver.resolve(request.getWeight());
+        int bracket = WeightBracketResolver.index(request.getWeight());
+        String weightBracket = WeightBracketResolver.BRACKETS.get(bracket);
 
         final String oz = originZone;
         final String dz = destZone;
@@ -56,18 +59,15 @@ public class TariffPricingServiceImpl implements TariffPricingService {
         // 1) Exact zone match
         // 2) NATIONAL/NATIONAL same bracket
         // 3) Any tariff for this service type (broadest fallback)
-        Tariff tariff = tariffRepository
-                .findFirstByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(serviceType, oz, dz, weightBracket)
-                .or(() -> tariffRepository.findFirstByServiceTypeAndOriginZoneAndDestinationZoneAndWeightBracket(
-                        serviceType, "NATIONAL", "NATIONAL", weightBracket))
-                .or(() -> tariffRepository.findFirstByServiceTypeAndOriginZoneAndDestinationZone(
-                        serviceType, "NATIONAL", "NATIONAL"))
-                .or(() -> tariffRepository.findFirstByServiceType(serviceType))
-                .orElseThrow(() -> new ResourceNotFoundException(
-                        "No tariff configured for service type " + serviceType,
-                        ErrorCode.TARIFF_NOT_FOUND));
-
-        double basePrice = tariff.getPrice().doubleValue();
+        // The compiled table has these fallbacks precomputed
+        TariffTable.Entry tariff = tariffCatalog.table().resolveBroad(serviceType, oz, dz, bracket);
+        if (tariff == null) {
+            throw new ResourceNotFoundException(
+                    "No tariff configured for service type " + serviceType,
+                    ErrorCode.TARIFF_NOT_FOUND);
+        }
+
+        double basePrice = tariff.priceValue();
         // Weight surcharge: +5% per kg above 5 kg to reward correct weight entry
         double weightCharge = request.getWeight() > 5.0
                 ? Math.round((request.getWeight() - 5.0) * basePrice * 0.05) : 0.0;
@@ -82,7 +82,7 @@ public class TariffPricingServiceImpl implements TariffPricingService {
 
             PricingDetail detail = PricingDetail.builder()
                     .parcel(parcel)
-                    .tariff(tariff)
+                    .tariff(tariffRepository.getReferenceById(tariff.tariffId()))
                     .appliedPrice(total)
                     .appliedAt(Instant.now())
                     .build();
@@ -91,9 +91,9 @@ public class TariffPricingServiceImpl implements TariffPricingService {
         }
 
         return TariffQuoteResponse.builder()
-                .tariffId(tariff.getId())
+                .tariffId(tariff.tariffId())
                 .parcelId(parcelId)
-                .serviceType(tariff.getServiceType().name())
+                .serviceType(tariff.serviceType().name())
                 .originZone(oz)
                 .destinationZone(dz)
                 .weightBracket(weightBracket)
@@ -8,6 +8,7 @@ import com.smartcampost.backend.exception.ErrorCode;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
 import com.smartcampost.backend.model.Tariff;
 import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.pricing.TariffCatalog;
 import com.smartcampost.backend.repository.TariffRepository;
 import com.smartcampost.backend.service.TariffService;
 import lombok.RequiredArgsConstructor;
@@ -24,6 +25,7 @@ import java.util.UUID;
 public class TariffServiceImpl implements TariffService {
 
     private final TariffRepository tariffRepository;
+    private final TariffCatalog tariffCatalog;
 
     @Override
     public TariffResponse createTariff(CreateTariffRequest request) {
@@ -60,6 +62,7 @@ public class TariffServiceImpl implements TariffService {
                 .build();
 
         Tariff saved = tariffRepository.save(tariff);
+        tariffCatalog.tariffsChanged();
 
         return toResponse(saved);
     }
@@ -77,6 +80,7 @@ public class TariffServiceImpl implements TariffService {
         tariff.setPrice(request.getPrice());
 
         Tariff saved = tariffRepository.save(tariff);
+        tariffCatalog.tariffsChanged();
 
         return toResponse(saved);
     }
@@ -117,6 +121,7 @@ public class TariffServiceImpl implements TariffService {
                 ));
 
         tariffRepository.delete(Objects.requireNonNull(tariff, "tariff is required"));
+        tariffCatalog.tariffsChanged();
     }
 
     // =============== HELPERS ===============
@@ -8,6 +8,10 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.reactive.function.client.WebClient;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 import java.time.Duration;
@@ -22,11 +26,14 @@ import java.util.Map;
 public class OpenAIClient {
 
     private final WebClient webClient;
+    private final ObjectMapper objectMapper;
 
         public OpenAIClient(
             @Value("${OPENAI_API_KEY:}") @NonNull String apiKey,
-            @Value("${OPENAI_API_URL:https://api.openai.com}") @NonNull String apiUrl
+            @Value("${OPENAI_API_URL:https://api.openai.com}") @NonNull String apiUrl,
+            ObjectMapper objectMapper
         ) {
+        this.objectMapper = objectMapper;
         String effectiveKey = Objects.requireNonNullElse(apiKey, "");
         String effectiveUrl = Objects.requireNonNullElse(apiUrl, "https://api.openai.com");
         String baseUrl = Objects.requireNonNull(effectiveUrl, "OPENAI_API_URL is required");
@@ -59,6 +66,56 @@ public class OpenAIClient {
                 });
     }
 
+    /**
+     * Call chat completions endpoint with {@code stream=true}.
+     * Emits the content deltas as they arrive; completes empty on error, and stops (keeping what
+     * was already emitted) if the model stalls for more than 20 s between chunks.
+     */
+    public Flux<String> streamChatCompletion(String model, List<Map<String, String>> messages, int maxTokens, double temperature) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("messages", messages);
+        body.put("max_tokens", maxTokens);
+        body.put("temperature", temperature);
+        body.put("stream", true);
+
+        return webClient.post()
+                .uri(uriBuilder -> uriBuilder.path("/v1/chat/completions").build())
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .bodyValue(body)
+                .exchangeToFlux(response -> {
+                    if (!response.statusCode().is2xxSuccessful()) {
+                        return response.bodyToMono(String.class).flatMapMany(err -> {
+                            log.warn("OpenAI non-2xx response: {} - {}", response.statusCode(), err);
+                            return Flux.empty();
+                        });
+                    }
+                    return response.bodyToFlux(new ParameterizedTypeReference<ServerSentEvent<String>>() {
+                    });
+                })
+                .map(ServerSentEvent::data)
+                .filter(Objects::nonNull)
+                .takeWhile(data -> !"[DONE]".equals(data.trim()))
+                .map(this::deltaContent)
+                .filter(delta -> !delta.isEmpty())
+                .timeout(Duration.ofSeconds(20))
+                .onErrorResume(ex -> {
+                    log.error("OpenAI stream failed: {}", ex.getMessage());
+                    return Flux.empty();
+                });
+    }
+
+    /** {@code choices[0].delta.content} of one streamed chunk, or "" (role-only and final chunks). */
+    String deltaContent(String chunk) {
+        try {
+            JsonNode content = objectMapper.readTree(chunk).path("choices").path(0).path("delta").path("content");
+            return content.isTextual() ? content.asText() : "";
+        } catch (Exception e) {
+            log.debug("Skipping unparseable OpenAI chunk: {}", e.getMessage());
+            return "";
+        }
+    }
+
     private Mono<String> handleResponse(ClientResponse response) {
         if (response.statusCode().is2xxSuccessful()) {
             return response.bodyToMono(new ParameterizedTypeReference<Map<String, Object>>() {
@@ -0,0 +1,68 @@
+package com.smartcampost.backend.service.scan;
+
+import com.smartcampost.backend.model.ScanEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Maintains parcel_latest_scan, the latest ScanEvent of each parcel, so readers fetch the last
+ * scan of many parcels with one query instead of one ordered scan_event query per parcel.
+ *
+ * Upserted with plain JDBC in the caller's transaction, next to the scan_event insert: a scan and
+ * its projection commit or roll back together. A row only moves forward in time, so concurrent or
+ * out-of-order scans of the same parcel cannot overwrite a later one.
+ */
+@Component
+public class LatestScanProjection {
+
+    // scanned_at is assigned last: MySQL evaluates the assignments left to right
+    private static final String UPSERT_SQL =
+            "INSERT INTO parcel_latest_scan (parcel_id, scan_id, scanned_at, actor_id) VALUES (?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE " +
+            "scan_id = CASE WHEN scanned_at <= ? THEN ? ELSE scan_id END, " +
+            "actor_id = CASE WHEN scanned_at <= ? THEN ? ELSE actor_id END, " +
+            "scanned_at = CASE WHEN scanned_at <= ? THEN ? ELSE scanned_at END";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public LatestScanProjection(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Records a saved scan (id and timestamp assigned) as its parcel's latest if it is the newest. */
+    public void record(ScanEvent event) {
+        recordAll(List.of(event));
+    }
+
+    /** Same as {@link #record} for several scans, in one JDBC batch. */
+    public void recordAll(Collection<ScanEvent> events) {
+        List<ScanEvent> rows = events.stream()
+                .filter(e -> e.getId() != null && e.getParcelId() != null && e.getTimestamp() != null)
+                .toList();
+        if (rows.isEmpty()) return;
+        jdbcTemplate.batchUpdate(UPSERT_SQL, rows, rows.size(), (ps, e) -> {
+            byte[] scanId = bytes(e.getId());
+            Timestamp at = Timestamp.from(e.getTimestamp());
+            ps.setBytes(1, bytes(e.getParcelId()));
+            ps.setBytes(2, scanId);
+            ps.setTimestamp(3, at);
+            ps.setString(4, e.getActorId());
+            ps.setTimestamp(5, at);
+            ps.setBytes(6, scanId);
+            ps.setTimestamp(7, at);
+            ps.setString(8, e.getActorId());
+            ps.setTimestamp(9, at);
+            ps.setTimestamp(10, at);
+        });
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,600 @@
+package com.smartcampost.backend.service.scan;
+
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.dto.scan.OfflineSyncCursorResponse;
+import com.smartcampost.backend.dto.scan.OfflineSyncRequest;
+import com.smartcampost.backend.dto.scan.OfflineSyncResponse;
+import com.smartcampost.backend.dto.scan.ScanEventCreateRequest;
+import com.smartcampost.backend.exception.AuthException;
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
+import com.smartcampost.backend.model.Agency;
+import com.smartcampost.backend.model.Agent;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.ScanEvent;
+import com.smartcampost.backend.model.UserAccount;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.ScanEventType;
+import com.smartcampost.backend.model.enums.UserRole;
+import com.smartcampost.backend.repository.AgencyRepository;
+import com.smartcampost.backend.repository.AgentRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.ScanEventRepository;
+import com.smartcampost.backend.service.NotificationService;
+import com.smartcampost.backend.sse.SseEmitters;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * Bulk offline scan sync. A courier back online after a day can upload hundreds of scans; they
+ * are handled in chunks of {@code chunk-size}, each in one short transaction:
+ *
+ * - Idempotent on (deviceId, localId): an event already stored (a retried upload) is reported
+ *   as synced with its original server id instead of being inserted again. Without a deviceId
+ *   the caller's actor id namespaces the localIds.
+ * - The chunk's parcels, agencies and agents are loaded with one query each, transitions are
+ *   validated in memory against each parcel's running status, and the accepted events are
+ *   written with one JDBC batch insert.
+ * - Parcels are updated once, to their final status; the last position goes through
+ *   {@link LastKnownLocationCache}. SSE and client notifications are sent once per parcel for
+ *   that final state, not once per scan; every accepted scan still publishes its
+ *   {@link ScanEventRecordedEvent}, so the AI agents and event log see each one.
+ * - offline_sync_cursor records, in the chunk's transaction, the upload offset to resume from:
+ *   every event before it is committed (events after it may be too, and are deduplicated when
+ *   re-sent). A device that timed out asks for the cursor and resumes from there. Only the
+ *   actor that uploaded a batch (or staff) can read its cursor.
+ *
+ * Like the per-event sync it replaces, the payment gate of live scans is not applied here.
+ */
+@Component
+@Slf4j
+public class OfflineSyncEngine {
+
+    private static final String CREATE_CURSOR_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS offline_sync_cursor (" +
+            "device_id VARCHAR(64) NOT NULL, " +
+            "batch_id VARCHAR(64) NOT NULL, " +
+            "next_offset INT NOT NULL, " +
+            "total_events INT NULL, " +
+            "actor_id VARCHAR(64) NULL, " +
+            "updated_at DATETIME(3) NOT NULL, " +
+            "PRIMARY KEY (device_id, batch_id))";
+
+    private static final String UPSERT_CURSOR_SQL =
+            "INSERT INTO offline_sync_cursor (device_id, batch_id, next_offset, total_events, actor_id, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON DUPLICATE KEY UPDATE next_offset = GREATEST(next_offset, ?), " +
+            "total_events = COALESCE(?, total_events), updated_at = ?";
+
+    private static final String INSERT_SCAN_SQL =
+            "INSERT INTO scan_event (scan_id, parcel_id, agency_id, agent_id, event_type, timestamp, location_note, " +
+            "latitude, longitude, location_source, device_timestamp, actor_id, actor_role, proof_url, comment, " +
+            "is_synced, offline_created_at, synced_at, device_id, local_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ScanEventRepository scanEventRepository;
+    private final ParcelRepository parcelRepository;
+    private final AgencyRepository agencyRepository;
+    private final AgentRepository agentRepository;
+    private final NotificationService notificationService;
+    private final SseEmitters sseEmitters;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LastKnownLocationCache lastKnownLocations;
+    private final ActorParcelIndex actorParcelIndex;
+    private final LatestScanProjection latestScanProjection;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.offline-sync.chunk-size:100}")
+    private int chunkSize = 100;
+
+    private Timer syncTimer;
+    private Counter syncedCounter;
+    private Counter duplicateCounter;
+    private Counter failedCounter;
+
+    public OfflineSyncEngine(JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             ScanEventRepository scanEventRepository,
+                             ParcelRepository parcelRepository,
+                             AgencyRepository agencyRepository,
+                             AgentRepository agentRepository,
+                             NotificationService notificationService,
+                             SseEmitters sseEmitters,
+                             ApplicationEventPublisher eventPublisher,
+                             LastKnownLocationCache lastKnownLocations,
+                             ActorParcelIndex actorParcelIndex,
+                             LatestScanProjection latestScanProjection,
+                             MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.scanEventRepository = scanEventRepository;
+        this.parcelRepository = parcelRepository;
+        this.agencyRepository = agencyRepository;
+        this.agentRepository = agentRepository;
+        this.notificationService = notificationService;
+        this.sseEmitters = sseEmitters;
+        this.eventPublisher = eventPublisher;
+        this.lastKnownLocations = lastKnownLocations;
+        this.actorParcelIndex = actorParcelIndex;
+        this.latestScanProjection = latestScanProjection;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void init() {
+        jdbcTemplate.execute(CREATE_CURSOR_TABLE_SQL);
+        syncTimer = Timer.builder("smartcampost.offline-sync.duration")
+                .description("Latency of one offline sync request")
+                .register(meterRegistry);
+        syncedCounter = eventCounter("synced");
+        duplicateCounter = eventCounter("duplicate");
+        failedCounter = eventCounter("failed");
+    }
+
+    private Counter eventCounter(String outcome) {
+        return Counter.builder("smartcampost.offline-sync.events").tag("outcome", outcome).register(meterRegistry);
+    }
+
+    /** One event of the request with its position in the request. */
+    private record Item(int index, ScanEventCreateRequest request) {}
+
+    /** Who is syncing and where the chunk's events go. */
+    private record SyncContext(String deviceKey, String batchId, String actorId, String actorRole,
+                               UUID currentAgentId, Integer totalEvents) {}
+
+    /** A parcel touched by a chunk: its status before the chunk, and the running state after each event. */
+    private static final class ParcelState {
+        final Parcel parcel;
+        final ParcelStatus initialStatus;
+        ParcelStatus status;
+        ScanEvent lastEvent;
+        // Every accepted scan, in processing order
+        final List<ScanEvent> events = new ArrayList<>();
+
+        ParcelState(Parcel parcel) {
+            this.parcel = parcel;
+            this.initialStatus = parcel.getStatus();
+            this.status = parcel.getStatus();
+        }
+    }
+
+    /** Per-event outcomes of the whole request, in processing order. */
+    private static final class Outcome {
+        final List<OfflineSyncResponse.SyncedEvent> synced = new ArrayList<>();
+        final List<OfflineSyncResponse.FailedEvent> failed = new ArrayList<>();
+        final List<OfflineSyncResponse.SyncFailure> failures = new ArrayList<>();
+        int duplicates;
+
+        void synced(Item item, UUID serverId, Instant serverTimestamp) {
+            synced.add(OfflineSyncResponse.SyncedEvent.builder()
+                    .localId(item.request().getLocalId())
+                    .serverId(serverId)
+                    .serverTimestamp(serverTimestamp)
+                    .build());
+        }
+
+        void failed(Item item, String error, boolean retryable) {
+            ScanEventCreateRequest request = item.request();
+            failed.add(OfflineSyncResponse.FailedEvent.builder()
+                    .localId(request.getLocalId())
+                    .error(error)
+                    .retryable(retryable)
+                    .build());
+            failures.add(OfflineSyncResponse.SyncFailure.builder()
+                    .eventIndex(item.index())
+                    .parcelId(request.getParcelId() != null ? request.getParcelId().toString() : null)
+                    .eventType(request.getEventType())
+                    .errorMessage(error)
+                    .build());
+        }
+    }
+
+    public OfflineSyncResponse sync(OfflineSyncRequest request, UserAccount currentUser) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        List<ScanEventCreateRequest> events = request.getEvents();
+        String actorId = currentUser.getEntityId() != null ? currentUser.getEntityId().toString() : null;
+        String deviceKey = request.getDeviceId() != null && !request.getDeviceId().isBlank()
+                ? request.getDeviceId().trim()
+                : actorId != null ? "actor:" + actorId : null;
+        String batchId = request.getBatchId() != null && !request.getBatchId().isBlank()
+                ? request.getBatchId()
+                : UUID.randomUUID().toString();
+        SyncContext context = new SyncContext(
+                deviceKey,
+                batchId,
+                actorId,
+                currentUser.getRole() != null ? currentUser.getRole().name() : null,
+                currentUser.getRole() == UserRole.AGENT ? currentUser.getEntityId() : null,
+                request.getTotalEvents());
+
+        // Oldest device time first, so each parcel's transitions are checked in the order they happened
+        List<Item> ordered = new ArrayList<>(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            ordered.add(new Item(i, events.get(i)));
+        }
+        ordered.sort(Comparator.comparing(item -> item.request().getDeviceTimestamp(),
+                Comparator.nullsLast(Comparator.naturalOrder())));
+
+        int offset = request.getOffset() != null ? request.getOffset() : 0;
+        int size = Math.max(1, chunkSize);
+        // The cursor is an offset into the upload order, but chunks follow device time: after a
+        // chunk commits, the device must resume from the lowest upload index not yet committed.
+        int[] resumeAt = new int[ordered.size() + 1];
+        resumeAt[ordered.size()] = ordered.size();
+        for (int i = ordered.size() - 1; i >= 0; i--) {
+            resumeAt[i] = Math.min(resumeAt[i + 1], ordered.get(i).index());
+        }
+        int cursor = offset;
+        Outcome outcome = new Outcome();
+        for (int from = 0; from < ordered.size(); from += size) {
+            int to = Math.min(ordered.size(), from + size);
+            List<Item> chunk = ordered.subList(from, to);
+            int nextCursor = offset + resumeAt[to];
+            Outcome chunkOutcome = new Outcome();
+            try {
+                List<ParcelState> touched = transactionTemplate.execute(
+                        status -> processChunk(chunk, context, nextCursor, chunkOutcome));
+                emitSse(touched);
+            } catch (Exception e) {
+                // The chunk rolled back: it and everything after it can be uploaded again
+                log.warn("[OFFLINE-SYNC] Chunk of {} events failed for device {} batch {}: {}",
+                        chunk.size(), deviceKey, batchId, e.getMessage());
+                for (Item item : ordered.subList(from, ordered.size())) {
+                    outcome.failed(item, "Not synced, retry: " + e.getMessage(), true);
+                }
+                break;
+            }
+            merge(outcome, chunkOutcome);
+            cursor = nextCursor;
+        }
+
+        int syncedCount = outcome.synced.size();
+        syncedCounter.increment(syncedCount - outcome.duplicates);
+        duplicateCounter.increment(outcome.duplicates);
+        failedCounter.increment(outcome.failed.size());
+        sample.stop(syncTimer);
+        log.info("[OFFLINE-SYNC] device={} batch={} events={} synced={} duplicates={} failed={} cursor={}",
+                deviceKey, batchId, events.size(), syncedCount, outcome.duplicates, outcome.failed.size(), cursor);
+
+        Instant now = Instant.now();
+        return OfflineSyncResponse.builder()
+                .batchId(batchId)
+                .totalEvents(events.size())
+                .successCount(syncedCount)
+                .failureCount(outcome.failed.size())
+                .failures(outcome.failures)
+                .syncedAt(now)
+                .syncedCount(syncedCount)
+                .failedCount(outcome.failed.size())
+                .syncedEvents(outcome.synced)
+                .failedEvents(outcome.failed)
+                .serverTimestamp(now)
+                .duplicateCount(outcome.duplicates)
+                .cursor(cursor)
+                .complete(request.getTotalEvents() == null || cursor >= request.getTotalEvents())
+                .build();
+    }
+
+    private static void merge(Outcome into, Outcome chunk) {
+        into.synced.addAll(chunk.synced);
+        into.failed.addAll(chunk.failed);
+        into.failures.addAll(chunk.failures);
+        into.duplicates += chunk.duplicates;
+    }
+
+    /** Runs in the chunk's transaction; returns the parcels it moved, for SSE after commit. */
+    private List<ParcelState> processChunk(List<Item> chunk, SyncContext context, int nextCursor, Outcome outcome) {
+        Map<String, ScanEventRepository.SyncedEventKey> alreadySynced = findAlreadySynced(chunk, context);
+        Map<UUID, Parcel> parcels = byId(parcelRepository.findAllById(ids(chunk, ScanEventCreateRequest::getParcelId)),
+                Parcel::getId);
+        Map<UUID, Agency> agencies = byId(agencyRepository.findAllById(ids(chunk, ScanEventCreateRequest::getAgencyId)),
+                Agency::getId);
+        Set<UUID> agentIds = ids(chunk, ScanEventCreateRequest::getAgentId);
+        if (context.currentAgentId() != null) agentIds.add(context.currentAgentId());
+        Map<UUID, Agent> agents = byId(agentRepository.findAllById(agentIds), Agent::getId);
+
+        Map<UUID, ParcelState> states = new LinkedHashMap<>();
+        Map<String, ScanEvent> insertedByLocalId = new HashMap<>();
+        List<ScanEvent> inserts = new ArrayList<>(chunk.size());
+        Instant syncedAt = Instant.now();
+
+        for (Item item : chunk) {
+            ScanEventCreateRequest request = item.request();
+            String localId = request.getLocalId();
+            if (localId != null && context.deviceKey() != null) {
+                ScanEventRepository.SyncedEventKey existing = alreadySynced.get(localId);
+                if (existing != null) {
+                    outcome.synced(item, existing.getId(), existing.getTimestamp());
+                    outcome.duplicates++;
+                    continue;
+                }
+                ScanEvent sameRequest = insertedByLocalId.get(localId);
+                if (sameRequest != null) {
+                    outcome.synced(item, sameRequest.getId(), sameRequest.getTimestamp());
+                    outcome.duplicates++;
+                    continue;
+                }
+            }
+
+            String error = validate(request, parcels, agencies, agents, context);
+            if (error != null) {
+                outcome.failed(item, error, false);
+                continue;
+            }
+            ScanEventType type = ScanEventType.valueOf(request.getEventType().toUpperCase());
+            Parcel parcel = parcels.get(request.getParcelId());
+            ParcelState state = states.computeIfAbsent(parcel.getId(), id -> new ParcelState(parcel));
+            ParcelStatus next = ScanEventRules.statusAfter(type);
+            if (next != null) {
+                try {
+                    ScanEventRules.validateTransition(state.status, next);
+                } catch (AuthException e) {
+                    outcome.failed(item, e.getMessage(), false);
+                    continue;
+                }
+                state.status = next;
+            }
+
+            UUID agentId = request.getAgentId() != null ? request.getAgentId() : context.currentAgentId();
+            ScanEvent event = ScanEvent.builder()
+                    .id(UUID.randomUUID())
+                    .parcel(parcel)
+                    .agency(request.getAgencyId() != null ? agencies.get(request.getAgencyId()) : null)
+                    .agent(agentId != null ? agents.get(agentId) : null)
+                    .eventType(type)
+                    .timestamp(Instant.now())
+                    .locationNote(request.getLocationNote())
+                    .latitude(request.getLatitude())
+                    .longitude(request.getLongitude())
+                    .locationSource(ScanEventRules.locationSource(request.getLocationSource()))
+                    .deviceTimestamp(request.getDeviceTimestamp())
+                    .actorId(context.actorId())
+                    .actorRole(context.actorRole())
+                    .proofUrl(request.getProofUrl())
+                    .comment(request.getComment())
+                    .synced(true)
+                    .offlineCreatedAt(request.getDeviceTimestamp())
+                    .syncedAt(syncedAt)
+                    .deviceId(localId != null ? context.deviceKey() : null)
+                    .localId(localId)
+                    .build();
+            inserts.add(event);
+            if (localId != null) insertedByLocalId.put(localId, event);
+            state.lastEvent = event;
+            state.events.add(event);
+            outcome.synced(item, event.getId(), event.getTimestamp());
+        }
+
+        insertScanEvents(inserts);
+
+        List<ParcelState> touched = new ArrayList<>();
+        for (ParcelState state : states.values()) {
+            if (state.lastEvent == null) continue;
+            touched.add(state);
+        }
+        latestScanProjection.recordAll(touched.stream().map(state -> state.lastEvent).toList());
+        for (ParcelState state : touched) {
+            ScanEvent last = state.lastEvent;
+            lastKnownLocations.recordParcel(state.parcel.getId(), last.getLatitude(), last.getLongitude(), last.getTimestamp());
+            actorParcelIndex.scanRecorded(state.parcel.getId(), last.getActorId(), state.status);
+            state.parcel.setStatus(state.status);
+        }
+        parcelRepository.saveAll(touched.stream()
+                .filter(state -> state.status != state.initialStatus)
+                .map(state -> state.parcel)
+                .toList());
+
+        for (ParcelState state : touched) {
+            publishDomainEvents(state);
+            notifyFinalStatus(state);
+        }
+
+        if (context.deviceKey() != null) {
+            Timestamp now = Timestamp.from(Instant.now());
+            jdbcTemplate.update(UPSERT_CURSOR_SQL,
+                    context.deviceKey(), context.batchId(), nextCursor, context.totalEvents(), context.actorId(), now,
+                    nextCursor, context.totalEvents(), now);
+        }
+        return touched;
+    }
+
+    private Map<String, ScanEventRepository.SyncedEventKey> findAlreadySynced(List<Item> chunk, SyncContext context) {
+        if (context.deviceKey() == null) return Map.of();
+        Set<String> localIds = new HashSet<>();
+        for (Item item : chunk) {
+            if (item.request().getLocalId() != null) localIds.add(item.request().getLocalId());
+        }
+        if (localIds.isEmpty()) return Map.of();
+        Map<String, ScanEventRepository.SyncedEventKey> existing = new HashMap<>();
+        for (ScanEventRepository.SyncedEventKey key : scanEventRepository.findSyncedKeys(context.deviceKey(), localIds)) {
+            existing.put(key.getLocalId(), key);
+        }
+        return existing;
+    }
+
+    /** Same checks and messages as a live scan; null when the event can be recorded. */
+    private static String validate(ScanEventCreateRequest request, Map<UUID, Parcel> parcels,
+                                   Map<UUID, Agency> agencies, Map<UUID, Agent> agents, SyncContext context) {
+        if (request.getParcelId() == null) return "parcelId is required";
+        if (request.getEventType() == null) return "eventType is required";
+        if (request.getLatitude() == null) return "GPS latitude is mandatory";
+        if (request.getLongitude() == null) return "GPS longitude is mandatory";
+        if (!parcels.containsKey(request.getParcelId())) return "Parcel not found";
+        if (request.getAgencyId() != null && !agencies.containsKey(request.getAgencyId())) return "Agency not found";
+        if (request.getAgentId() != null) {
+            if (!agents.containsKey(request.getAgentId())) return "Agent not found";
+        } else if (context.currentAgentId() != null && !agents.containsKey(context.currentAgentId())) {
+            return "Agent not found for current user";
+        }
+        try {
+            ScanEventType.valueOf(request.getEventType().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return "Unknown scan event type: " + request.getEventType();
+        }
+        return null;
+    }
+
+    private void insertScanEvents(List<ScanEvent> events) {
+        if (events.isEmpty()) return;
+        jdbcTemplate.batchUpdate(INSERT_SCAN_SQL, events, events.size(), (ps, e) -> {
+            ps.setBytes(1, bytes(e.getId()));
+            ps.setBytes(2, bytes(e.getParcel().getId()));
+            ps.setBytes(3, e.getAgency() != null ? bytes(e.getAgency().getId()) : null);
+            ps.setBytes(4, e.getAgent() != null ? bytes(e.getAgent().getId()) : null);
+            ps.setString(5, e.getEventType().name());
+            ps.setTimestamp(6, Timestamp.from(e.getTimestamp()));
+            ps.setString(7, e.getLocationNote());
+            ps.setDouble(8, e.getLatitude());
+            ps.setDouble(9, e.getLongitude());
+            ps.setString(10, e.getLocationSource().name());
+            ps.setTimestamp(11, timestamp(e.getDeviceTimestamp()));
+            ps.setString(12, e.getActorId());
+            ps.setString(13, e.getActorRole());
+            ps.setString(14, e.getProofUrl());
+            ps.setString(15, e.getComment());
+            ps.setBoolean(16, e.isSynced());
+            ps.setTimestamp(17, timestamp(e.getOfflineCreatedAt()));
+            ps.setTimestamp(18, timestamp(e.getSyncedAt()));
+            ps.setString(19, e.getDeviceId());
+            ps.setString(20, e.getLocalId());
+        });
+    }
+
+    private void publishDomainEvents(ParcelState state) {
+        try {
+            for (ScanEvent event : state.events) {
+                eventPublisher.publishEvent(new ScanEventRecordedEvent(
+                        event.getId(),
+                        state.parcel.getId(),
+                        event.getEventType(),
+                        event.getTimestamp(),
+                        event.getAgency() != null ? event.getAgency().getId() : null,
+                        event.getAgent() != null ? event.getAgent().getId() : null,
+                        event.getActorId(),
+                        event.getActorRole()));
+            }
+            if (state.status != state.initialStatus) {
+                eventPublisher.publishEvent(new ParcelStatusChangedEvent(
+                        state.parcel.getId(), state.initialStatus, state.status, Instant.now()));
+            }
+        } catch (Exception ex) {
+            log.warn("[OFFLINE-SYNC] Failed to publish domain events for parcel {}", state.parcel.getId(), ex);
+        }
+    }
+
+    /** The notification a live scan would have sent for the final status only. */
+    private void notifyFinalStatus(ParcelState state) {
+        if (state.status == state.initialStatus) return;
+        Parcel parcel = state.parcel;
+        try {
+            switch (state.status) {
+                case DELIVERED -> notificationService.notifyParcelDelivered(parcel);
+                case OUT_FOR_DELIVERY -> notificationService.notifyParcelOutForDelivery(parcel);
+                case IN_TRANSIT -> notificationService.notifyParcelInTransit(parcel);
+                case ARRIVED_DEST_AGENCY, ARRIVED_HUB -> notificationService.notifyParcelArrivedDestination(parcel);
+                default -> { }
+            }
+        } catch (Exception ex) {
+            log.warn("[OFFLINE-SYNC] Failed to notify {} for parcel {}", state.status, parcel.getId(), ex);
+        }
+    }
+
+    /** One scan-event and one tracking update per parcel, for its last event and final status. */
+    private void emitSse(List<ParcelState> touched) {
+        if (touched == null) return;
+        for (ParcelState state : touched) {
+            ScanEvent last = state.lastEvent;
+            try {
+                sseEmitters.emitScan(last);
+                String trackingRef = state.parcel.getTrackingRef();
+                if (trackingRef != null) {
+                    Map<String, Object> payload = new LinkedHashMap<>();
+                    payload.put("type", "scan-event");
+                    payload.put("parcelId", state.parcel.getId());
+                    payload.put("trackingRef", trackingRef);
+                    payload.put("eventType", last.getEventType().name());
+                    payload.put("timestamp", last.getTimestamp());
+                    payload.put("latitude", last.getLatitude());
+                    payload.put("longitude", last.getLongitude());
+                    payload.put("locationNote", last.getLocationNote());
+                    payload.put("parcelStatusAfter", state.status != null ? state.status.name() : null);
+                    sseEmitters.emitTrackingUpdate("scan-event", trackingRef, payload);
+                }
+            } catch (Exception ex) {
+                log.warn("[OFFLINE-SYNC] Failed to emit SSE for parcel {}", state.parcel.getId(), ex);
+            }
+        }
+    }
+
+    /**
+     * Cursor of a batch. Couriers and agents only see batches they uploaded themselves; for
+     * anyone else's batch they get the same answer as for an unknown one (start from 0).
+     */
+    public OfflineSyncCursorResponse cursor(String deviceId, String batchId, UserAccount caller) {
+        boolean staff = caller.getRole() != null && caller.getRole().isStaffLike();
+        String sql = "SELECT next_offset, total_events, updated_at FROM offline_sync_cursor "
+                + "WHERE device_id = ? AND batch_id = ?" + (staff ? "" : " AND actor_id = ?");
+        Object[] args = staff
+                ? new Object[]{deviceId, batchId}
+                : new Object[]{deviceId, batchId, caller.getEntityId() != null ? caller.getEntityId().toString() : ""};
+        List<OfflineSyncCursorResponse> rows = jdbcTemplate.query(sql,
+                (rs, n) -> {
+                    int cursor = rs.getInt("next_offset");
+                    Integer total = (Integer) rs.getObject("total_events");
+                    return OfflineSyncCursorResponse.builder()
+                            .deviceId(deviceId)
+                            .batchId(batchId)
+                            .cursor(cursor)
+                            .totalEvents(total)
+                            .complete(total != null && cursor >= total)
+                            .updatedAt(rs.getTimestamp("updated_at").toInstant())
+                            .build();
+                },
+                args);
+        if (!rows.isEmpty()) return rows.get(0);
+        return OfflineSyncCursorResponse.builder().deviceId(deviceId).batchId(batchId).cursor(0).build();
+    }
+
+    private static <T> Map<UUID, T> byId(List<T> entities, java.util.function.Function<T, UUID> id) {
+        Map<UUID, T> map = new HashMap<>();
+        for (T entity : entities) {
+            map.put(id.apply(entity), entity);
+        }
+        return map;
+    }
+
+    private static Set<UUID> ids(List<Item> chunk, java.util.function.Function<ScanEventCreateRequest, UUID> id) {
+        Set<UUID> ids = new HashSet<>();
+        for (Item item : chunk) {
+            UUID value = id.apply(item.request());
+            if (value != null) ids.add(value);
+        }
+        return ids;
+    }
+
+    private static Timestamp timestamp(Instant instant) {
+        return instant != null ? Timestamp.from(instant) : null;
+    }
+
+    /** BINARY(16) layout used by Hibernate for the UUID ids of these entities. */
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
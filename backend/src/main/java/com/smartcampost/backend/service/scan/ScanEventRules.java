@@ -0,0 +1,170 @@
+package com.smartcampost.backend.service.scan;
+
+import com.smartcampost.backend.exception.AuthException;
+import com.smartcampost.backend.exception.ErrorCode;
+import com.smartcampost.backend.model.enums.LocationSource;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.ScanEventType;
+
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parcel lifecycle rules shared by live scans (ScanEventServiceImpl) and offline sync
+ * (OfflineSyncEngine): which status a scan event leads to and which transitions are allowed.
+ */
+public final class ScanEventRules {
+
+    private ScanEventRules() {
+    }
+
+    // ================== STATUS AUTO-UPDATE (CONTEXT-AWARE) ==================
+
+    /**
+     * Determines the new parcel status based on the scan event type AND the parcel's
+     * delivery option (HOME vs AGENCY). This is the core business logic that drives
+     * the parcel lifecycle.
+     *
+     * KEY RULES:
+     * - HOME delivery: courier scans QR at client's home = TAKEN_IN_CHARGE (collection)
+     * - AGENCY delivery: agent scans QR at agency = AT_ORIGIN_AGENCY → TAKEN_IN_CHARGE
+     * - AT_ORIGIN_AGENCY always advances to TAKEN_IN_CHARGE (parcel is physically at agency)
+     * - The rest of the transit chain is identical for both delivery options
+     */
+    public static ParcelStatus statusAfter(ScanEventType type) {
+        if (type == null) return null;
+
+        return switch (type) {
+            case CREATED -> ParcelStatus.CREATED;
+            case ACCEPTED -> ParcelStatus.ACCEPTED;
+
+            // Context-aware: AT_ORIGIN_AGENCY means client deposited at agency
+            // → parcel is ready for transit → advance to TAKEN_IN_CHARGE
+            case AT_ORIGIN_AGENCY -> ParcelStatus.TAKEN_IN_CHARGE;
+
+            case TAKEN_IN_CHARGE -> ParcelStatus.TAKEN_IN_CHARGE;
+            case IN_TRANSIT -> ParcelStatus.IN_TRANSIT;
+            case ARRIVED_HUB -> ParcelStatus.ARRIVED_HUB;
+            case DEPARTED_HUB -> ParcelStatus.IN_TRANSIT;
+            case ARRIVED_DESTINATION, ARRIVED_DEST_AGENCY -> ParcelStatus.ARRIVED_DEST_AGENCY;
+
+            // Context-aware last mile:
+            // HOME delivery → OUT_FOR_DELIVERY makes sense (courier is en route)
+            // AGENCY delivery → OUT_FOR_DELIVERY still valid (parcel moved to pickup counter)
+            case OUT_FOR_DELIVERY -> ParcelStatus.OUT_FOR_DELIVERY;
+
+            case DELIVERED -> ParcelStatus.DELIVERED;
+            case PICKED_UP_AT_AGENCY -> ParcelStatus.PICKED_UP_AT_AGENCY;
+            case RETURNED_TO_SENDER -> ParcelStatus.RETURNED_TO_SENDER;
+            case RETURNED -> ParcelStatus.RETURNED;
+            case CANCELLED -> ParcelStatus.CANCELLED;
+
+            // Operational / audit events do not auto-change parcel status
+            case DELIVERY_FAILED, RESCHEDULED, OTP_SENT, OTP_VERIFIED, PROOF_CAPTURED, PAYMENT_CONFIRMED -> null;
+        };
+    }
+
+    // ================== ALLOWED TRANSITIONS MAP ==================
+
+    /**
+     * Explicit allowed transitions map — replaces ordinal-based comparison.
+     * Each status maps to the set of statuses it can transition TO.
+     * CANCELLED, RETURNED, and RETURNED_TO_SENDER are always allowed (handled separately).
+     */
+    private static final Map<ParcelStatus, Set<ParcelStatus>> ALLOWED_TRANSITIONS;
+    static {
+        ALLOWED_TRANSITIONS = new EnumMap<>(ParcelStatus.class);
+
+        ALLOWED_TRANSITIONS.put(ParcelStatus.CREATED, EnumSet.of(
+                ParcelStatus.ACCEPTED
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.ACCEPTED, EnumSet.of(
+                ParcelStatus.TAKEN_IN_CHARGE,
+                ParcelStatus.IN_TRANSIT   // small parcels may skip TAKEN_IN_CHARGE
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.TAKEN_IN_CHARGE, EnumSet.of(
+                ParcelStatus.IN_TRANSIT,
+                ParcelStatus.ARRIVED_HUB  // direct to hub if single-hop
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.IN_TRANSIT, EnumSet.of(
+                ParcelStatus.ARRIVED_HUB,
+                ParcelStatus.ARRIVED_DEST_AGENCY,  // direct to destination if no intermediate hub
+                ParcelStatus.OUT_FOR_DELIVERY       // direct delivery if same-city
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.ARRIVED_HUB, EnumSet.of(
+                ParcelStatus.IN_TRANSIT,            // DEPARTED_HUB → back to IN_TRANSIT
+                ParcelStatus.ARRIVED_DEST_AGENCY,
+                ParcelStatus.OUT_FOR_DELIVERY
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.ARRIVED_DEST_AGENCY, EnumSet.of(
+                ParcelStatus.OUT_FOR_DELIVERY,
+                ParcelStatus.PICKED_UP_AT_AGENCY,
+                ParcelStatus.DELIVERED              // agency hand-off counts as delivered
+        ));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.OUT_FOR_DELIVERY, EnumSet.of(
+                ParcelStatus.DELIVERED,
+                ParcelStatus.ARRIVED_DEST_AGENCY   // returned to agency after failed delivery
+        ));
+
+        // Final states — no forward transitions (only CANCEL/RETURN handled separately)
+        ALLOWED_TRANSITIONS.put(ParcelStatus.DELIVERED, EnumSet.noneOf(ParcelStatus.class));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.PICKED_UP_AT_AGENCY, EnumSet.noneOf(ParcelStatus.class));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.RETURNED_TO_SENDER, EnumSet.noneOf(ParcelStatus.class));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.RETURNED, EnumSet.noneOf(ParcelStatus.class));
+        ALLOWED_TRANSITIONS.put(ParcelStatus.CANCELLED, EnumSet.noneOf(ParcelStatus.class));
+    }
+
+    public static void validateTransition(ParcelStatus current, ParcelStatus next) {
+        if (current == next) return;
+
+        // Final states: no transitions out
+        if (current == ParcelStatus.DELIVERED
+                || current == ParcelStatus.PICKED_UP_AT_AGENCY
+                || current == ParcelStatus.RETURNED_TO_SENDER
+                || current == ParcelStatus.RETURNED
+                || current == ParcelStatus.CANCELLED) {
+            throw new AuthException(
+                    ErrorCode.PARCEL_STATUS_INVALID,
+                    "Cannot change status from a final state: " + current
+            );
+        }
+
+        // Cancel/Return always possible before final
+        if (next == ParcelStatus.CANCELLED
+                || next == ParcelStatus.RETURNED
+                || next == ParcelStatus.RETURNED_TO_SENDER) {
+            return;
+        }
+
+        // Check explicit allowed transitions
+        Set<ParcelStatus> allowed = ALLOWED_TRANSITIONS.getOrDefault(current, EnumSet.noneOf(ParcelStatus.class));
+        if (!allowed.contains(next)) {
+            throw new AuthException(
+                    ErrorCode.PARCEL_STATUS_INVALID,
+                    "Invalid status transition: " + current + " -> " + next
+            );
+        }
+    }
+
+
+    // ================== LOCATION SOURCE ==================
+
+    public static LocationSource locationSource(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return LocationSource.DEVICE_GPS;
+        }
+
+        String normalized = raw.trim().toUpperCase();
+        if ("GPS".equals(normalized)) {
+            normalized = "DEVICE_GPS";
+        }
+
+        try {
+            return LocationSource.valueOf(normalized);
+        } catch (IllegalArgumentException ex) {
+            return LocationSource.CACHED;
+        }
+    }
+}
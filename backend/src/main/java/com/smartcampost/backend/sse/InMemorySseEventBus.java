@@ -0,0 +1,37 @@
+package com.smartcampost.backend.sse;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Single-node bus: delivers synchronously to the listeners in this JVM. The default, and the
+ * stand-in broker in tests, where several hubs can share one instance to act as replicas.
+ *
+ * Ids start from the current time in microseconds so they keep increasing across restarts and a
+ * client's Last-Event-ID from before a restart never hides newer events.
+ */
+@Component
+@ConditionalOnProperty(name = "smartcampost.sse.bus.type", havingValue = "local", matchIfMissing = true)
+public class InMemorySseEventBus implements SseEventBus {
+
+    private final AtomicLong sequence = new AtomicLong(System.currentTimeMillis() * 1000);
+    private final List<Consumer<SseBusEvent>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(SseBusEvent event) {
+        SseBusEvent stamped = event.withId(sequence.incrementAndGet());
+        for (Consumer<SseBusEvent> listener : listeners) {
+            listener.accept(stamped);
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SseBusEvent> listener) {
+        listeners.add(listener);
+    }
+}
@@ -0,0 +1,280 @@
+package com.smartcampost.backend.sse;
+
+import com.smartcampost.backend.scheduling.ClusterSingleton;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Cluster bus over the application database: events are appended to the compact
+ * {@code sse_events} table (database/migrations/0009_sse_events.sql) and every replica polls it
+ * by id, so an event recorded on one node reaches the connections of all of them.
+ *
+ * - Producers never touch the database: publish() only queues; one thread batch-inserts.
+ * - The AUTO_INCREMENT id is the cluster-wide SSE id used for Last-Event-ID replay.
+ * - Ids from concurrent inserts on different nodes can become visible out of order; an id skipped
+ *   by a poll is re-checked for gap-timeout-ms before it is given up as a rolled-back insert.
+ * - Rows older than retention-minutes are pruned.
+ *
+ * Delivery latency is bounded by poll-interval-ms, for the origin node too, which keeps one
+ * ordering for everyone.
+ */
+@Component
+@ConditionalOnProperty(name = "smartcampost.sse.bus.type", havingValue = "jdbc")
+@Slf4j
+public class JdbcSseEventBus implements SseEventBus {
+
+    private static final String CREATE_TABLE_SQL =
+            "CREATE TABLE IF NOT EXISTS sse_events (" +
+            "id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY, " +
+            "stream VARCHAR(32) NOT NULL, " +
+            "routing_key VARCHAR(128) NULL, " +
+            "authorities VARCHAR(255) NULL, " +
+            "event_name VARCHAR(64) NOT NULL, " +
+            "payload MEDIUMTEXT NOT NULL, " +
+            "created_at DATETIME(3) NOT NULL)";
+
+    private static final int MAX_TRACKED_GAPS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${smartcampost.sse.bus.poll-interval-ms:250}")
+    private long pollIntervalMs = 250;
+
+    @Value("${smartcampost.sse.bus.batch-size:500}")
+    private int batchSize = 500;
+
+    @Value("${smartcampost.sse.bus.publish-queue-capacity:10000}")
+    private int publishQueueCapacity = 10000;
+
+    @Value("${smartcampost.sse.bus.gap-timeout-ms:5000}")
+    private long gapTimeoutMs = 5000;
+
+    @Value("${smartcampost.sse.bus.retention-minutes:10}")
+    private long retentionMinutes = 10;
+
+    private final List<Consumer<SseBusEvent>> listeners = new CopyOnWriteArrayList<>();
+    private BlockingQueue<SseBusEvent> outbound;
+    private final List<Thread> threads = new ArrayList<>();
+    private volatile boolean running;
+
+    // Poller state, only touched by the poller thread
+    private long lastSeenId;
+    private final Map<Long, Long> gaps = new LinkedHashMap<>();
+
+    private final AtomicLong lagMs = new AtomicLong();
+    private Counter droppedCounter;
+    private Counter insertedCounter;
+    private Counter gapsLostCounter;
+
+    public JdbcSseEventBus(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        init();
+        running = true;
+        startThread("sse-bus-publisher", this::publishLoop);
+        startThread("sse-bus-poller", this::pollLoop);
+        log.info("[SSE-BUS] JDBC bus started at id {} (poll={}ms, batch={})", lastSeenId, pollIntervalMs, batchSize);
+    }
+
+    void init() {
+        outbound = new ArrayBlockingQueue<>(Math.max(1, publishQueueCapacity));
+        jdbcTemplate.execute(CREATE_TABLE_SQL);
+        Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM sse_events", Long.class);
+        lastSeenId = max == null ? 0 : max;
+        droppedCounter = Counter.builder("smartcampost.sse.bus.dropped")
+                .description("Events not published because the outbound queue was full")
+                .register(meterRegistry);
+        insertedCounter = Counter.builder("smartcampost.sse.bus.published").register(meterRegistry);
+        gapsLostCounter = Counter.builder("smartcampost.sse.bus.gaps.expired").register(meterRegistry);
+        Gauge.builder("smartcampost.sse.bus.queue.depth", outbound, Collection::size).register(meterRegistry);
+        Gauge.builder("smartcampost.sse.bus.lag.ms", lagMs, AtomicLong::get)
+                .description("Age of the newest event at the time this node received it")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        for (Thread t : threads) {
+            t.interrupt();
+        }
+    }
+
+    @Override
+    public void publish(SseBusEvent event) {
+        if (!outbound.offer(event)) {
+            droppedCounter.increment();
+            log.warn("[SSE-BUS] Outbound queue full, dropping {} event", event.name());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<SseBusEvent> listener) {
+        listeners.add(listener);
+    }
+
+    private void startThread(String name, Runnable loop) {
+        Thread t = new Thread(loop, name);
+        t.setDaemon(true);
+        t.start();
+        threads.add(t);
+    }
+
+    private void publishLoop() {
+        List<SseBusEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                SseBusEvent first = outbound.poll(1, TimeUnit.SECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                outbound.drainTo(batch, batchSize - 1);
+                insert(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (DataAccessException e) {
+                log.warn("[SSE-BUS] Failed to publish {} events: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /** Drains whatever is queued right now; for tests. */
+    void flush() {
+        List<SseBusEvent> batch = new ArrayList<>();
+        outbound.drainTo(batch);
+        if (!batch.isEmpty()) insert(batch);
+    }
+
+    private void insert(List<SseBusEvent> batch) {
+        Timestamp now = Timestamp.from(Instant.now());
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO sse_events (stream, routing_key, authorities, event_name, payload, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)",
+                batch, batch.size(), (ps, e) -> {
+                    ps.setString(1, e.stream().name());
+                    ps.setString(2, e.key());
+                    ps.setString(3, e.authorities() == null ? null
+                            : e.authorities().stream().sorted().collect(Collectors.joining(",")));
+                    ps.setString(4, e.name());
+                    ps.setString(5, e.data());
+                    ps.setTimestamp(6, now);
+                });
+        insertedCounter.increment(batch.size());
+    }
+
+    private void pollLoop() {
+        while (running) {
+            try {
+                int received = poll();
+                if (received < batchSize) TimeUnit.MILLISECONDS.sleep(pollIntervalMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.warn("[SSE-BUS] Poll failed: {}", e.getMessage());
+                try {
+                    TimeUnit.MILLISECONDS.sleep(Math.max(pollIntervalMs, 1000));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /** One poll: late rows filling earlier gaps first, then everything new. Returns new rows read. */
+    int poll() {
+        long nowMs = System.currentTimeMillis();
+        if (!gaps.isEmpty()) {
+            String ids = gaps.keySet().stream().map(String::valueOf).collect(Collectors.joining(","));
+            for (Row row : jdbcTemplate.query(SELECT + "WHERE id IN (" + ids + ") ORDER BY id", ROW_MAPPER)) {
+                gaps.remove(row.event.id());
+                deliver(row, nowMs);
+            }
+            Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator();
+            while (it.hasNext()) {
+                if (nowMs - it.next().getValue() >= gapTimeoutMs) {
+                    it.remove();
+                    gapsLostCounter.increment();
+                }
+            }
+        }
+
+        List<Row> rows = jdbcTemplate.query(SELECT + "WHERE id > ? ORDER BY id LIMIT ?",
+                ROW_MAPPER, lastSeenId, batchSize);
+        for (Row row : rows) {
+            long id = row.event.id();
+            for (long missing = lastSeenId + 1; missing < id && gaps.size() < MAX_TRACKED_GAPS; missing++) {
+                gaps.put(missing, nowMs);
+            }
+            lastSeenId = id;
+            deliver(row, nowMs);
+        }
+        return rows.size();
+    }
+
+    private void deliver(Row row, long nowMs) {
+        lagMs.set(Math.max(0, nowMs - row.createdAtMs));
+        for (Consumer<SseBusEvent> listener : listeners) {
+            try {
+                listener.accept(row.event);
+            } catch (Exception e) {
+                log.warn("[SSE-BUS] Listener failed for event {}: {}", row.event.id(), e.getMessage());
+            }
+        }
+    }
+
+    @ClusterSingleton
+    @Scheduled(fixedDelayString = "${smartcampost.sse.bus.prune-interval-ms:60000}")
+    public void prune() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minusSeconds(retentionMinutes * 60));
+        int deleted = jdbcTemplate.update("DELETE FROM sse_events WHERE created_at < ?", cutoff);
+        if (deleted > 0) log.debug("[SSE-BUS] Pruned {} events", deleted);
+    }
+
+    private static final String SELECT =
+            "SELECT id, stream, routing_key, authorities, event_name, payload, created_at FROM sse_events ";
+
+    private record Row(SseBusEvent event, long createdAtMs) {}
+
+    private static final RowMapper<Row> ROW_MAPPER = (rs, n) -> {
+        String authorities = rs.getString("authorities");
+        SseBusEvent event = new SseBusEvent(
+                rs.getLong("id"),
+                SseStream.valueOf(rs.getString("stream")),
+                rs.getString("routing_key"),
+                authorities == null ? null : Set.of(authorities.split(",")),
+                rs.getString("event_name"),
+                rs.getString("payload"));
+        return new Row(event, rs.getTimestamp("created_at").getTime());
+    };
+}
@@ -0,0 +1,20 @@
+package com.smartcampost.backend.sse;
+
+import java.util.Set;
+
+/**
+ * One live event as it travels over the {@link SseEventBus}: already serialized, plus the routing
+ * needed to find its local audience on every node.
+ *
+ * @param id          bus-assigned, increasing; sent to clients as the SSE id and used for
+ *                    Last-Event-ID replay. 0 until published.
+ * @param key         lower-cased trackingRef, parcelId, or null for the scan / AI streams
+ * @param authorities AI stream only: connections need one of these, null means every connection
+ */
+public record SseBusEvent(long id, SseStream stream, String key, Set<String> authorities,
+                          String name, String data) {
+
+    public SseBusEvent withId(long newId) {
+        return new SseBusEvent(newId, stream, key, authorities, name, data);
+    }
+}
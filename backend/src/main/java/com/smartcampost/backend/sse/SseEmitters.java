@@ -1,100 +1,279 @@
 package com.smartcampost.backend.sse;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.smartcampost.backend.model.ScanEvent;
+import com.smartcampost.backend.sse.SseSubscriber.OutboundEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.io.IOException;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Objects;
-import java.util.Set;
-import java.util.UUID;
+import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+/**
+ * SSE fan-out hub behind StreamController.
+ *
+ * Subscribers are indexed by what they listen to (trackingRef, parcelId, granted authority), so an
+ * event only touches its own audience instead of every open connection. Payloads are serialized
+ * once per event, then queued per subscriber ({@link SseSubscriber}); a fixed writer pool does the
+ * socket writes, so emitScan / emitTrackingUpdate from GPS ingestion or scan recording return as
+ * soon as the event is queued. Slow clients lose their oldest events and are evicted if they keep
+ * falling behind; a periodic heartbeat comment keeps proxies from closing idle streams and
+ * surfaces dead connections.
+ *
+ * Events go through the {@link SseEventBus} before fan-out, so with several replicas every node
+ * serves its connections with events recorded anywhere. Delivered events carry the bus id as
+ * their SSE id and stay in a bounded ring buffer; a client reconnecting with Last-Event-ID gets
+ * what it missed (within the buffer) before live events resume.
+ *
+ * Metrics (tag {@code stream}): smartcampost.sse.subscribers, .events.published, .events.sent,
+ * .events.dropped, .events.replayed, .evicted, plus smartcampost.sse.writer.backlog.
+ */
 @Component
 public class SseEmitters {
     private static final Logger log = LoggerFactory.getLogger(SseEmitters.class);
 
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final SseEventBus bus;
+
+    @Value("${smartcampost.sse.writer-threads:4}")
+    private int writerThreads = 4;
+
+    @Value("${smartcampost.sse.queue-capacity:64}")
+    private int queueCapacity = 64;
+
+    // Drops in a row (no successful write in between) before a subscriber is evicted
+    @Value("${smartcampost.sse.max-dropped:256}")
+    private int maxDropped = 256;
+
+    @Value("${smartcampost.sse.replay-buffer-size:2048}")
+    private int replayBufferSize = 2048;
+
+    private Executor writer;
+    private ThreadPoolExecutor ownedWriter;
+
     // /api/stream/scans subscribers only ever receive ScanEvent objects.
-    private final List<SseEmitter> scanEmitters = new CopyOnWriteArrayList<>();
+    private final Set<SseSubscriber> scanSubscribers = ConcurrentHashMap.newKeySet();
 
-    // /api/stream/ai subscribers, keyed to the granted authorities they connected with so
+    // /api/stream/ai subscribers, also indexed by the granted authorities they connected with so
     // role-sensitive event types (e.g. nationwide gps-update) can be withheld from roles that
     // have no business seeing them (a CLIENT can open this stream for AI chat, but must not
     // receive every courier's live position alongside it).
-    private final ConcurrentHashMap<SseEmitter, Set<String>> aiEmitters = new ConcurrentHashMap<>();
+    private final Set<SseSubscriber> aiSubscribers = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, Set<SseSubscriber>> aiByAuthority = new ConcurrentHashMap<>();
+
+    // Subscribers scoped to a single public tracking reference (lower-cased). Kept separate from
+    // the scan/AI pools so anonymous tracking-page visitors never receive scan events, AI agent
+    // payloads, or GPS data belonging to other parcels/actors.
+    private final ConcurrentHashMap<String, Set<SseSubscriber>> trackingByRef = new ConcurrentHashMap<>();
 
-    // Emitters scoped to a single public tracking reference. Kept separate from the scan/AI
-    // pools so anonymous tracking-page visitors never receive scan events, AI agent payloads,
-    // or GPS data belonging to other parcels/actors.
-    private final ConcurrentHashMap<SseEmitter, String> trackingEmitters = new ConcurrentHashMap<>();
+    // Subscribers scoped to a single parcel's courier-client chat thread (parcelId as string).
+    private final ConcurrentHashMap<String, Set<SseSubscriber>> messagesByParcel = new ConcurrentHashMap<>();
 
-    // Emitters scoped to a single parcel's courier-client chat thread.
-    private final ConcurrentHashMap<SseEmitter, UUID> parcelMessageEmitters = new ConcurrentHashMap<>();
+    // Most recent bus events, for Last-Event-ID replay on reconnect.
+    private final ArrayDeque<SseBusEvent> replayBuffer = new ArrayDeque<>();
+    private final ReentrantReadWriteLock deliveryLock = new ReentrantReadWriteLock();
 
     // Prevent duplicate emits when the same ScanEvent is emitted from multiple code paths.
     private final ConcurrentHashMap<UUID, Instant> recentlyEmittedScanIds = new ConcurrentHashMap<>();
     private static final Duration DEDUP_WINDOW = Duration.ofSeconds(30);
 
+    private final Map<SseStream, StreamMetrics> metrics = new EnumMap<>(SseStream.class);
+    private final SseSubscriber.Listener listener = new HubListener();
+
+    // never timeout; client should disconnect. Replaced in tests to capture writes.
+    Supplier<SseEmitter> emitterFactory = () -> new SseEmitter(0L);
+
+    @Autowired
+    public SseEmitters(ObjectMapper objectMapper, MeterRegistry meterRegistry, SseEventBus bus) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.bus = bus;
+        for (SseStream stream : SseStream.values()) {
+            metrics.put(stream, new StreamMetrics(stream, meterRegistry));
+        }
+        bus.subscribe(this::deliver);
+    }
+
+    /** For tests: writes run on the given executor instead of the writer pool. */
+    SseEmitters(ObjectMapper objectMapper, MeterRegistry meterRegistry, SseEventBus bus, Executor writer) {
+        this(objectMapper, meterRegistry, bus);
+        this.writer = writer;
+    }
+
+    @PostConstruct
+    void start() {
+        if (writer != null) return;
+        int threads = Math.max(1, writerThreads);
+        AtomicInteger seq = new AtomicInteger();
+        // Unbounded on purpose: each subscriber has at most one drain task queued at a time.
+        ownedWriter = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+            Thread t = new Thread(r, "sse-writer-" + seq.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        });
+        writer = ownedWriter;
+        Gauge.builder("smartcampost.sse.writer.backlog", ownedWriter, e -> e.getQueue().size())
+                .description("Subscribers waiting for a writer thread")
+                .register(meterRegistry);
+        log.info("[SSE] Hub started (writers={}, queueCapacity={}, maxDropped={})", threads, queueCapacity, maxDropped);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (ownedWriter != null) ownedWriter.shutdownNow();
+    }
+
+    // ======================== SUBSCRIBE ========================
+
     public SseEmitter createScanEmitter() {
-        SseEmitter emitter = new SseEmitter(0L); // never timeout; client should disconnect
-        scanEmitters.add(emitter);
-        emitter.onCompletion(() -> scanEmitters.remove(emitter));
-        emitter.onTimeout(() -> scanEmitters.remove(emitter));
-        emitter.onError((e) -> scanEmitters.remove(emitter));
-        return emitter;
+        return createScanEmitter(null);
+    }
+
+    public SseEmitter createScanEmitter(String lastEventId) {
+        return open(SseStream.SCANS, null, Set.of(), lastEventId);
     }
 
     public SseEmitter createAiEmitter(Set<String> grantedAuthorities) {
-        SseEmitter emitter = new SseEmitter(0L); // never timeout; client should disconnect
-        aiEmitters.put(emitter, grantedAuthorities == null ? Set.of() : Set.copyOf(grantedAuthorities));
-        emitter.onCompletion(() -> aiEmitters.remove(emitter));
-        emitter.onTimeout(() -> aiEmitters.remove(emitter));
-        emitter.onError((e) -> aiEmitters.remove(emitter));
-        return emitter;
+        return createAiEmitter(grantedAuthorities, null);
+    }
+
+    public SseEmitter createAiEmitter(Set<String> grantedAuthorities, String lastEventId) {
+        Set<String> authorities = grantedAuthorities == null ? Set.of() : Set.copyOf(grantedAuthorities);
+        return open(SseStream.AI, null, authorities, lastEventId);
     }
 
     public SseEmitter createTrackingEmitter(String trackingRef) {
+        return createTrackingEmitter(trackingRef, null);
+    }
+
+    public SseEmitter createTrackingEmitter(String trackingRef, String lastEventId) {
         Objects.requireNonNull(trackingRef, "trackingRef is required");
-        SseEmitter emitter = new SseEmitter(0L); // never timeout; client should disconnect
-        trackingEmitters.put(emitter, trackingRef);
-        emitter.onCompletion(() -> trackingEmitters.remove(emitter));
-        emitter.onTimeout(() -> trackingEmitters.remove(emitter));
-        emitter.onError((e) -> trackingEmitters.remove(emitter));
-        return emitter;
+        return open(SseStream.TRACKING, trackingKey(trackingRef), Set.of(), lastEventId);
     }
 
     public SseEmitter createParcelMessageEmitter(UUID parcelId) {
+        return createParcelMessageEmitter(parcelId, null);
+    }
+
+    public SseEmitter createParcelMessageEmitter(UUID parcelId, String lastEventId) {
         Objects.requireNonNull(parcelId, "parcelId is required");
-        SseEmitter emitter = new SseEmitter(0L); // never timeout; client should disconnect
-        parcelMessageEmitters.put(emitter, parcelId);
-        emitter.onCompletion(() -> parcelMessageEmitters.remove(emitter));
-        emitter.onTimeout(() -> parcelMessageEmitters.remove(emitter));
-        emitter.onError((e) -> parcelMessageEmitters.remove(emitter));
+        return open(SseStream.PARCEL_MESSAGES, parcelId.toString(), Set.of(), lastEventId);
+    }
+
+    /**
+     * Registers a subscriber and, when the client reconnects with a Last-Event-ID, first queues the
+     * buffered events it missed. The write lock keeps deliveries out while that happens, so the
+     * replay neither overlaps nor reorders with live events.
+     */
+    private SseEmitter open(SseStream stream, String key, Set<String> authorities, String lastEventId) {
+        SseEmitter emitter = emitterFactory.get();
+        SseSubscriber subscriber = new SseSubscriber(stream, key, authorities, emitter,
+                queueCapacity, maxDropped, writer, listener);
+        emitter.onCompletion(() -> subscriber.close(false, null));
+        emitter.onTimeout(() -> subscriber.close(false, null));
+        emitter.onError(e -> subscriber.close(false, e));
+        metrics.get(stream).subscribers.incrementAndGet();
+
+        Long after = parseEventId(lastEventId);
+        if (after == null) {
+            addToIndex(subscriber);
+            return emitter;
+        }
+        deliveryLock.writeLock().lock();
+        try {
+            addToIndex(subscriber);
+            List<SseBusEvent> missed = new ArrayList<>();
+            synchronized (replayBuffer) {
+                for (SseBusEvent e : replayBuffer) {
+                    if (e.id() > after && matches(subscriber, e)) missed.add(e);
+                }
+            }
+            // More than a queue's worth would only be dropped again; keep the newest.
+            int from = Math.max(0, missed.size() - queueCapacity);
+            for (SseBusEvent e : missed.subList(from, missed.size())) {
+                subscriber.enqueue(toOutbound(e));
+            }
+            metrics.get(stream).replayed.increment(missed.size() - from);
+        } finally {
+            deliveryLock.writeLock().unlock();
+        }
         return emitter;
     }
 
+    private void addToIndex(SseSubscriber subscriber) {
+        switch (subscriber.stream()) {
+            case SCANS -> scanSubscribers.add(subscriber);
+            case AI -> {
+                aiSubscribers.add(subscriber);
+                for (String authority : subscriber.authorities()) {
+                    index(aiByAuthority, authority, subscriber);
+                }
+            }
+            case TRACKING -> index(trackingByRef, subscriber.key(), subscriber);
+            case PARCEL_MESSAGES -> index(messagesByParcel, subscriber.key(), subscriber);
+        }
+    }
+
+    private static void index(ConcurrentHashMap<String, Set<SseSubscriber>> map, String key, SseSubscriber subscriber) {
+        map.compute(key, (k, set) -> {
+            if (set == null) set = ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+    }
+
+    private static void unindex(ConcurrentHashMap<String, Set<SseSubscriber>> map, String key, SseSubscriber subscriber) {
+        map.computeIfPresent(key, (k, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private void unregister(SseSubscriber subscriber) {
+        switch (subscriber.stream()) {
+            case SCANS -> scanSubscribers.remove(subscriber);
+            case AI -> {
+                aiSubscribers.remove(subscriber);
+                for (String authority : subscriber.authorities()) {
+                    unindex(aiByAuthority, authority, subscriber);
+                }
+            }
+            case TRACKING -> unindex(trackingByRef, subscriber.key(), subscriber);
+            case PARCEL_MESSAGES -> unindex(messagesByParcel, subscriber.key(), subscriber);
+        }
+        metrics.get(subscriber.stream()).subscribers.decrementAndGet();
+    }
+
+    // ======================== PUBLISH ========================
+
     /** Sends a new chat message only to subscribers of this exact parcel's thread. */
     public void emitParcelMessage(UUID parcelId, Object payload) {
         Objects.requireNonNull(parcelId, "parcelId is required");
         Objects.requireNonNull(payload, "payload is required");
-
-        parcelMessageEmitters.forEach((emitter, id) -> {
-            if (!parcelId.equals(id)) return;
-            try {
-                emitter.send(SseEmitter.event().name("parcel-message").data(payload));
-            } catch (IOException e) {
-                log.warn("Removing dead parcel-message emitter after IO error", e);
-                parcelMessageEmitters.remove(emitter);
-            }
-        });
+        publish(SseStream.PARCEL_MESSAGES, parcelId.toString(), null, "parcel-message", payload);
     }
 
     /** Sends a payload only to public tracking-page clients subscribed to this exact trackingRef. */
@@ -102,16 +281,7 @@ public class SseEmitters {
         Objects.requireNonNull(eventName, "eventName is required");
         Objects.requireNonNull(trackingRef, "trackingRef is required");
         Objects.requireNonNull(payload, "payload is required");
-
-        trackingEmitters.forEach((emitter, ref) -> {
-            if (!trackingRef.equalsIgnoreCase(ref)) return;
-            try {
-                emitter.send(SseEmitter.event().name(eventName).data(payload));
-            } catch (IOException e) {
-                log.warn("Removing dead tracking emitter after IO error", e);
-                trackingEmitters.remove(emitter);
-            }
-        });
+        publish(SseStream.TRACKING, trackingKey(trackingRef), null, eventName, payload);
     }
 
     public void emitScan(ScanEvent event) {
@@ -124,36 +294,15 @@ public class SseEmitters {
             if (previous != null && Duration.between(previous, now).compareTo(DEDUP_WINDOW) <= 0) {
                 return; // already emitted recently
             }
-
-            // opportunistic cleanup
-            recentlyEmittedScanIds.entrySet().removeIf(e -> Duration.between(e.getValue(), now).compareTo(DEDUP_WINDOW.multipliedBy(4)) > 0);
-        }
-
-        for (SseEmitter emitter : scanEmitters) {
-            try {
-                SseEmitter.SseEventBuilder builder = SseEmitter.event()
-                        .name("scan-event")
-                        .data(event);
-                emitter.send(builder);
-            } catch (IOException e) {
-                log.warn("Removing dead scan emitter after IO error", e);
-                scanEmitters.remove(emitter);
-            }
+            if (previous != null) recentlyEmittedScanIds.put(id, now);
         }
+        publish(SseStream.SCANS, null, null, "scan-event", event);
     }
 
     public void emitAiEvent(String eventName, Object payload) {
         Objects.requireNonNull(eventName, "eventName is required");
         Objects.requireNonNull(payload, "payload is required");
-
-        aiEmitters.forEach((emitter, roles) -> {
-            try {
-                emitter.send(SseEmitter.event().name(eventName).data(payload));
-            } catch (IOException e) {
-                log.warn("Removing dead ai emitter after IO error", e);
-                aiEmitters.remove(emitter);
-            }
-        });
+        publish(SseStream.AI, null, null, eventName, payload);
     }
 
     /** Like {@link #emitAiEvent(String, Object)} but withheld from connections without one of the given authorities. */
@@ -161,16 +310,7 @@ public class SseEmitters {
         Objects.requireNonNull(eventName, "eventName is required");
         Objects.requireNonNull(payload, "payload is required");
         Objects.requireNonNull(allowedAuthorities, "allowedAuthorities is required");
-
-        aiEmitters.forEach((emitter, roles) -> {
-            if (Collections.disjoint(roles, allowedAuthorities)) return;
-            try {
-                emitter.send(SseEmitter.event().name(eventName).data(payload));
-            } catch (IOException e) {
-                log.warn("Removing dead ai emitter after IO error", e);
-                aiEmitters.remove(emitter);
-            }
-        });
+        publish(SseStream.AI, null, Set.copyOf(allowedAuthorities), eventName, payload);
     }
 
     public void emitAiEvent(String eventName, String correlationId, Object payload) {
@@ -182,4 +322,181 @@ public class SseEmitters {
         envelope.put("payload", payload);
         emitAiEvent(eventName, envelope);
     }
+
+    private void publish(SseStream stream, String key, Set<String> authorities, String eventName, Object payload) {
+        metrics.get(stream).published.increment();
+        String data = serialize(payload);
+        if (data == null) return;
+        // Published even without local subscribers: other replicas and reconnecting clients may need it.
+        bus.publish(new SseBusEvent(0, stream, key, authorities, eventName, data));
+    }
+
+    /** Bus callback: buffer for replay, then queue for this node's matching subscribers. */
+    void deliver(SseBusEvent event) {
+        deliveryLock.readLock().lock();
+        try {
+            synchronized (replayBuffer) {
+                replayBuffer.addLast(event);
+                while (replayBuffer.size() > replayBufferSize) replayBuffer.pollFirst();
+            }
+            Collection<SseSubscriber> audience = audienceFor(event);
+            if (audience == null || audience.isEmpty()) return;
+            OutboundEvent outbound = toOutbound(event);
+            for (SseSubscriber subscriber : audience) {
+                subscriber.enqueue(outbound);
+            }
+        } finally {
+            deliveryLock.readLock().unlock();
+        }
+    }
+
+    private Collection<SseSubscriber> audienceFor(SseBusEvent event) {
+        return switch (event.stream()) {
+            case SCANS -> scanSubscribers;
+            case TRACKING -> trackingByRef.get(event.key());
+            case PARCEL_MESSAGES -> messagesByParcel.get(event.key());
+            case AI -> {
+                Set<String> allowed = event.authorities();
+                if (allowed == null) yield aiSubscribers;
+                if (allowed.size() == 1) yield aiByAuthority.get(allowed.iterator().next());
+                // A connection holding several allowed authorities must still get the event once.
+                Set<SseSubscriber> union = Collections.newSetFromMap(new IdentityHashMap<>());
+                for (String authority : allowed) {
+                    Set<SseSubscriber> holders = aiByAuthority.get(authority);
+                    if (holders != null) union.addAll(holders);
+                }
+                yield union;
+            }
+        };
+    }
+
+    private static boolean matches(SseSubscriber subscriber, SseBusEvent event) {
+        if (subscriber.stream() != event.stream()) return false;
+        return switch (event.stream()) {
+            case SCANS -> true;
+            case TRACKING, PARCEL_MESSAGES -> Objects.equals(subscriber.key(), event.key());
+            case AI -> event.authorities() == null || !Collections.disjoint(subscriber.authorities(), event.authorities());
+        };
+    }
+
+    private static OutboundEvent toOutbound(SseBusEvent event) {
+        return new OutboundEvent(Long.toString(event.id()), event.name(), event.data());
+    }
+
+    private static Long parseEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return null;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** JSON once per event rather than once per connection; strings pass through untouched. */
+    private String serialize(Object payload) {
+        if (payload instanceof CharSequence) return payload.toString();
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.warn("[SSE] Dropping event, payload {} is not serializable: {}",
+                    payload.getClass().getSimpleName(), e.getMessage());
+            return null;
+        }
+    }
+
+    private static String trackingKey(String trackingRef) {
+        return trackingRef.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ======================== HOUSEKEEPING ========================
+
+    @Scheduled(fixedDelayString = "${smartcampost.sse.heartbeat-interval-ms:20000}")
+    public void heartbeat() {
+        forEachSubscriber(s -> s.enqueue(OutboundEvent.HEARTBEAT));
+        Instant cutoff = Instant.now().minus(DEDUP_WINDOW.multipliedBy(4));
+        recentlyEmittedScanIds.values().removeIf(at -> at.isBefore(cutoff));
+    }
+
+    private void forEachSubscriber(Consumer<SseSubscriber> action) {
+        scanSubscribers.forEach(action);
+        aiSubscribers.forEach(action);
+        trackingByRef.values().forEach(set -> set.forEach(action));
+        messagesByParcel.values().forEach(set -> set.forEach(action));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (StreamMetrics m : metrics.values()) {
+            Map<String, Object> s = new LinkedHashMap<>();
+            s.put("subscribers", m.subscribers.get());
+            s.put("published", (long) m.published.count());
+            s.put("sent", m.sentTotal.get());
+            s.put("dropped", m.droppedTotal.get());
+            s.put("evicted", m.evictedTotal.get());
+            s.put("replayed", (long) m.replayed.count());
+            stats.put(m.stream.tag(), s);
+        }
+        stats.put("trackedRefs", trackingByRef.size());
+        stats.put("writerBacklog", ownedWriter != null ? ownedWriter.getQueue().size() : 0);
+        return stats;
+    }
+
+    private final class HubListener implements SseSubscriber.Listener {
+        @Override
+        public void onSent(SseSubscriber subscriber) {
+            StreamMetrics m = metrics.get(subscriber.stream());
+            m.sent.increment();
+            m.sentTotal.incrementAndGet();
+        }
+
+        @Override
+        public void onDropped(SseSubscriber subscriber) {
+            StreamMetrics m = metrics.get(subscriber.stream());
+            m.dropped.increment();
+            m.droppedTotal.incrementAndGet();
+        }
+
+        @Override
+        public void onClosed(SseSubscriber subscriber, boolean evicted, Throwable cause) {
+            unregister(subscriber);
+            if (evicted) {
+                StreamMetrics m = metrics.get(subscriber.stream());
+                m.evicted.increment();
+                m.evictedTotal.incrementAndGet();
+                log.warn("[SSE] Evicted slow {} subscriber {}", subscriber.stream().tag(),
+                        subscriber.key() != null ? subscriber.key() : "");
+            } else if (cause != null) {
+                log.debug("[SSE] Removing dead {} subscriber after {}", subscriber.stream().tag(), cause.toString());
+            }
+        }
+    }
+
+    private static final class StreamMetrics {
+        final SseStream stream;
+        final AtomicInteger subscribers = new AtomicInteger();
+        final AtomicLong sentTotal = new AtomicLong();
+        final AtomicLong droppedTotal = new AtomicLong();
+        final AtomicLong evictedTotal = new AtomicLong();
+        final Counter published;
+        final Counter sent;
+        final Counter dropped;
+        final Counter evicted;
+        final Counter replayed;
+
+        StreamMetrics(SseStream stream, MeterRegistry registry) {
+            this.stream = stream;
+            String tag = stream.tag();
+            Gauge.builder("smartcampost.sse.subscribers", subscribers, AtomicInteger::get)
+                    .tag("stream", tag).register(registry);
+            published = Counter.builder("smartcampost.sse.events.published").tag("stream", tag).register(registry);
+            sent = Counter.builder("smartcampost.sse.events.sent").tag("stream", tag).register(registry);
+            dropped = Counter.builder("smartcampost.sse.events.dropped")
+                    .description("Events discarded because the subscriber's queue was full")
+                    .tag("stream", tag).register(registry);
+            evicted = Counter.builder("smartcampost.sse.evicted").tag("stream", tag).register(registry);
+            replayed = Counter.builder("smartcampost.sse.events.replayed")
+                    .description("Buffered events re-sent to clients reconnecting with Last-Event-ID")
+                    .tag("stream", tag).register(registry);
+        }
+    }
 }
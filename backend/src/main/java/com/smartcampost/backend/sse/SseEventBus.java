@@ -0,0 +1,17 @@
+package com.smartcampost.backend.sse;
+
+import java.util.function.Consumer;
+
+/**
+ * Carries live events between backend replicas. {@link SseEmitters} publishes every event here
+ * and fans out whatever the bus delivers back, so each node serves its own connections with
+ * events recorded on any node. Pick the implementation with smartcampost.sse.bus.type
+ * ({@code local} | {@code jdbc}).
+ */
+public interface SseEventBus {
+
+    /** Assigns the event an id and delivers it to the listeners of every node, this one included. */
+    void publish(SseBusEvent event);
+
+    void subscribe(Consumer<SseBusEvent> listener);
+}
@@ -0,0 +1,19 @@
+package com.smartcampost.backend.sse;
+
+/** The SSE endpoints served by StreamController; {@link #tag()} is the metrics tag value. */
+public enum SseStream {
+    SCANS("scans"),
+    AI("ai"),
+    TRACKING("tracking"),
+    PARCEL_MESSAGES("parcel-messages");
+
+    private final String tag;
+
+    SseStream(String tag) {
+        this.tag = tag;
+    }
+
+    public String tag() {
+        return tag;
+    }
+}
@@ -0,0 +1,169 @@
+package com.smartcampost.backend.sse;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * One connected SSE client. Producers only {@link #enqueue} into a bounded queue; a writer-pool
+ * task drains it, so at most one thread writes to the emitter at a time and a slow client never
+ * blocks the thread that published the event. When the queue is full the oldest event is dropped;
+ * a client that keeps overflowing (maxDropped drops without a single successful write in
+ * between) is evicted.
+ */
+final class SseSubscriber {
+
+    /** Outcome of one write, reported back to the hub for metrics and cleanup. */
+    interface Listener {
+        void onSent(SseSubscriber subscriber);
+
+        void onDropped(SseSubscriber subscriber);
+
+        void onClosed(SseSubscriber subscriber, boolean evicted, Throwable cause);
+    }
+
+    /** A pre-serialized event; {@code data == null} marks a heartbeat comment. */
+    record OutboundEvent(String id, String name, Object data) {
+        static final OutboundEvent HEARTBEAT = new OutboundEvent(null, null, null);
+
+        SseEmitter.SseEventBuilder toBuilder() {
+            if (data == null) return SseEmitter.event().comment("heartbeat");
+            SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+            return id != null ? builder.id(id) : builder;
+        }
+    }
+
+    private final SseStream stream;
+    private final String key;
+    private final Set<String> authorities;
+    private final SseEmitter emitter;
+    private final int capacity;
+    private final int maxDropped;
+    private final Executor writer;
+    private final Listener listener;
+
+    // guarded by itself
+    private final ArrayDeque<OutboundEvent> queue;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private int droppedSinceLastWrite;
+
+    SseSubscriber(SseStream stream, String key, Set<String> authorities, SseEmitter emitter,
+                  int capacity, int maxDropped, Executor writer, Listener listener) {
+        this.stream = stream;
+        this.key = key;
+        this.authorities = authorities;
+        this.emitter = emitter;
+        this.capacity = Math.max(1, capacity);
+        this.maxDropped = Math.max(1, maxDropped);
+        this.writer = writer;
+        this.listener = listener;
+        this.queue = new ArrayDeque<>(Math.min(this.capacity, 64));
+    }
+
+    SseStream stream() {
+        return stream;
+    }
+
+    String key() {
+        return key;
+    }
+
+    Set<String> authorities() {
+        return authorities;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    int queued() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    void enqueue(OutboundEvent event) {
+        if (closed.get()) return;
+        boolean dropped = false;
+        boolean evict = false;
+        synchronized (queue) {
+            if (queue.size() >= capacity) {
+                queue.pollFirst();
+                dropped = true;
+                evict = ++droppedSinceLastWrite >= maxDropped;
+            }
+            queue.addLast(event);
+        }
+        if (dropped) listener.onDropped(this);
+        if (evict) {
+            close(true, null);
+            return;
+        }
+        scheduleDrain();
+    }
+
+    private void scheduleDrain() {
+        if (!draining.compareAndSet(false, true)) return;
+        try {
+            writer.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+            draining.set(false);
+            close(false, e);
+        }
+    }
+
+    private void drain() {
+        try {
+            while (!closed.get()) {
+                OutboundEvent next;
+                synchronized (queue) {
+                    next = queue.pollFirst();
+                }
+                if (next == null) break;
+                try {
+                    emitter.send(next.toBuilder());
+                    synchronized (queue) {
+                        droppedSinceLastWrite = 0;
+                    }
+                    listener.onSent(this);
+                } catch (Exception e) {
+                    // IOException: client went away; IllegalStateException: emitter already completed
+                    close(false, e);
+                    return;
+                }
+            }
+        } finally {
+            draining.set(false);
+        }
+        // An event may have been queued after the last poll but before draining was cleared.
+        boolean more;
+        synchronized (queue) {
+            more = !queue.isEmpty();
+        }
+        if (more && !closed.get()) scheduleDrain();
+    }
+
+    void close(boolean evicted, Throwable cause) {
+        if (!closed.compareAndSet(false, true)) return;
+        synchronized (queue) {
+            queue.clear();
+        }
+        listener.onClosed(this, evicted, cause);
+        if (evicted) {
+            try {
+                emitter.complete();
+            } catch (Exception ignored) {
+                // already gone
+            }
+        }
+    }
+}
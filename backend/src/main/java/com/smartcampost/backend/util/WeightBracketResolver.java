@@ -1,5 +1,7 @@
 package com.smartcampost.backend.util;
 
+import java.util.List;
+
 /**
  * Single source of truth for weight -> tariff weightBracket mapping.
  * Must match the brackets offered in the admin Tariff Management UI
@@ -8,14 +10,26 @@ package com.smartcampost.backend.util;
  */
 public final class WeightBracketResolver {
 
+    /** Bracket labels, lightest first; a bracket's position is its index. */
+    public static final List<String> BRACKETS = List.of("0-5kg", "5-10kg", "10-20kg", "20-50kg", "50+kg");
+
     private WeightBracketResolver() {
     }
 
     public static String resolve(double weightKg) {
-        if (weightKg <= 5.0) return "0-5kg";
-        if (weightKg <= 10.0) return "5-10kg";
-        if (weightKg <= 20.0) return "10-20kg";
-        if (weightKg <= 50.0) return "20-50kg";
-        return "50+kg";
+        return BRACKETS.get(index(weightKg));
+    }
+
+    public static int index(double weightKg) {
+        if (weightKg <= 5.0) return 0;
+        if (weightKg <= 10.0) return 1;
+        if (weightKg <= 20.0) return 2;
+        if (weightKg <= 50.0) return 3;
+        return 4;
+    }
+
+    /** Index of a bracket label, or -1 when it is not one of {@link #BRACKETS}. */
+    public static int indexOf(String bracket) {
+        return bracket == null ? -1 : BRACKETS.indexOf(bracket.trim());
     }
 }
@@ -0,0 +1,96 @@
+package com.smartcampost.backend.ai.runtime;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcampost.backend.model.AiDecisionLog;
+import com.smartcampost.backend.model.AiExecutionLog;
+import com.smartcampost.backend.model.enums.AiExecutionStatus;
+import com.smartcampost.backend.model.enums.AiModuleType;
+import com.smartcampost.backend.model.enums.AiSubjectType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiAuditWriterTest {
+
+    private JdbcTemplate jdbc;
+    private AiAuditWriter writer;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:ai-audit-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE ai_decision_log (decision_id BINARY(16) PRIMARY KEY, module_type VARCHAR(20), " +
+                "decision_type VARCHAR(100), subject_type VARCHAR(20), subject_id BINARY(16), input_data TEXT, " +
+                "decision_outcome VARCHAR(50), confidence_score FLOAT, reasoning TEXT, was_overridden BOOLEAN, " +
+                "created_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE ai_execution_log (execution_id BINARY(16) PRIMARY KEY, " +
+                "decision_id BINARY(16) REFERENCES ai_decision_log(decision_id), action_type VARCHAR(100), " +
+                "target_type VARCHAR(30), target_id BINARY(16), execution_status VARCHAR(20), started_at TIMESTAMP, " +
+                "completed_at TIMESTAMP, result_summary VARCHAR(500), rollback_data TEXT)");
+        jdbc.execute("CREATE TABLE ai_agent_state (agent_state_id BINARY(16) PRIMARY KEY, module_type VARCHAR(20), " +
+                "subject_type VARCHAR(20), subject_id BINARY(16), confidence_score FLOAT, state_data TEXT, " +
+                "last_evaluation_at TIMESTAMP, evaluation_count INT, created_at TIMESTAMP, updated_at TIMESTAMP, " +
+                "UNIQUE (module_type, subject_type, subject_id))");
+        writer = new AiAuditWriter(jdbc, new ObjectMapper(), new DataSourceTransactionManager(ds), new SimpleMeterRegistry());
+        writer.init();
+    }
+
+    @Test
+    void decisionsAndExecutions_areWrittenInOneFlush() {
+        for (int i = 0; i < 3; i++) {
+            AiDecisionLog decision = writer.recordDecision(AiDecisionLog.builder()
+                    .moduleType(AiModuleType.RISK).decisionType("detect_fraud")
+                    .subjectType(AiSubjectType.SYSTEM).subjectId(UUID.randomUUID())
+                    .decisionOutcome("ALLOWED").confidenceScore(0.95f).build(), Map.of("tool", "detect_fraud"));
+            assertNotNull(decision.getId(), "id is known before the row is written");
+            writer.recordExecution(AiExecutionLog.builder()
+                    .decision(decision).actionType("detect_fraud").targetType(AiSubjectType.SYSTEM)
+                    .executionStatus(AiExecutionStatus.COMPLETED).build(), Map.of("ok", true));
+        }
+        assertEquals(0, count("ai_decision_log"));
+
+        assertEquals(6, writer.flush());
+
+        assertEquals(3, count("ai_decision_log"));
+        assertEquals(3, count("ai_execution_log"));
+        assertEquals("{\"tool\":\"detect_fraud\"}",
+                jdbc.queryForObject("SELECT input_data FROM ai_decision_log LIMIT 1", String.class));
+    }
+
+    @Test
+    void agentStateUpdates_areMergedPerSubjectAndUpserted() {
+        UUID parcel = UUID.randomUUID();
+        writer.recordAgentEvaluation(AiModuleType.GENERAL, AiSubjectType.PARCEL, parcel, false);
+        writer.recordAgentEvaluation(AiModuleType.GENERAL, AiSubjectType.PARCEL, parcel, true);
+        writer.recordAgentEvaluation(AiModuleType.GENERAL, AiSubjectType.PARCEL, parcel, false);
+        assertEquals(1, writer.flush(), "three evaluations, one upsert");
+        assertState(3, 0.8f);
+
+        writer.recordAgentEvaluation(AiModuleType.GENERAL, AiSubjectType.PARCEL, parcel, false);
+        writer.recordAgentEvaluation(AiModuleType.GENERAL, AiSubjectType.PARCEL, parcel, false);
+        writer.flush();
+        assertState(5, 0.6f);
+        assertEquals(1, count("ai_agent_state"));
+        assertEquals(3L, writer.stats().get("mergedAgentStateUpdates"));
+    }
+
+    private void assertState(int evaluations, float confidence) {
+        Map<String, Object> row = jdbc.queryForMap("SELECT evaluation_count, confidence_score FROM ai_agent_state");
+        assertEquals(evaluations, ((Number) row.get("EVALUATION_COUNT")).intValue());
+        assertEquals(confidence, ((Number) row.get("CONFIDENCE_SCORE")).floatValue(), 0.001f);
+    }
+
+    private int count(String table) {
+        Integer n = jdbc.queryForObject("SELECT COUNT(*) FROM " + table, Integer.class);
+        return n == null ? 0 : n;
+    }
+}
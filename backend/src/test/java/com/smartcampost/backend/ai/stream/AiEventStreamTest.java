@@ -0,0 +1,166 @@
+package com.smartcampost.backend.ai.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.ScanEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AiEventStreamTest {
+
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager txManager;
+    private AiEventLog eventLog;
+    private final List<String> seen = new ArrayList<>();
+    private final List<UUID> scanIds = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:ai-stream-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        txManager = new DataSourceTransactionManager(ds);
+        eventLog = new AiEventLog(jdbc, new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    void eventIsDispatchedOnlyAfterCommit_andNotAtAllOnRollback() {
+        AiEventStream stream = stream(recorder("agent"));
+        UUID parcelId = UUID.randomUUID();
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            stream.onParcelStatusChanged(statusChanged(parcelId));
+            assertEquals(0, stream.drainQueued(), "nothing handed over before commit");
+        });
+        assertEquals(1, stream.drainQueued());
+
+        new TransactionTemplate(txManager).executeWithoutResult(status -> {
+            stream.onParcelStatusChanged(statusChanged(parcelId));
+            status.setRollbackOnly();
+        });
+        assertEquals(0, stream.drainQueued());
+        assertEquals(1, count("SELECT COUNT(*) FROM ai_event_log"));
+        assertEquals(List.of("agent:" + parcelId), seen);
+    }
+
+    @Test
+    void failingConsumer_doesNotStopTheOthers_andEventIsAcknowledged() {
+        AiEventConsumer failing = new AiEventConsumer() {
+            @Override
+            public void onScanEventRecorded(ScanEventRecordedEvent event) {
+                throw new IllegalStateException("boom");
+            }
+        };
+        AiEventStream stream = stream(failing, recorder("risk"));
+        UUID parcelId = UUID.randomUUID();
+
+        stream.onScanEventRecorded(scan(parcelId));
+        stream.drainQueued();
+        stream.flushAcks();
+
+        assertEquals(List.of("risk:" + parcelId), seen);
+        assertEquals(0, count("SELECT COUNT(*) FROM ai_event_log WHERE processed_at IS NULL"));
+        assertEquals(1L, stream.stats().get("consumerFailures"));
+    }
+
+    @Test
+    void recover_replaysEventsLeftUnprocessed() {
+        UUID parcelId = UUID.randomUUID();
+        AiEventStream crashed = stream();
+        crashed.onScanEventRecorded(scan(parcelId)); // queued, never processed
+
+        AiEventStream restarted = stream(recorder("agency"));
+        restarted.recover();
+        restarted.recover(); // still in flight: not enqueued twice
+        assertEquals(1, restarted.drainQueued());
+        restarted.flushAcks();
+        restarted.recover();
+
+        assertEquals(0, restarted.drainQueued());
+        assertEquals(List.of("agency:" + parcelId), seen);
+    }
+
+    @Test
+    void fullPartition_isPausedAndReplaysItsBacklogInOrder_beforeTakingLiveEventsAgain() {
+        AiEventStream stream = stream(1, 1, recorder("agent"));
+        UUID parcelId = UUID.randomUUID();
+        List<UUID> scans = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            ScanEventRecordedEvent scan = scan(parcelId);
+            scans.add(scan.scanEventId());
+            stream.onScanEventRecorded(scan); // the first fills the queue, the rest are deferred
+        }
+        assertEquals(List.of(0), stream.stats().get("pausedPartitions"));
+        assertEquals(3, stream.stats().get("backlog"));
+
+        stream.recover(); // deferred events stay in flight: not re-enqueued behind the backlog
+        assertEquals(4, stream.drainQueued());
+        assertEquals(List.of(), stream.stats().get("pausedPartitions"));
+
+        ScanEventRecordedEvent live = scan(parcelId);
+        scans.add(live.scanEventId());
+        stream.onScanEventRecorded(live);
+        assertEquals(1, stream.drainQueued());
+        assertEquals(scans, scanIds);
+        stream.flushAcks();
+        assertEquals(0, count("SELECT COUNT(*) FROM ai_event_log WHERE processed_at IS NULL"));
+    }
+
+    private AiEventStream stream(AiEventConsumer... consumers) {
+        return stream(4, 1000, consumers);
+    }
+
+    private AiEventStream stream(int partitions, int queueCapacity, AiEventConsumer... consumers) {
+        AiEventStream stream = new AiEventStream(eventLog, List.of(consumers), txManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(stream, "recoveryMinAgeMs", 0L);
+        ReflectionTestUtils.setField(stream, "partitions", partitions);
+        ReflectionTestUtils.setField(stream, "queueCapacity", queueCapacity);
+        stream.init();
+        return stream;
+    }
+
+    private AiEventConsumer recorder(String name) {
+        return new AiEventConsumer() {
+            @Override
+            public void onScanEventRecorded(ScanEventRecordedEvent event) {
+                seen.add(name + ":" + event.parcelId());
+                scanIds.add(event.scanEventId());
+            }
+
+            @Override
+            public void onParcelStatusChanged(ParcelStatusChangedEvent event) {
+                seen.add(name + ":" + event.parcelId());
+            }
+        };
+    }
+
+    private int count(String sql) {
+        Integer n = jdbc.queryForObject(sql, Integer.class);
+        return n == null ? 0 : n;
+    }
+
+    private static ParcelStatusChangedEvent statusChanged(UUID parcelId) {
+        return new ParcelStatusChangedEvent(parcelId, ParcelStatus.CREATED, ParcelStatus.ACCEPTED, Instant.now());
+    }
+
+    private static ScanEventRecordedEvent scan(UUID parcelId) {
+        return new ScanEventRecordedEvent(UUID.randomUUID(), parcelId, ScanEventType.ACCEPTED, Instant.now(),
+                null, null, "agent-1", "AGENT");
+    }
+}
@@ -1,8 +1,8 @@
 package com.smartcampost.backend.automation;
 
+import com.smartcampost.backend.logistics.LivePositionIndex;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
-import com.smartcampost.backend.repository.LocationRepository;
 import com.smartcampost.backend.repository.ParcelRepository;
 import com.smartcampost.backend.service.NotificationService;
 import com.smartcampost.backend.service.ai.agents.TrackingPredictionAgent;
@@ -26,7 +26,7 @@ class AutomationSchedulerTest {
 
     @Mock private ParcelRepository parcelRepository;
     @Mock private NotificationService notificationService;
-    @Mock private LocationRepository locationRepository;
+    @Mock private LivePositionIndex livePositionIndex;
     @Mock private TrackingPredictionAgent trackingPredictionAgent;
 
     @InjectMocks private DelayedParcelDetectionScheduler delayedScheduler;
@@ -79,7 +79,7 @@ class AutomationSchedulerTest {
 
     @Test
     void courierAvailability_withNoLocations_shouldReturnEmpty() {
-        when(locationRepository.findTop500ByOrderByTimestampDesc()).thenReturn(List.of());
+        when(livePositionIndex.snapshot()).thenReturn(List.of());
 
         var result = courierScheduler.detectUnavailableCouriers();
         assertEquals(0, result.get("totalTracked"));
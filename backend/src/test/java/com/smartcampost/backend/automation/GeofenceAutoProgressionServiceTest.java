@@ -0,0 +1,70 @@
+package com.smartcampost.backend.automation;
+
+import com.smartcampost.backend.automation.GeofenceTracker.Kind;
+import com.smartcampost.backend.automation.GeofenceTracker.Target;
+import com.smartcampost.backend.logistics.CourierPositionsUpdatedEvent;
+import com.smartcampost.backend.logistics.GpsFix;
+import com.smartcampost.backend.logistics.LivePositionIndex;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.service.NotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeofenceAutoProgressionServiceTest {
+
+    private static final double LAT = 4.0500, LNG = 9.7000;
+
+    @Mock private LivePositionIndex livePositionIndex;
+    @Mock private ParcelRepository parcelRepository;
+    @Mock private NotificationService notificationService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private GeofenceAutoProgressionService service;
+    private final Parcel parcel = Parcel.builder().id(UUID.randomUUID()).trackingRef("SC000555")
+            .status(ParcelStatus.ACCEPTED).build();
+
+    @BeforeEach
+    void setUp() {
+        service = new GeofenceAutoProgressionService(livePositionIndex, parcelRepository, notificationService,
+                transactionManager);
+        service.initTracker();
+        GeofenceTracker tracker = (GeofenceTracker) ReflectionTestUtils.getField(service, "tracker");
+        tracker.upsert(new Target(parcel.getId(), Kind.PICKUP, LAT, LNG));
+    }
+
+    @Test
+    void onCourierPositions_ignoresFixesOlderThanTheFreshnessWindow() {
+        Instant now = Instant.now();
+        GpsFix stale = GpsFix.mobile("courier-1", LAT, LNG, null, null, now.minusSeconds(10 * 60));
+
+        // An offline upload replaying an old visit neither confirms nor arms the geofence
+        service.onCourierPositions(new CourierPositionsUpdatedEvent(List.of(stale, stale, stale)));
+        service.onCourierPositions(new CourierPositionsUpdatedEvent(List.of(
+                GpsFix.mobile("courier-1", LAT, LNG, null, null, now))));
+        verifyNoInteractions(parcelRepository);
+
+        when(parcelRepository.findById(parcel.getId())).thenReturn(Optional.of(parcel));
+        service.onCourierPositions(new CourierPositionsUpdatedEvent(List.of(
+                GpsFix.mobile("courier-1", LAT, LNG, null, null, now))));
+
+        assertEquals(ParcelStatus.TAKEN_IN_CHARGE, parcel.getStatus());
+        verify(parcelRepository).save(parcel);
+        verify(notificationService).notifyParcelInTransit(parcel);
+    }
+}
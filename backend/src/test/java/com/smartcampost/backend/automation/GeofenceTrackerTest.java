@@ -0,0 +1,83 @@
+package com.smartcampost.backend.automation;
+
+import com.smartcampost.backend.automation.GeofenceTracker.Kind;
+import com.smartcampost.backend.automation.GeofenceTracker.Target;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeofenceTrackerTest {
+
+    // ~0.001° of latitude is ~111 m
+    private static final double LAT = 4.0500, LNG = 9.7000;
+
+    @Test
+    void onFix_firesAfterConfirmationAndDebouncesPerParcel() {
+        GeofenceTracker tracker = new GeofenceTracker(0.5, 0.7, 2, 30_000);
+        UUID parcelId = UUID.randomUUID();
+        tracker.upsert(new Target(parcelId, Kind.PICKUP, LAT, LNG));
+
+        assertTrue(tracker.onFix("courier-1", LAT + 0.010, LNG, 0).isEmpty(), "1.1 km away is outside");
+        assertTrue(tracker.onFix("courier-1", LAT + 0.002, LNG, 1_000).isEmpty(), "first fix inside only arms");
+
+        var triggers = tracker.onFix("courier-1", LAT + 0.001, LNG, 2_000);
+        assertEquals(1, triggers.size());
+        assertEquals(parcelId, triggers.get(0).target().parcelId());
+
+        assertTrue(tracker.onFix("courier-1", LAT, LNG, 10_000).isEmpty(), "debounced");
+        assertEquals(1, tracker.onFix("courier-1", LAT, LNG, 40_000).size());
+    }
+
+    @Test
+    void onFix_hysteresisKeepsActorInsideBetweenEnterAndExitRadius() {
+        GeofenceTracker tracker = new GeofenceTracker(0.5, 0.7, 3, 0);
+        UUID parcelId = UUID.randomUUID();
+        tracker.upsert(new Target(parcelId, Kind.DELIVERY, LAT, LNG));
+
+        tracker.onFix("courier-1", LAT + 0.004, LNG, 0);                          // ~440 m: enters
+        tracker.onFix("courier-1", LAT + 0.0055, LNG, 1);                         // ~610 m: still inside
+        assertEquals(1, tracker.onFix("courier-1", LAT + 0.004, LNG, 2).size());  // third consecutive fix
+
+        GeofenceTracker jitter = new GeofenceTracker(0.5, 0.7, 3, 0);
+        jitter.upsert(new Target(parcelId, Kind.DELIVERY, LAT, LNG));
+        jitter.onFix("courier-1", LAT + 0.004, LNG, 0);
+        jitter.onFix("courier-1", LAT + 0.008, LNG, 1);                           // ~890 m: exits, resets
+        jitter.onFix("courier-1", LAT + 0.004, LNG, 2);
+        assertTrue(jitter.onFix("courier-1", LAT + 0.004, LNG, 3).isEmpty());
+    }
+
+    @Test
+    void retainOnly_dropsTargetsNoLongerEligible() {
+        GeofenceTracker tracker = new GeofenceTracker(0.5, 0.7, 1, 0);
+        Target keep = new Target(UUID.randomUUID(), Kind.PICKUP, LAT, LNG);
+        Target drop = new Target(UUID.randomUUID(), Kind.PICKUP, LAT, LNG + 0.001);
+        tracker.upsert(keep);
+        tracker.upsert(drop);
+
+        tracker.retainOnly(Set.of(keep.key()));
+
+        assertEquals(1, tracker.size());
+        var triggers = tracker.onFix("courier-1", LAT, LNG, 0);
+        assertEquals(1, triggers.size());
+        assertEquals(keep, triggers.get(0).target());
+    }
+
+    @Test
+    void remove_forgetsActorsInsideTheParcelsTargets() {
+        GeofenceTracker tracker = new GeofenceTracker(0.5, 0.7, 1, 0);
+        UUID parcelId = UUID.randomUUID();
+        Target target = new Target(parcelId, Kind.DELIVERY, LAT, LNG);
+        tracker.upsert(target);
+        assertEquals(1, tracker.onFix("courier-1", LAT + 0.004, LNG, 0).size());  // ~440 m: inside
+
+        tracker.remove(parcelId);
+        tracker.upsert(target);
+
+        // ~610 m is between the radii: only an actor still marked inside would fire here
+        assertTrue(tracker.onFix("courier-1", LAT + 0.0055, LNG, 1).isEmpty());
+        assertEquals(1, tracker.onFix("courier-1", LAT + 0.004, LNG, 2).size());
+    }
+}
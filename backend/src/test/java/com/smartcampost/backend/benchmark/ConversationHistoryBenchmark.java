@@ -0,0 +1,127 @@
+package com.smartcampost.backend.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database part of a chat turn's prompt construction for a conversation with 10, 100 and 1000
+ * prior messages (H2, MySQL mode, same schema and index as conversation_message): the previous
+ * full-history read trimmed in memory versus the summary row plus the last-N page.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=ConversationHistoryBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConversationHistoryBenchmark {
+
+    private static final int HISTORY_MESSAGES = 10;
+
+    @Param({"10", "100", "1000"})
+    public int priorMessages;
+
+    private Connection connection;
+    private byte[] conversationId;
+    private PreparedStatement fullHistory;
+    private PreparedStatement lastN;
+    private PreparedStatement summary;
+
+    private record Message(String role, String content, Timestamp timestamp) {}
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:history" + priorMessages + ";MODE=MySQL;DB_CLOSE_DELAY=-1");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE conversation (conversation_id BINARY(16) PRIMARY KEY, summary TEXT NULL)");
+            ddl.execute("CREATE TABLE conversation_message (message_id BINARY(16) PRIMARY KEY, "
+                    + "conversation_id BINARY(16) NOT NULL, role VARCHAR(20) NOT NULL, content TEXT NOT NULL, "
+                    + "timestamp TIMESTAMP NOT NULL, detected_intent VARCHAR(100) NULL, detected_entities TEXT NULL, "
+                    + "action_taken VARCHAR(100) NULL, action_result TEXT NULL, token_count INT NULL, "
+                    + "processing_time_ms INT NULL)");
+            ddl.execute("CREATE INDEX ix_conv_msg_conversation ON conversation_message(conversation_id, timestamp)");
+        }
+        conversationId = bytes(UUID.randomUUID());
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO conversation (conversation_id, summary) VALUES (?, ?)")) {
+            insert.setBytes(1, conversationId);
+            insert.setString(2, "Client asked about pickup hours and the delivery of parcel SC123456. ".repeat(8));
+            insert.executeUpdate();
+        }
+        String answer = "Your parcel left the Douala sorting centre and is on its way to Yaounde. ".repeat(10);
+        Instant start = Instant.parse("2026-01-01T08:00:00Z");
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO conversation_message (message_id, conversation_id, role, content, timestamp) "
+                + "VALUES (?, ?, ?, ?, ?)")) {
+            for (int i = 0; i < priorMessages; i++) {
+                insert.setBytes(1, bytes(UUID.randomUUID()));
+                insert.setBytes(2, conversationId);
+                insert.setString(3, i % 2 == 0 ? "USER" : "ASSISTANT");
+                insert.setString(4, i % 2 == 0 ? "Where is my parcel? Message " + i : answer);
+                insert.setTimestamp(5, Timestamp.from(start.plusSeconds(i * 30L)));
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        fullHistory = connection.prepareStatement(
+                "SELECT * FROM conversation_message WHERE conversation_id = ? ORDER BY timestamp ASC");
+        lastN = connection.prepareStatement(
+                "SELECT * FROM conversation_message WHERE conversation_id = ? ORDER BY timestamp DESC LIMIT ?");
+        summary = connection.prepareStatement("SELECT summary FROM conversation WHERE conversation_id = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement drop = connection.createStatement()) {
+            drop.execute("DROP ALL OBJECTS");
+        }
+        connection.close();
+    }
+
+    /** findByConversationIdOrderByTimestampAsc, then keep the last N in memory. */
+    @Benchmark
+    public void fullHistoryTrimmed(Blackhole bh) throws SQLException {
+        fullHistory.setBytes(1, conversationId);
+        List<Message> history = read(fullHistory);
+        bh.consume(history.subList(Math.max(0, history.size() - HISTORY_MESSAGES), history.size()));
+    }
+
+    /** Conversation summary plus findByConversationIdOrderByTimestampDesc with a page of N + 1. */
+    @Benchmark
+    public void summaryAndLastN(Blackhole bh) throws SQLException {
+        summary.setBytes(1, conversationId);
+        try (ResultSet rs = summary.executeQuery()) {
+            if (rs.next()) bh.consume(rs.getString(1));
+        }
+        lastN.setBytes(1, conversationId);
+        lastN.setInt(2, HISTORY_MESSAGES + 1);
+        bh.consume(read(lastN));
+    }
+
+    private static List<Message> read(PreparedStatement query) throws SQLException {
+        List<Message> messages = new ArrayList<>();
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                messages.add(new Message(rs.getString("role"), rs.getString("content"), rs.getTimestamp("timestamp")));
+            }
+        }
+        return messages;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return java.nio.ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartcampost.backend.benchmark;
+
+import com.smartcampost.backend.geo.GeoDistance;
+import com.smartcampost.backend.geo.GeoPoints;
+import com.smartcampost.backend.geo.SpatialGridIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distances from one query point to 2k courier positions across Cameroon: the per-call boxed
+ * haversine the callers used to carry (Double[] coordinates, four trig calls per pair) versus
+ * the {@link GeoDistance} batch kernels over a {@link GeoPoints} struct-of-arrays with cached
+ * cos(lat), and the equirectangular fast path used for ranking.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=GeoDistanceBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoDistanceBenchmark {
+
+    @Param({"2000"})
+    public int points;
+
+    private Double[][] boxed;
+    private GeoPoints soa;
+    private double[] out;
+    private double queryLat;
+    private double queryLng;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        boxed = new Double[points][];
+        soa = new GeoPoints(points);
+        out = new double[points];
+        for (int i = 0; i < points; i++) {
+            double lat = SpatialGridIndex.CAMEROON_MIN_LAT
+                    + random.nextDouble() * (SpatialGridIndex.CAMEROON_MAX_LAT - SpatialGridIndex.CAMEROON_MIN_LAT);
+            double lng = SpatialGridIndex.CAMEROON_MIN_LNG
+                    + random.nextDouble() * (SpatialGridIndex.CAMEROON_MAX_LNG - SpatialGridIndex.CAMEROON_MIN_LNG);
+            boxed[i] = new Double[]{lat, lng};
+            soa.add(lat, lng);
+        }
+        queryLat = 4.05;
+        queryLng = 9.70;
+    }
+
+    @Benchmark
+    public void boxedScalarHaversine(Blackhole bh) {
+        Double lat = queryLat, lng = queryLng;
+        for (Double[] p : boxed) {
+            bh.consume(legacyHaversineKm(lat, lng, p[0], p[1]));
+        }
+    }
+
+    @Benchmark
+    public double[] batchHaversine() {
+        GeoDistance.haversineKm(queryLat, queryLng, soa, out);
+        return out;
+    }
+
+    @Benchmark
+    public double[] batchEquirectangular() {
+        GeoDistance.equirectangularKm(queryLat, queryLng, soa, out);
+        return out;
+    }
+
+    @Benchmark
+    public int nearestIndex() {
+        return GeoDistance.nearestIndex(queryLat, queryLng, soa, out);
+    }
+
+    private static double legacyHaversineKm(Double lat1, Double lng1, Double lat2, Double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
@@ -0,0 +1,112 @@
+package com.smartcampost.backend.benchmark;
+
+import com.smartcampost.backend.geo.SpatialGridIndex;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Geofence sweep over 10k active parcels and 2k live couriers spread across Cameroon:
+ * the previous parcels x couriers haversine double loop versus one grid lookup per parcel.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=GeofenceSweepBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeofenceSweepBenchmark {
+
+    private static final double GEOFENCE_RADIUS_KM = 0.5;
+
+    @Param({"10000"})
+    public int parcels;
+
+    @Param({"2000"})
+    public int couriers;
+
+    private double[] parcelLat;
+    private double[] parcelLng;
+    private double[] courierLat;
+    private double[] courierLng;
+    private SpatialGridIndex<Integer, Integer> grid;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        parcelLat = new double[parcels];
+        parcelLng = new double[parcels];
+        courierLat = new double[couriers];
+        courierLng = new double[couriers];
+        grid = new SpatialGridIndex<>();
+        for (int i = 0; i < couriers; i++) {
+            courierLat[i] = randomLat(random);
+            courierLng[i] = randomLng(random);
+            grid.put(i, courierLat[i], courierLng[i], i);
+        }
+        for (int i = 0; i < parcels; i++) {
+            // Half the parcels sit near a courier so both paths do real work on hits.
+            if (i % 2 == 0) {
+                int c = random.nextInt(couriers);
+                parcelLat[i] = courierLat[c] + (random.nextDouble() - 0.5) * 0.006;
+                parcelLng[i] = courierLng[c] + (random.nextDouble() - 0.5) * 0.006;
+            } else {
+                parcelLat[i] = randomLat(random);
+                parcelLng[i] = randomLng(random);
+            }
+        }
+    }
+
+    @Benchmark
+    public void naiveDoubleLoop(Blackhole bh) {
+        int matched = 0;
+        for (int p = 0; p < parcels; p++) {
+            for (int c = 0; c < couriers; c++) {
+                if (haversineKm(parcelLat[p], parcelLng[p], courierLat[c], courierLng[c]) <= GEOFENCE_RADIUS_KM) {
+                    matched++;
+                    break;
+                }
+            }
+        }
+        bh.consume(matched);
+    }
+
+    @Benchmark
+    public void gridWithinRadius(Blackhole bh) {
+        int matched = 0;
+        for (int p = 0; p < parcels; p++) {
+            if (!grid.withinRadius(parcelLat[p], parcelLng[p], GEOFENCE_RADIUS_KM).isEmpty()) matched++;
+        }
+        bh.consume(matched);
+    }
+
+    @Benchmark
+    public void gridNearest10(Blackhole bh) {
+        for (int p = 0; p < parcels; p += 10) {
+            bh.consume(grid.nearest(parcelLat[p], parcelLng[p], 10, 150.0));
+        }
+    }
+
+    private static double randomLat(Random random) {
+        return SpatialGridIndex.CAMEROON_MIN_LAT
+                + random.nextDouble() * (SpatialGridIndex.CAMEROON_MAX_LAT - SpatialGridIndex.CAMEROON_MIN_LAT);
+    }
+
+    private static double randomLng(Random random) {
+        return SpatialGridIndex.CAMEROON_MIN_LNG
+                + random.nextDouble() * (SpatialGridIndex.CAMEROON_MAX_LNG - SpatialGridIndex.CAMEROON_MIN_LNG);
+    }
+
+    private static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 6371.0 * 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+    }
+}
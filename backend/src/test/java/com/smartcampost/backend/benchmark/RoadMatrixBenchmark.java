@@ -0,0 +1,71 @@
+package com.smartcampost.backend.benchmark;
+
+import com.smartcampost.backend.geo.GeoPoints;
+import com.smartcampost.backend.routing.TravelMatrix;
+import com.smartcampost.backend.routing.road.RoadGraph;
+import com.smartcampost.backend.routing.road.RoadRoutingEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 100 x 100 road matrix (one courier batch's stops) on a synthetic Douala-sized street grid:
+ * 300 x 300 intersections 50 m apart, every tenth street a 45 km/h avenue, one street in five
+ * one-way. "cold" starts from an empty node-pair cache (one many-to-many hierarchy query),
+ * "warm" repeats the same points (every cell a cache hit). Contracting the grid happens once,
+ * in setup.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=RoadMatrixBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoadMatrixBenchmark {
+
+    private static final int SIDE = 300;
+    private static final double STEP_DEGREES = 0.00045;
+
+    private RoadGraph graph;
+    private RoadRoutingEngine engine;
+    private GeoPoints points;
+
+    @Setup
+    public void setUp() {
+        RoadGraph.Builder builder = RoadGraph.builder();
+        int[][] node = new int[SIDE][SIDE];
+        for (int r = 0; r < SIDE; r++) {
+            for (int c = 0; c < SIDE; c++) node[r][c] = builder.node(3.99 + r * STEP_DEGREES, 9.66 + c * STEP_DEGREES);
+        }
+        for (int r = 0; r < SIDE; r++) {
+            for (int c = 0; c < SIDE; c++) {
+                if (c + 1 < SIDE) builder.road(node[r][c], node[r][c + 1], r % 10 == 0 ? 45 : 20, r % 5 == 2);
+                if (r + 1 < SIDE) builder.road(node[r][c], node[r + 1][c], c % 10 == 0 ? 45 : 20, c % 5 == 2);
+            }
+        }
+        graph = builder.build();
+        engine = new RoadRoutingEngine(new SimpleMeterRegistry());
+        engine.use(graph);
+
+        Random random = new Random(42);
+        points = new GeoPoints(100);
+        double span = (SIDE - 1) * STEP_DEGREES;
+        for (int i = 0; i < 100; i++) points.add(3.99 + random.nextDouble() * span, 9.66 + random.nextDouble() * span);
+        engine.matrix(points, points);
+    }
+
+    @Benchmark
+    public TravelMatrix cold() {
+        engine.use(graph);
+        return engine.matrix(points, points);
+    }
+
+    @Benchmark
+    public TravelMatrix warm() {
+        return engine.matrix(points, points);
+    }
+}
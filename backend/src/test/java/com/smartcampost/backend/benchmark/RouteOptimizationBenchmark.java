@@ -0,0 +1,66 @@
+package com.smartcampost.backend.benchmark;
+
+import com.smartcampost.backend.routing.VrpProblem;
+import com.smartcampost.backend.routing.VrpSolution;
+import com.smartcampost.backend.routing.VrpSolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One courier's day in Douala (half pickups, half their deliveries, every other pickup with a
+ * two-hour window, 60 kg vehicle): the nearest-neighbour tour the route endpoint used to return
+ * versus {@link VrpSolver#solve} run to convergence. Tour quality on the same day (late minutes,
+ * overload, precedence violations) is asserted in VrpSolverTest; this only measures time.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=RouteOptimizationBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RouteOptimizationBenchmark {
+
+    @Param({"40", "80"})
+    public int stops;
+
+    private VrpProblem problem;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        VrpProblem.Builder builder = VrpProblem.builder(4.05, 9.70)
+                .startMinute(8 * 60).averageSpeedKmh(25).detourFactor(1.3).serviceMinutes(5).capacityKg(60);
+        for (int i = 0; i < stops / 2; i++) {
+            double kg = 1 + random.nextInt(10);
+            int open = 8 * 60 + random.nextInt(6) * 60;
+            int pickup = i % 2 == 0
+                    ? builder.stop(lat(random), lng(random), open, open + 120, kg, -1, 1 + random.nextInt(5))
+                    : builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, kg, -1, 1 + random.nextInt(5));
+            builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, -kg, pickup, 1 + random.nextInt(5));
+        }
+        problem = builder.build();
+    }
+
+    @Benchmark
+    public VrpSolution nearestNeighbour() {
+        return VrpSolver.nearestNeighbour(problem);
+    }
+
+    @Benchmark
+    public VrpSolution localSearch() {
+        return VrpSolver.solve(problem, Duration.ofSeconds(10));
+    }
+
+    private static double lat(Random random) {
+        return 4.05 + (random.nextDouble() - 0.5) * 0.12;
+    }
+
+    private static double lng(Random random) {
+        return 9.70 + (random.nextDouble() - 0.5) * 0.12;
+    }
+}
@@ -0,0 +1,126 @@
+package com.smartcampost.backend.benchmark;
+
+import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.pricing.TariffTable;
+import com.smartcampost.backend.util.WeightBracketResolver;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One quote's tariff resolution (exact zones, else NATIONAL/NATIONAL) over a full grid: both
+ * service types, the ten regions plus NATIONAL, every bracket (1,210 tariffs), a quarter of
+ * the region pairs left unpriced so they take the fallback. "query" runs the two indexed
+ * lookups the services used to issue, against in-process H2 (no network, no JPA: a floor for
+ * the MySQL round trips); "table" reads the compiled {@link TariffTable}.
+ *
+ * Run with: mvn -Pbenchmark test-compile exec:exec -Dbenchmark.include=TariffLookupBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TariffLookupBenchmark {
+
+    private static final String[] ZONES = {"NATIONAL", "CENTER", "LITTORAL", "WEST", "NORTHWEST", "SOUTHWEST",
+            "ADAMAWA", "NORTH", "FAR NORTH", "EAST", "SOUTH"};
+    private static final int QUOTES = 1024;
+
+    private Connection connection;
+    private PreparedStatement lookup;
+    private TariffTable table;
+
+    private final ServiceType[] services = new ServiceType[QUOTES];
+    private final String[] origins = new String[QUOTES];
+    private final String[] destinations = new String[QUOTES];
+    private final double[] weights = new double[QUOTES];
+    private int next;
+
+    @Setup
+    public void setUp() throws SQLException {
+        Random random = new Random(42);
+        List<Tariff> tariffs = new ArrayList<>();
+        for (ServiceType service : ServiceType.values()) {
+            for (String origin : ZONES) {
+                for (String destination : ZONES) {
+                    boolean national = origin.equals("NATIONAL") && destination.equals("NATIONAL");
+                    if (!national && random.nextInt(4) == 0) continue;
+                    for (String bracket : WeightBracketResolver.BRACKETS) {
+                        tariffs.add(Tariff.builder().id(UUID.randomUUID()).serviceType(service)
+                                .originZone(origin).destinationZone(destination).weightBracket(bracket)
+                                .price(BigDecimal.valueOf(500 + random.nextInt(10_000))).build());
+                    }
+                }
+            }
+        }
+        table = TariffTable.compile(tariffs, 1);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:tariff-bench;MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE tariff (id BINARY(16) PRIMARY KEY, service_type VARCHAR(16) NOT NULL, "
+                    + "origin_zone VARCHAR(255) NOT NULL, destination_zone VARCHAR(255) NOT NULL, "
+                    + "weight_bracket VARCHAR(255) NOT NULL, price DECIMAL(38,2) NOT NULL)");
+            ddl.execute("CREATE INDEX ix_tariff_lookup ON tariff(service_type, origin_zone, destination_zone, weight_bracket)");
+        }
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO tariff VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (Tariff t : tariffs) {
+                insert.setObject(1, t.getId());
+                insert.setString(2, t.getServiceType().name());
+                insert.setString(3, t.getOriginZone());
+                insert.setString(4, t.getDestinationZone());
+                insert.setString(5, t.getWeightBracket());
+                insert.setBigDecimal(6, t.getPrice());
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        lookup = connection.prepareStatement("SELECT id, price FROM tariff WHERE service_type = ? AND origin_zone = ? "
+                + "AND destination_zone = ? AND weight_bracket = ? LIMIT 1");
+
+        for (int i = 0; i < QUOTES; i++) {
+            services[i] = ServiceType.values()[random.nextInt(ServiceType.values().length)];
+            origins[i] = ZONES[1 + random.nextInt(ZONES.length - 1)];
+            destinations[i] = ZONES[1 + random.nextInt(ZONES.length - 1)];
+            weights[i] = random.nextDouble() * 60;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public double query() throws SQLException {
+        int i = next++ & (QUOTES - 1);
+        String bracket = WeightBracketResolver.resolve(weights[i]);
+        double price = find(services[i], origins[i], destinations[i], bracket);
+        return Double.isNaN(price) ? find(services[i], "NATIONAL", "NATIONAL", bracket) : price;
+    }
+
+    @Benchmark
+    public double table() {
+        int i = next++ & (QUOTES - 1);
+        return table.resolve(services[i], origins[i], destinations[i], WeightBracketResolver.index(weights[i]))
+                .priceValue();
+    }
+
+    private double find(ServiceType service, String origin, String destination, String bracket) throws SQLException {
+        lookup.setString(1, service.name());
+        lookup.setString(2, origin);
+        lookup.setString(3, destination);
+        lookup.setString(4, bracket);
+        try (ResultSet rs = lookup.executeQuery()) {
+            return rs.next() ? rs.getBigDecimal(2).doubleValue() : Double.NaN;
+        }
+    }
+}
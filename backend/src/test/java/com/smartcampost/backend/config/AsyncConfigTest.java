@@ -0,0 +1,148 @@
+package com.smartcampost.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AsyncConfigTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AsyncConfig config = new AsyncConfig(meterRegistry);
+
+    @Test
+    void plainAsync_runsOnTheDefaultExecutorBean() {
+        new ApplicationContextRunner()
+                .withUserConfiguration(AsyncConfig.class, Workers.class)
+                .run(context -> {
+                    assertSame(context.getBean(AsyncConfig.DEFAULT_EXECUTOR),
+                            context.getBean(AsyncConfig.DEFAULT_EXECUTOR, AsyncTaskExecutor.class));
+                    String thread = context.getBean(Worker.class).threadName().get(5, TimeUnit.SECONDS);
+                    assertTrue(thread.startsWith("default-"), thread);
+                });
+    }
+
+    @Test
+    void defer_runsRejectedTasksOnTheOverflowLane_notOnTheCaller() throws Exception {
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) config.buildExecutor("automation", 1, 1, 1, "DEFER");
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release)); // the only worker
+            executor.execute(() -> {});             // fills the queue
+            Future<String> rejected = executor.submit(() -> Thread.currentThread().getName());
+
+            assertEquals("automation-overflow", rejected.get(5, TimeUnit.SECONDS));
+            assertEquals(1.0, meterRegistry.get("smartcampost.async.rejected").tag("executor", "automation").counter().count());
+        } finally {
+            release.countDown();
+            executor.shutdown();
+            config.stopOverflowLanes();
+        }
+    }
+
+    @Test
+    void conversationExecutor_neverDropsAnAnswer_whenSaturated() throws Exception {
+        ThreadPoolTaskExecutor executor = (ThreadPoolTaskExecutor) config.conversationExecutor(1, 1, 1, "CALLER_RUNS");
+        executor.initialize();
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release)); // the only worker
+            executor.execute(() -> {});             // fills the queue
+            Future<String> saturated = executor.submit(() -> Thread.currentThread().getName());
+
+            assertEquals(Thread.currentThread().getName(), saturated.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void permitExecutor_neverBlocksTheSubmitter_andReportsWaitingTasks() throws Exception {
+        AsyncTaskExecutor executor = config.permitExecutor("ai", 1, 10, "DEFER", task -> task, false);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<?>> tasks = new ArrayList<>();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(2), () -> {
+            for (int i = 0; i < 3; i++) tasks.add(executor.submit(() -> await(release)));
+        });
+        assertEventually(() -> gauge("smartcampost.async.active") == 1.0 && gauge("smartcampost.async.queue.depth") == 2.0);
+
+        release.countDown();
+        for (Future<?> task : tasks) task.get(5, TimeUnit.SECONDS);
+        assertEquals(0.0, gauge("smartcampost.async.queue.depth"));
+    }
+
+    @Test
+    void permitExecutor_abortsPastTheWaitingLimit() throws Exception {
+        AsyncTaskExecutor executor = config.permitExecutor("ai", 1, 1, "ABORT", task -> task, false);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            executor.execute(() -> await(release));
+            assertEventually(() -> gauge("smartcampost.async.active") == 1.0);
+            executor.execute(() -> await(release)); // waits for the permit
+
+            assertThrows(TaskRejectedException.class, () -> executor.execute(() -> {}));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Configuration
+    static class Workers {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        Worker worker() {
+            return new Worker();
+        }
+    }
+
+    static class Worker {
+        @Async
+        public CompletableFuture<String> threadName() {
+            return CompletableFuture.completedFuture(Thread.currentThread().getName());
+        }
+    }
+
+    private double gauge(String name) {
+        return meterRegistry.get(name).tag("executor", "ai").gauge().value();
+    }
+
+    private static void assertEventually(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(10);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.smartcampost.backend.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcampost.backend.dto.ai.ChatResponse;
+import com.smartcampost.backend.dto.ai.ChatStreamEvent;
 import com.smartcampost.backend.model.AiFeedback;
 import com.smartcampost.backend.model.Parcel;
 import com.smartcampost.backend.model.enums.ParcelStatus;
@@ -20,16 +22,23 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -109,4 +118,27 @@ class ApiCoverageCompatibilityTest {
         mvc.perform(get("/api/ussd/sessions"))
                 .andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser(roles = "CLIENT")
+    void chatStream_writesTheDeltasFromTheFlux_andSubscribesToTheModelOnce() throws Exception {
+        AtomicInteger modelSubscriptions = new AtomicInteger();
+        Flux<ChatStreamEvent> answer = Flux.defer(() -> {
+            modelSubscriptions.incrementAndGet();
+            return Flux.just(ChatStreamEvent.delta("Bonjour, "), ChatStreamEvent.delta("votre colis arrive."),
+                    ChatStreamEvent.done(ChatResponse.builder().message("Bonjour, votre colis arrive.").build()));
+        });
+        when(aiService.streamChat(any())).thenReturn(Flux.just(ChatStreamEvent.session("session-7")).concatWith(answer));
+
+        MvcResult started = mvc.perform(post("/api/ai/chat/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("message", "où est mon colis ?"))))
+                .andExpect(header().string("X-Session-Id", "session-7"))
+                .andReturn();
+
+        mvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().string("Bonjour, votre colis arrive."));
+        assertEquals(1, modelSubscriptions.get());
+    }
 }
@@ -0,0 +1,91 @@
+package com.smartcampost.backend.controller;
+
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.GpsFix;
+import com.smartcampost.backend.logistics.GpsIngestionPipeline;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
+import com.smartcampost.backend.logistics.LivePositionIndex;
+import com.smartcampost.backend.repository.AgentRepository;
+import com.smartcampost.backend.repository.CourierRepository;
+import com.smartcampost.backend.repository.GpsTrackerRepository;
+import com.smartcampost.backend.repository.LocationRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.UserAccountRepository;
+import com.smartcampost.backend.service.ai.agents.RouteOptimizationAgent;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = LogisticsRealtimeController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class LogisticsRealtimeControllerTest {
+
+    private static final String BATCH = """
+            [{"latitude": 4.05, "longitude": 9.70, "timestamp": "2026-03-01T08:00:00Z"},
+             {"latitude": 4.06, "longitude": 9.71, "timestamp": "2026-03-01T08:00:30Z"},
+             {"latitude": null, "longitude": 9.72, "timestamp": "2026-03-01T08:01:00Z"}]
+            """;
+
+    @Autowired private MockMvc mvc;
+
+    @MockitoBean private GpsTrackerRepository gpsTrackerRepository;
+    @MockitoBean private LocationRepository locationRepository;
+    @MockitoBean private ParcelRepository parcelRepository;
+    @MockitoBean private UserAccountRepository userAccountRepository;
+    @MockitoBean private AgentRepository agentRepository;
+    @MockitoBean private CourierRepository courierRepository;
+    @MockitoBean private GpsIngestionPipeline gpsIngestionPipeline;
+    @MockitoBean private LivePositionIndex livePositionIndex;
+    @MockitoBean private LastKnownLocationCache lastKnownLocations;
+    @MockitoBean private ActorParcelIndex actorParcelIndex;
+    @MockitoBean private RouteOptimizationAgent routeOptimizationAgent;
+
+    @Test
+    @WithMockUser(roles = "COURIER")
+    void batchMobileGps_queueCannotTakeTheWholeBatch_answers503SoTheAppKeepsItsCache() throws Exception {
+        when(gpsIngestionPipeline.submitAll(anyList())).thenReturn(false);
+
+        mvc.perform(post("/api/logistics/gps/mobile/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BATCH))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "5"));
+    }
+
+    @Test
+    @WithMockUser(roles = "COURIER")
+    @SuppressWarnings("unchecked")
+    void batchMobileGps_queuesEveryValidPointAtOnce() throws Exception {
+        when(gpsIngestionPipeline.submitAll(anyList())).thenReturn(true);
+
+        mvc.perform(post("/api/logistics/gps/mobile/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BATCH))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.synced").value(2))
+                .andExpect(jsonPath("$.skipped").value(1))
+                .andExpect(jsonPath("$.total").value(3));
+
+        ArgumentCaptor<List<GpsFix>> fixes = ArgumentCaptor.forClass(List.class);
+        verify(gpsIngestionPipeline).submitAll(fixes.capture());
+        assertEquals(2, fixes.getValue().size());
+    }
+}
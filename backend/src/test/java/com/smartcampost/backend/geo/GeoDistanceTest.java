@@ -0,0 +1,63 @@
+package com.smartcampost.backend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoDistanceTest {
+
+    @Test
+    void haversine_matchesKnownDistance_andCachedCosOverloadAgrees() {
+        // Douala -> Yaoundé, about 194 km as the crow flies
+        double d = GeoDistance.haversineKm(4.0511, 9.7679, 3.8480, 11.5021);
+        assertEquals(193.7, d, 0.5);
+        assertEquals(d, GeoDistance.haversineKm(4.0511, 9.7679, GeoDistance.cosLat(4.0511),
+                3.8480, 11.5021, GeoDistance.cosLat(3.8480)), 1e-12);
+        assertEquals(0.0, GeoDistance.haversineKm(4.05, 9.70, 4.05, 9.70), 1e-12);
+    }
+
+    @Test
+    void equirectangular_staysWithinItsErrorBound() {
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            double lat = -60 + random.nextDouble() * 120;
+            double lng = -170 + random.nextDouble() * 340;
+            double lat2 = lat + (random.nextDouble() - 0.5) * 4;
+            double lng2 = lng + (random.nextDouble() - 0.5) * 4;
+            double exact = GeoDistance.haversineKm(lat, lng, lat2, lng2);
+            double approx = GeoDistance.equirectangularKm(lat, lng, GeoDistance.cosLat(lat), lat2, lng2);
+            assertTrue(Math.abs(approx - exact) <= GeoDistance.equirectangularErrorBoundKm(lat, exact) + 1e-9,
+                    () -> "bound exceeded at " + lat + "," + lng);
+        }
+        // Cameroon latitudes, 200 km: within about 0.5%
+        assertTrue(GeoDistance.equirectangularErrorBoundKm(13.0, 200.0) < 200.0 * 0.006);
+    }
+
+    @Test
+    void batchKernels_matchScalar_andNearestMatchesBruteForce() {
+        Random random = new Random(5);
+        GeoPoints points = new GeoPoints(4); // grows past its initial capacity
+        for (int i = 0; i < 500; i++) {
+            points.add(1.65 + random.nextDouble() * 11.4, 8.49 + random.nextDouble() * 7.7);
+        }
+        double qLat = 4.06, qLng = 9.71;
+        double[] haversine = new double[points.size()];
+        double[] equirectangular = new double[points.size()];
+
+        GeoDistance.haversineKm(qLat, qLng, points, haversine);
+        GeoDistance.equirectangularKm(qLat, qLng, points, equirectangular);
+
+        int expectedNearest = 0;
+        for (int i = 0; i < points.size(); i++) {
+            double scalar = GeoDistance.haversineKm(qLat, qLng, points.latitude(i), points.longitude(i));
+            assertEquals(scalar, haversine[i], 1e-9);
+            assertEquals(GeoDistance.equirectangularKm(qLat, qLng, GeoDistance.cosLat(qLat),
+                    points.latitude(i), points.longitude(i)), equirectangular[i], 1e-12);
+            if (scalar < haversine[expectedNearest]) expectedNearest = i;
+        }
+        assertEquals(expectedNearest, GeoDistance.nearestIndex(qLat, qLng, points, new double[points.size()]));
+        assertEquals(-1, GeoDistance.nearestIndex(qLat, qLng, new GeoPoints(), new double[0]));
+    }
+}
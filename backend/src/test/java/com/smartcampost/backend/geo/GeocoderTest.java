@@ -0,0 +1,144 @@
+package com.smartcampost.backend.geo;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.smartcampost.backend.exception.ConflictException;
+import com.smartcampost.backend.model.GeocodeCacheEntry;
+import com.smartcampost.backend.repository.GeocodeCacheRepository;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GeocoderTest {
+
+    @Mock private GeocodeCacheRepository cacheRepository;
+
+    private HttpServer nominatim;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile String body = "[{\"lat\":\"4.0511\",\"lon\":\"9.7679\",\"display_name\":\"Akwa, Douala\"}]";
+    private Geocoder geocoder;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        nominatim = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        nominatim.createContext("/search", exchange -> {
+            requests.incrementAndGet();
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        nominatim.setExecutor(Executors.newCachedThreadPool());
+        nominatim.start();
+
+        geocoder = new Geocoder(cacheRepository, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(geocoder, "nominatimUrl",
+                "http://127.0.0.1:" + nominatim.getAddress().getPort() + "/search");
+        ReflectionTestUtils.setField(geocoder, "minIntervalMs", 200L);
+        ReflectionTestUtils.setField(geocoder, "maxWaitMs", 300L);
+        ReflectionTestUtils.invokeMethod(geocoder, "init");
+    }
+
+    @AfterEach
+    void tearDown() {
+        nominatim.stop(0);
+    }
+
+    @Test
+    void concurrentLookupsOfOneAddress_shareOneRequest_andLaterOnesHitMemory() throws Exception {
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Optional<Geocoder.Place>>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String spelling = i % 2 == 0 ? "Rue Joss, Akwa, Douala" : "  rue   JOSS; akwa - DOUALA ";
+                results.add(callers.submit(() -> geocoder.geocode(spelling)));
+            }
+            for (Future<Optional<Geocoder.Place>> result : results) {
+                assertEquals(4.0511, result.get(5, TimeUnit.SECONDS).orElseThrow().latitude(), 1e-9);
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+        assertEquals(1, requests.get());
+
+        ArgumentCaptor<GeocodeCacheEntry> saved = ArgumentCaptor.forClass(GeocodeCacheEntry.class);
+        verify(cacheRepository).save(saved.capture());
+        assertEquals("rue joss akwa douala", saved.getValue().getAddress());
+        assertTrue(saved.getValue().isFound());
+
+        assertTrue(geocoder.cached("Rue Joss, Akwa, Douala").isPresent());
+        assertEquals(1, requests.get());
+    }
+
+    @Test
+    void databaseHitsAndRememberedMisses_neverReachTheNetwork() {
+        when(cacheRepository.findById(anyString())).thenAnswer(call -> Optional.of(GeocodeCacheEntry.builder()
+                .addressHash(call.getArgument(0)).address("x").found(false).geocodedAt(Instant.now()).build()));
+
+        assertTrue(geocoder.geocode("Nowhere street, Atlantis").isEmpty());
+        assertTrue(geocoder.cached("Somewhere else").isEmpty());
+        assertEquals(0, requests.get());
+        verify(cacheRepository, never()).save(any());
+    }
+
+    @Test
+    void requestsBeyondTheRateLimitWindow_failFast() {
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        body = "[]";
+
+        // Slots are 200 ms apart and callers wait at most 300 ms: of four simultaneous lookups
+        // the first two get a slot, the rest are refused instead of queueing
+        ExecutorService burst = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                String address = "burst " + i;
+                calls.add(burst.submit(() -> geocoder.geocode(address)));
+            }
+            int refused = 0;
+            int served = 0;
+            for (Future<?> call : calls) {
+                try {
+                    call.get(5, TimeUnit.SECONDS);
+                    served++;
+                } catch (ExecutionException e) {
+                    assertInstanceOf(ConflictException.class, e.getCause());
+                    refused++;
+                } catch (Exception e) {
+                    fail(e);
+                }
+            }
+            assertTrue(served >= 1 && refused >= 1, served + " served, " + refused + " refused");
+            assertEquals(served, requests.get());
+        } finally {
+            burst.shutdownNow();
+        }
+    }
+}
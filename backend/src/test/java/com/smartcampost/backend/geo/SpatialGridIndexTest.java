@@ -0,0 +1,101 @@
+package com.smartcampost.backend.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridIndexTest {
+
+    @Test
+    void withinRadiusAndNearest_matchBruteForce() {
+        Random random = new Random(7);
+        SpatialGridIndex<Integer, Integer> grid = new SpatialGridIndex<>();
+        double[][] points = new double[3000][];
+        for (int i = 0; i < points.length; i++) {
+            // Dense cluster around Douala plus a sparse spread across the country.
+            points[i] = i % 3 == 0
+                    ? new double[]{4.05 + random.nextGaussian() * 0.05, 9.70 + random.nextGaussian() * 0.05}
+                    : new double[]{1.65 + random.nextDouble() * 11.4, 8.49 + random.nextDouble() * 7.7};
+            grid.put(i, points[i][0], points[i][1], i);
+        }
+
+        double qLat = 4.06, qLng = 9.71;
+        List<Integer> expectedInRadius = new ArrayList<>();
+        List<double[]> byDistance = new ArrayList<>();
+        for (int i = 0; i < points.length; i++) {
+            double d = GeoDistance.haversineKm(qLat, qLng, points[i][0], points[i][1]);
+            if (d <= 2.0) expectedInRadius.add(i);
+            byDistance.add(new double[]{d, i});
+        }
+        byDistance.sort(Comparator.comparingDouble(a -> a[0]));
+
+        List<Integer> inRadius = grid.withinRadius(qLat, qLng, 2.0).stream().map(SpatialGridIndex.Hit::id).toList();
+        assertEquals(new HashSet<>(expectedInRadius), new HashSet<>(inRadius));
+
+        List<Integer> nearest = grid.nearest(qLat, qLng, 25, 500.0).stream().map(SpatialGridIndex.Hit::id).toList();
+        List<Integer> expectedNearest = byDistance.subList(0, 25).stream().map(a -> (int) a[1]).toList();
+        assertEquals(expectedNearest, nearest);
+    }
+
+    @Test
+    void put_movesPointBetweenCells() {
+        SpatialGridIndex<String, String> grid = new SpatialGridIndex<>();
+        grid.put("c1", 4.05, 9.70, "douala");
+        grid.put("c1", 3.87, 11.52, "yaounde");
+
+        assertEquals(1, grid.size());
+        assertTrue(grid.withinRadius(4.05, 9.70, 1.0).isEmpty());
+        assertEquals("yaounde", grid.withinRadius(3.87, 11.52, 1.0).get(0).value());
+
+        grid.remove("c1");
+        assertTrue(grid.withinRadius(3.87, 11.52, 1.0).isEmpty());
+    }
+
+    @Test
+    void concurrentPutAndRemove_neverLoseOrDuplicateAPoint() throws Exception {
+        SpatialGridIndex<Integer, Integer> grid = new SpatialGridIndex<>();
+        int threads = 8, ids = 4, rounds = 100_000;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int seed = t;
+                workers.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    start.await();
+                    for (int i = 0; i < rounds; i++) {
+                        int id = random.nextInt(ids);
+                        // Two neighbouring cells, so moves keep emptying and re-creating them
+                        double lng = 9.700 + random.nextInt(2) * 0.01 + 0.005;
+                        if (random.nextInt(4) == 0) {
+                            grid.remove(id);
+                        } else {
+                            grid.put(id, 4.005, lng, id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> worker : workers) worker.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        // Every indexed point is found exactly once, at its current position, and nothing else is
+        List<Integer> found = grid.withinRadius(4.005, 9.71, 5.0).stream().map(SpatialGridIndex.Hit::id).sorted().toList();
+        List<Integer> indexed = grid.entries().stream().map(SpatialGridIndex.Entry::id).sorted().toList();
+        assertEquals(indexed, found);
+        for (SpatialGridIndex.Hit<Integer, Integer> hit : grid.withinRadius(4.005, 9.71, 5.0)) {
+            assertEquals(grid.get(hit.id()).orElseThrow().longitude(), hit.longitude());
+        }
+    }
+}
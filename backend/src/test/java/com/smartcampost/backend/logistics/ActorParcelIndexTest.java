@@ -0,0 +1,112 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.Courier;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.ParcelLatestScan;
+import com.smartcampost.backend.model.PickupRequest;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.PickupRequestState;
+import com.smartcampost.backend.repository.ParcelLatestScanRepository;
+import com.smartcampost.backend.repository.PickupRequestRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ActorParcelIndexTest {
+
+    @Mock private ParcelLatestScanRepository parcelLatestScanRepository;
+    @Mock private PickupRequestRepository pickupRequestRepository;
+
+    private ActorParcelIndex index;
+    private final String courierA = UUID.randomUUID().toString();
+    private final String courierB = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() {
+        index = new ActorParcelIndex(parcelLatestScanRepository, pickupRequestRepository, new SimpleMeterRegistry());
+        index.init();
+    }
+
+    @Test
+    void parcelFollowsItsLatestScanner_andLeavesTheIndexOnceClosed() {
+        UUID parcel = UUID.randomUUID();
+
+        index.scanRecorded(parcel, courierA, ParcelStatus.TAKEN_IN_CHARGE);
+        assertEquals(Set.of(parcel), index.parcelsOf(courierA));
+
+        index.scanRecorded(parcel, courierB, ParcelStatus.IN_TRANSIT);
+        assertTrue(index.parcelsOf(courierA).isEmpty());
+        assertTrue(index.isLatestScanner(parcel, courierB));
+
+        index.scanRecorded(parcel, courierB, ParcelStatus.DELIVERED);
+        assertTrue(index.parcelsOf(courierB).isEmpty());
+        assertFalse(index.isLatestScanner(parcel, courierB));
+    }
+
+    @Test
+    void assignedPickupsCountForTheCourierUntilCompleted() {
+        UUID parcelId = UUID.randomUUID();
+        Courier courier = Courier.builder().id(UUID.fromString(courierA)).build();
+        PickupRequest pickup = PickupRequest.builder()
+                .parcel(Parcel.builder().id(parcelId).build())
+                .courier(courier)
+                .state(PickupRequestState.ASSIGNED)
+                .build();
+
+        index.pickupChanged(pickup);
+        assertEquals(Set.of(parcelId), index.parcelsOf(courierA));
+        assertFalse(index.isLatestScanner(parcelId, courierA), "an assignment is not a scan");
+
+        pickup.setState(PickupRequestState.COMPLETED);
+        index.pickupChanged(pickup);
+        assertTrue(index.parcelsOf(courierA).isEmpty());
+    }
+
+    @Test
+    void rebuildLoadsTheDatabase_andKeepsChangesMadeWhileItRan() {
+        UUID scanned = UUID.randomUUID();
+        UUID assigned = UUID.randomUUID();
+        UUID scannedDuringRebuild = UUID.randomUUID();
+        ParcelLatestScan latest = ParcelLatestScan.builder().parcelId(scanned).actorId(courierA).build();
+        PickupRequestRepository.PickupAssignment assignment = mock(PickupRequestRepository.PickupAssignment.class);
+        when(assignment.getParcelId()).thenReturn(assigned);
+        when(assignment.getCourierId()).thenReturn(UUID.fromString(courierA));
+
+        index.scanRecorded(UUID.randomUUID(), courierA, ParcelStatus.IN_TRANSIT); // stale, not in the database
+        when(parcelLatestScanRepository.findByParcelStatusIn(any())).thenAnswer(invocation -> {
+            index.scanRecorded(scannedDuringRebuild, courierA, ParcelStatus.IN_TRANSIT);
+            return List.of(latest);
+        });
+        when(pickupRequestRepository.findAssignments(PickupRequestState.ASSIGNED)).thenReturn(List.of(assignment));
+
+        index.rebuild();
+
+        assertEquals(Set.of(scanned, assigned, scannedDuringRebuild), index.parcelsOf(courierA));
+    }
+
+    @Test
+    void scanFromAnotherReplica_isSeenThroughParcelLatestScanBeforeTheNextRebuild() {
+        UUID parcel = UUID.randomUUID();
+        when(parcelLatestScanRepository.findById(parcel))
+                .thenReturn(Optional.of(ParcelLatestScan.builder().parcelId(parcel).actorId(courierB).build()));
+
+        // Scanned locally by A, then by B on another replica: the index still says A
+        index.scanRecorded(parcel, courierA, ParcelStatus.IN_TRANSIT);
+
+        assertTrue(index.isLatestScanner(parcel, courierB));
+        verify(parcelLatestScanRepository, times(1)).findById(parcel);
+    }
+}
@@ -0,0 +1,128 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.repository.GpsTrackerRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.sse.SseEmitters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class GpsIngestionPipelineTest {
+
+    @Mock private ParcelRepository parcelRepository;
+    @Mock private GpsTrackerRepository gpsTrackerRepository;
+    @Mock private ActorParcelIndex actorParcelIndex;
+    @Mock private SseEmitters sseEmitters;
+    @Mock private LivePositionIndex livePositionIndex;
+    @Mock private ApplicationEventPublisher eventPublisher;
+
+    private JdbcTemplate jdbc;
+    private LastKnownLocationCache lastKnownLocations;
+    private GpsIngestionPipeline pipeline;
+    private final String courierKey = UUID.randomUUID().toString();
+    private final UUID parcelId = UUID.randomUUID();
+    private final Instant t0 = Instant.parse("2026-03-01T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:gps-ingest-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE locations (id BIGINT AUTO_INCREMENT PRIMARY KEY, user_id VARCHAR(64), " +
+                "latitude DOUBLE, longitude DOUBLE, source VARCHAR(20), timestamp TIMESTAMP)");
+        jdbc.execute("CREATE TABLE parcel (parcel_id BINARY(16) PRIMARY KEY, tracking_ref VARCHAR(80), " +
+                "current_latitude DECIMAL(10,8), current_longitude DECIMAL(11,8), location_updated_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE courier (courier_id BINARY(16) PRIMARY KEY, " +
+                "current_latitude DECIMAL(10,8), current_longitude DECIMAL(11,8), last_location_at TIMESTAMP)");
+        jdbc.update("INSERT INTO parcel (parcel_id, tracking_ref) VALUES (?, ?)", bytes(parcelId), "SC000777");
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(ds);
+        lastKnownLocations = new LastKnownLocationCache(jdbc, transactionManager, new SimpleMeterRegistry());
+        lastKnownLocations.init();
+        // The writer thread is not started: the test drives flush() directly
+        pipeline = new GpsIngestionPipeline(jdbc, transactionManager, parcelRepository, gpsTrackerRepository,
+                actorParcelIndex, sseEmitters, livePositionIndex, lastKnownLocations,
+                new SimpleMeterRegistry(), eventPublisher);
+
+        Parcel parcel = Parcel.builder().id(parcelId).trackingRef("SC000777").status(ParcelStatus.IN_TRANSIT).build();
+        lenient().when(actorParcelIndex.parcelsOf(courierKey)).thenReturn(Set.of(parcelId));
+        lenient().when(parcelRepository.findAllById(any())).thenReturn(List.of(parcel));
+    }
+
+    @Test
+    void batch_persistsEveryFix_andMovesParcelsToTheNewestOneAtItsOwnTime() {
+        pipeline.flush(List.of(
+                GpsFix.mobile(courierKey, 4.05, 9.70, null, null, t0.plusSeconds(10)),
+                GpsFix.mobile(courierKey, 4.07, 9.72, null, null, t0.plusSeconds(30)),
+                GpsFix.mobile(courierKey, 4.06, 9.71, null, null, t0.plusSeconds(20))));
+
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM locations", Integer.class));
+        assertEquals(new LastKnownLocation(4.07, 9.72, t0.plusSeconds(30)), parcelPosition());
+
+        lastKnownLocations.flush();
+        assertEquals(Timestamp.from(t0.plusSeconds(30)), jdbc.queryForObject(
+                "SELECT location_updated_at FROM parcel WHERE parcel_id = ?", Timestamp.class, (Object) bytes(parcelId)));
+    }
+
+    @Test
+    void olderFixInALaterBatch_doesNotMoveTheParcelBack() {
+        pipeline.flush(List.of(GpsFix.mobile(courierKey, 4.07, 9.72, null, null, t0.plusSeconds(30))));
+        pipeline.flush(List.of(GpsFix.mobile(courierKey, 3.86, 11.50, null, null, t0)));
+
+        assertEquals(new LastKnownLocation(4.07, 9.72, t0.plusSeconds(30)), parcelPosition());
+
+        // Same once the first position is already stored
+        lastKnownLocations.flush();
+        pipeline.flush(List.of(GpsFix.mobile(courierKey, 3.86, 11.50, null, null, t0.plusSeconds(5))));
+        lastKnownLocations.flush();
+        assertEquals(Timestamp.from(t0.plusSeconds(30)), jdbc.queryForObject(
+                "SELECT location_updated_at FROM parcel WHERE parcel_id = ?", Timestamp.class, (Object) bytes(parcelId)));
+        assertEquals(3, jdbc.queryForObject("SELECT COUNT(*) FROM locations", Integer.class),
+                "late fixes are still kept in the history");
+    }
+
+    @Test
+    void submitAll_queuesTheWholeBatchOrNothing() {
+        ReflectionTestUtils.setField(pipeline, "queue", new ArrayBlockingQueue<GpsFix>(3));
+        GpsFix first = GpsFix.mobile(courierKey, 4.05, 9.70, null, null, t0);
+        GpsFix second = GpsFix.mobile(courierKey, 4.06, 9.71, null, null, t0.plusSeconds(10));
+        assertTrue(pipeline.submit(first));
+
+        assertFalse(pipeline.submitAll(List.of(second, second, second)), "only two slots left");
+        verify(livePositionIndex, never()).record(second);
+
+        assertTrue(pipeline.submitAll(List.of(second, second)));
+        assertEquals(3, pipeline.stats().get("queueDepth"));
+        assertEquals(3L, pipeline.stats().get("rejected"));
+    }
+
+    private LastKnownLocation parcelPosition() {
+        return lastKnownLocations.parcel(Parcel.builder().id(parcelId).build()).orElseThrow();
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
@@ -0,0 +1,101 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.model.Parcel;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LastKnownLocationCacheTest {
+
+    private JdbcTemplate jdbc;
+    private DataSourceTransactionManager transactionManager;
+    private LastKnownLocationCache cache;
+    private final Instant t0 = Instant.parse("2026-03-01T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:last-known-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE parcel (parcel_id BINARY(16) PRIMARY KEY, tracking_ref VARCHAR(80), " +
+                "current_latitude DECIMAL(10,8), current_longitude DECIMAL(11,8), location_updated_at TIMESTAMP)");
+        jdbc.execute("CREATE TABLE courier (courier_id BINARY(16) PRIMARY KEY, " +
+                "current_latitude DECIMAL(10,8), current_longitude DECIMAL(11,8), last_location_at TIMESTAMP)");
+        transactionManager = new DataSourceTransactionManager(ds);
+        cache = new LastKnownLocationCache(jdbc, transactionManager, new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void pingsAreMergedAndFlushedAsOnePartialUpdatePerRow() {
+        UUID parcelId = insertParcel("SC000111", null);
+        UUID courierId = UUID.randomUUID();
+        jdbc.update("INSERT INTO courier (courier_id) VALUES (?)", (Object) bytes(courierId));
+
+        cache.recordParcel(parcelId, 4.05, 9.70, t0.plusSeconds(10));
+        cache.recordParcel(parcelId, 4.07, 9.72, t0.plusSeconds(30));
+        cache.recordParcel(parcelId, 4.06, 9.71, t0.plusSeconds(20)); // late ping, older than the pending one
+        cache.recordCourier(courierId, 4.07, 9.72, t0.plusSeconds(30));
+
+        Parcel loaded = Parcel.builder().id(parcelId).build();
+        assertEquals(new LastKnownLocation(4.07, 9.72, t0.plusSeconds(30)), cache.parcel(loaded).orElseThrow(),
+                "readers see the pending position before it is written");
+
+        assertEquals(2, cache.flush());
+        assertEquals(0, cache.flush(), "nothing left pending");
+
+        Map<String, Object> row = jdbc.queryForMap("SELECT * FROM parcel WHERE parcel_id = ?", (Object) bytes(parcelId));
+        assertEquals(4.07, ((Number) row.get("current_latitude")).doubleValue(), 1e-9);
+        assertEquals(Timestamp.from(t0.plusSeconds(30)), row.get("location_updated_at"));
+        assertEquals(1, jdbc.queryForObject("SELECT COUNT(*) FROM courier WHERE last_location_at IS NOT NULL", Integer.class));
+    }
+
+    @Test
+    void olderPosition_neverOverwritesANewerStoredOne() {
+        UUID parcelId = insertParcel("SC000222", t0.plusSeconds(60));
+
+        cache.recordParcel(parcelId, 3.85, 11.50, t0);
+
+        assertEquals(0, cache.flush());
+        assertEquals(Timestamp.from(t0.plusSeconds(60)), jdbc.queryForObject(
+                "SELECT location_updated_at FROM parcel WHERE parcel_id = ?", Timestamp.class, (Object) bytes(parcelId)));
+    }
+
+    @Test
+    void positionRecordedInARolledBackTransaction_isDropped() {
+        UUID parcelId = insertParcel("SC000333", null);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            cache.recordParcel(parcelId, 4.05, 9.70, t0);
+            status.setRollbackOnly();
+        });
+
+        assertTrue(cache.parcel(Parcel.builder().id(parcelId).build()).isEmpty());
+        assertEquals(0, cache.flush());
+    }
+
+    private UUID insertParcel(String trackingRef, Instant locationUpdatedAt) {
+        UUID id = UUID.randomUUID();
+        jdbc.update("INSERT INTO parcel (parcel_id, tracking_ref, current_latitude, current_longitude, location_updated_at) " +
+                        "VALUES (?, ?, ?, ?, ?)", bytes(id), trackingRef,
+                locationUpdatedAt != null ? 4.0 : null, locationUpdatedAt != null ? 9.0 : null,
+                locationUpdatedAt != null ? Timestamp.from(locationUpdatedAt) : null);
+        return id;
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
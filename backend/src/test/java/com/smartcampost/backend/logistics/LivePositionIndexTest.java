@@ -0,0 +1,49 @@
+package com.smartcampost.backend.logistics;
+
+import com.smartcampost.backend.repository.LocationRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(MockitoExtension.class)
+class LivePositionIndexTest {
+
+    @Mock private LocationRepository locationRepository;
+
+    @InjectMocks private LivePositionIndex index;
+
+    @Test
+    void record_olderFixNeverOverwritesNewer() {
+        Instant now = Instant.now();
+        index.record(GpsFix.mobile("courier-1", 4.05, 9.70, 12.0, 90.0, now));
+        index.record(GpsFix.mobile("courier-1", 3.86, 11.50, null, null, now.minus(10, ChronoUnit.MINUTES)));
+
+        LivePosition position = index.get("courier-1").orElseThrow();
+        assertEquals(4.05, position.latitude());
+        assertEquals(12.0, position.speed());
+    }
+
+    @Test
+    void freshSince_filtersStaleActorsAndSortsNewestFirst() {
+        Instant now = Instant.now();
+        index.record(GpsFix.mobile("stale", 4.0, 9.0, null, null, now.minus(30, ChronoUnit.MINUTES)));
+        index.record(GpsFix.mobile("older", 4.1, 9.1, null, null, now.minus(2, ChronoUnit.MINUTES)));
+        index.record(GpsFix.mobile("newest", 4.2, 9.2, null, null, now));
+
+        var fresh = index.freshSince(OffsetDateTime.now(ZoneOffset.UTC).minusMinutes(5));
+
+        assertEquals(2, fresh.size());
+        assertEquals("newest", fresh.get(0).userId());
+        assertEquals("older", fresh.get(1).userId());
+        assertEquals(3, index.size());
+    }
+}
@@ -0,0 +1,207 @@
+package com.smartcampost.backend.notification;
+
+import com.smartcampost.backend.model.Notification;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.enums.NotificationChannel;
+import com.smartcampost.backend.model.enums.NotificationStatus;
+import com.smartcampost.backend.model.enums.NotificationType;
+import com.smartcampost.backend.notification.NotificationCoalescer.Decision;
+import com.smartcampost.backend.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationCoalescerTest {
+
+    private static final long MINUTE = 60_000L;
+
+    @Mock private JdbcNotificationDedupStore dedupStore;
+    @Mock private NotificationRepository notificationRepository;
+    @Mock private NotificationOutboxWorker outboxWorker;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new NotificationCoalescer(dedupStore, notificationRepository, outboxWorker,
+                transactionManager, new SimpleMeterRegistry());
+        coalescer.init();
+    }
+
+    @Test
+    void offer_suppressesSameParcelAndTypeWithinWindow() {
+        Parcel parcel = parcel("SCP-1");
+        long t0 = 1_000_000L;
+
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.PARCEL_IN_TRANSIT), t0));
+        assertEquals(Decision.SUPPRESSED, coalescer.offer(sms(parcel, NotificationType.PARCEL_IN_TRANSIT), t0 + 5 * MINUTE));
+        // different type on the same parcel is not a duplicate
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.PARCEL_OUT_FOR_DELIVERY), t0 + 5 * MINUTE));
+        // default 30 min window has passed
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.PARCEL_IN_TRANSIT), t0 + 31 * MINUTE));
+    }
+
+    @Test
+    void offer_delayedSweepIsHeldForItsLongerWindow() {
+        Parcel parcel = parcel("SCP-2");
+        long t0 = 1_000_000L;
+
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.DELIVERY_ATTEMPT_FAILED), t0));
+        for (int sweep = 1; sweep < 24; sweep++) {
+            assertEquals(Decision.SUPPRESSED,
+                    coalescer.offer(sms(parcel, NotificationType.DELIVERY_ATTEMPT_FAILED), t0 + sweep * 15 * MINUTE));
+        }
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.DELIVERY_ATTEMPT_FAILED), t0 + 361 * MINUTE));
+    }
+
+    @Test
+    void offer_otpIsNeverCoalesced() {
+        Parcel parcel = parcel("SCP-3");
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.DELIVERY_OTP), 0));
+        assertEquals(Decision.SEND, coalescer.offer(sms(parcel, NotificationType.DELIVERY_OTP), 1));
+    }
+
+    @Test
+    void burstForOneRecipientIsHeld_thenFlushedAsOneDigest() {
+        long t0 = 1_000_000L;
+        for (int i = 0; i < 3; i++) {
+            assertEquals(Decision.SEND, coalescer.offer(sms(parcel("SCP-1" + i), NotificationType.PARCEL_IN_TRANSIT), t0 + i));
+        }
+        Parcel held = parcel("SCP-20");
+        Notification first = sms(parcel("SCP-19"), NotificationType.PARCEL_IN_TRANSIT);
+        Notification second = sms(held, NotificationType.PARCEL_IN_TRANSIT);
+        Notification third = sms(held, NotificationType.PARCEL_DELIVERED);
+        assertEquals(Decision.DIGESTED, coalescer.offer(first, t0 + 10));
+        assertEquals(Decision.DIGESTED, coalescer.offer(second, t0 + 11));
+        assertEquals(Decision.DIGESTED, coalescer.offer(third, t0 + 12));
+        assertEquals(1, coalescer.pendingDigestCount());
+        // Saved by the caller as HELD rows released when the digest window closes
+        assertEquals(NotificationStatus.HELD, third.getStatus());
+        assertEquals(Instant.ofEpochMilli(t0 + 10 + 10 * MINUTE), third.getNextAttemptAt());
+
+        assertEquals(0, coalescer.flushDigests(t0 + 5 * MINUTE));
+        when(notificationRepository.lockDueHeld(Instant.ofEpochMilli(t0 + 11 * MINUTE), 500))
+                .thenReturn(List.of(saved(first, t0 + 10), saved(second, t0 + 11), saved(third, t0 + 12)));
+        assertEquals(1, coalescer.flushDigests(t0 + 11 * MINUTE));
+
+        ArgumentCaptor<Notification> saved = ArgumentCaptor.forClass(Notification.class);
+        verify(notificationRepository).save(saved.capture());
+        Notification digest = saved.getValue();
+        assertEquals("+237690000000", digest.getRecipientPhone());
+        assertEquals(NotificationStatus.PENDING, digest.getStatus());
+        assertEquals("Updates on 2 parcels", digest.getSubject());
+        assertTrue(digest.getMessage().contains("SCP-19: Parcel in transit"));
+        assertTrue(digest.getMessage().contains("SCP-20: Parcel delivered"), digest.getMessage());
+        assertFalse(digest.getMessage().contains("SCP-20: Parcel in transit"));
+        for (Notification n : List.of(first, second, third)) {
+            assertEquals(NotificationStatus.DIGESTED, n.getStatus());
+            assertNull(n.getNextAttemptAt());
+        }
+        verify(notificationRepository).saveAll(List.of(first, second, third));
+        verify(dedupStore).recordSent(contains(held.getId() + "|PARCEL_DELIVERED"), eq(Instant.ofEpochMilli(t0 + 12)));
+        verify(outboxWorker).wakeUpAfterCommit();
+        assertEquals(0, coalescer.pendingDigestCount());
+    }
+
+    @Test
+    void loneHeldUpdate_isReleasedAsIs_andARolledBackOneLeavesNoReservation() {
+        long t0 = 1_000_000L;
+        for (int i = 0; i < 3; i++) {
+            coalescer.offer(sms(parcel("SCP-3" + i), NotificationType.PARCEL_IN_TRANSIT), t0 + i);
+        }
+        clearInvocations(dedupStore);
+        Parcel committed = parcel("SCP-40");
+        Parcel rolledBack = parcel("SCP-41");
+        Notification kept = sms(committed, NotificationType.PARCEL_IN_TRANSIT);
+
+        assertEquals(Decision.DIGESTED, offerInTransaction(kept, t0 + 10, TransactionSynchronization.STATUS_COMMITTED));
+        assertEquals(Decision.DIGESTED, offerInTransaction(sms(rolledBack, NotificationType.PARCEL_IN_TRANSIT),
+                t0 + 11, TransactionSynchronization.STATUS_ROLLED_BACK));
+        // Nothing is recorded as sent until the digest goes out
+        verify(dedupStore, never()).recordSent(anyString(), any());
+
+        // Only the committed row exists to be claimed
+        Instant flushAt = Instant.ofEpochMilli(t0 + 11 * MINUTE);
+        when(notificationRepository.lockDueHeld(flushAt, 500)).thenReturn(List.of(saved(kept, t0 + 10)));
+        assertEquals(1, coalescer.flushDigests(flushAt.toEpochMilli()));
+
+        verify(notificationRepository, never()).save(any());
+        assertEquals(NotificationStatus.PENDING, kept.getStatus());
+        assertEquals(flushAt, kept.getNextAttemptAt());
+        assertSame(committed, kept.getParcel());
+        verify(dedupStore).recordSent(contains(committed.getId().toString()), eq(Instant.ofEpochMilli(t0 + 10)));
+        verify(dedupStore, never()).recordSent(contains(rolledBack.getId().toString()), any());
+        // The rolled-back update left no reservation behind
+        assertEquals(Decision.SEND, coalescer.offer(sms(rolledBack, NotificationType.PARCEL_IN_TRANSIT), t0 + 12 * MINUTE));
+    }
+
+    @Test
+    void digestSweep_prunesExpiredDedupKeysPastTheLongestWindow() {
+        when(dedupStore.isEnabled()).thenReturn(true);
+        long now = 100 * 24 * 60 * MINUTE;
+
+        coalescer.pruneDedup(now);
+        coalescer.pruneDedup(now + MINUTE); // throttled to the prune interval
+
+        // REMINDER_NOT_COLLECTED holds its key for 1440 min, the longest configured window
+        verify(dedupStore, times(1)).deleteOlderThan(Instant.ofEpochMilli(now - 1440 * MINUTE));
+    }
+
+    private Decision offerInTransaction(Notification notification, long nowMs, int outcome) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            Decision decision = coalescer.offer(notification, nowMs);
+            TransactionSynchronizationManager.getSynchronizations().forEach(s -> s.afterCompletion(outcome));
+            return decision;
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // What @PrePersist leaves on a saved row
+    private static Notification saved(Notification notification, long createdAtMs) {
+        notification.setCreatedAt(Instant.ofEpochMilli(createdAtMs));
+        return notification;
+    }
+
+    private static Parcel parcel(String trackingRef) {
+        Parcel parcel = new Parcel();
+        parcel.setId(UUID.randomUUID());
+        parcel.setTrackingRef(trackingRef);
+        return parcel;
+    }
+
+    private static Notification sms(Parcel parcel, NotificationType type) {
+        String subject = switch (type) {
+            case PARCEL_DELIVERED -> "Parcel delivered";
+            case PARCEL_IN_TRANSIT -> "Parcel in transit";
+            default -> type.name();
+        };
+        return Notification.builder()
+                .parcel(parcel)
+                .recipientPhone("+237690000000")
+                .channel(NotificationChannel.SMS)
+                .type(type)
+                .status(NotificationStatus.PENDING)
+                .subject(subject)
+                .message(subject + " " + parcel.getTrackingRef())
+                .retryCount(0)
+                .build();
+    }
+}
@@ -0,0 +1,133 @@
+package com.smartcampost.backend.notification;
+
+import com.smartcampost.backend.model.Notification;
+import com.smartcampost.backend.model.NotificationDeadLetter;
+import com.smartcampost.backend.model.enums.NotificationChannel;
+import com.smartcampost.backend.model.enums.NotificationStatus;
+import com.smartcampost.backend.model.enums.NotificationType;
+import com.smartcampost.backend.repository.NotificationDeadLetterRepository;
+import com.smartcampost.backend.repository.NotificationRepository;
+import com.smartcampost.backend.service.NotificationGatewayService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxWorkerTest {
+
+    @Mock private NotificationRepository notificationRepository;
+    @Mock private NotificationDeadLetterRepository deadLetterRepository;
+    @Mock private NotificationGatewayService gatewayService;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        worker = new NotificationOutboxWorker(notificationRepository, deadLetterRepository,
+                gatewayService, transactionManager, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(worker, "enabled", false); // no background threads
+        worker.start();
+        ReflectionTestUtils.setField(worker, "running", true);
+    }
+
+    @Test
+    void dispatchBatch_sendsAndMarksSent() throws Exception {
+        Notification n = sms(0);
+        when(notificationRepository.lockDueForDispatch(any(), any(), anyInt())).thenReturn(List.of(n));
+
+        assertEquals(1, worker.dispatchBatch());
+
+        verify(gatewayService).sendSms("+237600000000", "Your parcel is on its way");
+        verify(notificationRepository).leaseUntil(eq(List.of(n.getId())), any());
+        verify(notificationRepository).recordAttempt(eq(n.getId()), eq(NotificationStatus.SENT), any(), isNull(), eq(0), isNull());
+    }
+
+    @Test
+    void dispatchBatch_failureReschedulesWithBackoff() throws Exception {
+        Notification n = sms(1);
+        when(notificationRepository.lockDueForDispatch(any(), any(), anyInt())).thenReturn(List.of(n));
+        doThrow(new IllegalStateException("gateway down")).when(gatewayService).sendSms(any(), any());
+
+        Instant before = Instant.now();
+        worker.dispatchBatch();
+
+        ArgumentCaptor<Instant> next = ArgumentCaptor.forClass(Instant.class);
+        verify(notificationRepository).recordAttempt(eq(n.getId()), eq(NotificationStatus.PENDING), isNull(),
+                eq("gateway down"), eq(2), next.capture());
+        // second attempt: 30s * 2 with ±20% jitter
+        assertTrue(next.getValue().isAfter(before.plusSeconds(47)));
+        assertTrue(next.getValue().isBefore(before.plusSeconds(73)));
+        verifyNoInteractions(deadLetterRepository);
+    }
+
+    @Test
+    void dispatchBatch_lastAttemptMovesToDeadLetter() throws Exception {
+        Notification n = sms(4);
+        when(notificationRepository.lockDueForDispatch(any(), any(), anyInt())).thenReturn(List.of(n));
+        doThrow(new IllegalStateException("invalid number")).when(gatewayService).sendSms(any(), any());
+
+        worker.dispatchBatch();
+
+        verify(notificationRepository).recordAttempt(eq(n.getId()), eq(NotificationStatus.FAILED), isNull(),
+                eq("invalid number"), eq(5), isNull());
+        ArgumentCaptor<NotificationDeadLetter> dead = ArgumentCaptor.forClass(NotificationDeadLetter.class);
+        verify(deadLetterRepository).save(dead.capture());
+        assertEquals(n.getId(), dead.getValue().getNotificationId());
+        assertEquals("+237600000000", dead.getValue().getRecipient());
+    }
+
+    @Test
+    void expireStale_deadLettersNeverAttemptedRowsPastTheCutoff_batchByBatch() {
+        ReflectionTestUtils.setField(worker, "enabled", true);
+        ReflectionTestUtils.setField(worker, "batchSize", 2);
+        Notification a = sms(0), b = sms(0), c = sms(0);
+        when(notificationRepository.lockStale(any(), eq(2))).thenReturn(List.of(a, b), List.of(c));
+
+        Instant before = Instant.now();
+        assertEquals(3, worker.expireStale());
+
+        ArgumentCaptor<Instant> notBefore = ArgumentCaptor.forClass(Instant.class);
+        verify(notificationRepository, times(2)).lockStale(notBefore.capture(), eq(2));
+        assertFalse(notBefore.getValue().isAfter(before.minusSeconds(24 * 3600 - 5)));
+        for (Notification n : List.of(a, b, c)) {
+            verify(notificationRepository).recordAttempt(eq(n.getId()), eq(NotificationStatus.FAILED), isNull(),
+                    eq("Not dispatched within 24h"), eq(0), isNull());
+        }
+        verify(deadLetterRepository, times(3)).save(any());
+        verifyNoInteractions(gatewayService);
+        assertEquals(3L, worker.stats().get("expired"));
+    }
+
+    @Test
+    void expireStale_doesNothingWhileTheOutboxIsDisabled() {
+        assertEquals(0, worker.expireStale());
+        verifyNoInteractions(notificationRepository, deadLetterRepository);
+    }
+
+    private static Notification sms(int retryCount) {
+        return Notification.builder()
+                .id(UUID.randomUUID())
+                .channel(NotificationChannel.SMS)
+                .type(NotificationType.PARCEL_IN_TRANSIT)
+                .status(NotificationStatus.PENDING)
+                .recipientPhone("+237600000000")
+                .message("Your parcel is on its way")
+                .retryCount(retryCount)
+                .build();
+    }
+}
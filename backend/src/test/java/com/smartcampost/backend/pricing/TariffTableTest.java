@@ -0,0 +1,77 @@
+package com.smartcampost.backend.pricing;
+
+import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.repository.TariffRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TariffTableTest {
+
+    @Mock private TariffRepository tariffRepository;
+
+    private static Tariff tariff(ServiceType type, String origin, String destination, String bracket, int price) {
+        return Tariff.builder().id(UUID.randomUUID()).serviceType(type).originZone(origin)
+                .destinationZone(destination).weightBracket(bracket).price(BigDecimal.valueOf(price)).build();
+    }
+
+    @Test
+    void resolve_appliesTheSameFallbacksTheRepositoryQueriesDid() {
+        TariffTable table = TariffTable.compile(List.of(
+                tariff(ServiceType.STANDARD, "CENTER", "LITTORAL", "0-5kg", 1500),
+                tariff(ServiceType.STANDARD, "NATIONAL", "NATIONAL", "0-5kg", 1000),
+                tariff(ServiceType.STANDARD, "NATIONAL", "NATIONAL", "10-20kg", 3000),
+                tariff(ServiceType.EXPRESS, "WEST", "WEST", "50+kg", 9000)), 1);
+
+        assertEquals(1500, table.resolve(ServiceType.STANDARD, "CENTER", "LITTORAL", 0).priceValue());
+        // Known zones without that exact tariff, and zones no tariff mentions, fall back to NATIONAL
+        assertEquals(1000, table.resolve(ServiceType.STANDARD, "LITTORAL", "CENTER", 0).priceValue());
+        assertEquals(3000, table.resolve(ServiceType.STANDARD, "EAST", "CENTER", 2).priceValue());
+        assertNull(table.resolve(ServiceType.STANDARD, "CENTER", "LITTORAL", 1));
+        assertNull(table.resolve(ServiceType.EXPRESS, "WEST", "WEST", 0));
+
+        // Broad: NATIONAL in any bracket (lightest first), then anything of the service type
+        assertEquals(1000, table.resolveBroad(ServiceType.STANDARD, "CENTER", "LITTORAL", 1).priceValue());
+        TariffTable.Entry express = table.resolveBroad(ServiceType.EXPRESS, "CENTER", "EAST", 0);
+        assertEquals(9000, express.priceValue());
+        assertEquals("50+kg", express.weightBracket());
+        assertNull(table.resolveBroad(null, "CENTER", "EAST", 0));
+    }
+
+    @Test
+    void catalog_swapsInANewVersionOnlyWhenTariffsChange() {
+        List<Tariff> rows = new ArrayList<>(List.of(tariff(ServiceType.STANDARD, "NATIONAL", "NATIONAL", "0-5kg", 1000)));
+        when(tariffRepository.findAll()).thenAnswer(call -> List.copyOf(rows));
+        TariffCatalog catalog = new TariffCatalog(tariffRepository, new SimpleMeterRegistry());
+        ReflectionTestUtils.invokeMethod(catalog, "init");
+
+        TariffTable first = catalog.table();
+        assertEquals(1, first.version());
+        assertSame(first, catalog.table());
+        verify(tariffRepository, times(1)).findAll();
+
+        catalog.tariffsChanged();
+        assertSame(first, catalog.table());
+
+        rows.get(0).setPrice(BigDecimal.valueOf(1200));
+        catalog.tariffsChanged();
+        TariffTable second = catalog.table();
+        assertEquals(2, second.version());
+        assertEquals(1200, second.resolve(ServiceType.STANDARD, "CENTER", "WEST", 0).priceValue());
+        // Readers holding the old snapshot keep a consistent view
+        assertEquals(1000, first.resolve(ServiceType.STANDARD, "CENTER", "WEST", 0).priceValue());
+    }
+}
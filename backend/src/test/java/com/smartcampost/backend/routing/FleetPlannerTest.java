@@ -0,0 +1,107 @@
+package com.smartcampost.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FleetPlannerTest {
+
+    private final FleetPlanner planner = new FleetPlanner(
+            new FleetPlanner.Settings(8 * 60, 25, 1.3, 5, 1.2, Duration.ofMillis(200), null));
+
+    @Test
+    void couriersAtOppositeEndsOfTown_eachGetTheirNeighbourhood() {
+        // Bonaberi (west bank) and Ndokoti (east), four deliveries around each
+        UUID west = UUID.randomUUID();
+        UUID east = UUID.randomUUID();
+        List<FleetPlanner.Job> jobs = new ArrayList<>();
+        Set<UUID> westJobs = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            FleetPlanner.Job w = delivery(4.070 + i * 0.003, 9.660 + i * 0.002, 2);
+            westJobs.add(w.parcelId());
+            jobs.add(w);
+            jobs.add(delivery(4.045 + i * 0.003, 9.745 - i * 0.002, 2));
+        }
+        FleetPlanner.AgencyWork work = new FleetPlanner.AgencyWork(UUID.randomUUID(), List.of(
+                new FleetPlanner.CourierSlot(west, 4.075, 9.665, 0),
+                new FleetPlanner.CourierSlot(east, 4.048, 9.742, 0)), jobs);
+
+        FleetPlanner.AgencyPlan plan = planner.plan(work);
+
+        assertTrue(plan.unplanned().isEmpty());
+        assertEquals(2, plan.routes().size());
+        for (FleetPlanner.CourierRoute route : plan.routes()) {
+            assertEquals(4, route.stops().size());
+            for (FleetPlanner.PlannedStop stop : route.stops()) {
+                assertEquals(route.courierId().equals(west), westJobs.contains(stop.job().parcelId()));
+            }
+        }
+    }
+
+    @Test
+    void everyJobIsPlannedOnce_withinStopCapAndCapacity() {
+        Random random = new Random(7);
+        List<FleetPlanner.CourierSlot> couriers = new ArrayList<>();
+        for (int c = 0; c < 5; c++) {
+            couriers.add(new FleetPlanner.CourierSlot(UUID.randomUUID(), c == 0 ? null : lat(random), c == 0 ? null : lng(random), 80));
+        }
+        List<FleetPlanner.Job> jobs = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            FleetPlanner.StopType type = i % 3 == 0 ? FleetPlanner.StopType.PICKUP : FleetPlanner.StopType.DELIVERY;
+            jobs.add(new FleetPlanner.Job(UUID.randomUUID(), type, lat(random), lng(random),
+                    VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, 1 + random.nextInt(5)));
+        }
+
+        FleetPlanner.AgencyPlan plan = planner.plan(new FleetPlanner.AgencyWork(UUID.randomUUID(), couriers, jobs));
+
+        Set<UUID> seen = new HashSet<>();
+        for (FleetPlanner.CourierRoute route : plan.routes()) {
+            assertTrue(route.stops().size() <= 15, "60 jobs / 5 couriers * 1.2");
+            assertTrue(route.feasible());
+            for (FleetPlanner.PlannedStop stop : route.stops()) assertTrue(seen.add(stop.job().parcelId()));
+        }
+        for (FleetPlanner.Job job : plan.unplanned()) assertTrue(seen.add(job.parcelId()));
+        assertEquals(jobs.size(), seen.size());
+        assertTrue(plan.unplanned().isEmpty());
+    }
+
+    @Test
+    void planAll_plansEveryAgency_andLeavesOverweightJobsUnplanned() {
+        FleetPlanner.Job tooHeavy = delivery(4.05, 9.70, 120);
+        List<FleetPlanner.AgencyWork> work = new ArrayList<>();
+        for (int a = 0; a < 6; a++) {
+            work.add(new FleetPlanner.AgencyWork(UUID.randomUUID(),
+                    List.of(new FleetPlanner.CourierSlot(UUID.randomUUID(), 4.05, 9.70, 100)),
+                    a == 0 ? List.of(tooHeavy, delivery(4.06, 9.71, 5)) : List.of(delivery(4.06, 9.71, 5))));
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            List<FleetPlanner.AgencyPlan> plans = planner.planAll(work, pool);
+
+            assertEquals(work.stream().map(FleetPlanner.AgencyWork::agencyId).toList(),
+                    plans.stream().map(FleetPlanner.AgencyPlan::agencyId).toList());
+            assertEquals(List.of(tooHeavy), plans.get(0).unplanned());
+            for (FleetPlanner.AgencyPlan plan : plans) assertEquals(1, plan.routes().size());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static FleetPlanner.Job delivery(double lat, double lng, double kg) {
+        return new FleetPlanner.Job(UUID.randomUUID(), FleetPlanner.StopType.DELIVERY, lat, lng,
+                VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, kg);
+    }
+
+    private static double lat(Random random) {
+        return 4.05 + (random.nextDouble() - 0.5) * 0.12;
+    }
+
+    private static double lng(Random random) {
+        return 9.70 + (random.nextDouble() - 0.5) * 0.12;
+    }
+}
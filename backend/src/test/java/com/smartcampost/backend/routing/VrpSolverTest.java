@@ -0,0 +1,138 @@
+package com.smartcampost.backend.routing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VrpSolverTest {
+
+    private static final double DOUALA_LAT = 4.05;
+    private static final double DOUALA_LNG = 9.70;
+
+    @Test
+    void shortestTours_beatTheGreedyTour() {
+        double greedyKm = 0;
+        double solvedKm = 0;
+        for (int seed = 0; seed < 10; seed++) {
+            VrpProblem problem = randomDoualaStops(new Random(seed), 60).build();
+            VrpSolution greedy = VrpSolver.nearestNeighbour(problem);
+            VrpSolution solved = VrpSolver.solve(problem, Duration.ofSeconds(2));
+
+            assertTrue(solved.distanceKm() <= greedy.distanceKm() + 1e-9);
+            assertVisitsEveryStopOnce(solved, problem.size());
+            greedyKm += greedy.distanceKm();
+            solvedKm += solved.distanceKm();
+        }
+        assertTrue(solvedKm < greedyKm * 0.95, () -> "expected >5% shorter tours overall");
+    }
+
+    @Test
+    void pickupsPrecedeTheirDeliveries_andCapacityIsRespected() {
+        Random random = new Random(3);
+        VrpProblem.Builder builder = VrpProblem.builder(DOUALA_LAT, DOUALA_LNG).capacityKg(20);
+        for (int i = 0; i < 15; i++) {
+            double kg = 4 + random.nextInt(6);
+            int pickup = builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, kg, -1, 1);
+            builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, -kg, pickup, 1);
+        }
+        VrpProblem problem = builder.build();
+
+        VrpSolution solved = VrpSolver.solve(problem, Duration.ofSeconds(2));
+
+        assertVisitsEveryStopOnce(solved, problem.size());
+        assertEquals(0, solved.precedenceViolations());
+        assertEquals(0.0, solved.overloadKg());
+    }
+
+    @Test
+    void timeWindowsAreMet_whenTheGreedyTourWouldBeLate() {
+        // Courier starts at 08:00; the nearest stop only opens at 11:00, the farthest closes at 08:45
+        VrpProblem.Builder builder = VrpProblem.builder(DOUALA_LAT, DOUALA_LNG)
+                .startMinute(8 * 60).averageSpeedKmh(20).serviceMinutes(5);
+        int early = builder.stop(DOUALA_LAT + 0.002, DOUALA_LNG, 11 * 60, 12 * 60, 0, -1, 1);
+        builder.stop(DOUALA_LAT + 0.01, DOUALA_LNG + 0.01, VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, 0, -1, 1);
+        int urgent = builder.stop(DOUALA_LAT + 0.04, DOUALA_LNG + 0.03, 8 * 60, 8 * 60 + 45, 0, -1, 1);
+        builder.stop(DOUALA_LAT - 0.01, DOUALA_LNG, VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, 0, -1, 1);
+        VrpProblem problem = builder.build();
+
+        VrpSolution greedy = VrpSolver.nearestNeighbour(problem);
+        VrpSolution solved = VrpSolver.solve(problem, Duration.ofSeconds(1));
+
+        assertFalse(greedy.feasible());
+        assertTrue(solved.feasible(), "late by " + solved.totalLateMinutes() + " min");
+        assertTrue(positionOf(solved, urgent) < positionOf(solved, early));
+    }
+
+    @Test
+    void courierDay_solverFixesWhatTheGreedyTourBreaks() {
+        // Half pickups, half their deliveries, every other pickup with a two-hour window, 60 kg vehicle
+        for (int stops : new int[] {40, 80}) {
+            VrpProblem problem = courierDay(new Random(42), stops);
+            VrpSolution greedy = VrpSolver.nearestNeighbour(problem);
+            VrpSolution solved = VrpSolver.solve(problem, Duration.ofSeconds(5));
+            String summary = stops + " stops: greedy " + summary(greedy) + ", solver " + summary(solved);
+
+            assertFalse(greedy.feasible(), summary);
+            assertFalse(solved.timedOut(), summary);
+            assertVisitsEveryStopOnce(solved, problem.size());
+            assertEquals(0, solved.precedenceViolations(), summary);
+            assertEquals(0.0, solved.overloadKg(), summary);
+            assertTrue(solved.totalLateMinutes() < greedy.totalLateMinutes() / 100, summary);
+            assertTrue(solved.cost() < greedy.cost(), summary);
+        }
+    }
+
+    private static String summary(VrpSolution s) {
+        return String.format("%.1f km, %.0f min late, %.0f kg over, %d before pickup",
+                s.distanceKm(), s.totalLateMinutes(), s.overloadKg(), s.precedenceViolations());
+    }
+
+    static VrpProblem courierDay(Random random, int stops) {
+        VrpProblem.Builder builder = VrpProblem.builder(DOUALA_LAT, DOUALA_LNG)
+                .startMinute(8 * 60).averageSpeedKmh(25).detourFactor(1.3).serviceMinutes(5).capacityKg(60);
+        for (int i = 0; i < stops / 2; i++) {
+            double kg = 1 + random.nextInt(10);
+            int open = 8 * 60 + random.nextInt(6) * 60;
+            int pickup = i % 2 == 0
+                    ? builder.stop(lat(random), lng(random), open, open + 120, kg, -1, 1 + random.nextInt(5))
+                    : builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, kg, -1, 1 + random.nextInt(5));
+            builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, -kg, pickup, 1 + random.nextInt(5));
+        }
+        return builder.build();
+    }
+
+    private static int positionOf(VrpSolution solution, int stop) {
+        for (int k = 0; k < solution.order().length; k++) {
+            if (solution.order()[k] == stop) return k;
+        }
+        return -1;
+    }
+
+    static VrpProblem.Builder randomDoualaStops(Random random, int stops) {
+        VrpProblem.Builder builder = VrpProblem.builder(DOUALA_LAT, DOUALA_LNG);
+        for (int i = 0; i < stops; i++) {
+            builder.stop(lat(random), lng(random), VrpProblem.NO_WINDOW, VrpProblem.NO_WINDOW, 0, -1, 1);
+        }
+        return builder;
+    }
+
+    private static double lat(Random random) {
+        return DOUALA_LAT + (random.nextDouble() - 0.5) * 0.12;
+    }
+
+    private static double lng(Random random) {
+        return DOUALA_LNG + (random.nextDouble() - 0.5) * 0.12;
+    }
+
+    private static void assertVisitsEveryStopOnce(VrpSolution solution, int size) {
+        boolean[] seen = new boolean[size];
+        assertEquals(size, solution.order().length);
+        for (int s : solution.order()) {
+            assertFalse(seen[s]);
+            seen[s] = true;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.smartcampost.backend.routing.road;
+
+import com.smartcampost.backend.geo.GeoPoints;
+import com.smartcampost.backend.routing.TravelMatrix;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoadRoutingEngineTest {
+
+    // A-B-C two-way residential street (maxspeed 10), C->D one-way, D-A secondary road;
+    // the footway to E is not drivable, so E stays off the graph.
+    private static final String OSM = """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <osm version="0.6">
+              <node id="1" lat="4.0500" lon="9.7000"/>
+              <node id="2" lat="4.0500" lon="9.7100"/>
+              <node id="3" lat="4.0500" lon="9.7200"/>
+              <node id="4" lat="4.0600" lon="9.7200"/>
+              <node id="5" lat="4.0700" lon="9.7000"/>
+              <way id="10"><nd ref="1"/><nd ref="2"/><nd ref="3"/>
+                <tag k="highway" v="residential"/><tag k="maxspeed" v="10"/></way>
+              <way id="11"><nd ref="3"/><nd ref="4"/>
+                <tag k="highway" v="tertiary"/><tag k="oneway" v="yes"/></way>
+              <way id="12"><nd ref="4"/><nd ref="1"/><tag k="highway" v="secondary"/></way>
+              <way id="13"><nd ref="1"/><nd ref="5"/><tag k="highway" v="footway"/></way>
+            </osm>
+            """;
+
+    private SimpleMeterRegistry registry;
+    private RoadRoutingEngine engine;
+    private RoadGraph graph;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        graph = OsmGraphLoader.load(new ByteArrayInputStream(OSM.getBytes(StandardCharsets.UTF_8)));
+        registry = new SimpleMeterRegistry();
+        engine = new RoadRoutingEngine(registry);
+        engine.use(graph);
+    }
+
+    @Test
+    void loader_keepsDrivableWays_andHonoursOnewayAndMaxspeed() {
+        assertEquals(4, graph.nodeCount());
+        assertEquals(7, graph.edgeCount()); // 2 + 2 street, 1 one-way, 2 secondary
+        assertEquals(10.0, OsmGraphLoader.parseMaxspeed("10 km/h", 20), 1e-9);
+        assertEquals(48.27, OsmGraphLoader.parseMaxspeed("30 mph", 20), 1e-9);
+        assertEquals(20.0, OsmGraphLoader.parseMaxspeed("none", 20), 1e-9);
+
+        // C -> A: the one-way then the secondary road (35 km/h) beats the 10 km/h street back
+        double viaOneway = engine.route(4.05, 9.72, 4.05, 9.70).orElseThrow().minutes();
+        // A -> C may not take the one-way backwards: only the street, 2.2 km at 10 km/h
+        double street = engine.route(4.05, 9.70, 4.05, 9.72).orElseThrow().minutes();
+        assertTrue(viaOneway < 10, "secondary road: " + viaOneway);
+        assertEquals(2.22 / 10 * 60, street, 0.5);
+    }
+
+    @Test
+    void matrix_isAsymmetric_cachesNodePairs_andLeavesFarPointsUnknown() {
+        GeoPoints points = new GeoPoints(3);
+        points.add(4.0501, 9.7001); // near A
+        points.add(4.0501, 9.7199); // near C
+        points.add(4.2000, 9.9000); // 20 km from any road
+
+        TravelMatrix first = engine.matrix(points, points);
+        assertTrue(first.known(0, 1) && first.known(1, 0));
+        assertNotEquals(first.minutes()[0][1], first.minutes()[1][0], 1.0);
+        assertTrue(first.km()[0][1] >= 2.2);
+        assertFalse(first.known(0, 2));
+        assertFalse(first.known(2, 2));
+        assertEquals(0.0, registry.counter("smartcampost.routing.road.cache.hits").count());
+
+        TravelMatrix second = engine.matrix(points, points);
+        assertEquals(first.minutes()[0][1], second.minutes()[0][1], 1e-9);
+        assertEquals(4.0, registry.counter("smartcampost.routing.road.cache.hits").count());
+    }
+
+    @Test
+    void withoutGraph_everythingIsUnknown() {
+        RoadRoutingEngine empty = new RoadRoutingEngine(new SimpleMeterRegistry());
+        assertFalse(empty.isLoaded());
+        assertTrue(empty.route(4.05, 9.70, 4.05, 9.72).isEmpty());
+    }
+}
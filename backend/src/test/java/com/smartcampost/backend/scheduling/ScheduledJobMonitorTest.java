@@ -0,0 +1,123 @@
+package com.smartcampost.backend.scheduling;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.support.ScheduledMethodRunnable;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduledJobMonitorTest {
+
+    @Mock private JdbcSchedulerLock schedulerLock;
+
+    private ScheduledJobMonitor monitor;
+
+    @BeforeEach
+    void setUp() {
+        monitor = new ScheduledJobMonitor(schedulerLock, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void wrap_skipsOverlappingRunAndCountsOverrun() throws Exception {
+        when(schedulerLock.tryAcquire(eq("SlowJob.run"), any())).thenReturn(true);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        Runnable job = named("com.smartcampost.backend.automation.SlowJob.run", () -> {
+            started.countDown();
+            await(finish);
+        });
+        Runnable wrapped = monitor.wrap(job, Duration.ofMillis(1), true);
+
+        Thread first = new Thread(wrapped);
+        first.start();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        wrapped.run(); // overlaps the first run
+        finish.countDown();
+        first.join(5000);
+
+        ScheduledJobMonitor.JobStats stats = monitor.stats().get(0);
+        assertEquals("SlowJob.run", stats.job());
+        assertEquals(1, stats.runs());
+        assertEquals(1, stats.skippedOverlapping());
+        assertEquals(1, stats.overruns());
+        assertFalse(stats.running());
+        verify(schedulerLock).release(eq("SlowJob.run"), any(), eq(Duration.ofMillis(1)));
+    }
+
+    @Test
+    void wrap_skipsRunWhenAnotherReplicaHoldsTheLease() throws Exception {
+        when(schedulerLock.tryAcquire(eq("ScheduledJobMonitorTest$Jobs.sweep"), any())).thenReturn(false);
+        Jobs jobs = new Jobs();
+
+        monitor.wrap(new ScheduledMethodRunnable(jobs, Jobs.class.getMethod("sweep")), Duration.ofMinutes(5)).run();
+
+        assertEquals(0, jobs.sweeps.get());
+        ScheduledJobMonitor.JobStats stats = monitor.stats().get(0);
+        assertTrue(stats.clusterSingleton());
+        assertEquals(0, stats.runs());
+        assertEquals(1, stats.skippedLocked());
+        verify(schedulerLock, never()).release(any(), any(), any());
+    }
+
+    @Test
+    void nodeLocalJob_runsOnEveryReplica_whileTheSingletonRunsOnOne() throws Exception {
+        // One lease shared by two replicas: only the first caller gets it
+        AtomicBoolean leased = new AtomicBoolean();
+        when(schedulerLock.tryAcquire(any(), any())).thenAnswer(call -> leased.compareAndSet(false, true));
+        Jobs jobs = new Jobs();
+
+        for (int replica = 0; replica < 2; replica++) {
+            ScheduledJobMonitor node = new ScheduledJobMonitor(schedulerLock, new SimpleMeterRegistry());
+            // Spring hands the scheduler a wrapper named after the method, not the ScheduledMethodRunnable
+            node.wrap(named(Jobs.class.getName() + ".heartbeat", jobs::heartbeat), Duration.ofSeconds(20)).run();
+            node.wrap(named(Jobs.class.getName() + ".sweep", jobs::sweep), Duration.ofMinutes(5)).run();
+        }
+
+        assertEquals(2, jobs.heartbeats.get());
+        assertEquals(1, jobs.sweeps.get());
+        verify(schedulerLock, never()).tryAcquire(eq("ScheduledJobMonitorTest$Jobs.heartbeat"), any());
+    }
+
+    static class Jobs {
+        final AtomicInteger heartbeats = new AtomicInteger();
+        final AtomicInteger sweeps = new AtomicInteger();
+
+        public void heartbeat() {
+            heartbeats.incrementAndGet();
+        }
+
+        @ClusterSingleton
+        public void sweep() {
+            sweeps.incrementAndGet();
+        }
+    }
+
+    private static Runnable named(String name, Runnable body) {
+        return new Runnable() {
+            @Override public void run() { body.run(); }
+            @Override public String toString() { return name; }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
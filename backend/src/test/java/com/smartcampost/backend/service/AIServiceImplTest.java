@@ -0,0 +1,153 @@
+package com.smartcampost.backend.service;
+
+import com.smartcampost.backend.dto.ai.ChatRequest;
+import com.smartcampost.backend.dto.ai.ChatStreamEvent;
+import com.smartcampost.backend.model.Conversation;
+import com.smartcampost.backend.model.ConversationMessage;
+import com.smartcampost.backend.model.enums.ConversationRole;
+import com.smartcampost.backend.repository.ConversationMessageRepository;
+import com.smartcampost.backend.repository.ConversationRepository;
+import com.smartcampost.backend.service.ai.ChatResponseCache;
+import com.smartcampost.backend.service.ai.ConversationMessageWriter;
+import com.smartcampost.backend.service.ai.ConversationSummarizer;
+import com.smartcampost.backend.service.impl.AIServiceImpl;
+import com.smartcampost.backend.service.impl.client.OpenAIClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Flux;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AIServiceImplTest {
+
+    @Mock private OpenAIClient openAIClient;
+    @Mock private ConversationRepository conversationRepository;
+    @Mock private ConversationMessageRepository conversationMessageRepository;
+    @Mock private ConversationMessageWriter conversationMessageWriter;
+    @Mock private ChatResponseCache chatResponseCache;
+    @Mock private ConversationSummarizer conversationSummarizer;
+    @Mock private PlatformTransactionManager transactionManager;
+    @InjectMocks private AIServiceImpl aiService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(aiService, "openAiApiKey", "test-key");
+        when(conversationRepository.save(any(Conversation.class))).thenAnswer(inv -> inv.getArgument(0));
+    }
+
+    @Test
+    void streamChat_releasesTransactionBeforeModelCall_andPersistsFullAnswer() {
+        when(openAIClient.streamChatCompletion(anyString(), anyList(), anyInt(), anyDouble()))
+                .thenReturn(Flux.just("Your parcel ", "is in ", "transit."));
+        ChatRequest request = new ChatRequest();
+        request.setMessage("where is my parcel?");
+        request.setSessionId("session-1");
+
+        List<ChatStreamEvent> events = aiService.streamChat(request).collectList().block();
+
+        assertNotNull(events);
+        assertEquals(List.of("session", "delta", "delta", "delta", "done"),
+                events.stream().map(ChatStreamEvent::getType).toList());
+        assertEquals("session-1", events.get(0).getSessionId());
+        assertEquals("Your parcel is in transit.", events.get(4).getResponse().getMessage());
+
+        InOrder order = inOrder(transactionManager, openAIClient);
+        order.verify(transactionManager).commit(any());
+        order.verify(openAIClient).streamChatCompletion(anyString(), anyList(), anyInt(), anyDouble());
+        verify(conversationMessageWriter).appendAsync(any(), eq(ConversationRole.ASSISTANT),
+                eq("Your parcel is in transit."), anyInt(), any());
+    }
+
+    @Test
+    void streamChat_cancelledByClient_persistsWhatWasStreamed() {
+        when(openAIClient.streamChatCompletion(anyString(), anyList(), anyInt(), anyDouble()))
+                .thenReturn(Flux.concat(Flux.just("Partial answer"), Flux.never()));
+        ChatRequest request = new ChatRequest();
+        request.setMessage("hello");
+
+        List<ChatStreamEvent> events = aiService.streamChat(request).take(2).collectList().block();
+
+        assertNotNull(events);
+        assertEquals("Partial answer", events.get(1).getDelta());
+        verify(conversationMessageWriter).appendAsync(any(), eq(ConversationRole.ASSISTANT),
+                eq("Partial answer"), anyInt(), any());
+    }
+
+    @Test
+    void streamChat_cacheFlightStartsOnSubscribe_andIsReleasedOnCancel() {
+        ChatResponseCache.Key key = new ChatResponseCache.Key("ANONYMOUS", "opening hours", "ctx");
+        ChatResponseCache.Flight flight = new ChatResponseCache.Flight(key, true, false,
+                new CompletableFuture<>(), System.nanoTime());
+        when(chatResponseCache.isEnabled()).thenReturn(true);
+        when(chatResponseCache.keyFor(any(), anyString(), anyString())).thenReturn(key);
+        when(openAIClient.streamChatCompletion(anyString(), anyList(), anyInt(), anyDouble()))
+                .thenReturn(Flux.concat(Flux.just("We open "), Flux.never()));
+        ChatRequest request = new ChatRequest();
+        request.setMessage("What are your opening hours?");
+
+        // Built but never subscribed (client gone before the body was written): no flight
+        Flux<ChatStreamEvent> abandoned = aiService.streamChat(request);
+        assertNotNull(abandoned);
+        verify(chatResponseCache, never()).begin(any());
+
+        when(chatResponseCache.begin(key)).thenReturn(flight);
+        aiService.streamChat(request).take(2).collectList().block();
+
+        verify(chatResponseCache).begin(key);
+        verify(chatResponseCache).finish(flight, null);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void streamChat_sendsEveryMessageSinceTheSummary_evenBeyondTheHistoryWindow() {
+        // 10-message window + 5 turns before the next fold: 19 unsummarized messages plus this one
+        when(conversationSummarizer.unsummarizedMessages()).thenReturn(20);
+        List<ConversationMessage> newestFirst = new ArrayList<>();
+        Instant t0 = Instant.parse("2026-10-01T08:00:00Z");
+        for (int i = 19; i >= 0; i--) {
+            newestFirst.add(ConversationMessage.builder()
+                    .id(UUID.randomUUID())
+                    .role(i % 2 == 0 ? ConversationRole.USER : ConversationRole.ASSISTANT)
+                    .content("message " + i)
+                    .timestamp(t0.plusSeconds(i))
+                    .build());
+        }
+        when(conversationMessageRepository.findByConversationIdAndTimestampAfterOrderByTimestampDesc(
+                any(), eq(Instant.EPOCH), eq(PageRequest.of(0, 21)))).thenReturn(newestFirst);
+        when(openAIClient.streamChatCompletion(anyString(), anyList(), anyInt(), anyDouble()))
+                .thenReturn(Flux.just("ok"));
+        ChatRequest request = new ChatRequest();
+        request.setMessage("message 19");
+
+        aiService.streamChat(request).collectList().block();
+
+        ArgumentCaptor<List<Map<String, String>>> prompt = ArgumentCaptor.forClass(List.class);
+        verify(openAIClient).streamChatCompletion(anyString(), prompt.capture(), anyInt(), anyDouble());
+        List<String> contents = prompt.getValue().stream()
+                .filter(m -> !"system".equals(m.get("role")))
+                .map(m -> m.get("content"))
+                .toList();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) expected.add("message " + i);
+        assertEquals(expected, contents);
+    }
+}
@@ -0,0 +1,88 @@
+package com.smartcampost.backend.service;
+
+import com.smartcampost.backend.dto.geo.RouteEtaResponse;
+import com.smartcampost.backend.geo.AddressPositioner;
+import com.smartcampost.backend.geo.Geocoder;
+import com.smartcampost.backend.model.Address;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.Tariff;
+import com.smartcampost.backend.model.enums.DeliveryOption;
+import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.pricing.TariffCatalog;
+import com.smartcampost.backend.pricing.TariffTable;
+import com.smartcampost.backend.repository.AddressRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.PricingDetailRepository;
+import com.smartcampost.backend.repository.TariffRepository;
+import com.smartcampost.backend.service.impl.PricingServiceImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PricingServiceImplTest {
+
+    @Mock private ParcelRepository parcelRepository;
+    @Mock private TariffRepository tariffRepository;
+    @Mock private PricingDetailRepository pricingDetailRepository;
+    @Mock private TariffCatalog tariffCatalog;
+    @Mock private GeolocationService geolocationService;
+    @Mock private Geocoder geocoder;
+    @Mock private AddressRepository addressRepository;
+
+    private AddressPositioner positioner;
+
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.invokeMethod(positioner, "stop");
+    }
+
+    @Test
+    void quoteRightAfterCreatingAnAddressWithoutCoordinates_stillChargesHomeDelivery() {
+        positioner = new AddressPositioner(geocoder, addressRepository);
+        ReflectionTestUtils.invokeMethod(positioner, "init");
+        PricingServiceImpl pricing = new PricingServiceImpl(parcelRepository, tariffRepository,
+                pricingDetailRepository, tariffCatalog, geolocationService, geocoder, positioner);
+        ReflectionTestUtils.setField(pricing, "homeDeliverySurchargeEnabled", true);
+        ReflectionTestUtils.setField(pricing, "homeDeliveryPerKmFeeXaf", 100.0);
+        ReflectionTestUtils.setField(pricing, "positionWaitMs", 3000L);
+
+        when(tariffCatalog.table()).thenReturn(TariffTable.compile(List.of(Tariff.builder().id(UUID.randomUUID())
+                .serviceType(ServiceType.STANDARD).originZone("NATIONAL").destinationZone("NATIONAL")
+                .weightBracket("0-5kg").price(BigDecimal.valueOf(1000)).build()), 1));
+        when(geocoder.cached(anyString())).thenReturn(Optional.empty());
+        when(geocoder.geocode(anyString())).thenAnswer(call -> {
+            Thread.sleep(300); // Nominatim round trip
+            return Optional.of(new Geocoder.Place(3.8480, 11.5021, "Bastos, Yaounde"));
+        });
+        when(geolocationService.calculateRouteEta(any()))
+                .thenReturn(RouteEtaResponse.builder().distanceKm(12.5).durationSeconds(1800L).build());
+
+        Address sender = Address.builder().id(UUID.randomUUID()).street("Rue Joss").city("Douala")
+                .latitude(BigDecimal.valueOf(4.0511)).longitude(BigDecimal.valueOf(9.7679)).build();
+        // Saved through the address API without coordinates, then quoted straight away
+        Address recipient = Address.builder().id(UUID.randomUUID()).street("Rue 1.750").city("Yaounde")
+                .region("Centre").country("Cameroon").build();
+        positioner.enqueue(recipient);
+
+        Parcel parcel = Parcel.builder().id(UUID.randomUUID()).serviceType(ServiceType.STANDARD).weight(2.0)
+                .deliveryOption(DeliveryOption.HOME).senderAddress(sender).recipientAddress(recipient).build();
+        when(parcelRepository.findById(parcel.getId())).thenReturn(Optional.of(parcel));
+
+        assertEquals(0, BigDecimal.valueOf(2250).compareTo(pricing.quotePrice(parcel.getId())));
+        verify(geocoder, times(1)).geocode(anyString());
+        verify(addressRepository).setPosition(eq(recipient.getId()), any(), any());
+    }
+}
@@ -6,6 +6,7 @@ import com.smartcampost.backend.exception.ConflictException;
 import com.smartcampost.backend.exception.ResourceNotFoundException;
 import com.smartcampost.backend.model.Tariff;
 import com.smartcampost.backend.model.enums.ServiceType;
+import com.smartcampost.backend.pricing.TariffCatalog;
 import com.smartcampost.backend.repository.TariffRepository;
 import com.smartcampost.backend.service.impl.TariffServiceImpl;
 import org.junit.jupiter.api.Test;
@@ -26,6 +27,7 @@ import static org.mockito.Mockito.*;
 class TariffServiceImplTest {
 
     @Mock private TariffRepository tariffRepository;
+    @Mock private TariffCatalog tariffCatalog;
     @InjectMocks private TariffServiceImpl tariffService;
 
     @Test
@@ -70,6 +72,7 @@ class TariffServiceImplTest {
         assertNotNull(result);
         assertEquals("EXPRESS", result.getServiceType());
         assertEquals(BigDecimal.valueOf(2000), result.getPrice());
+        verify(tariffCatalog).tariffsChanged();
     }
 
     @Test
@@ -0,0 +1,102 @@
+package com.smartcampost.backend.service.ai;
+
+import com.smartcampost.backend.model.enums.UserRole;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChatResponseCacheTest {
+
+    private ChatResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ChatResponseCache(new SimpleMeterRegistry());
+        cache.init();
+    }
+
+    @Test
+    void concurrentIdenticalPrompts_callTheModelOnce() throws Exception {
+        ChatResponseCache.Key key = cache.keyFor(UserRole.CLIENT, "What are your prices?", "ctx");
+        AtomicInteger modelCalls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> answers = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                answers.add(pool.submit(() -> cache.get(key, () -> {
+                    modelCalls.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "Pricing depends on weight and distance.";
+                })));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<String> answer : answers) {
+                assertEquals("Pricing depends on weight and distance.", answer.get(5, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertEquals(1, modelCalls.get());
+        assertEquals("Pricing depends on weight and distance.",
+                cache.get(cache.keyFor(UserRole.CLIENT, "  what are your PRICES ", "ctx"), () -> "other"));
+        assertEquals(1L, cache.stats().get("misses"));
+    }
+
+    @Test
+    void failedAnswer_isNotCached_andKeyIncludesRoleAndContext() {
+        ChatResponseCache.Key key = cache.keyFor(null, "delivery times", "ctx");
+        assertNull(cache.get(key, () -> null));
+        assertEquals("Standard: 3-5 days", cache.get(key, () -> "Standard: 3-5 days"));
+
+        assertNotEquals(key, cache.keyFor(UserRole.COURIER, "delivery times", "ctx"));
+        assertNotEquals(key, cache.keyFor(null, "delivery times", "other history"));
+    }
+
+    @Test
+    void personalMessages_areDetected() {
+        assertTrue(ChatResponseCache.isPersonal("Where is my parcel?"));
+        assertTrue(ChatResponseCache.isPersonal("status of SCM-123456"));
+        assertTrue(ChatResponseCache.isPersonal("où sont mes colis"));
+        assertTrue(ChatResponseCache.isPersonal("contact me at a@b.cm"));
+        assertFalse(ChatResponseCache.isPersonal("What payment methods do you accept?"));
+        assertFalse(ChatResponseCache.isPersonal("Do you deliver on weekends?"));
+    }
+
+    @Test
+    void firstPersonSentences_arePersonal_inEnglish() {
+        assertTrue(ChatResponseCache.isPersonal("Where is the parcel I sent yesterday?"));
+        assertTrue(ChatResponseCache.isPersonal("I'm waiting for a delivery"));
+        assertTrue(ChatResponseCache.isPersonal("I’ve been charged twice"));
+        assertTrue(ChatResponseCache.isPersonal("When will we get the package?"));
+        assertTrue(ChatResponseCache.isPersonal("Can you call us about our order?"));
+        assertFalse(ChatResponseCache.isPersonal("How long does express delivery take?"));
+    }
+
+    @Test
+    void firstPersonSentences_arePersonal_inFrench() {
+        assertTrue(ChatResponseCache.isPersonal("Où est le colis que j'ai envoyé ?"));
+        assertTrue(ChatResponseCache.isPersonal("Je veux suivre un colis"));
+        assertTrue(ChatResponseCache.isPersonal("Nous attendons une livraison"));
+        assertTrue(ChatResponseCache.isPersonal("Quand arrive notre commande ?"));
+        assertTrue(ChatResponseCache.isPersonal("Pouvez-vous m’appeler ?"));
+        assertFalse(ChatResponseCache.isPersonal("Quels sont les horaires d'ouverture des agences ?"));
+    }
+}
@@ -0,0 +1,103 @@
+package com.smartcampost.backend.service.ai;
+
+import com.smartcampost.backend.model.Conversation;
+import com.smartcampost.backend.model.ConversationMessage;
+import com.smartcampost.backend.model.enums.ConversationRole;
+import com.smartcampost.backend.repository.ConversationMessageRepository;
+import com.smartcampost.backend.repository.ConversationRepository;
+import com.smartcampost.backend.service.impl.client.OpenAIClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ConversationSummarizerTest {
+
+    @Mock private ConversationRepository conversationRepository;
+    @Mock private ConversationMessageRepository conversationMessageRepository;
+    @Mock private OpenAIClient openAIClient;
+    @Mock private PlatformTransactionManager transactionManager;
+    @InjectMocks private ConversationSummarizer summarizer;
+
+    private final UUID conversationId = UUID.randomUUID();
+    private final Instant summarizedUntil = Instant.parse("2026-01-01T10:00:00Z");
+    private Conversation conversation;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(summarizer, "openAiApiKey", "test-key");
+        conversation = Conversation.builder()
+                .id(conversationId)
+                .summary("Client asked about pickup hours.")
+                .summarizedUntil(summarizedUntil)
+                .summarizedMessages(10)
+                .build();
+        when(conversationRepository.findById(conversationId)).thenReturn(Optional.of(conversation));
+    }
+
+    @Test
+    void fewMessagesOutsideTheWindow_doesNotCallTheModel() {
+        // 10 kept verbatim + 8 outside the window: 4 turns, below the default of 5
+        when(conversationMessageRepository.countByConversationIdAndTimestampAfter(conversationId, summarizedUntil))
+                .thenReturn(18L);
+
+        assertEquals(0, summarizer.maybeSummarize(conversationId));
+
+        verifyNoInteractions(openAIClient);
+        verify(conversationRepository, never()).save(any());
+    }
+
+    @Test
+    void fiveTurnsOutsideTheWindow_areFoldedIntoTheSummary() {
+        when(conversationMessageRepository.countByConversationIdAndTimestampAfter(conversationId, summarizedUntil))
+                .thenReturn(20L);
+        List<ConversationMessage> outside = messages(10);
+        when(conversationMessageRepository.findByConversationIdAndTimestampAfterOrderByTimestampAsc(
+                conversationId, summarizedUntil, PageRequest.of(0, 10))).thenReturn(outside);
+        when(openAIClient.createChatCompletion(anyString(), anyList(), anyInt(), anyDouble()))
+                .thenReturn(Mono.just(" Client asked about pickup hours and parcel SC123456. "));
+
+        assertEquals(10, summarizer.maybeSummarize(conversationId));
+
+        ArgumentCaptor<List<java.util.Map<String, String>>> prompt = ArgumentCaptor.captor();
+        verify(openAIClient).createChatCompletion(anyString(), prompt.capture(), anyInt(), anyDouble());
+        String transcript = prompt.getValue().get(1).get("content");
+        assertTrue(transcript.contains("Client asked about pickup hours."));
+        assertTrue(transcript.contains("User: message 0"));
+
+        verify(conversationRepository).save(conversation);
+        assertEquals("Client asked about pickup hours and parcel SC123456.", conversation.getSummary());
+        assertEquals(outside.get(9).getTimestamp(), conversation.getSummarizedUntil());
+        assertEquals(20, conversation.getSummarizedMessages());
+    }
+
+    private List<ConversationMessage> messages(int count) {
+        List<ConversationMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            messages.add(ConversationMessage.builder()
+                    .role(i % 2 == 0 ? ConversationRole.USER : ConversationRole.ASSISTANT)
+                    .content("message " + i)
+                    .timestamp(summarizedUntil.plusSeconds(i + 1))
+                    .build());
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,76 @@
+package com.smartcampost.backend.service.scan;
+
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.ScanEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatestScanProjectionTest {
+
+    private JdbcTemplate jdbc;
+    private LatestScanProjection projection;
+    private final Instant t0 = Instant.parse("2026-03-01T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource ds = new DriverManagerDataSource(
+                "jdbc:h2:mem:latest-scan-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", "");
+        jdbc = new JdbcTemplate(ds);
+        jdbc.execute("CREATE TABLE parcel_latest_scan (parcel_id BINARY(16) PRIMARY KEY, scan_id BINARY(16) NOT NULL, " +
+                "scanned_at TIMESTAMP NOT NULL, actor_id VARCHAR(64))");
+        projection = new LatestScanProjection(jdbc);
+    }
+
+    @Test
+    void newerScanReplacesTheRow_olderOneIsIgnored() {
+        UUID parcelId = UUID.randomUUID();
+        ScanEvent first = scan(parcelId, t0, "courier-a");
+        ScanEvent second = scan(parcelId, t0.plusSeconds(60), "courier-b");
+        ScanEvent late = scan(parcelId, t0.plusSeconds(30), "courier-c"); // synced after a newer scan
+
+        projection.record(first);
+        projection.record(second);
+        projection.record(late);
+
+        Map<String, Object> row = jdbc.queryForMap("SELECT * FROM parcel_latest_scan WHERE parcel_id = ?", (Object) bytes(parcelId));
+        assertArrayEquals(bytes(second.getId()), (byte[]) row.get("scan_id"));
+        assertEquals("courier-b", row.get("actor_id"));
+        assertEquals(Timestamp.from(t0.plusSeconds(60)), row.get("scanned_at"));
+    }
+
+    @Test
+    void recordAll_writesOneRowPerParcel() {
+        UUID a = UUID.randomUUID();
+        UUID b = UUID.randomUUID();
+
+        projection.recordAll(List.of(scan(a, t0, "agent-1"), scan(b, t0, "agent-2"), scan(a, t0.plusSeconds(5), "agent-3")));
+
+        assertEquals(2, jdbc.queryForObject("SELECT COUNT(*) FROM parcel_latest_scan", Integer.class));
+        assertEquals("agent-3", jdbc.queryForObject(
+                "SELECT actor_id FROM parcel_latest_scan WHERE parcel_id = ?", String.class, (Object) bytes(a)));
+    }
+
+    private static ScanEvent scan(UUID parcelId, Instant at, String actorId) {
+        return ScanEvent.builder()
+                .id(UUID.randomUUID())
+                .parcel(Parcel.builder().id(parcelId).build())
+                .timestamp(at)
+                .actorId(actorId)
+                .build();
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16).putLong(id.getMostSignificantBits()).putLong(id.getLeastSignificantBits()).array();
+    }
+}
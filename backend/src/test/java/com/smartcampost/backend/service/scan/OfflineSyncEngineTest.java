@@ -0,0 +1,224 @@
+package com.smartcampost.backend.service.scan;
+
+import com.smartcampost.backend.ai.events.ParcelStatusChangedEvent;
+import com.smartcampost.backend.ai.events.ScanEventRecordedEvent;
+import com.smartcampost.backend.dto.scan.OfflineSyncRequest;
+import com.smartcampost.backend.dto.scan.OfflineSyncResponse;
+import com.smartcampost.backend.dto.scan.ScanEventCreateRequest;
+import com.smartcampost.backend.logistics.ActorParcelIndex;
+import com.smartcampost.backend.logistics.LastKnownLocationCache;
+import com.smartcampost.backend.model.Parcel;
+import com.smartcampost.backend.model.ScanEvent;
+import com.smartcampost.backend.model.UserAccount;
+import com.smartcampost.backend.model.enums.ParcelStatus;
+import com.smartcampost.backend.model.enums.UserRole;
+import com.smartcampost.backend.repository.AgencyRepository;
+import com.smartcampost.backend.repository.AgentRepository;
+import com.smartcampost.backend.repository.ParcelRepository;
+import com.smartcampost.backend.repository.ScanEventRepository;
+import com.smartcampost.backend.service.NotificationService;
+import com.smartcampost.backend.sse.SseEmitters;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OfflineSyncEngineTest {
+
+    @Mock private JdbcTemplate jdbcTemplate;
+    @Mock private PlatformTransactionManager transactionManager;
+    @Mock private ScanEventRepository scanEventRepository;
+    @Mock private ParcelRepository parcelRepository;
+    @Mock private AgencyRepository agencyRepository;
+    @Mock private AgentRepository agentRepository;
+    @Mock private NotificationService notificationService;
+    @Mock private SseEmitters sseEmitters;
+    @Mock private ApplicationEventPublisher eventPublisher;
+    @Mock private LastKnownLocationCache lastKnownLocations;
+    @Mock private ActorParcelIndex actorParcelIndex;
+    @Mock private LatestScanProjection latestScanProjection;
+
+    private OfflineSyncEngine engine;
+    private Parcel parcel;
+    private UserAccount courier;
+    private final Instant start = Instant.parse("2026-03-01T08:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        engine = new OfflineSyncEngine(jdbcTemplate, transactionManager, scanEventRepository, parcelRepository,
+                agencyRepository, agentRepository, notificationService, sseEmitters, eventPublisher,
+                lastKnownLocations, actorParcelIndex, latestScanProjection, new SimpleMeterRegistry());
+        engine.init();
+        parcel = Parcel.builder().id(UUID.randomUUID()).trackingRef("SC000111").status(ParcelStatus.ACCEPTED).build();
+        courier = new UserAccount();
+        courier.setRole(UserRole.COURIER);
+        courier.setEntityId(UUID.randomUUID());
+        lenient().when(parcelRepository.findAllById(any())).thenReturn(List.of(parcel));
+    }
+
+    @Test
+    void replayedEventsAreNotInserted_andParcelSideEffectsCollapseToFinalState() {
+        ScanEventRepository.SyncedEventKey existing = mock(ScanEventRepository.SyncedEventKey.class);
+        UUID existingId = UUID.randomUUID();
+        when(existing.getLocalId()).thenReturn("l1");
+        when(existing.getId()).thenReturn(existingId);
+        when(scanEventRepository.findSyncedKeys(eq("phone-1"), anyCollection())).thenReturn(List.of(existing));
+
+        // uploaded out of device order; l1 was already synced by an earlier, timed-out request
+        OfflineSyncRequest request = request(
+                event("l4", "OUT_FOR_DELIVERY", 4),
+                event("l1", "IN_TRANSIT", 1),
+                event("l3", "ARRIVED_DEST_AGENCY", 3),
+                event("l2", "IN_TRANSIT", 2));
+
+        OfflineSyncResponse response = engine.sync(request, courier);
+
+        assertEquals(4, response.getSyncedCount());
+        assertEquals(1, response.getDuplicateCount());
+        assertEquals(0, response.getFailedCount());
+        assertEquals(4, response.getCursor());
+        assertEquals(existingId, response.getSyncedEvents().get(0).getServerId());
+
+        List<ScanEvent> inserted = captureInserts(1).get(0);
+        assertEquals(List.of("l2", "l3", "l4"), inserted.stream().map(ScanEvent::getLocalId).toList());
+        assertTrue(inserted.stream().allMatch(e -> "phone-1".equals(e.getDeviceId())));
+
+        assertEquals(ParcelStatus.OUT_FOR_DELIVERY, parcel.getStatus());
+        verify(lastKnownLocations).recordParcel(eq(parcel.getId()), eq(4.05 + 4 * 0.01), eq(9.70), any());
+        verify(notificationService).notifyParcelOutForDelivery(parcel);
+        verifyNoMoreInteractions(notificationService);
+        verify(sseEmitters, times(1)).emitScan(any());
+        verify(sseEmitters, times(1)).emitTrackingUpdate(eq("scan-event"), eq("SC000111"), any());
+        verify(jdbcTemplate).update(contains("offline_sync_cursor"), any(Object[].class));
+
+        // One domain event per accepted scan, plus the single status change
+        ArgumentCaptor<ScanEventRecordedEvent> recorded = ArgumentCaptor.forClass(ScanEventRecordedEvent.class);
+        verify(eventPublisher, times(3)).publishEvent(recorded.capture());
+        assertEquals(inserted.stream().map(ScanEvent::getId).toList(),
+                recorded.getAllValues().stream().map(ScanEventRecordedEvent::scanEventId).toList());
+        verify(eventPublisher, times(1)).publishEvent(any(ParcelStatusChangedEvent.class));
+    }
+
+    @Test
+    void invalidTransition_isRejectedWithoutTouchingTheParcel() {
+        parcel.setStatus(ParcelStatus.DELIVERED);
+
+        OfflineSyncResponse response = engine.sync(request(event("l1", "IN_TRANSIT", 1)), courier);
+
+        assertEquals(0, response.getSyncedCount());
+        assertEquals(1, response.getFailedCount());
+        assertFalse(response.getFailedEvents().get(0).isRetryable());
+        assertEquals(ParcelStatus.DELIVERED, parcel.getStatus());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        verifyNoInteractions(notificationService, sseEmitters);
+    }
+
+    @Test
+    void failedChunk_isRetryable_andTheCursorStopsBeforeIt() {
+        ReflectionTestUtils.setField(engine, "chunkSize", 2);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenReturn(new int[0][])
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        OfflineSyncRequest request = request(
+                event("l1", "IN_TRANSIT", 1),
+                event("l2", "ARRIVED_DEST_AGENCY", 2),
+                event("l3", "OUT_FOR_DELIVERY", 3));
+        request.setOffset(10);
+        request.setTotalEvents(13);
+
+        OfflineSyncResponse response = engine.sync(request, courier);
+
+        assertEquals(2, response.getSyncedCount());
+        assertEquals(1, response.getFailedCount());
+        assertTrue(response.getFailedEvents().get(0).isRetryable());
+        assertEquals("l3", response.getFailedEvents().get(0).getLocalId());
+        assertEquals(12, response.getCursor());
+        assertFalse(response.isComplete());
+    }
+
+    @Test
+    void failedChunk_afterReordering_resumesFromTheFirstUncommittedUploadIndex() {
+        ReflectionTestUtils.setField(engine, "chunkSize", 2);
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenReturn(new int[0][])
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+
+        // Upload order l3, l1, l2: device time puts l1 and l2 in the first chunk, l3 alone in the second
+        OfflineSyncRequest request = request(
+                event("l3", "OUT_FOR_DELIVERY", 3),
+                event("l1", "IN_TRANSIT", 1),
+                event("l2", "ARRIVED_DEST_AGENCY", 2));
+        request.setOffset(10);
+        request.setTotalEvents(13);
+
+        OfflineSyncResponse response = engine.sync(request, courier);
+
+        assertEquals(2, response.getSyncedCount());
+        assertEquals("l3", response.getFailedEvents().get(0).getLocalId());
+        // l3 sits at upload index 0 and was never committed: resuming past it would lose it
+        assertEquals(10, response.getCursor());
+        verify(jdbcTemplate).update(contains("offline_sync_cursor"),
+                eq("phone-1"), eq("batch-1"), eq(10), eq(13), eq(courier.getEntityId().toString()), any(),
+                eq(10), eq(13), any());
+    }
+
+    @Test
+    void cursor_isScopedToTheUploaderUnlessStaff() {
+        engine.cursor("phone-1", "batch-1", courier);
+        verify(jdbcTemplate).query(contains("AND actor_id = ?"), any(RowMapper.class),
+                eq("phone-1"), eq("batch-1"), eq(courier.getEntityId().toString()));
+
+        UserAccount staff = new UserAccount();
+        staff.setRole(UserRole.STAFF);
+        engine.cursor("phone-1", "batch-1", staff);
+        verify(jdbcTemplate).query(argThat((String sql) -> !sql.contains("actor_id")),
+                any(RowMapper.class), eq("phone-1"), eq("batch-1"));
+    }
+
+    private OfflineSyncRequest request(ScanEventCreateRequest... events) {
+        OfflineSyncRequest request = new OfflineSyncRequest();
+        request.setDeviceId("phone-1");
+        request.setBatchId("batch-1");
+        request.setEvents(new ArrayList<>(List.of(events)));
+        return request;
+    }
+
+    private ScanEventCreateRequest event(String localId, String type, int minute) {
+        ScanEventCreateRequest event = new ScanEventCreateRequest();
+        event.setLocalId(localId);
+        event.setParcelId(parcel.getId());
+        event.setEventType(type);
+        event.setLatitude(4.05 + minute * 0.01);
+        event.setLongitude(9.70);
+        event.setDeviceTimestamp(start.plusSeconds(minute * 60L));
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<ScanEvent>> captureInserts(int times) {
+        ArgumentCaptor<Collection<ScanEvent>> batch = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(contains("INSERT INTO scan_event"), batch.capture(), anyInt(), any());
+        return batch.getAllValues().stream().map(c -> (List<ScanEvent>) new ArrayList<>(c)).toList();
+    }
+}
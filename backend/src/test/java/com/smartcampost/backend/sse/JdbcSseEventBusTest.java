@@ -0,0 +1,72 @@
+package com.smartcampost.backend.sse;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JdbcSseEventBusTest {
+
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void setUp() {
+        jdbc = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:sse-" + UUID.randomUUID() + ";MODE=MySQL;DB_CLOSE_DELAY=-1", "sa", ""));
+    }
+
+    @Test
+    void eventPublishedOnOneNode_isPolledByTheOther() {
+        JdbcSseEventBus nodeA = bus();
+        JdbcSseEventBus nodeB = bus();
+        List<SseBusEvent> receivedOnB = new ArrayList<>();
+        nodeB.subscribe(receivedOnB::add);
+
+        nodeA.publish(new SseBusEvent(0, SseStream.AI, null, Set.of("ROLE_ADMIN", "ROLE_STAFF"), "gps-update", "{\"x\":1}"));
+        nodeA.flush();
+        nodeB.poll();
+
+        assertEquals(1, receivedOnB.size());
+        SseBusEvent event = receivedOnB.get(0);
+        assertTrue(event.id() > 0);
+        assertEquals(Set.of("ROLE_ADMIN", "ROLE_STAFF"), event.authorities());
+        assertEquals("{\"x\":1}", event.data());
+    }
+
+    @Test
+    void idCommittedLate_isStillDeliveredWithinGapTimeout() {
+        JdbcSseEventBus node = bus();
+        List<Long> received = new ArrayList<>();
+        node.subscribe(e -> received.add(e.id()));
+
+        insertRow(1);
+        insertRow(3); // another replica's insert of id 2 is not visible yet
+        node.poll();
+        assertEquals(List.of(1L, 3L), received);
+
+        insertRow(2);
+        node.poll();
+        assertEquals(List.of(1L, 3L, 2L), received);
+    }
+
+    private JdbcSseEventBus bus() {
+        JdbcSseEventBus bus = new JdbcSseEventBus(jdbc, new SimpleMeterRegistry());
+        bus.init();
+        return bus;
+    }
+
+    private void insertRow(long id) {
+        jdbc.update("INSERT INTO sse_events (id, stream, routing_key, authorities, event_name, payload, created_at) " +
+                "VALUES (?, 'TRACKING', 'scp-1', NULL, 'scan-event', '{}', ?)", id, Timestamp.from(Instant.now()));
+    }
+}
@@ -0,0 +1,176 @@
+package com.smartcampost.backend.sse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SseEmittersTest {
+
+    @Test
+    void trackingUpdate_reachesOnlySubscribersOfThatRef() {
+        SseEmitters hub = hub(Runnable::run);
+
+        RecordingEmitter a = (RecordingEmitter) hub.createTrackingEmitter("SCP-001");
+        RecordingEmitter b = (RecordingEmitter) hub.createTrackingEmitter("scp-001");
+        RecordingEmitter other = (RecordingEmitter) hub.createTrackingEmitter("SCP-002");
+
+        hub.emitTrackingUpdate("gps-update", "Scp-001", Map.of("lat", 4.05));
+
+        assertEquals(1, a.frames.size());
+        assertTrue(a.frames.get(0).contains("event:gps-update"));
+        assertTrue(a.frames.get(0).contains("{\"lat\":4.05}"));
+        assertEquals(1, b.frames.size());
+        assertTrue(other.frames.isEmpty());
+    }
+
+    @Test
+    void roleScopedAiEvent_isSentOncePerConnectionAndWithheldFromOtherRoles() {
+        SseEmitters hub = hub(Runnable::run);
+
+        RecordingEmitter admin = (RecordingEmitter) hub.createAiEmitter(Set.of("ROLE_ADMIN", "ROLE_STAFF"));
+        RecordingEmitter client = (RecordingEmitter) hub.createAiEmitter(Set.of("ROLE_CLIENT"));
+
+        hub.emitAiEventToRoles("gps-update", Map.of("courierId", "c1"), Set.of("ROLE_ADMIN", "ROLE_STAFF"));
+        hub.emitAiEvent("ai-decision", Map.of("ok", true));
+
+        assertEquals(2, admin.frames.size());
+        assertEquals(1, client.frames.size());
+        assertTrue(client.frames.get(0).contains("event:ai-decision"));
+    }
+
+    @Test
+    void slowSubscriber_dropsOldestThenIsEvicted() {
+        ManualExecutor writer = new ManualExecutor();
+        SseEmitters hub = hub(writer);
+        ReflectionTestUtils.setField(hub, "queueCapacity", 2);
+        ReflectionTestUtils.setField(hub, "maxDropped", 3);
+
+        UUID parcelId = UUID.randomUUID();
+        RecordingEmitter slow = (RecordingEmitter) hub.createParcelMessageEmitter(parcelId);
+        RecordingEmitter idle = (RecordingEmitter) hub.createParcelMessageEmitter(UUID.randomUUID());
+
+        // Writer has not run yet: the queue keeps the latest two messages.
+        for (int i = 0; i < 4; i++) {
+            hub.emitParcelMessage(parcelId, Map.of("seq", i));
+        }
+        writer.runAll();
+        assertEquals(2, slow.frames.size());
+        assertTrue(slow.frames.get(0).contains("{\"seq\":2}"));
+        assertTrue(slow.frames.get(1).contains("{\"seq\":3}"));
+        assertFalse(slow.completed);
+
+        // Three drops without a successful write in between: disconnected.
+        for (int i = 4; i < 9; i++) {
+            hub.emitParcelMessage(parcelId, Map.of("seq", i));
+        }
+        assertTrue(slow.completed);
+        writer.runAll();
+        assertEquals(2, slow.frames.size());
+
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) hub.stats().get("parcel-messages");
+        assertEquals(1, stats.get("subscribers"));
+        assertEquals(5L, stats.get("dropped"));
+        assertEquals(1L, stats.get("evicted"));
+        assertFalse(idle.completed);
+    }
+
+    @Test
+    void reconnectWithLastEventId_replaysOnlyMissedEventsForThatSubscription() {
+        SseEmitters hub = hub(Runnable::run);
+
+        RecordingEmitter first = (RecordingEmitter) hub.createTrackingEmitter("SCP-001");
+        hub.emitTrackingUpdate("scan-event", "SCP-001", Map.of("seq", 1));
+        String lastSeen = eventId(first.frames.get(0));
+
+        // Connection drops; updates keep coming for this and another parcel.
+        hub.emitTrackingUpdate("scan-event", "SCP-001", Map.of("seq", 2));
+        hub.emitTrackingUpdate("scan-event", "SCP-999", Map.of("seq", 99));
+        hub.emitTrackingUpdate("gps-update", "SCP-001", Map.of("seq", 3));
+
+        RecordingEmitter resumed = (RecordingEmitter) hub.createTrackingEmitter("SCP-001", lastSeen);
+        hub.emitTrackingUpdate("scan-event", "SCP-001", Map.of("seq", 4));
+
+        assertEquals(3, resumed.frames.size());
+        assertTrue(resumed.frames.get(0).contains("{\"seq\":2}"));
+        assertTrue(resumed.frames.get(1).contains("{\"seq\":3}"));
+        assertTrue(resumed.frames.get(2).contains("{\"seq\":4}"));
+    }
+
+    @Test
+    void eventRecordedOnOneNode_reachesSubscribersOfAnother() {
+        InMemorySseEventBus sharedBus = new InMemorySseEventBus();
+        SseEmitters nodeA = hub(sharedBus, Runnable::run);
+        SseEmitters nodeB = hub(sharedBus, Runnable::run);
+
+        RecordingEmitter onB = (RecordingEmitter) nodeB.createParcelMessageEmitter(PARCEL);
+        nodeA.emitParcelMessage(PARCEL, Map.of("text", "at the gate"));
+
+        assertEquals(1, onB.frames.size());
+        assertTrue(onB.frames.get(0).contains("event:parcel-message"));
+    }
+
+    private static final UUID PARCEL = UUID.randomUUID();
+
+    private static String eventId(String frame) {
+        int start = frame.indexOf("id:") + 3;
+        return frame.substring(start, frame.indexOf('\n', start));
+    }
+
+    private static SseEmitters hub(Executor writer) {
+        return hub(new InMemorySseEventBus(), writer);
+    }
+
+    private static SseEmitters hub(SseEventBus bus, Executor writer) {
+        SseEmitters hub = new SseEmitters(new ObjectMapper(), new SimpleMeterRegistry(), bus, writer);
+        hub.emitterFactory = RecordingEmitter::new;
+        return hub;
+    }
+
+    static final class RecordingEmitter extends SseEmitter {
+        final List<String> frames = new ArrayList<>();
+        boolean completed;
+
+        RecordingEmitter() {
+            super(0L);
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            frames.add(builder.build().stream().map(d -> String.valueOf(d.getData())).collect(Collectors.joining()));
+        }
+
+        @Override
+        public synchronized void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+
+    static final class ManualExecutor implements Executor {
+        private final ArrayDeque<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            Runnable next;
+            while ((next = tasks.poll()) != null) next.run();
+        }
+    }
+}
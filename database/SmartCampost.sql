@@ -4,7 +4,7 @@
 -- Date: 2026-03-08
 -- =========================================================
 -- This script CREATES the SmartCAMPOST database from scratch.
--- It includes ALL migrations (V2-V5) already merged in.
+-- It includes ALL migrations (V2-V5, and migrations/0005-0017) already merged in.
 --
 -- INSTRUCTIONS:
 --   1. Run "CREATE DATABASE" line first
@@ -93,6 +93,8 @@ CREATE TABLE IF NOT EXISTS agency (
   country       VARCHAR(100)  NOT NULL DEFAULT 'Cameroon',
   capacity_limit INT          NULL COMMENT 'Max parcels the agency can handle',
   is_hub        BOOLEAN       NOT NULL DEFAULT FALSE COMMENT 'Is this a major hub',
+  latitude      DECIMAL(9,6)  NULL COMMENT 'Backfilled by GeocodeBackfillJob',
+  longitude     DECIMAL(9,6)  NULL,
   CONSTRAINT pk_agency PRIMARY KEY (agency_id),
   CONSTRAINT uq_agency_code UNIQUE (agency_code)
 ) ENGINE=InnoDB;
@@ -322,6 +324,8 @@ CREATE TABLE IF NOT EXISTS scan_event (
   is_synced          BOOLEAN       NOT NULL DEFAULT TRUE,
   offline_created_at TIMESTAMP     NULL,
   synced_at          TIMESTAMP     NULL,
+  device_id          VARCHAR(64)   NULL COMMENT 'Offline sync: uploading device',
+  local_id           VARCHAR(64)   NULL COMMENT 'Offline sync: client-side event id',
   CONSTRAINT pk_scan PRIMARY KEY (scan_id),
   CONSTRAINT fk_scan_parcel
     FOREIGN KEY (parcel_id) REFERENCES parcel(parcel_id)
@@ -339,6 +343,30 @@ CREATE INDEX ix_scan_agency      ON scan_event(agency_id);
 CREATE INDEX ix_scan_agent       ON scan_event(agent_id);
 CREATE INDEX ix_scan_type_time   ON scan_event(event_type, timestamp);
 CREATE INDEX ix_scan_actor       ON scan_event(actor_id, actor_role);
+CREATE UNIQUE INDEX ux_scan_device_local ON scan_event(device_id, local_id);
+
+-- Latest scan of each parcel, maintained with the scan_event insert (LatestScanProjection)
+CREATE TABLE IF NOT EXISTS parcel_latest_scan (
+  parcel_id   BINARY(16)   NOT NULL,
+  scan_id     BINARY(16)   NOT NULL,
+  scanned_at  TIMESTAMP    NOT NULL,
+  actor_id    VARCHAR(64)  NULL,
+  CONSTRAINT pk_parcel_latest_scan PRIMARY KEY (parcel_id),
+  CONSTRAINT fk_latest_scan_parcel
+    FOREIGN KEY (parcel_id) REFERENCES parcel(parcel_id)
+    ON UPDATE CASCADE ON DELETE CASCADE
+) ENGINE=InnoDB;
+
+-- Progress of chunked offline scan uploads (OfflineSyncEngine), committed with each chunk
+CREATE TABLE IF NOT EXISTS offline_sync_cursor (
+  device_id     VARCHAR(64)  NOT NULL,
+  batch_id      VARCHAR(64)  NOT NULL,
+  next_offset   INT          NOT NULL,
+  total_events  INT          NULL,
+  updated_at    DATETIME(3)  NOT NULL,
+  actor_id      VARCHAR(64)  NULL COMMENT 'Uploader; NULL rows are visible to staff only',
+  CONSTRAINT pk_offline_sync_cursor PRIMARY KEY (device_id, batch_id)
+) ENGINE=InnoDB;
 
 
 -- =========================================================
@@ -449,7 +477,7 @@ CREATE TABLE IF NOT EXISTS notification (
                      'ACCOUNT_FROZEN','ACCOUNT_UNFROZEN',
                      'DELAY_WARNING','CONGESTION_ALERT','AI_RECOMMENDATION'
                    ) NOT NULL,
-  status           ENUM('PENDING','SENT','FAILED') NOT NULL DEFAULT 'PENDING',
+  status           ENUM('PENDING','SENT','FAILED','HELD','DIGESTED') NOT NULL DEFAULT 'PENDING',
   subject          VARCHAR(255) NOT NULL,
   message          TEXT         NOT NULL,
   retry_count      INT          NOT NULL DEFAULT 0,
@@ -457,6 +485,7 @@ CREATE TABLE IF NOT EXISTS notification (
   created_at       TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
   sent_at          TIMESTAMP    NULL,
   read_at          TIMESTAMP    NULL,
+  next_attempt_at  TIMESTAMP    NULL COMMENT 'Outbox: earliest (re)try, also the claim lease',
   CONSTRAINT pk_notification PRIMARY KEY (notification_id),
   CONSTRAINT fk_notification_parcel
     FOREIGN KEY (parcel_id) REFERENCES parcel(parcel_id)
@@ -470,6 +499,31 @@ CREATE INDEX ix_notif_parcel ON notification(parcel_id);
 CREATE INDEX ix_notif_pickup ON notification(pickup_id);
 CREATE INDEX ix_notif_type   ON notification(type);
 CREATE INDEX ix_notif_status ON notification(status);\nCREATE INDEX ix_notif_read   ON notification(read_at);
+CREATE INDEX idx_notification_outbox ON notification(status, next_attempt_at, created_at);
+
+-- Notifications that exhausted the outbox attempts or went stale before their first one
+CREATE TABLE IF NOT EXISTS notification_dead_letter (
+  dead_letter_id   BINARY(16)   NOT NULL,
+  notification_id  BINARY(16)   NOT NULL,
+  channel          VARCHAR(20)  NOT NULL,
+  type             VARCHAR(40)  NOT NULL,
+  recipient        VARCHAR(100) NULL,
+  subject          VARCHAR(255) NULL,
+  message          TEXT         NOT NULL,
+  error_message    VARCHAR(255) NULL,
+  retry_count      INT          NOT NULL,
+  failed_at        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  CONSTRAINT pk_notification_dead_letter PRIMARY KEY (dead_letter_id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_notification_dead_letter_failed ON notification_dead_letter(failed_at);
+
+-- Coalescer dedup keys (recipient|parcel|type) when notifications.coalescing.persist=true
+CREATE TABLE IF NOT EXISTS notification_dedup (
+  dedup_key     VARCHAR(255) NOT NULL,
+  last_sent_at  DATETIME(3)  NOT NULL,
+  CONSTRAINT pk_notification_dedup PRIMARY KEY (dedup_key)
+) ENGINE=InnoDB;
 
 
 -- =========================================================
@@ -672,6 +726,40 @@ CREATE TABLE IF NOT EXISTS geolocation_route_log (
 
 CREATE INDEX ix_geo_parcel ON geolocation_route_log(parcel_id);
 
+-- Planned courier routes per day, replaced per agency by each planning run (FleetRoutePlanningService)
+CREATE TABLE IF NOT EXISTS planned_route_stop (
+  stop_id             BINARY(16)   NOT NULL,
+  plan_date           DATE         NOT NULL,
+  agency_id           BINARY(16)   NOT NULL,
+  courier_id          BINARY(16)   NOT NULL,
+  stop_sequence       INT          NOT NULL,
+  parcel_id           BINARY(16)   NOT NULL,
+  stop_type           VARCHAR(20)  NOT NULL,
+  latitude            DOUBLE       NOT NULL,
+  longitude           DOUBLE       NOT NULL,
+  leg_km              DOUBLE       NOT NULL,
+  planned_arrival_at  TIMESTAMP    NOT NULL,
+  late_minutes        INT          NOT NULL DEFAULT 0,
+  planned_at          TIMESTAMP    NOT NULL,
+  CONSTRAINT pk_planned_route_stop PRIMARY KEY (stop_id)
+) ENGINE=InnoDB;
+
+CREATE INDEX ix_planned_route_courier ON planned_route_stop(courier_id, plan_date, stop_sequence);
+CREATE INDEX ix_planned_route_agency  ON planned_route_stop(agency_id, plan_date);
+
+-- Geocoding results keyed by SHA-256 of the normalized address (Geocoder); found = FALSE
+-- remembers addresses that could not be placed
+CREATE TABLE IF NOT EXISTS geocode_cache (
+  address_hash  CHAR(64)      NOT NULL,
+  address       VARCHAR(500)  NOT NULL,
+  found         BOOLEAN       NOT NULL,
+  latitude      DOUBLE        NULL,
+  longitude     DOUBLE        NULL,
+  display_name  VARCHAR(500)  NULL,
+  geocoded_at   TIMESTAMP     NOT NULL,
+  CONSTRAINT pk_geocode_cache PRIMARY KEY (address_hash)
+) ENGINE=InnoDB;
+
 
 -- =========================================================
 -- 21) USSD_SESSION
@@ -849,6 +937,7 @@ CREATE TABLE IF NOT EXISTS locations (
 
 CREATE INDEX ix_locations_user ON locations(user_id);
 CREATE INDEX ix_locations_time ON locations(timestamp);
+CREATE INDEX idx_locations_user_time ON locations(user_id, timestamp);
 
 
 -- =========================================================
@@ -1204,6 +1293,9 @@ CREATE TABLE IF NOT EXISTS conversation (
   closed_at       TIMESTAMP    NULL,
   escalated_to    BINARY(16)   NULL COMMENT 'Staff ID if escalated',
   context_data    JSON         NULL COMMENT 'Session context',
+  summary         TEXT         NULL COMMENT 'Rolling summary of messages outside the prompt window',
+  summarized_until TIMESTAMP(3) NULL COMMENT 'Newest message folded into summary',
+  summarized_messages INT      NULL,
   CONSTRAINT pk_conversation PRIMARY KEY (conversation_id),
   CONSTRAINT fk_conv_escalated_to
     FOREIGN KEY (escalated_to) REFERENCES staff(staff_id)
@@ -1261,6 +1353,47 @@ CREATE INDEX ix_intent_name   ON intent_action_mapping(intent_name);
 CREATE INDEX ix_intent_active ON intent_action_mapping(active);
 
 
+-- =========================================================
+-- INFRA) SCHEDULER_LOCKS, SSE_EVENTS, AI_EVENT_LOG
+-- =========================================================
+-- Leases for @ClusterSingleton sweeps when scheduling.distributed-lock.enabled=true
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+  name          VARCHAR(100) NOT NULL,
+  locked_until  DATETIME(3)  NOT NULL,
+  locked_at     DATETIME(3)  NOT NULL,
+  locked_by     VARCHAR(255) NOT NULL,
+  CONSTRAINT pk_scheduler_locks PRIMARY KEY (name)
+) ENGINE=InnoDB;
+
+-- Live SSE events shared between replicas when sse.bus.type=jdbc; pruned after retention
+CREATE TABLE IF NOT EXISTS sse_events (
+  id           BIGINT AUTO_INCREMENT NOT NULL,
+  stream       VARCHAR(32)  NOT NULL,
+  routing_key  VARCHAR(128) NULL,
+  authorities  VARCHAR(255) NULL,
+  event_name   VARCHAR(64)  NOT NULL,
+  payload      MEDIUMTEXT   NOT NULL,
+  created_at   DATETIME(3)  NOT NULL,
+  CONSTRAINT pk_sse_events PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_sse_events_created_at ON sse_events(created_at);
+
+-- Durable AI domain events handled by AiEventStream; processed_at stays NULL until every
+-- consumer has seen the event
+CREATE TABLE IF NOT EXISTS ai_event_log (
+  id             BIGINT AUTO_INCREMENT NOT NULL,
+  event_type     VARCHAR(64)  NOT NULL,
+  partition_key  VARCHAR(36)  NULL,
+  payload        TEXT         NOT NULL,
+  created_at     DATETIME(3)  NOT NULL,
+  processed_at   DATETIME(3)  NULL,
+  CONSTRAINT pk_ai_event_log PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_ai_event_log_unprocessed ON ai_event_log(processed_at, created_at);
+
+
 -- =========================================================
 -- DONE - SmartCAMPOST Complete Schema (All Migrations Applied)
 -- =========================================================
@@ -0,0 +1,2 @@
+-- Latest-fix-per-actor lookups used to warm the in-memory LivePositionIndex on startup.
+CREATE INDEX IF NOT EXISTS idx_locations_user_time ON locations (user_id, timestamp);
@@ -0,0 +1,8 @@
+-- Leases for @Scheduled sweeps when smartcampost.scheduling.distributed-lock.enabled=true,
+-- so only one backend replica runs each job per interval.
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name VARCHAR(100) NOT NULL PRIMARY KEY,
+    locked_until DATETIME(3) NOT NULL,
+    locked_at DATETIME(3) NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
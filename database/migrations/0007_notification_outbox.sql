@@ -0,0 +1,23 @@
+-- Notification outbox: workers claim due PENDING rows (FOR UPDATE SKIP LOCKED) by next_attempt_at.
+ALTER TABLE notification
+    ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notification_outbox
+    ON notification (status, next_attempt_at, created_at);
+
+-- Notifications that exhausted smartcampost.notifications.outbox.max-attempts.
+CREATE TABLE IF NOT EXISTS notification_dead_letter (
+    dead_letter_id BINARY(16) PRIMARY KEY,
+    notification_id BINARY(16) NOT NULL,
+    channel VARCHAR(20) NOT NULL,
+    type VARCHAR(40) NOT NULL,
+    recipient VARCHAR(100),
+    subject VARCHAR(255),
+    message TEXT NOT NULL,
+    error_message VARCHAR(255),
+    retry_count INT NOT NULL,
+    failed_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_notification_dead_letter_failed
+    ON notification_dead_letter (failed_at);
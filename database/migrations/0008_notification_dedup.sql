@@ -0,0 +1,6 @@
+-- Dedup keys (recipient|parcel|type) for the notification coalescer when
+-- smartcampost.notifications.coalescing.persist=true.
+CREATE TABLE IF NOT EXISTS notification_dedup (
+    dedup_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    last_sent_at DATETIME(3) NOT NULL
+);
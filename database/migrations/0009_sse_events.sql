@@ -0,0 +1,13 @@
+-- Live SSE events shared between backend replicas when smartcampost.sse.bus.type=jdbc.
+-- Rows are short-lived: each node polls by id and prunes after the retention window.
+CREATE TABLE IF NOT EXISTS sse_events (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    stream VARCHAR(32) NOT NULL,
+    routing_key VARCHAR(128) NULL,
+    authorities VARCHAR(255) NULL,
+    event_name VARCHAR(64) NOT NULL,
+    payload MEDIUMTEXT NOT NULL,
+    created_at DATETIME(3) NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_sse_events_created_at ON sse_events (created_at);
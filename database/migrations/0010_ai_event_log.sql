@@ -0,0 +1,13 @@
+-- Durable log of AI domain events (scan recorded, status changed, delivery attempt), appended in
+-- the scan transaction and handled asynchronously by AiEventStream. processed_at stays NULL until
+-- every AI consumer has seen the event; the recovery sweep replays such rows after a restart.
+CREATE TABLE IF NOT EXISTS ai_event_log (
+    id BIGINT NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    event_type VARCHAR(64) NOT NULL,
+    partition_key VARCHAR(36) NULL,
+    payload TEXT NOT NULL,
+    created_at DATETIME(3) NOT NULL,
+    processed_at DATETIME(3) NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_ai_event_log_unprocessed ON ai_event_log (processed_at, created_at);
@@ -0,0 +1,7 @@
+-- Rolling conversation summary for AI chat: prompts carry the summary plus the last few
+-- messages instead of the whole history. ConversationSummarizer folds messages that have left
+-- the prompt window into summary every few turns; summarized_until is the newest folded message.
+ALTER TABLE conversation
+    ADD COLUMN IF NOT EXISTS summary TEXT NULL,
+    ADD COLUMN IF NOT EXISTS summarized_until TIMESTAMP(3) NULL,
+    ADD COLUMN IF NOT EXISTS summarized_messages INT NULL;
@@ -0,0 +1,18 @@
+-- Idempotent, resumable offline scan sync (OfflineSyncEngine).
+-- A re-uploaded event carries the same (device_id, local_id) and is reported as already synced
+-- instead of being inserted twice; offline_sync_cursor records how many events of a chunked
+-- batch have been committed, in the same transaction as the chunk itself.
+ALTER TABLE scan_event
+    ADD COLUMN IF NOT EXISTS device_id VARCHAR(64) NULL,
+    ADD COLUMN IF NOT EXISTS local_id VARCHAR(64) NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS ux_scan_device_local ON scan_event (device_id, local_id);
+
+CREATE TABLE IF NOT EXISTS offline_sync_cursor (
+    device_id VARCHAR(64) NOT NULL,
+    batch_id VARCHAR(64) NOT NULL,
+    next_offset INT NOT NULL,
+    total_events INT NULL,
+    updated_at DATETIME(3) NOT NULL,
+    PRIMARY KEY (device_id, batch_id)
+);
@@ -0,0 +1,22 @@
+-- Latest scan of each parcel (LatestScanProjection), upserted in the same transaction as the
+-- scan_event insert. Replaces per-parcel "ORDER BY timestamp DESC LIMIT 1" lookups on map,
+-- analytics and authorization paths with one primary-key or IN-list read.
+CREATE TABLE IF NOT EXISTS parcel_latest_scan (
+    parcel_id BINARY(16) NOT NULL,
+    scan_id BINARY(16) NOT NULL,
+    scanned_at TIMESTAMP NOT NULL,
+    actor_id VARCHAR(64) NULL,
+    PRIMARY KEY (parcel_id),
+    CONSTRAINT fk_latest_scan_parcel
+        FOREIGN KEY (parcel_id) REFERENCES parcel(parcel_id)
+        ON UPDATE CASCADE ON DELETE CASCADE
+);
+
+-- Backfill from existing scans; ties on timestamp keep the highest scan_id
+INSERT INTO parcel_latest_scan (parcel_id, scan_id, scanned_at, actor_id)
+SELECT e.parcel_id, e.scan_id, e.timestamp, e.actor_id
+FROM scan_event e
+JOIN (SELECT parcel_id, MAX(timestamp) AS last_at FROM scan_event GROUP BY parcel_id) m
+  ON m.parcel_id = e.parcel_id AND m.last_at = e.timestamp
+ON DUPLICATE KEY UPDATE actor_id = IF(VALUES(scan_id) > parcel_latest_scan.scan_id, VALUES(actor_id), parcel_latest_scan.actor_id),
+                        scan_id = GREATEST(parcel_latest_scan.scan_id, VALUES(scan_id));
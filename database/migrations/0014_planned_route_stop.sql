@@ -0,0 +1,20 @@
+-- Planned courier routes (FleetRoutePlanningService): one row per stop per courier per day,
+-- replaced per agency by each planning run and fetched by the courier app.
+CREATE TABLE IF NOT EXISTS planned_route_stop (
+    stop_id BINARY(16) NOT NULL,
+    plan_date DATE NOT NULL,
+    agency_id BINARY(16) NOT NULL,
+    courier_id BINARY(16) NOT NULL,
+    stop_sequence INT NOT NULL,
+    parcel_id BINARY(16) NOT NULL,
+    stop_type VARCHAR(20) NOT NULL,
+    latitude DOUBLE NOT NULL,
+    longitude DOUBLE NOT NULL,
+    leg_km DOUBLE NOT NULL,
+    planned_arrival_at TIMESTAMP NOT NULL,
+    late_minutes INT NOT NULL DEFAULT 0,
+    planned_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (stop_id),
+    KEY ix_planned_route_courier (courier_id, plan_date, stop_sequence),
+    KEY ix_planned_route_agency (agency_id, plan_date)
+);
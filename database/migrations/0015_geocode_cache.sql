@@ -0,0 +1,19 @@
+-- Geocoding results (Geocoder), keyed by the SHA-256 of the normalized address so every
+-- replica and restart reuses them; found = FALSE rows remember addresses Nominatim could not
+-- place until they are retried.
+CREATE TABLE IF NOT EXISTS geocode_cache (
+    address_hash CHAR(64) NOT NULL,
+    address VARCHAR(500) NOT NULL,
+    found BOOLEAN NOT NULL,
+    latitude DOUBLE NULL,
+    longitude DOUBLE NULL,
+    display_name VARCHAR(500) NULL,
+    geocoded_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (address_hash)
+);
+
+-- Agency position, backfilled by GeocodeBackfillJob; read by pricing instead of geocoding
+-- the agency on every quote.
+ALTER TABLE agency
+    ADD COLUMN latitude DECIMAL(9,6) NULL,
+    ADD COLUMN longitude DECIMAL(9,6) NULL;
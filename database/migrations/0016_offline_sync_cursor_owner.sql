@@ -0,0 +1,5 @@
+-- Owner of an offline sync batch: couriers and agents may only read the cursor of batches they
+-- uploaded (GET /api/offline/sync/cursor). Rows written before this column existed have no
+-- owner and are visible to staff only.
+ALTER TABLE offline_sync_cursor
+    ADD COLUMN IF NOT EXISTS actor_id VARCHAR(64) NULL;
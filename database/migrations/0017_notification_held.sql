@@ -0,0 +1,4 @@
+-- Digested parcel SMS are stored as HELD rows until the recipient's digest window closes
+-- (next_attempt_at), then either released as PENDING or folded into a digest and marked DIGESTED.
+ALTER TABLE notification
+    MODIFY status ENUM('PENDING','SENT','FAILED','HELD','DIGESTED') NOT NULL DEFAULT 'PENDING';
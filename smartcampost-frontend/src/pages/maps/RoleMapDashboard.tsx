@@ -289,7 +289,7 @@ export default function RoleMapDashboard() {
             .filter((r) => typeof r.latitude === "number" && typeof r.longitude === "number")
             .slice(0, 150)
             .map((r) => ({
-              id: `loc-${r.id}`,
+              id: `loc-${r.id ?? r.userId}`,
               position: [r.latitude as number, r.longitude as number],
               label: `📍 ${r.address ?? "GPS point"}`,
               type: "location" as MarkerType,
@@ -24,10 +24,13 @@ export interface ParcelMapResponse {
 }
 
 export interface RecentLocationResponse {
-  id: number;
-  userId?: number;
+  id?: number;
+  userId?: string;
   latitude?: number;
   longitude?: number;
+  speed?: number;
+  heading?: number;
+  source?: string;
   address?: string;
   timestamp?: string;
 }